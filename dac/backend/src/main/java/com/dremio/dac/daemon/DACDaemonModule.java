@@ -87,6 +87,7 @@ import com.dremio.exec.maestro.MaestroForwarder;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.maestro.MaestroServiceImpl;
 import com.dremio.exec.maestro.NoOpMaestroForwarder;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.planner.observer.QueryObserverFactory;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.rpc.RpcConstants;
@@ -220,6 +221,7 @@ import com.dremio.service.reflection.ReflectionService;
 import com.dremio.service.reflection.ReflectionServiceImpl;
 import com.dremio.service.reflection.ReflectionStatusService;
 import com.dremio.service.reflection.ReflectionStatusServiceImpl;
+import com.dremio.service.reflection.analysis.StatisticsServiceImpl;
 import com.dremio.service.scheduler.LocalSchedulerService;
 import com.dremio.service.scheduler.SchedulerService;
 import com.dremio.service.spill.SpillService;
@@ -907,10 +909,16 @@ public class DACDaemonModule implements DACModule {
       registry.bind(ReflectionService.class, reflectionService);
       registry.bind(ReflectionAdministrationService.Factory.class, (context) -> reflectionService);
       registry.replaceProvider(MaterializationDescriptorProvider.class, reflectionService::getMaterializationDescriptor);
+      registry.bind(StatisticsService.class, new StatisticsServiceImpl(
+        registry.provider(LegacyKVStoreProvider.class),
+        registry.provider(JobsService.class),
+        registry.provider(CatalogService.class),
+        bootstrap.getAllocator()));
       registry.replace(AccelerationManager.class, new AccelerationManagerImpl(
         registry.provider(ReflectionService.class),
         registry.provider(ReflectionAdministrationService.Factory.class),
-        namespaceServiceProvider));
+        namespaceServiceProvider,
+        registry.provider(StatisticsService.class)));
 
       final Provider<Collection<NodeEndpoint>> nodeEndpointsProvider = () -> sabotContextProvider.get().getExecutors();
 
@@ -391,7 +391,7 @@
       <#if model.profile.planPhasesCount != 0>
         <#list model.profile.planPhasesList as planPhase>
           <p>
-          ${planPhase.getPhaseName()} (${planPhase.getDurationMillis()} ms)<br />
+          ${planPhase.getPhaseName()} (${planPhase.getDurationMillis()} ms<#if planPhase.getCutShort()>, cut short by the planning budget</#if>)<br />
           <#if planPhase.plan?has_content><p><pre>${planPhase.plan}</pre></p></#if>
           <#if planPhase.plannerDump?has_content><p><pre>${planPhase.plannerDump}</pre></p></#if>
           <#if planPhase.hasSizeStats()><p><pre>${planPhase.sizeStats}</pre></p></#if>
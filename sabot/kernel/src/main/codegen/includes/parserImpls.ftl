@@ -425,6 +425,30 @@ SqlNode SqlTruncateTable() :
     }
 }
 
+/**
+ * Parses an ANALYZE TABLE statement
+ *   ANALYZE TABLE table_name COMPUTE STATISTICS [ FOR COLUMNS (field1, field2 ...) ]
+ */
+SqlNode SqlAnalyzeTableStatistics() :
+{
+    SqlParserPos pos;
+    SqlIdentifier tableName;
+    SqlNodeList columns = SqlNodeList.EMPTY;
+}
+{
+    <ANALYZE> { pos = getPos(); }
+    <TABLE>
+    tableName = CompoundIdentifier()
+    <COMPUTE> <STATISTICS>
+    [
+        <FOR> <COLUMNS>
+        { columns = ParseRequiredFieldList("Statistics"); }
+    ]
+    {
+        return new SqlAnalyzeTableStatistics(pos, tableName, columns);
+    }
+}
+
 /**
  * Parses a $REFRESH REFLECTION statement
  *   $REFRESH REFLECTION reflectionId AS materializationId
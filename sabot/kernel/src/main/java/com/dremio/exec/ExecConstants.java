@@ -57,6 +57,10 @@ public interface ExecConstants {
   String INCOMING_BUFFER_SIZE = "dremio.exec.buffer.size";
   String SPOOLING_BUFFER_DELETE = "dremio.exec.buffer.spooling.delete";
   String SPOOLING_BUFFER_SIZE = "dremio.exec.buffer.spooling.size";
+  /* number of threads shared by all spooling buffers to write and prefetch spooled batches */
+  String SPOOLING_BUFFER_IO_THREADS = "dremio.exec.buffer.spooling.io_threads";
+  /* number of spooled batches read back ahead of consumption */
+  String SPOOLING_BUFFER_PREFETCH = "dremio.exec.buffer.spooling.prefetch";
   String BATCH_PURGE_THRESHOLD = "dremio.exec.sort.purge.threshold";
   String SPILL_DIRS = "dremio.exec.sort.external.spill.directories";
   String HTTP_ENABLE = "dremio.exec.http.enabled";
@@ -139,6 +143,7 @@ public interface ExecConstants {
   BooleanValidator ENABLE_VECTORIZED_HASHAGG = new BooleanValidator("exec.operator.aggregate.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN = new BooleanValidator("exec.operator.join.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN_SPECIFIC = new BooleanValidator("exec.operator.join.vectorize.specific", false);
+  BooleanValidator ENABLE_VECTORIZED_MERGEJOIN = new BooleanValidator("exec.operator.join.merge.vectorize", false);
   BooleanValidator ENABLE_VECTORIZED_COPIER = new BooleanValidator("exec.operator.copier.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_PARTITIONER = new BooleanValidator("exec.operator.partitioner.vectorize", true);
   BooleanValidator DEBUG_HASHJOIN_INSERTION = new BooleanValidator("exec.operator.join.debug-insertion", false);
@@ -266,6 +271,8 @@ public interface ExecConstants {
   PositiveLongValidator MIN_HASH_TABLE_SIZE = new PositiveLongValidator(MIN_HASH_TABLE_SIZE_KEY, HashTable.MAXIMUM_CAPACITY, HashTable.DEFAULT_INITIAL_CAPACITY);
   String MAX_HASH_TABLE_SIZE_KEY = "exec.max_hash_table_size";
   PositiveLongValidator MAX_HASH_TABLE_SIZE = new PositiveLongValidator(MAX_HASH_TABLE_SIZE_KEY, HashTable.MAXIMUM_CAPACITY, HashTable.MAXIMUM_CAPACITY);
+  // number of keys whose hash table slots are prefetched together before being probed, 0 disables prefetching
+  LongValidator HASH_TABLE_PROBE_PREFETCH_GROUP = new RangeLongValidator("exec.operator.hashtable.probe_prefetch_group", 0, 256, 16);
 
   /**
    * Limits the maximum level of parallelization to this factor time the number of Nodes.
@@ -315,6 +322,11 @@ public interface ExecConstants {
 
   BooleanValidator USE_NEW_MEMORY_BOUNDED_BEHAVIOR = new BooleanValidator("planner.memory.new_bounding_algo", true);
 
+  // let the memory bound operators of a query borrow unused memory from each other at runtime instead of spilling
+  BooleanValidator ENABLE_MEMORY_ARBITER = new BooleanValidator("exec.memory.arbiter.enabled", true);
+  // memory granted at once to an operator by the arbiter, as a fraction of its planned limit
+  DoubleValidator MEMORY_ARBITER_GRANT_RATIO = new RangeDoubleValidator("exec.memory.arbiter.grant_ratio", 0.01, 1.0, 0.25);
+
   /**
    * Extra query memory per node for non-blocking operators.
    * NOTE: This option is currently used only for memory estimation.
@@ -341,6 +353,12 @@ public interface ExecConstants {
   String FRAGMENT_CODEC_KEY = "planner.fragment.codec";
   EnumValidator<FragmentCodec> FRAGMENT_CODEC = new EnumValidator<>(FRAGMENT_CODEC_KEY, FragmentCodec.class, FragmentCodec.SNAPPY);
 
+  /**
+   * Number of threads used by the foreman to generate and send the fragments of a query
+   */
+  String FRAGMENT_PARALLELISM_KEY = "planner.fragment.parallelism";
+  PositiveLongValidator FRAGMENT_PARALLELISM = new PositiveLongValidator(FRAGMENT_PARALLELISM_KEY, 64, 8);
+
   String ENABLE_VERBOSE_ERRORS_KEY = "exec.errors.verbose";
   OptionValidator ENABLE_VERBOSE_ERRORS = new BooleanValidator(ENABLE_VERBOSE_ERRORS_KEY, false);
 
@@ -401,6 +419,9 @@ public interface ExecConstants {
   LongValidator JOB_MAX_AGE_IN_DAYS = new LongValidator("jobs.max.age_in_days", 30);
   // At what hour of the day to do job cleanup - 0-23
   RangeLongValidator JOB_CLEANUP_START_HOUR = new RangeLongValidator("job.cleanup.start_at_hour", 0, 23, 1);
+  // Jobs older than this are rolled into per-day summary files and removed from the jobs store, -1 to disable.
+  // Summaries are kept until jobs.max.age_in_days.
+  LongValidator JOB_ARCHIVE_AGE_IN_DAYS = new LongValidator("jobs.archive.age_in_days", -1);
 
   //Configuration used for testing or debugging
   LongValidator DEBUG_RESULTS_MAX_AGE_IN_MILLISECONDS = new LongValidator("debug.results.max.age_in_milliseconds", 0);
@@ -415,6 +436,8 @@ public interface ExecConstants {
 
   BooleanValidator EXTERNAL_SORT_COMPRESS_SPILL_FILES = new BooleanValidator("exec.operator.sort.external.compress_spill_files", true);
   BooleanValidator EXTERNAL_SORT_ENABLE_SPLAY_SORT = new BooleanValidator("exec.operator.sort.external.enable_splay_sort", false);
+  // sort in-memory runs on binary comparable keys when ordering on plain columns, see NormalizedKeySorter
+  BooleanValidator EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT = new BooleanValidator("exec.operator.sort.external.enable_normalized_key_sort", false);
   BooleanValidator EXTERNAL_SORT_ENABLE_MICRO_SPILL = new BooleanValidator("exec.operator.sort.external.enable_micro_spill", true);
   PositiveLongValidator SORT_MAX_WRITE_BATCH = new PositiveLongValidator("exec.operator.sort.external.spill_batch_records", Character.MAX_VALUE, Character.MAX_VALUE);
   BooleanValidator EXTERNAL_SORT_ARROW_ENCODING = new BooleanValidator("exec.operator.sort.external.arrow_encoding", true);
@@ -452,6 +475,8 @@ public interface ExecConstants {
 
   BooleanValidator ENABLE_VECTORIZED_NOSPILL_VARCHAR_NDV_ACCUMULATOR = new BooleanValidator("exec.operator.vectorized_nospill.varchar_ndv", true);
 
+  BooleanValidator ENABLE_VECTORIZED_SPILL_NDV_ACCUMULATOR = new BooleanValidator("exec.operator.vectorized_spill.ndv", false);
+
   BooleanValidator TRIM_ROWGROUPS_FROM_FOOTER = new BooleanValidator("exec.parquet.memory.trim_rowgroups", true);
   BooleanValidator TRIM_COLUMNS_FROM_ROW_GROUP = new BooleanValidator("exec.parquet.memory.trim_columns", true);
 
@@ -513,4 +538,12 @@ public interface ExecConstants {
 
   // Use this as a factor to scale the rowcount estimation of number of rows in a data file
   DoubleValidator DELTALAKE_ROWCOUNT_ESTIMATION_FACTOR = new RangeDoubleValidator("store.delta.rowcount_estimation_factor", 0.8d, 2.0d, 1.25d);
+
+  // Results of queries streamed to clients are kept by the coordinator, and served again to identical queries as long
+  // as the datasets they read are unchanged
+  BooleanValidator RESULT_CACHE_ENABLED = new BooleanValidator("coordinator.result_cache.enabled", false);
+  PositiveLongValidator RESULT_CACHE_MAX_SIZE_BYTES = new PositiveLongValidator("coordinator.result_cache.max_size_bytes", Long.MAX_VALUE, 1L << 30);
+  PositiveLongValidator RESULT_CACHE_MAX_ENTRY_SIZE_BYTES = new PositiveLongValidator("coordinator.result_cache.max_entry_size_bytes", Integer.MAX_VALUE, 64L << 20);
+  // results being captured by all the running queries, above which new results are not cached
+  PositiveLongValidator RESULT_CACHE_MAX_CAPTURED_BYTES = new PositiveLongValidator("coordinator.result_cache.max_captured_bytes", Long.MAX_VALUE, 256L << 20);
 }
@@ -76,6 +76,10 @@ public abstract class AbstractMaestroObserver implements MaestroObserver {
   public void planGenerationTime(long millisTaken) {
   }
 
+  @Override
+  public void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis) {
+  }
+
   @Override
   public void planAssignmentTime(long millisTaken) {
   }
@@ -17,6 +17,7 @@ package com.dremio.exec.maestro;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -24,6 +25,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import com.dremio.common.concurrent.ExtendedLatch;
@@ -94,14 +96,30 @@ class FragmentStarter {
   private final ExecutorServiceClientFactory executorServiceClientFactory;
   private final ResourceSchedulingDecisionInfo resourceSchedulingDecisionInfo;
   private final ExecutionControls executionControls;
+  private final Executor executor;
+  private final int parallelism;
   private MaestroObserver observer = null;
 
   public FragmentStarter(ExecutorServiceClientFactory executorServiceClientFactory,
                          ResourceSchedulingDecisionInfo resourceSchedulingDecisionInfo,
                          ExecutionControls executionControls) {
+    this(executorServiceClientFactory, resourceSchedulingDecisionInfo, executionControls, null, 1);
+  }
+
+  /**
+   * @param executor used to build and send the start rpcs of several endpoints at once, may be null
+   * @param parallelism maximum number of threads building and sending the start rpcs
+   */
+  public FragmentStarter(ExecutorServiceClientFactory executorServiceClientFactory,
+                         ResourceSchedulingDecisionInfo resourceSchedulingDecisionInfo,
+                         ExecutionControls executionControls,
+                         Executor executor,
+                         int parallelism) {
     this.executorServiceClientFactory = executorServiceClientFactory;
     this.resourceSchedulingDecisionInfo = resourceSchedulingDecisionInfo;
     this.executionControls = executionControls;
+    this.executor = executor;
+    this.parallelism = parallelism;
   }
 
   public void start(ExecutionPlan plan, MaestroObserver observer) {
@@ -171,13 +189,15 @@ class FragmentStarter {
 
     PlanFragmentStats stats = new PlanFragmentStats();
     Stopwatch stopwatch = Stopwatch.createStarted();
-    // send rpcs to start fragments
-    for (final NodeEndpoint ep : fragmentMap.keySet()) {
+    // send rpcs to start fragments. The messages are serialized by the sending thread, so the rpcs to different
+    // endpoints are built and sent in parallel, and the first executors start setting up while the others are sent.
+    ParallelTasks.map(new ArrayList<>(fragmentMap.keySet()), ep -> {
       final List<MinorAttr> sharedAttrs =
         plan.getIndexBuilder().getSharedAttrsIndexBuilder(ep).getAllAttrs();
       sendStartFragments(ep, fragmentMap.get(ep), endpointsIndex, sharedAttrs,
         endpointLatch, fragmentSubmitFailures, stats, fragmentSubmitSuccess);
-    }
+      return null;
+    }, parallelism, executor);
 
     final long timeout = Long.max(RPC_WAIT_IN_MSECS_PER_FRAGMENT * numFragments, RPC_MIN_WAIT_IN_MSECS);
     if (numFragments > 0 && !endpointLatch.awaitUninterruptibly(timeout)){
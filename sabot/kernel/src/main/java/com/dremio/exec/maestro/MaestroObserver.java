@@ -87,6 +87,14 @@ public interface MaestroObserver {
    */
   void planGenerationTime(long millisTaken);
 
+  /**
+   * Time spent generating fragments, broken down by step and cumulated over the threads generating them.
+   * @param threads number of threads generating fragments
+   * @param materializationMillis time taken to materialize the minor fragments, in milliseconds
+   * @param serializationMillis time taken to serialize the fragments and their attributes, in milliseconds
+   */
+  void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis);
+
   /**
    * The decisions for distribution of work are completed.
    * @param unit The distribution decided for each node.
@@ -109,6 +109,13 @@ public class MaestroObservers implements MaestroObserver {
     }
   }
 
+  @Override
+  public void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis) {
+    for (final MaestroObserver observer : chain) {
+      observer.planGenerationBreakdown(threads, materializationMillis, serializationMillis);
+    }
+  }
+
   @Override
   public void plansDistributionComplete(QueryWorkUnit unit) {
     for (final MaestroObserver observer : chain) {
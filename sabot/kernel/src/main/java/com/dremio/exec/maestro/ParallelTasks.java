@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.maestro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Runs the foreman setup work of a query, like generating or sending plan fragments, on several threads.
+ *
+ * The calling thread takes part in the work, so the work completes even if the executor has no thread to spare.
+ */
+public final class ParallelTasks {
+
+  /**
+   * Work done for one item.
+   */
+  @FunctionalInterface
+  public interface Task<T, R, E extends Exception> {
+    R apply(T item) throws E;
+  }
+
+  private ParallelTasks() {
+  }
+
+  /**
+   * Applies the task to each item, on up to {@code parallelism} threads.
+   *
+   * @return the results, in the order of the items
+   * @throws E the first failure of the task, the remaining items are skipped
+   */
+  @SuppressWarnings("unchecked")
+  public static <T, R, E extends Exception> List<R> map(List<T> items, Task<T, R, E> task, int parallelism,
+                                                        Executor executor) throws E {
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    final int threads = Math.min(parallelism, items.size());
+    if (threads <= 1 || executor == null) {
+      final List<R> results = new ArrayList<>(items.size());
+      for (T item : items) {
+        results.add(task.apply(item));
+      }
+      return results;
+    }
+
+    final Object[] results = new Object[items.size()];
+    final AtomicInteger next = new AtomicInteger();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Runnable worker = () -> {
+      int i;
+      while (failure.get() == null && (i = next.getAndIncrement()) < results.length) {
+        try {
+          results[i] = task.apply(items.get(i));
+        } catch (Exception | Error e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    };
+
+    // a helper thread only runs if it starts before the calling thread ran out of work
+    final List<AtomicBoolean> helpers = new ArrayList<>(threads - 1);
+    final CountDownLatch helpersDone = new CountDownLatch(threads - 1);
+    for (int i = 1; i < threads; i++) {
+      final AtomicBoolean claimed = new AtomicBoolean();
+      try {
+        executor.execute(() -> {
+          if (claimed.compareAndSet(false, true)) {
+            try {
+              worker.run();
+            } finally {
+              helpersDone.countDown();
+            }
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // the calling thread does the remaining work
+        claimed.set(true);
+        helpersDone.countDown();
+      }
+      helpers.add(claimed);
+    }
+    worker.run();
+    for (AtomicBoolean claimed : helpers) {
+      if (claimed.compareAndSet(false, true)) {
+        helpersDone.countDown();
+      }
+    }
+    awaitUninterruptibly(helpersDone);
+
+    final Throwable e = failure.get();
+    if (e != null) {
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+      if (e instanceof Error) {
+        throw (Error) e;
+      }
+      throw (E) e;
+    }
+    return (List<R>) Arrays.asList(results);
+  }
+
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        latch.await();
+        break;
+      } catch (InterruptedException e) {
+        // the helpers are still working on the items, don't leave them behind
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
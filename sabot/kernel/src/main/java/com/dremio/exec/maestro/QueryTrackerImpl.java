@@ -18,6 +18,7 @@ package com.dremio.exec.maestro;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.concurrent.CloseableSchedulerThreadPool;
 import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.maestro.planner.ExecutionPlanCreator;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.physical.PhysicalPlan;
@@ -41,6 +42,7 @@ import com.dremio.service.executor.ExecutorServiceClientFactory;
 import com.dremio.service.jobtelemetry.JobTelemetryClient;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
 
 public class QueryTrackerImpl implements QueryTracker {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(QueryTrackerImpl.class);
@@ -147,7 +149,9 @@ public class QueryTrackerImpl implements QueryTracker {
     try {
       FragmentStarter starter = new FragmentStarter(executorServiceClientFactory,
         resourceTracker.getResourceSchedulingDecisionInfo(),
-        context.getExecutionControls());
+        context.getExecutionControls(),
+        context.getExecutorService(),
+        Ints.saturatedCast(context.getOptions().getOption(ExecConstants.FRAGMENT_PARALLELISM)));
       starter.start(executionPlan, MaestroObservers.of(observer, fragmentActivateObserver));
       executionPlan = null; // no longer needed
 
@@ -49,6 +49,7 @@ import com.dremio.exec.expr.fn.FunctionImplementationRegistry;
 import com.dremio.exec.planner.PlannerPhase;
 import com.dremio.exec.planner.acceleration.substitution.DefaultSubstitutionProviderFactory;
 import com.dremio.exec.planner.acceleration.substitution.SubstitutionProviderFactory;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.sql.OperatorTable;
 import com.dremio.exec.proto.CoordExecRPC.QueryContextInformation;
@@ -182,6 +183,11 @@ public class QueryContext implements AutoCloseable, ResourceSchedulingContext, O
     this.executionControls = new ExecutionControls(optionManager, sabotContext.getEndpoint());
     this.plannerSettings = new PlannerSettings(sabotContext.getConfig(), optionManager,
       () -> groupResourceInformation, executionControls);
+    final AccelerationManager accelerationManager = sabotContext.getAccelerationManager();
+    final StatisticsService statisticsService = accelerationManager == null ? null : accelerationManager.unwrap(StatisticsService.class);
+    if (statisticsService != null) {
+      this.plannerSettings.setStatisticsService(statisticsService);
+    }
     functionImplementationRegistry = this.optionManager.getOption(PlannerSettings
       .ENABLE_DECIMAL_V2)? sabotContext.getDecimalFunctionImplementationRegistry() : sabotContext
       .getFunctionImplementationRegistry();
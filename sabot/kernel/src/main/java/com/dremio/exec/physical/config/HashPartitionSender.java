@@ -39,6 +39,8 @@ public class HashPartitionSender extends AbstractSender implements OpWithMinorSp
 
   private List<MinorFragmentIndexEndpoint> destinations;
   private final LogicalExpression expr;
+  // true if the receivers don't need all the rows of a key, so heavy hitters can be spread over several of them
+  private final boolean spreadSkewedKeys;
 
   public HashPartitionSender(
     OpProps props,
@@ -47,10 +49,23 @@ public class HashPartitionSender extends AbstractSender implements OpWithMinorSp
     int receiverMajorFragmentId,
     List<MinorFragmentIndexEndpoint> destinations,
     LogicalExpression expr
+  ) {
+    this(props, schema, child, receiverMajorFragmentId, destinations, expr, false);
+  }
+
+  public HashPartitionSender(
+    OpProps props,
+    BatchSchema schema,
+    PhysicalOperator child,
+    int receiverMajorFragmentId,
+    List<MinorFragmentIndexEndpoint> destinations,
+    LogicalExpression expr,
+    boolean spreadSkewedKeys
   ) {
     super(props, schema, child, receiverMajorFragmentId);
     this.destinations = destinations;
     this.expr = expr;
+    this.spreadSkewedKeys = spreadSkewedKeys;
   }
 
   @JsonCreator
@@ -59,20 +74,25 @@ public class HashPartitionSender extends AbstractSender implements OpWithMinorSp
       @JsonProperty("schema") BatchSchema schema,
       @JsonProperty("child") PhysicalOperator child,
       @JsonProperty("receiverMajorFragmentId") int receiverMajorFragmentId,
-      @JsonProperty("expr") LogicalExpression expr
+      @JsonProperty("expr") LogicalExpression expr,
+      @JsonProperty("spreadSkewedKeys") boolean spreadSkewedKeys
       ) {
-    this(props, schema, child, receiverMajorFragmentId, null, expr);
+    this(props, schema, child, receiverMajorFragmentId, null, expr, spreadSkewedKeys);
   }
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashPartitionSender(props, schema, child, receiverMajorFragmentId, destinations, expr);
+    return new HashPartitionSender(props, schema, child, receiverMajorFragmentId, destinations, expr, spreadSkewedKeys);
   }
 
   public LogicalExpression getExpr() {
     return expr;
   }
 
+  public boolean isSpreadSkewedKeys() {
+    return spreadSkewedKeys;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E {
     return physicalVisitor.visitHashPartitionSender(this, value);
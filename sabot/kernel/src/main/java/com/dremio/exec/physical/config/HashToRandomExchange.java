@@ -41,6 +41,7 @@ public class HashToRandomExchange extends AbstractExchange {
 
   private final BucketOptions options;
   private final LogicalExpression expr;
+  private final boolean spreadSkewedKeys;
 
   public HashToRandomExchange(
       OpProps props,
@@ -49,16 +50,18 @@ public class HashToRandomExchange extends AbstractExchange {
       BucketOptions options,
       BatchSchema schema,
       PhysicalOperator child,
-      LogicalExpression expr) {
+      LogicalExpression expr,
+      boolean spreadSkewedKeys) {
     super(props, senderProps, receiverProps, schema, child);
     this.options = options;
     this.expr = expr;
+    this.spreadSkewedKeys = spreadSkewedKeys;
   }
 
   @Override
   public Sender getSender(int minorFragmentId, PhysicalOperator child, EndpointsIndex.Builder indexBuilder) {
     final List<MinorFragmentIndexEndpoint> dest = PhysicalOperatorUtil.getIndexOrderedEndpoints(receiverLocations, indexBuilder);
-    return new HashPartitionSender(options.getResult(senderProps, dest.size()), schema, child, receiverMajorFragmentId, dest, expr);
+    return new HashPartitionSender(options.getResult(senderProps, dest.size()), schema, child, receiverMajorFragmentId, dest, expr, spreadSkewedKeys);
   }
 
   @Override
@@ -68,11 +71,16 @@ public class HashToRandomExchange extends AbstractExchange {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new HashToRandomExchange(props, senderProps, receiverProps, options, schema, child, expr);
+    return new HashToRandomExchange(props, senderProps, receiverProps, options, schema, child, expr, spreadSkewedKeys);
   }
 
   @JsonProperty("expr")
   public LogicalExpression getExpression(){
     return expr;
   }
+
+  @JsonProperty("spreadSkewedKeys")
+  public boolean isSpreadSkewedKeys() {
+    return spreadSkewedKeys;
+  }
 }
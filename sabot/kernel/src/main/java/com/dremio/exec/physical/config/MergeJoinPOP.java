@@ -39,6 +39,17 @@ public class MergeJoinPOP extends AbstractBase{
   private final PhysicalOperator right;
   private final List<JoinCondition> conditions;
   private final JoinRelType joinType;
+  private final boolean vectorize;
+
+  public MergeJoinPOP(
+      OpProps props,
+      PhysicalOperator left,
+      PhysicalOperator right,
+      List<JoinCondition> conditions,
+      JoinRelType joinType
+      ) {
+    this(props, left, right, conditions, joinType, false);
+  }
 
   @JsonCreator
   public MergeJoinPOP(
@@ -46,7 +57,8 @@ public class MergeJoinPOP extends AbstractBase{
       @JsonProperty("left") PhysicalOperator left,
       @JsonProperty("right") PhysicalOperator right,
       @JsonProperty("conditions") List<JoinCondition> conditions,
-      @JsonProperty("joinType") JoinRelType joinType
+      @JsonProperty("joinType") JoinRelType joinType,
+      @JsonProperty("vectorize") boolean vectorize
       ) {
     super(props);
     this.left = left;
@@ -54,6 +66,7 @@ public class MergeJoinPOP extends AbstractBase{
     this.conditions = conditions;
     Preconditions.checkArgument(joinType != null, "Join type is missing!");
     this.joinType = joinType;
+    this.vectorize = vectorize;
   }
 
   @Override
@@ -64,7 +77,7 @@ public class MergeJoinPOP extends AbstractBase{
   @Override
   public PhysicalOperator getNewWithChildren(List<PhysicalOperator> children) {
     Preconditions.checkArgument(children.size() == 2);
-    return new MergeJoinPOP(props, children.get(0), children.get(1), conditions, joinType);
+    return new MergeJoinPOP(props, children.get(0), children.get(1), conditions, joinType, vectorize);
   }
 
   @Override
@@ -88,6 +101,10 @@ public class MergeJoinPOP extends AbstractBase{
     return conditions;
   }
 
+  public boolean isVectorize() {
+    return vectorize;
+  }
+
   @Override
   public int getOperatorType() {
     return CoreOperatorType.MERGE_JOIN_VALUE;
@@ -21,6 +21,7 @@ import com.dremio.common.logical.data.Order.Ordering;
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.base.PhysicalVisitor;
+import com.dremio.exec.planner.physical.filter.RuntimeFilterEntry;
 import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -30,6 +31,12 @@ import com.fasterxml.jackson.annotation.JsonTypeName;
 public class TopN extends AbstractSort {
 
   private final int limit;
+  // scan producing the first sort key, the probe field is the scan column and the build field the TopN input column
+  private final RuntimeFilterEntry thresholdTarget;
+
+  public TopN(OpProps props, PhysicalOperator child, int limit, List<Ordering> orderings, boolean reverse) {
+    this(props, child, limit, orderings, reverse, null);
+  }
 
   @JsonCreator
   public TopN(
@@ -37,10 +44,12 @@ public class TopN extends AbstractSort {
       @JsonProperty("child") PhysicalOperator child,
       @JsonProperty("limit") int limit,
       @JsonProperty("orderings") List<Ordering> orderings,
-      @JsonProperty("reverse") boolean reverse
+      @JsonProperty("reverse") boolean reverse,
+      @JsonProperty("thresholdTarget") RuntimeFilterEntry thresholdTarget
       ) {
     super(props, child, orderings, reverse);
     this.limit = limit;
+    this.thresholdTarget = thresholdTarget;
   }
 
   @Override
@@ -57,6 +66,10 @@ public class TopN extends AbstractSort {
     return limit;
   }
 
+  public RuntimeFilterEntry getThresholdTarget() {
+    return thresholdTarget;
+  }
+
   @Override
   public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value) throws E{
     return physicalVisitor.visitSort(this, value);
@@ -64,7 +77,7 @@ public class TopN extends AbstractSort {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new TopN(props, child, limit, orderings, reverse);
+    return new TopN(props, child, limit, orderings, reverse, thresholdTarget);
   }
 
   @Override
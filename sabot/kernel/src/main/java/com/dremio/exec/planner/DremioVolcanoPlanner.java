@@ -22,7 +22,9 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.calcite.plan.Context;
 import org.apache.calcite.plan.ConventionTraitDef;
+import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptCostFactory;
+import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.volcano.VolcanoPlanner;
 import org.apache.calcite.rel.RelCollationTraitDef;
 import org.apache.calcite.rel.RelNode;
@@ -55,6 +57,7 @@ public class DremioVolcanoPlanner extends VolcanoPlanner {
   private RelNode originalRoot;
   private PlannerPhase phase;
   private MaxNodesListener listener;
+  private boolean budgetExceeded;
   private final ExecutionControls executionControls;
   private final PlannerSettings plannerSettings;
 
@@ -91,6 +94,7 @@ public class DremioVolcanoPlanner extends VolcanoPlanner {
     try {
       cancelFlag.reset();
       listener.reset();
+      budgetExceeded = false;
       return super.findBestExp();
     } catch(RuntimeException ex) {
       // if the planner is hiding a UserException, bubble it's message to the top.
@@ -151,6 +155,23 @@ public class DremioVolcanoPlanner extends VolcanoPlanner {
     }
   }
 
+  /**
+   * Once the planning budget is exceeded and an implementable plan has been found, stops firing rules
+   * so that the phase completes with the best plan found so far.
+   */
+  @Override
+  public boolean isRuleExcluded(RelOptRule rule) {
+    if (!budgetExceeded && phase != null && getRoot() != null && plannerSettings.isPlanningBudgetExceeded()) {
+      final RelOptCost bestCost = getCost(getRoot(), getRoot().getCluster().getMetadataQuery());
+      if (bestCost != null && !bestCost.isInfinite()) {
+        logger.debug("Planning budget exceeded during {}, keeping the best plan found so far with cost {}", phase, bestCost);
+        budgetExceeded = true;
+        plannerSettings.cutShort(phase);
+      }
+    }
+    return budgetExceeded || super.isRuleExcluded(rule);
+  }
+
   @Override
   public RelNode getOriginalRoot() {
     return originalRoot;
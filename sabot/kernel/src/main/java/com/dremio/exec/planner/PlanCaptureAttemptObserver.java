@@ -44,6 +44,7 @@ import com.dremio.exec.planner.acceleration.substitution.SubstitutionInfo;
 import com.dremio.exec.planner.acceleration.substitution.SubstitutionInfo.Substitution;
 import com.dremio.exec.planner.logical.ViewTable;
 import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.serialization.RelSerializerFactory;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
@@ -320,6 +321,11 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
         .setDurationMillis(millisTakenFinalize)
         .setPlan(planAsString);
 
+    final PlannerSettings plannerSettings = planner == null ? null : planner.getContext().unwrap(PlannerSettings.class);
+    if (plannerSettings != null && plannerSettings.isCutShort(phase)) {
+      b.setCutShort(true);
+    }
+
     // dump state of volcano planner to troubleshoot costing issues (or long planning issues).
     if (verbose || noTransform) {
       final String dump = getPlanDump(planner);
@@ -440,6 +446,21 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
       .build());
   }
 
+  @Override
+  public void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis) {
+    final String details = String.format("cumulated over %d thread(s)", threads);
+    planPhases.add(PlanPhaseProfile.newBuilder()
+      .setPhaseName("Execution Plan: Fragment Materialization")
+      .setDurationMillis(materializationMillis)
+      .setPlan(details)
+      .build());
+    planPhases.add(PlanPhaseProfile.newBuilder()
+      .setPhaseName("Execution Plan: Fragment Serialization")
+      .setDurationMillis(serializationMillis)
+      .setPlan(details)
+      .build());
+  }
+
   @Override
   public void planAssignmentTime(long millisTaken) {
     planPhases.add(PlanPhaseProfile.newBuilder()
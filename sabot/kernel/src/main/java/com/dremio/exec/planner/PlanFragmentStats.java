@@ -60,22 +60,28 @@ public class PlanFragmentStats {
   }
 
   public void add(NodeEndpoint endPoint, InitializeFragments initializeFragments) {
+    // The start rpcs of different end-points can be built in parallel, compute the sizes before taking the lock.
+    final int size = initializeFragments.getSerializedSize();
+    PlanFragmentSet set = initializeFragments.getFragmentSet();
+    final Map<Integer, Integer> minorSizeByMajor = new HashMap<>();
+    for (PlanFragmentMinor minor : set.getMinorList()) {
+      minorSizeByMajor.merge(minor.getMajorFragmentId(), minor.getSerializedSize(), Integer::sum);
+    }
+
+    synchronized (this) {
+      add(set, size, minorSizeByMajor);
+    }
+  }
+
+  private void add(PlanFragmentSet set, int size, Map<Integer, Integer> minorSizeByMajor) {
     // Update combined size (can be different for each end-point).
-    combinedSize.accept(initializeFragments.getSerializedSize());
+    combinedSize.accept(size);
 
     // Update per-major stats.
-    PlanFragmentSet set = initializeFragments.getFragmentSet();
     for (PlanFragmentMajor major : set.getMajorList()) {
       int majorId = major.getHandle().getMajorFragmentId();
       addFragmentSize(true, majorId, major.getSerializedSize());
-
-      int minorSize = 0;
-      for (PlanFragmentMinor minor : set.getMinorList()) {
-        if (minor.getMajorFragmentId() == majorId) {
-          minorSize += minor.getSerializedSize();
-        }
-      }
-      addFragmentSize(false, majorId, minorSize);
+      addFragmentSize(false, majorId, minorSizeByMajor.getOrDefault(majorId, 0));
     }
 
     // update attribute sizes, group-by key. Do this only once.
@@ -98,7 +104,7 @@ public class PlanFragmentStats {
     }
   }
 
-  public FragmentRpcSizeStats getSummary() {
+  public synchronized FragmentRpcSizeStats getSummary() {
     FragmentRpcSizeStats.Builder stats = FragmentRpcSizeStats.newBuilder();
 
     stats.setSizePerNode((int)combinedSize.getAverage());
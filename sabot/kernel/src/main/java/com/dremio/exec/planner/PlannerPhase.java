@@ -76,6 +76,7 @@ import com.dremio.exec.planner.logical.AggregateRule;
 import com.dremio.exec.planner.logical.CompositeFilterJoinRule;
 import com.dremio.exec.planner.logical.Conditions;
 import com.dremio.exec.planner.logical.CorrelateRule;
+import com.dremio.exec.planner.logical.DremioAggregateJoinTransposeRule;
 import com.dremio.exec.planner.logical.DremioAggregateReduceFunctionsRule;
 import com.dremio.exec.planner.logical.DremioProjectJoinTransposeRule;
 import com.dremio.exec.planner.logical.DremioRelFactories;
@@ -330,7 +331,11 @@ public enum PlannerPhase {
 
       // Check if multi-join optimization has been enabled
       if (context.getPlannerSettings().isJoinOptimizationEnabled()) {
-        if (context.getPlannerSettings().isExperimentalBushyJoinOptimizerEnabled()) {
+        if (context.getPlannerSettings().isPlanningBudgetExceeded()) {
+          // planning already went over budget, keep the join order of the query
+          context.getPlannerSettings().cutShort(this);
+          builder.add(LOPT_UNOPTIMIZE_JOIN_RULE);
+        } else if (context.getPlannerSettings().isExperimentalBushyJoinOptimizerEnabled()) {
           builder.add(MULTI_JOIN_OPTIMIZE_BUSHY_RULE);
         } else {
           builder.add(LOPT_OPTIMIZE_JOIN_RULE);
@@ -370,6 +375,10 @@ public enum PlannerPhase {
         moreRules.add(ProjectRemoveRule.INSTANCE);
       }
 
+      if(context.getPlannerSettings().isAggJoinTransposeEnabled()) {
+        moreRules.add(DremioAggregateJoinTransposeRule.INSTANCE);
+      }
+
       moreRules.add(ExternalQueryScanRule.INSTANCE);
 
       return PlannerPhase.mergedRuleSets(LOGICAL_RULE_SET, RuleSets.ofList(moreRules));
@@ -17,6 +17,7 @@ package com.dremio.exec.planner.acceleration;
 
 import static com.dremio.exec.planner.logical.RelBuilder.newCalciteRelBuilderWithoutContext;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -47,10 +48,14 @@ import org.slf4j.LoggerFactory;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.types.MinorType;
+import com.dremio.exec.calcite.logical.ScanCrel;
 import com.dremio.exec.planner.StatelessRelShuttleImpl;
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.store.iceberg.IcebergSnapshotDiff;
 import com.dremio.proto.model.UpdateId;
 import com.dremio.service.Pointer;
 import com.google.common.base.Function;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
@@ -83,6 +88,9 @@ public class IncrementalUpdateUtils {
       if (refreshField == null) {
         // Check if the field exist as part of the schema
         newScan = scan.projectInvisibleColumn(refreshColumn);
+        if (newScan == null && UPDATE_COLUMN.equals(refreshColumn) && isIcebergScan(scan)) {
+          return addSnapshotColumn(scan);
+        }
         if (newScan == null) {
           throw UserException.dataReadError()
               .message("Table does not include column identified for incremental update of name '%s'.", refreshColumn)
@@ -129,6 +137,32 @@ public class IncrementalUpdateUtils {
 
     protected abstract RexNode refreshRex(RelBuilder relBuilder);
 
+    /**
+     * Iceberg tables have no modification time column, the update column holds the snapshot the rows were read from
+     * instead.
+     */
+    private RelNode addSnapshotColumn(IncrementallyUpdateable scan) {
+      final RelBuilder relBuilder = newCalciteRelBuilderWithoutContext(scan.getCluster());
+      final RelDataTypeFactory typeFactory = scan.getCluster().getTypeFactory();
+      final RelDataType type = typeFactory.createTypeWithNullability(typeFactory.createSqlType(SqlTypeName.BIGINT), true);
+
+      relBuilder.push(scan);
+
+      List<String> newFieldNames = ImmutableList.<String>builder().addAll(scan.getRowType().getFieldNames()).add(UPDATE_COLUMN).build();
+
+      Iterable<RexNode> projects = Stream.concat(
+          scan.getRowType().getFieldNames().stream().map(relBuilder::field),
+          Stream.of(snapshotRex(relBuilder.getRexBuilder(), type)))
+          .collect(Collectors.toList());
+      relBuilder.project(projects, newFieldNames);
+
+      return relBuilder.build();
+    }
+
+    protected RexNode snapshotRex(RexBuilder rexBuilder, RelDataType type) {
+      return rexBuilder.makeNullLiteral(type);
+    }
+
 
     @Override
     public RelNode visit(final LogicalFilter filter) {
@@ -321,6 +355,53 @@ public class IncrementalUpdateUtils {
     }
   }
 
+  /**
+   * Updates the plan of an incremental materialization over an Iceberg table so that it only reads the data files
+   * added since the previous refresh. The update column holds the snapshot that was read.
+   */
+  public static class SnapshotMaterializationShuttle extends MaterializationShuttle {
+    private final IcebergSnapshotDiff diff;
+    private final boolean incremental;
+
+    /**
+     * @param diff changes made to the table since the previous refresh, null if unknown
+     * @param incremental true to only read the data files added by the diff, false to read the whole table
+     */
+    public SnapshotMaterializationShuttle(IcebergSnapshotDiff diff, boolean incremental) {
+      super(UPDATE_COLUMN, new UpdateId());
+      Preconditions.checkArgument(!incremental || (diff != null && diff.isAppendOnly()),
+        "incremental refresh requires an append only diff");
+      this.diff = diff;
+      this.incremental = incremental;
+    }
+
+    @Override
+    public RelNode visit(TableScan tableScan) {
+      if (!(tableScan instanceof ScanCrel) || !isIcebergScan(tableScan)) {
+        return super.visit(tableScan);
+      }
+
+      ScanCrel scan = (ScanCrel) tableScan;
+      if (incremental) {
+        scan = new ScanCrel(scan.getCluster(), scan.getTraitSet(), scan.getPluginId(), diff.prune(scan.getTableMetadata()),
+          scan.getProjectedColumns(), scan.getObservedRowcountAdjustment(), false);
+      }
+      return updateScan(scan);
+    }
+
+    @Override
+    protected RexNode snapshotRex(RexBuilder rexBuilder, RelDataType type) {
+      if (diff == null) {
+        return super.snapshotRex(rexBuilder, type);
+      }
+      return rexBuilder.makeBigintLiteral(BigDecimal.valueOf(diff.getSnapshotId()));
+    }
+  }
+
+  private static boolean isIcebergScan(RelNode scan) {
+    return scan instanceof ScanRelBase && IcebergSnapshotDiff.isIcebergTable(((ScanRelBase) scan).getTableMetadata());
+  }
+
   public static final AddModTimeShuttle ADD_MOD_TIME_SHUTTLE = new AddModTimeShuttle();
 
   public static class AddModTimeShuttle extends StatelessRelShuttleImpl {
@@ -21,8 +21,11 @@ import java.util.Objects;
 import java.util.Set;
 
 import org.apache.calcite.plan.RelOptMaterialization;
+import org.apache.calcite.rel.RelNode;
 
+import com.dremio.exec.planner.acceleration.substitution.MaterializationIndex;
 import com.dremio.exec.planner.acceleration.substitution.MaterializationProvider;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.server.MaterializationDescriptorProvider;
 import com.dremio.sabot.rpc.user.UserSession;
@@ -45,6 +48,9 @@ public class MaterializationList implements MaterializationProvider {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MaterializationList.class);
 
   private final Map<TablePath, MaterializationDescriptor> mapping = Maps.newHashMap();
+  // expanded materializations by descriptor, absent if excluded or failed to expand
+  private final Map<MaterializationDescriptor, Optional<DremioMaterialization>> expanded = Maps.newLinkedHashMap();
+  private final List<DremioMaterialization> defaultRawMaterializations = Lists.newArrayList();
   private final Supplier<List<DremioMaterialization>> factory = Suppliers.memoize(new Supplier<List<DremioMaterialization>>() {
     @Override
     public List<DremioMaterialization> get() {
@@ -88,6 +94,37 @@ public class MaterializationList implements MaterializationProvider {
     return Optional.fromNullable(descriptor);
   }
 
+  /**
+   * Returns the materializations that may substitute part of the given query.
+   *
+   * Only the candidates returned by the provider are expanded, which avoids expanding all the materializations when
+   * the provider indexes them.
+   */
+  @Override
+  public List<DremioMaterialization> getApplicableMaterializations(RelNode query) {
+    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    for (final MaterializationDescriptor descriptor : provider.get(MaterializationIndex.Signature.of(query))) {
+      final DremioMaterialization materialization = expand(descriptor);
+      if (materialization != null) {
+        materializations.add(materialization);
+      }
+    }
+    return SubstitutionUtils.findApplicableMaterializations(query, materializations);
+  }
+
+  /**
+   * Returns the materializations expanded so far, that is the ones considered for substitution.
+   */
+  public List<DremioMaterialization> getConsideredMaterializations() {
+    final List<DremioMaterialization> materializations = Lists.newArrayList(defaultRawMaterializations);
+    for (Optional<DremioMaterialization> materialization : expanded.values()) {
+      if (materialization.isPresent()) {
+        materializations.add(materialization.get());
+      }
+    }
+    return materializations;
+  }
+
   /**
    * Builds materialization table from the given provider and returns list of available materializations.
    *
@@ -96,33 +133,47 @@ public class MaterializationList implements MaterializationProvider {
    */
   @VisibleForTesting
   protected List<DremioMaterialization> build(final MaterializationDescriptorProvider provider) {
-    final Set<String> exclusions = Sets.newHashSet(session.getSubstitutionSettings().getExclusions());
-    final Set<String> inclusions = Sets.newHashSet(session.getSubstitutionSettings().getInclusions());
-    final boolean hasInclusions = !inclusions.isEmpty();
     final List<DremioMaterialization> materializations = Lists.newArrayList();
     for (final MaterializationDescriptor descriptor : provider.get()) {
-
-      if(
-          (hasInclusions && !inclusions.contains(descriptor.getLayoutId()))
-          ||
-          exclusions.contains(descriptor.getLayoutId())
-         ) {
-          continue;
+      final DremioMaterialization materialization = expand(descriptor);
+      if (materialization != null) {
+        materializations.add(materialization);
       }
+    }
+    return materializations;
+  }
 
+  /**
+   * Expands the descriptor, unless excluded by the session settings. Each descriptor is only expanded once.
+   *
+   * @return the materialization, or null if excluded or if it failed to expand
+   */
+  private DremioMaterialization expand(final MaterializationDescriptor descriptor) {
+    final Optional<DremioMaterialization> cached = expanded.get(descriptor);
+    if (cached != null) {
+      return cached.orNull();
+    }
+
+    DremioMaterialization materialization = null;
+    if (!isExcluded(descriptor)) {
       try {
-        final DremioMaterialization materialization = descriptor.getMaterializationFor(converter);
-        if (materialization == null) {
-          continue;
+        materialization = descriptor.getMaterializationFor(converter);
+        if (materialization != null) {
+          mapping.put(TablePath.of(descriptor.getPath()), descriptor);
         }
-
-        mapping.put(TablePath.of(descriptor.getPath()), descriptor);
-        materializations.add(materialization);
       } catch (Throwable e) {
         logger.warn("failed to expand materialization {}", descriptor.getMaterializationId(), e);
       }
     }
-    return materializations;
+    expanded.put(descriptor, Optional.fromNullable(materialization));
+    return materialization;
+  }
+
+  private boolean isExcluded(final MaterializationDescriptor descriptor) {
+    final Set<String> exclusions = Sets.newHashSet(session.getSubstitutionSettings().getExclusions());
+    final Set<String> inclusions = Sets.newHashSet(session.getSubstitutionSettings().getInclusions());
+    return (!inclusions.isEmpty() && !inclusions.contains(descriptor.getLayoutId()))
+      || exclusions.contains(descriptor.getLayoutId());
   }
 
   /**
@@ -150,7 +201,9 @@ public class MaterializationList implements MaterializationProvider {
         )
       ) {
         try {
-          return java.util.Optional.of(descriptor.getMaterializationFor(converter));
+          final DremioMaterialization materialization = descriptor.getMaterializationFor(converter);
+          defaultRawMaterializations.add(materialization);
+          return java.util.Optional.of(materialization);
         } catch (Throwable e) {
           logger.warn("Failed to expand materialization {}", descriptor.getMaterializationId(), e);
         }
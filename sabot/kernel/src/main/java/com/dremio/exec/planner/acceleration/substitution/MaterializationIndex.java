@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.acceleration.substitution;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.calcite.rel.RelNode;
+
+import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.DremioMaterialization;
+import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Index of expanded materializations by the tables, views and external queries their plans read, used to only
+ * expand and unify the materializations that may substitute part of a query.
+ *
+ * A materialization is a candidate for a query if it reads one of the tables, views or external queries of the query,
+ * which is what {@link SubstitutionUtils#findApplicableMaterializations} checks on expanded materializations. Its join
+ * graph must also fit in the query: all the tables it reads must be read by the query, unless join dependencies allow
+ * dropping some of its joins.
+ *
+ * The index is immutable, and is meant to be built once each time the set of cached materializations changes.
+ */
+public final class MaterializationIndex {
+  public static final MaterializationIndex EMPTY = new MaterializationIndex(ImmutableList.<CachedMaterializationDescriptor>of());
+
+  private final List<Entry> entries = Lists.newArrayList();
+  private final Map<List<String>, BitSet> byTable = Maps.newHashMap();
+  private final Map<List<String>, BitSet> byVds = Maps.newHashMap();
+  private final Map<SubstitutionUtils.ExternalQueryDescriptor, BitSet> byExternalQuery = Maps.newHashMap();
+
+  private MaterializationIndex(Iterable<CachedMaterializationDescriptor> descriptors) {
+    for (CachedMaterializationDescriptor descriptor : descriptors) {
+      final int ordinal = entries.size();
+      final Entry entry = new Entry(descriptor);
+      entries.add(entry);
+      for (List<String> table : entry.signature.tables) {
+        byTable.computeIfAbsent(table, k -> new BitSet()).set(ordinal);
+      }
+      for (List<String> vds : entry.signature.vdsPaths) {
+        byVds.computeIfAbsent(vds, k -> new BitSet()).set(ordinal);
+      }
+      for (SubstitutionUtils.ExternalQueryDescriptor externalQuery : entry.signature.externalQueries) {
+        byExternalQuery.computeIfAbsent(externalQuery, k -> new BitSet()).set(ordinal);
+      }
+    }
+  }
+
+  public static MaterializationIndex of(Iterable<CachedMaterializationDescriptor> descriptors) {
+    return new MaterializationIndex(descriptors);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Finds the materializations that may substitute part of a query.
+   *
+   * @param query signature of the query plan
+   * @return candidate descriptors, in the order they were indexed
+   */
+  public List<MaterializationDescriptor> find(Signature query) {
+    final BitSet candidates = new BitSet(entries.size());
+    for (List<String> table : query.tables) {
+      or(candidates, byTable.get(table));
+    }
+    for (List<String> vds : query.vdsPaths) {
+      or(candidates, byVds.get(vds));
+    }
+    for (SubstitutionUtils.ExternalQueryDescriptor externalQuery : query.externalQueries) {
+      or(candidates, byExternalQuery.get(externalQuery));
+    }
+
+    final List<MaterializationDescriptor> found = Lists.newArrayList();
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      final Entry entry = entries.get(i);
+      if (entry.joinsDroppable || query.tables.containsAll(entry.signature.tables)) {
+        found.add(entry.descriptor);
+      }
+    }
+    return found;
+  }
+
+  private static void or(BitSet candidates, BitSet matches) {
+    if (matches != null) {
+      candidates.or(matches);
+    }
+  }
+
+  private static final class Entry {
+    private final MaterializationDescriptor descriptor;
+    private final Signature signature;
+    private final boolean joinsDroppable;
+
+    private Entry(CachedMaterializationDescriptor descriptor) {
+      final DremioMaterialization materialization = descriptor.getMaterialization();
+      this.descriptor = descriptor;
+      this.signature = Signature.of(materialization.getQueryRel());
+      this.joinsDroppable = materialization.isSnowflake()
+        || (materialization.getJoinDependencyProperties() != null
+          && !materialization.getJoinDependencyProperties().getDependencies().isEmpty());
+    }
+  }
+
+  /**
+   * Tables, views and external queries read by a plan.
+   */
+  public static final class Signature {
+    private final Set<List<String>> tables;
+    private final Set<List<String>> vdsPaths;
+    private final Set<SubstitutionUtils.ExternalQueryDescriptor> externalQueries;
+
+    private Signature(RelNode rel) {
+      this.tables = ImmutableSet.copyOf(SubstitutionUtils.findTables(rel));
+      this.vdsPaths = ImmutableSet.copyOf(SubstitutionUtils.findExpansionNodes(rel));
+      this.externalQueries = ImmutableSet.copyOf(SubstitutionUtils.findExternalQueries(rel));
+    }
+
+    public static Signature of(RelNode rel) {
+      return new Signature(rel);
+    }
+  }
+}
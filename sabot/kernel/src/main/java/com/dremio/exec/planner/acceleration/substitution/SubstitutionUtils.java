@@ -160,7 +160,7 @@ public final class SubstitutionUtils {
     return new ExternalQueryDescriptor(eq.getPluginId().getName(), eq.getSql());
   }
 
-  private static class ExternalQueryDescriptor {
+  static class ExternalQueryDescriptor {
     private final String source;
     private final String query;
 
@@ -188,7 +188,7 @@ public final class SubstitutionUtils {
     }
   }
 
-  private static Set<ExternalQueryDescriptor> findExternalQueries(RelNode query) {
+  static Set<ExternalQueryDescriptor> findExternalQueries(RelNode query) {
     Set<ExternalQueryDescriptor> externalQueries = new HashSet<>();
     query.accept(new RoutingShuttle() {
       @Override
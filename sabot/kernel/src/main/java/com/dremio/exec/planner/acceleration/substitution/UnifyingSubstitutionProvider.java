@@ -16,6 +16,7 @@
 package com.dremio.exec.planner.acceleration.substitution;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.calcite.plan.MaterializedViewSubstitutionVisitor;
@@ -31,25 +32,38 @@ import org.slf4j.LoggerFactory;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.ExpansionNode;
 import com.dremio.exec.planner.logical.PushFilterPastProjectRule;
+import com.dremio.exec.planner.observer.AttemptObserver;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 
 /**
  * A {@link SubstitutionProvider} that employs unification rules to find
  * substitutes.
  */
-public class UnifyingSubstitutionProvider extends AbstractSubstitutionProvider {
+public class UnifyingSubstitutionProvider extends AbstractSubstitutionProvider implements Observable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(UnifyingSubstitutionProvider.class);
 
+  private AttemptObserver observer;
+
   public UnifyingSubstitutionProvider(
     final MaterializationProvider provider) {
     super(provider);
   }
 
+  @Override
+  public void setObserver(AttemptObserver observer) {
+    this.observer = observer;
+  }
+
   @Override
   public SubstitutionStream findSubstitutions(final RelNode query) {
-    final List<DremioMaterialization> materializations =
-      SubstitutionUtils.findApplicableMaterializations(query, getMaterializations());
+    final Stopwatch stopwatch = Stopwatch.createStarted();
+    final List<DremioMaterialization> materializations = getApplicableMaterializations(query);
+    LOGGER.debug("found {} applicable materializations in {} ms", materializations.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    if (observer != null) {
+      observer.planFindMaterializations(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
 
     final List<Substitution> substitutions = Lists.newArrayList(Substitution.createRootEquivalent(query));
     for (final DremioMaterialization materialization : materializations) {
@@ -192,7 +192,8 @@ public abstract class ScanRelBase extends TableScan {
    */
   @Override
   public RelOptCost computeSelfCost(final RelOptPlanner planner, final RelMetadataQuery mq) {
-    final double rowCount = estimateRowCount(mq);
+    // goes through the metadata query so that table statistics are taken into account
+    final double rowCount = mq.getRowCount(this);
 
     // If the estimatedCount is actually 0, then make it 1, so that at least, we choose the scan that
     // has fewer columns pushed down since all the cost scales with rowCount.
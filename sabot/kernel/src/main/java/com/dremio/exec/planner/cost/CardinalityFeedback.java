@@ -0,0 +1,398 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.hep.HepRelVertex;
+import org.apache.calcite.plan.volcano.RelSubset;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.rules.MultiJoin;
+import org.apache.calcite.sql.SqlExplainLevel;
+import org.apache.calcite.util.Util;
+
+import com.dremio.exec.planner.PlannerPhase;
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.physical.ExchangePrel;
+import com.dremio.exec.planner.physical.HashJoinPrel;
+import com.dremio.exec.planner.physical.LimitPrel;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.PrelUtil;
+import com.dremio.exec.planner.physical.SelectionVectorRemoverPrel;
+import com.dremio.exec.planner.physical.explain.PrelSequencer;
+import com.dremio.exec.planner.physical.explain.PrelSequencer.OpId;
+import com.dremio.exec.proto.UserBitShared.MajorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.work.protector.UserResult;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Row counts of join inputs observed while running queries, used in place of the estimates when planning later queries
+ * reading the same tables with the same filters.
+ *
+ * The hash joins of a query fully read their build side before reading their probe side, so the row count of a build
+ * side is known once the query completes. A join input is identified by a key made of its filters and projections and
+ * of the digest of the scan it reads, which changes with the data of the table. Both the logical input, as seen by the
+ * join ordering rules, and the physical input, as seen when choosing between broadcast and hash distribution, are
+ * recorded.
+ */
+public final class CardinalityFeedback {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CardinalityFeedback.class);
+
+  private static final int MAX_TABLES = 1_000;
+  private static final int MAX_INPUTS_PER_TABLE = 100;
+
+  private static final CardinalityFeedback INSTANCE = new CardinalityFeedback();
+
+  // table path -> input key -> observed row count
+  private final Cache<List<String>, ConcurrentMap<String, Long>> observed = CacheBuilder.newBuilder()
+    .maximumSize(MAX_TABLES)
+    .expireAfterWrite(1, TimeUnit.DAYS)
+    .build();
+
+  @VisibleForTesting
+  CardinalityFeedback() {
+  }
+
+  /**
+   * @return the feedback shared by the queries planned on this coordinator
+   */
+  public static CardinalityFeedback getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Row count observed for a scan, or a chain of filters and projections on top of a scan.
+   *
+   * @return the observed row count, null if there is none or if the feedback is disabled
+   */
+  static Double getObservedRowCount(RelNode rel) {
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(rel.getCluster());
+    if (settings == null || !settings.getOptions().getOption(PlannerSettings.USE_CARDINALITY_FEEDBACK)) {
+      return null;
+    }
+    final Long rowCount = INSTANCE.getRowCount(rel);
+    return rowCount != null ? rowCount.doubleValue() : null;
+  }
+
+  @VisibleForTesting
+  Long getRowCount(RelNode rel) {
+    final ScanRelBase scan = scanOf(rel);
+    if (scan == null) {
+      return null;
+    }
+    // computing the key is not free, only do it for tables with feedback
+    final Map<String, Long> inputs = observed.getIfPresent(scan.getTable().getQualifiedName());
+    if (inputs == null) {
+      return null;
+    }
+    final String key = keyOf(rel);
+    return key != null ? inputs.get(key) : null;
+  }
+
+  @VisibleForTesting
+  void record(List<String> table, String key, long rowCount) {
+    final ConcurrentMap<String, Long> inputs;
+    try {
+      inputs = observed.get(table, ConcurrentHashMap::new);
+    } catch (Exception e) {
+      // creating a map doesn't fail
+      throw new IllegalStateException(e);
+    }
+    if (inputs.size() >= MAX_INPUTS_PER_TABLE && !inputs.containsKey(key)) {
+      inputs.clear();
+    }
+    inputs.put(key, rowCount);
+  }
+
+  /**
+   * Forgets all the observed row counts.
+   */
+  @VisibleForTesting
+  void clear() {
+    observed.invalidateAll();
+  }
+
+  private static RelNode unwrap(RelNode rel) {
+    if (rel instanceof HepRelVertex) {
+      return ((HepRelVertex) rel).getCurrentRel();
+    }
+    if (rel instanceof RelSubset) {
+      final RelSubset subset = (RelSubset) rel;
+      return Util.first(subset.getBest(), subset.getOriginal());
+    }
+    return rel;
+  }
+
+  private static boolean isRowPreserving(RelNode rel) {
+    return rel instanceof Project || rel instanceof SelectionVectorRemoverPrel;
+  }
+
+  /**
+   * @return the scan at the bottom of a chain of filters and projections, null if the input is something else
+   */
+  @VisibleForTesting
+  static ScanRelBase scanOf(RelNode rel) {
+    RelNode current = unwrap(rel);
+    while (current instanceof Filter || isRowPreserving(current)) {
+      current = unwrap(current.getInput(0));
+    }
+    return current instanceof ScanRelBase ? (ScanRelBase) current : null;
+  }
+
+  /**
+   * @return the key of a chain of filters and projections on top of a scan, null if the input is something else
+   */
+  @VisibleForTesting
+  static String keyOf(RelNode rel) {
+    final StringBuilder key = new StringBuilder();
+    RelNode current = unwrap(rel);
+    while (!(current instanceof ScanRelBase)) {
+      if (current instanceof Filter) {
+        key.append("Filter(").append(((Filter) current).getCondition()).append(") ");
+      } else if (current instanceof Project) {
+        key.append("Project(").append(((Project) current).getProjects()).append(") ");
+      } else if (!(current instanceof SelectionVectorRemoverPrel)) {
+        return null;
+      }
+      current = unwrap(current.getInput(0));
+    }
+    return key.append(RelOptUtil.toString(current, SqlExplainLevel.DIGEST_ATTRIBUTES).trim()).toString();
+  }
+
+  /**
+   * @return the input with its top projections removed, as their row count is the one of their input
+   */
+  private static RelNode stripProjections(RelNode rel) {
+    RelNode current = unwrap(rel);
+    while (isRowPreserving(current)) {
+      current = unwrap(current.getInput(0));
+    }
+    return current;
+  }
+
+  /**
+   * Tracks the build sides of the hash joins of a query attempt, and records their row counts once the attempt
+   * completes.
+   */
+  public static final class Recorder extends AbstractAttemptObserver {
+    private final CardinalityFeedback feedback;
+
+    // table path -> key of the logical join input reading it, for tables read by a single join input
+    private final Map<List<String>, String> logicalInputs = new HashMap<>();
+    private final Set<List<String>> ambiguousTables = new HashSet<>();
+    private volatile List<BuildSide> buildSides = new ArrayList<>();
+
+    public Recorder(CardinalityFeedback feedback) {
+      this.feedback = feedback;
+    }
+
+    @Override
+    public void planRelTransform(PlannerPhase phase, RelOptPlanner planner, RelNode before, RelNode after,
+                                 long millisTaken) {
+      if (phase != PlannerPhase.JOIN_PLANNING_MULTI_JOIN) {
+        return;
+      }
+      findLogicalInputs(after);
+    }
+
+    private void findLogicalInputs(RelNode rel) {
+      final RelNode current = unwrap(rel);
+      if (current instanceof MultiJoin) {
+        for (RelNode input : current.getInputs()) {
+          addLogicalInput(stripProjections(input));
+        }
+      }
+      for (RelNode input : current.getInputs()) {
+        findLogicalInputs(input);
+      }
+    }
+
+    private void addLogicalInput(RelNode input) {
+      final ScanRelBase scan = scanOf(input);
+      final String key = keyOf(input);
+      if (scan == null || key == null) {
+        return;
+      }
+      final List<String> table = scan.getTable().getQualifiedName();
+      if (logicalInputs.putIfAbsent(table, key) != null) {
+        ambiguousTables.add(table);
+      }
+    }
+
+    @Override
+    public void finalPrel(Prel prel) {
+      final List<BuildSide> found = new ArrayList<>();
+      if (!containsLimit(prel)) {
+        final Map<Prel, OpId> ids = PrelSequencer.getIdMap(prel);
+        findBuildSides(prel, new ArrayList<>(), ids, found);
+      }
+      buildSides = found;
+    }
+
+    private static boolean containsLimit(Prel prel) {
+      // a limit stops the query before the build sides are fully read
+      if (prel instanceof LimitPrel) {
+        return true;
+      }
+      for (Prel input : prel) {
+        if (containsLimit(input)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void findBuildSides(Prel prel, List<Prel> ancestors, Map<Prel, OpId> ids, List<BuildSide> found) {
+      if (prel instanceof ScanRelBase) {
+        final BuildSide buildSide = buildSideOf((ScanRelBase) prel, ancestors, ids);
+        if (buildSide != null) {
+          found.add(buildSide);
+        }
+        return;
+      }
+      ancestors.add(prel);
+      for (Prel input : prel) {
+        findBuildSides(input, ancestors, ids, found);
+      }
+      ancestors.remove(ancestors.size() - 1);
+    }
+
+    private BuildSide buildSideOf(ScanRelBase scan, List<Prel> ancestors, Map<Prel, OpId> ids) {
+      // top of the chain of filters and projections reading the scan
+      int top = ancestors.size();
+      RelNode chainTop = scan;
+      while (top > 0 && (ancestors.get(top - 1) instanceof Filter || isRowPreserving(ancestors.get(top - 1)))) {
+        chainTop = ancestors.get(--top);
+      }
+      if (top == 0) {
+        return null;
+      }
+
+      // the chain must be the build side of a hash join, possibly through exchanges
+      RelNode child = chainTop;
+      int parent = top - 1;
+      while (parent > 0 && (ancestors.get(parent) instanceof ExchangePrel || isRowPreserving(ancestors.get(parent)))) {
+        child = ancestors.get(parent--);
+      }
+      final Prel join = ancestors.get(parent);
+      if (!(join instanceof HashJoinPrel) || join.getInput(1) != child) {
+        return null;
+      }
+
+      // the rows of the chain are counted as the input of the operator consuming them
+      final Prel consumer = ancestors.get(top - 1);
+      final OpId consumerId;
+      final int inputIndex;
+      if (consumer instanceof ExchangePrel) {
+        // the sender of the exchange is the root of the fragment of the chain
+        consumerId = new OpId(ids.get((Prel) chainTop).getFragmentId(), 0);
+        inputIndex = 0;
+      } else {
+        consumerId = ids.get(consumer);
+        inputIndex = consumer.getInputs().indexOf(chainTop);
+      }
+      if (consumerId == null || inputIndex < 0) {
+        return null;
+      }
+
+      final List<String> table = scan.getTable().getQualifiedName();
+      final String physicalKey = keyOf(stripProjections(chainTop));
+      final String logicalKey = ambiguousTables.contains(table) ? null : logicalInputs.get(table);
+      return new BuildSide(table, logicalKey, physicalKey, consumerId, inputIndex);
+    }
+
+    @Override
+    public void attemptCompletion(UserResult result) {
+      final QueryProfile profile = result.getProfile();
+      if (result.getState() != QueryState.COMPLETED || profile == null || buildSides.isEmpty()) {
+        return;
+      }
+
+      for (BuildSide buildSide : buildSides) {
+        final long rowCount = inputRecords(profile, buildSide.consumerId, buildSide.inputIndex);
+        if (rowCount < 0) {
+          continue;
+        }
+        logger.debug("Observed {} rows for {}", rowCount, buildSide.physicalKey);
+        if (buildSide.physicalKey != null) {
+          feedback.record(buildSide.table, buildSide.physicalKey, rowCount);
+        }
+        if (buildSide.logicalKey != null) {
+          feedback.record(buildSide.table, buildSide.logicalKey, rowCount);
+        }
+      }
+    }
+
+    /**
+     * @return the records received by an input of an operator across its minor fragments, -1 if they are not in the
+     * profile
+     */
+    private static long inputRecords(QueryProfile profile, OpId operator, int inputIndex) {
+      long records = 0;
+      boolean found = false;
+      for (MajorFragmentProfile major : profile.getFragmentProfileList()) {
+        if (major.getMajorFragmentId() != operator.getFragmentId()) {
+          continue;
+        }
+        for (MinorFragmentProfile minor : major.getMinorFragmentProfileList()) {
+          for (OperatorProfile op : minor.getOperatorProfileList()) {
+            if (op.getOperatorId() == operator.getOpId() && op.getInputProfileCount() > inputIndex) {
+              records += op.getInputProfile(inputIndex).getRecords();
+              found = true;
+            }
+          }
+        }
+      }
+      return found ? records : -1;
+    }
+  }
+
+  private static final class BuildSide {
+    private final List<String> table;
+    private final String logicalKey;
+    private final String physicalKey;
+    private final OpId consumerId;
+    private final int inputIndex;
+
+    private BuildSide(List<String> table, String logicalKey, String physicalKey, OpId consumerId, int inputIndex) {
+      this.table = table;
+      this.logicalKey = logicalKey;
+      this.physicalKey = physicalKey;
+      this.consumerId = consumerId;
+      this.inputIndex = inputIndex;
+    }
+  }
+}
@@ -39,6 +39,14 @@ public class RelMdDistinctRowCount extends org.apache.calcite.rel.metadata.RelMd
           BuiltInMethod.DISTINCT_ROW_COUNT.method, INSTANCE);
 
   public Double getDistinctRowCount(ScanRelBase scan, RelMetadataQuery mq, ImmutableBitSet groupKey, RexNode predicate) {
+    final ScanStatistics statistics = ScanStatistics.of(scan);
+    if (statistics != null) {
+      final double rows = mq.getRowCount(scan) * mq.getSelectivity(scan, predicate);
+      final Double distinct = statistics.getDistinctRowCount(groupKey, rows);
+      if (distinct != null) {
+        return distinct;
+      }
+    }
     return getDistinctRowCountFromEstimateRowCount(scan, mq, groupKey, predicate);
   }
 
@@ -37,6 +37,7 @@ import com.dremio.exec.planner.common.FlattenRelBase;
 import com.dremio.exec.planner.common.JdbcRelBase;
 import com.dremio.exec.planner.common.JoinRelBase;
 import com.dremio.exec.planner.common.LimitRelBase;
+import com.dremio.exec.planner.common.ScanRelBase;
 import com.dremio.exec.planner.physical.BroadcastExchangePrel;
 import com.dremio.exec.planner.physical.FlattenPrel;
 import com.dremio.exec.planner.physical.PlannerSettings;
@@ -155,8 +156,24 @@ public class RelMdRowCount extends org.apache.calcite.rel.metadata.RelMdRowCount
 
   public Double getRowCount(BroadcastExchangePrel rel, RelMetadataQuery mq) { return rel.estimateRowCount(mq); }
 
+  public Double getRowCount(ScanRelBase scan, RelMetadataQuery mq) {
+    final Double observed = CardinalityFeedback.getObservedRowCount(scan);
+    if (observed != null) {
+      return observed;
+    }
+    final ScanStatistics statistics = ScanStatistics.of(scan);
+    if (statistics == null) {
+      return scan.estimateRowCount(mq);
+    }
+    return statistics.getRowCount();
+  }
+
   @Override
   public Double getRowCount(Filter rel, RelMetadataQuery mq) {
+    final Double observed = CardinalityFeedback.getObservedRowCount(rel);
+    if (observed != null) {
+      return observed;
+    }
     return rel.estimateRowCount(mq);
   }
 }
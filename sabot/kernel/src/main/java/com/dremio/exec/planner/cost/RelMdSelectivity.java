@@ -20,11 +20,13 @@ import org.apache.calcite.rel.metadata.BuiltInMetadata;
 import org.apache.calcite.rel.metadata.MetadataDef;
 import org.apache.calcite.rel.metadata.MetadataHandler;
 import org.apache.calcite.rel.metadata.ReflectiveRelMetadataProvider;
+import org.apache.calcite.rel.metadata.RelMdUtil;
 import org.apache.calcite.rel.metadata.RelMetadataProvider;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.util.BuiltInMethod;
 
+import com.dremio.exec.planner.common.ScanRelBase;
 import com.google.common.base.MoreObjects;
 
 /**
@@ -47,4 +49,12 @@ implements MetadataHandler<BuiltInMetadata.Selectivity> {
       RexNode predicate) {
     return mq.getSelectivity(MoreObjects.firstNonNull(rel.getBest(), rel.getOriginal()), predicate);
   }
+
+  public Double getSelectivity(ScanRelBase scan, RelMetadataQuery mq, RexNode predicate) {
+    final ScanStatistics statistics = ScanStatistics.of(scan);
+    if (statistics == null) {
+      return RelMdUtil.guessSelectivity(predicate);
+    }
+    return statistics.getSelectivity(predicate);
+  }
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.metadata.RelMdUtil;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.PrelUtil;
+import com.dremio.proto.model.statistics.ColumnStatistics;
+import com.dremio.proto.model.statistics.TableStatistics;
+import com.dremio.service.namespace.NamespaceException;
+import com.google.common.base.Throwables;
+
+/**
+ * Estimates for a scan based on the statistics computed by ANALYZE TABLE for the table it reads.
+ */
+final class ScanStatistics {
+
+  private final ScanRelBase scan;
+  private final double rowCount;
+  private final Map<String, ColumnStatistics> columns = new HashMap<>();
+
+  private ScanStatistics(ScanRelBase scan, TableStatistics statistics) {
+    this.scan = scan;
+    this.rowCount = statistics.getRowCount();
+    if (statistics.getColumnsList() != null) {
+      for (ColumnStatistics column : statistics.getColumnsList()) {
+        columns.put(column.getName().toLowerCase(Locale.ROOT), column);
+      }
+    }
+  }
+
+  /**
+   * @return the statistics of the table read by the scan, null if there are none
+   */
+  static ScanStatistics of(ScanRelBase scan) {
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(scan.getCluster());
+    if (settings == null) {
+      return null;
+    }
+    final TableStatistics statistics = settings.getTableStatistics(scan.getTableMetadata().getName());
+    if (statistics == null || statistics.getRowCount() == null) {
+      return null;
+    }
+    return new ScanStatistics(scan, statistics);
+  }
+
+  /**
+   * Row count of the scan, that is the row count of the table adjusted by the same factors (pruning, pushed down
+   * filters...) as the estimate of the scan.
+   */
+  double getRowCount() {
+    final double tableRowCount = scan.getTable().getRowCount();
+    if (tableRowCount <= 0) {
+      try {
+        return rowCount * scan.getTableMetadata().getSplitRatio() * scan.getObservedRowcountAdjustment();
+      } catch (NamespaceException ex) {
+        throw Throwables.propagate(ex);
+      }
+    }
+    return scan.estimateRowCount(scan.getCluster().getMetadataQuery()) * rowCount / tableRowCount;
+  }
+
+  /**
+   * Selectivity of a predicate over the scan. Conjuncts are considered independent, the ones that can't be
+   * estimated with the statistics get the default guess.
+   */
+  double getSelectivity(RexNode predicate) {
+    if (predicate == null || predicate.isAlwaysTrue()) {
+      return 1.0;
+    }
+
+    double selectivity = 1.0;
+    for (RexNode conjunct : RelOptUtil.conjunctions(predicate)) {
+      final Double estimate = estimateSelectivity(conjunct);
+      selectivity *= estimate != null ? estimate : RelMdUtil.guessSelectivity(conjunct);
+    }
+    return selectivity;
+  }
+
+  /**
+   * @return the number of distinct values of the keys over the given number of rows, null if a key wasn't analyzed
+   */
+  Double getDistinctRowCount(ImmutableBitSet groupKey, double rows) {
+    double distinct = 1.0;
+    for (int key : groupKey) {
+      final ColumnStatistics column = getColumn(key);
+      if (column == null || column.getNdv() == null) {
+        return null;
+      }
+      // nulls form a group of their own
+      final boolean hasNulls = column.getNullCount() != null && column.getNullCount() > 0;
+      distinct *= Math.max(1, column.getNdv() + (hasNulls ? 1 : 0));
+    }
+    return RelMdUtil.numDistinctVals(distinct, rows);
+  }
+
+  private ColumnStatistics getColumn(int index) {
+    final List<String> fieldNames = scan.getRowType().getFieldNames();
+    if (index < 0 || index >= fieldNames.size()) {
+      return null;
+    }
+    return columns.get(fieldNames.get(index).toLowerCase(Locale.ROOT));
+  }
+
+  private Double estimateSelectivity(RexNode conjunct) {
+    if (!(conjunct instanceof RexCall)) {
+      return null;
+    }
+    final RexCall call = (RexCall) conjunct;
+    switch (call.getKind()) {
+    case IS_NULL:
+    case IS_NOT_NULL: {
+      final ColumnStatistics column = getColumn(call.getOperands().get(0));
+      if (column == null || column.getNullCount() == null || rowCount <= 0) {
+        return null;
+      }
+      final double nullFraction = clamp(column.getNullCount() / rowCount);
+      return call.getKind() == SqlKind.IS_NULL ? nullFraction : 1.0 - nullFraction;
+    }
+    case EQUALS:
+    case NOT_EQUALS:
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL:
+      return estimateComparison(call);
+    default:
+      return null;
+    }
+  }
+
+  private ColumnStatistics getColumn(RexNode node) {
+    return node instanceof RexInputRef ? getColumn(((RexInputRef) node).getIndex()) : null;
+  }
+
+  private Double estimateComparison(RexCall call) {
+    final RexNode left = call.getOperands().get(0);
+    final RexNode right = call.getOperands().get(1);
+    final SqlKind kind;
+    final ColumnStatistics column;
+    final RexLiteral literal;
+    if (left instanceof RexInputRef && right instanceof RexLiteral) {
+      kind = call.getKind();
+      column = getColumn(left);
+      literal = (RexLiteral) right;
+    } else if (right instanceof RexInputRef && left instanceof RexLiteral) {
+      kind = call.getKind().reverse();
+      column = getColumn(right);
+      literal = (RexLiteral) left;
+    } else {
+      return null;
+    }
+    if (column == null) {
+      return null;
+    }
+
+    final double nonNullFraction = column.getNullCount() == null || rowCount <= 0
+      ? 1.0 : 1.0 - clamp(column.getNullCount() / rowCount);
+    switch (kind) {
+    case EQUALS:
+    case NOT_EQUALS: {
+      if (column.getNdv() == null || column.getNdv() <= 0) {
+        return null;
+      }
+      final double equalFraction = 1.0 / column.getNdv();
+      return nonNullFraction * (kind == SqlKind.EQUALS ? equalFraction : 1.0 - equalFraction);
+    }
+    default: {
+      if (!(literal.getValue() instanceof BigDecimal)) {
+        return null;
+      }
+      final Double below = getFractionBelow(column, ((BigDecimal) literal.getValue()).doubleValue());
+      if (below == null) {
+        return null;
+      }
+      final boolean lower = kind == SqlKind.LESS_THAN || kind == SqlKind.LESS_THAN_OR_EQUAL;
+      return nonNullFraction * (lower ? below : 1.0 - below);
+    }
+    }
+  }
+
+  /**
+   * Fraction of the non null values of the column below the given value, interpolated within the buckets of the
+   * histogram or between min and max when there is no histogram.
+   */
+  private static Double getFractionBelow(ColumnStatistics column, double value) {
+    if (column.getMin() == null || column.getMax() == null) {
+      return null;
+    }
+    final double min = column.getMin();
+    final double max = column.getMax();
+    if (value <= min) {
+      return 0.0;
+    }
+    if (value >= max) {
+      return 1.0;
+    }
+
+    final List<Double> bounds = column.getHistogramBoundsList();
+    if (bounds == null || bounds.isEmpty()) {
+      return (value - min) / (max - min);
+    }
+
+    // equi-depth: each bucket holds the same number of values
+    double lowerBound = min;
+    for (int i = 0; i < bounds.size(); i++) {
+      final double upperBound = bounds.get(i);
+      if (value < upperBound) {
+        final double withinBucket = upperBound > lowerBound ? (value - lowerBound) / (upperBound - lowerBound) : 0.5;
+        return (i + withinBucket) / bounds.size();
+      }
+      lowerBound = upperBound;
+    }
+    return 1.0;
+  }
+
+  private static double clamp(double fraction) {
+    return Math.max(0.0, Math.min(1.0, fraction));
+  }
+}
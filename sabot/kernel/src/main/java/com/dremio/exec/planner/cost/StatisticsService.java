@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import java.util.List;
+
+import com.dremio.proto.model.statistics.TableStatistics;
+import com.dremio.service.Service;
+import com.dremio.service.namespace.NamespaceKey;
+
+/**
+ * Computes and stores the column statistics of tables, as requested by ANALYZE TABLE ... COMPUTE STATISTICS.
+ * They are used by the planner to estimate row counts, selectivities and distinct row counts of scans.
+ */
+public interface StatisticsService extends Service {
+
+  /**
+   * Schedule the computation of the statistics of a table. Statistics previously computed for the table are
+   * replaced once the computation completes.
+   *
+   * @param table the table to analyze
+   * @param columns the columns to compute statistics for, all the columns of the table if empty
+   * @return the id of the job computing the statistics
+   */
+  String requestStatistics(NamespaceKey table, List<String> columns);
+
+  /**
+   * @return the statistics of the table, null if it was never analyzed
+   */
+  TableStatistics getStatistics(NamespaceKey table);
+
+  StatisticsService NO_OP = new StatisticsService() {
+    @Override
+    public String requestStatistics(NamespaceKey table, List<String> columns) {
+      throw new UnsupportedOperationException("StatisticsService.requestStatistics() called on a non-coordinator node");
+    }
+
+    @Override
+    public TableStatistics getStatistics(NamespaceKey table) {
+      return null;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+}
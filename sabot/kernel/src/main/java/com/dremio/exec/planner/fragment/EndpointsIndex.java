@@ -80,6 +80,9 @@ public class EndpointsIndex {
     return fragmentsEndpointMap.size();
   }
 
+  /**
+   * Plan fragments can be generated by multiple threads in parallel, so the builder is synchronized.
+   */
   public static class Builder {
     // map of full endpoints, value is an index into minimalEndpoints.
     private Map<NodeEndpoint, Integer> fullEndpointMap = new HashMap<>();
@@ -94,16 +97,16 @@ public class EndpointsIndex {
     }
 
     // Return the list of all collected endpoints.
-    public List<NodeEndpoint> getAllEndpoints() {
+    public synchronized List<NodeEndpoint> getAllEndpoints() {
       return minimalEndpoints;
     }
 
-    public NodeEndpoint getMinimalEndpoint(NodeEndpoint fullEndpoint) {
+    public synchronized NodeEndpoint getMinimalEndpoint(NodeEndpoint fullEndpoint) {
       int index = lookupOrAdd(fullEndpoint);
       return minimalEndpoints.get(index);
     }
 
-    private int lookupOrAdd(NodeEndpoint endpoint) {
+    private synchronized int lookupOrAdd(NodeEndpoint endpoint) {
       Integer index = fullEndpointMap.get(endpoint);
       if (index == null) {
         // miss : add a new entry.
@@ -114,7 +117,7 @@ public class EndpointsIndex {
       return index;
     }
 
-    public int addNodeEndpoint(NodeEndpoint endpoint){
+    public synchronized int addNodeEndpoint(NodeEndpoint endpoint){
       return lookupOrAdd(endpoint);
     }
 
@@ -122,7 +125,7 @@ public class EndpointsIndex {
       return ((long)a << 32) | (b & 0xffffffffL);
     }
 
-    public MinorFragmentIndexEndpoint addFragmentEndpoint(int minorFragmentId, NodeEndpoint endpoint) {
+    public synchronized MinorFragmentIndexEndpoint addFragmentEndpoint(int minorFragmentId, NodeEndpoint endpoint) {
       int endpointIdx = lookupOrAdd(endpoint);
 
       // These tend to be repetitive. So, index and reuse.
@@ -138,7 +141,7 @@ public class EndpointsIndex {
     }
 
     @VisibleForTesting
-    int getUniqueFragmentIndexEndpointCount() {
+    synchronized int getUniqueFragmentIndexEndpointCount() {
       return fragmentsIndexEndpointMap.size();
     }
 
@@ -15,9 +15,9 @@
  */
 package com.dremio.exec.planner.fragment;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.dremio.exec.proto.CoordExecRPC.MinorAttr;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
@@ -48,7 +48,7 @@ public class PlanFragmentsIndex {
 
     public Builder() {
       endpointsIndexBuilder = new EndpointsIndex.Builder();
-      sharedAttrsIndexBuilderMap = new HashMap<>();
+      sharedAttrsIndexBuilderMap = new ConcurrentHashMap<>();
     }
 
     public EndpointsIndex.Builder getEndpointsIndexBuilder() {
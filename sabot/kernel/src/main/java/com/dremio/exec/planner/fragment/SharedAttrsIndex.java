@@ -15,7 +15,6 @@
  */
 package com.dremio.exec.planner.fragment;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -67,7 +66,8 @@ public class SharedAttrsIndex {
   }
 
   public static class Builder {
-    private Map<Key, ByteString> attrMap = new HashMap<>();
+    // minor fragments of the same endpoint can be generated in parallel.
+    private Map<Key, ByteString> attrMap = new ConcurrentHashMap<>();
 
     public Builder() {}
 
@@ -77,10 +77,8 @@ public class SharedAttrsIndex {
 
     public void addAttr(OpProps props, String name, Serializer serializer) {
       Key key = new Key(props.getOperatorId(), name);
-      if (!attrMap.containsKey(key)) {
-        // delay serialization till we know it's a unique attr.
-        attrMap.put(key, serializer.Serialize());
-      }
+      // delay serialization till we know it's a unique attr.
+      attrMap.computeIfAbsent(key, k -> serializer.Serialize());
     }
 
     public List<MinorAttr> getAllAttrs() {
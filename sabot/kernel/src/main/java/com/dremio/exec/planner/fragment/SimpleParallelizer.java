@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
@@ -32,6 +33,7 @@ import com.dremio.common.util.DremioStringUtils;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.fn.FunctionLookupContext;
 import com.dremio.exec.maestro.MaestroObserver;
+import com.dremio.exec.maestro.ParallelTasks;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.physical.PhysicalOperatorSetupException;
 import com.dremio.exec.physical.base.AbstractPhysicalVisitor;
@@ -103,6 +105,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
   private ExecutorSelectionService executorSelectionService;  // NB: re-assigned in unit tests, hence not final
   private final int targetNumFragsPerNode;
   private final boolean shouldIgnoreLeafAffinity;
+  private final int fragmentParallelism;
 
   public SimpleParallelizer(QueryContext context, MaestroObserver observer, ExecutorSelectionService executorSelectionService) {
     this(context, observer, executorSelectionService, null, context.getGroupResourceInformation());
@@ -127,6 +130,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.executorSelectionService = executorSelectionService;
     this.targetNumFragsPerNode = Ints.saturatedCast(optionManager.getOption(ExecutorSelectionService.TARGET_NUM_FRAGS_PER_NODE));
     this.shouldIgnoreLeafAffinity = optionManager.getOption(ExecConstants.SHOULD_IGNORE_LEAF_AFFINITY);
+    this.fragmentParallelism = Ints.saturatedCast(optionManager.getOption(ExecConstants.FRAGMENT_PARALLELISM));
     final ExecutorSelectionHandle handle = executorSelectionService.getAllActiveExecutors(new ExecutorSelectionContext(resourceSchedulingDecisionInfo));
     this.executionMap = new ExecutionNodeMap(handle.getExecutors());
     computeMaxWidthPerNode(groupResourceInformation);
@@ -169,6 +173,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
     this.targetNumFragsPerNode = 1;
     this.resourceSchedulingDecisionInfo = null;
     this.shouldIgnoreLeafAffinity = shouldIgnoreLeafAffinity;
+    this.fragmentParallelism = 1;
   }
 
   @Override
@@ -498,21 +503,93 @@ public class SimpleParallelizer implements ParallelizationParameters {
       QueryContextInformation queryContextInfo,
       FunctionLookupContext functionLookupContext) throws ExecutionSetupException {
 
-    final List<PlanFragmentFull> fragments = Lists.newArrayList();
-    EndpointsIndex.Builder builder = indexBuilder.getEndpointsIndexBuilder();
-    MajorFragmentAssignmentCache majorFragmentAssignmentsCache = new MajorFragmentAssignmentCache();
+    final List<Wrapper> wrappers = Lists.newArrayList(planningSet);
+    final EndpointsIndex.Builder builder = indexBuilder.getEndpointsIndexBuilder();
+    for (Wrapper wrapper : wrappers) {
+      if (rootNode == wrapper.getNode() && wrapper.getWidth() != 1) {
+        throw new ForemanSetupException(String.format("Failure while trying to setup fragment. " +
+                "The root fragment must always have parallelization one. In the current case, the width was set to %d.",
+                wrapper.getWidth()));
+      }
+
+      // index the endpoints upfront, so that the indexes don't depend on the order the fragments are generated in.
+      for (int minorFragmentId = 0; minorFragmentId < wrapper.getWidth(); minorFragmentId++) {
+        builder.addNodeEndpoint(wrapper.getAssignedEndpoint(minorFragmentId));
+      }
+    }
+
+    // the options are the same for all the major fragments, serialize them only once.
+    final ByteString optionsData;
+    try {
+      optionsData = reader.writeJsonBytes(options, fragmentCodec);
+    } catch (JsonProcessingException e) {
+      throw new ForemanSetupException("Failure while trying to convert fragment into json.", e);
+    }
+
+    final MajorFragmentGenerator generator = new MajorFragmentGenerator(optionsData, foremanNode, queryId, reader,
+      planningSet, indexBuilder, session, queryContextInfo);
     // now we generate all the individual plan fragments and associated assignments. Note, we need all endpoints
     // assigned before we can materialize, so we start a new loop here rather than utilizing the previous one.
-    for (Wrapper wrapper : planningSet) {
+    // Major fragments only share the indexes, so they are generated in parallel.
+    final int threads = Math.min(fragmentParallelism, wrappers.size());
+    final List<List<PlanFragmentFull>> fragmentsByMajor = ParallelTasks.map(wrappers, generator::generate,
+      threads, queryContext != null ? queryContext.getExecutorService() : null);
+    observer.planGenerationBreakdown(threads,
+      TimeUnit.NANOSECONDS.toMillis(generator.materializationNanos.sum()),
+      TimeUnit.NANOSECONDS.toMillis(generator.serializationNanos.sum()));
+
+    final List<PlanFragmentFull> fragments = Lists.newArrayList();
+    fragmentsByMajor.forEach(fragments::addAll);
+    return fragments;
+  }
+
+  /**
+   * Generates the plan fragments of one major fragment at a time. Can be used by multiple threads, as long as each
+   * major fragment is generated by a single thread.
+   */
+  private final class MajorFragmentGenerator {
+    private final ByteString optionsData;
+    private final NodeEndpoint foremanNode;
+    private final QueryId queryId;
+    private final PhysicalPlanReader reader;
+    private final PlanningSet planningSet;
+    private final PlanFragmentsIndex.Builder indexBuilder;
+    private final EndpointsIndex.Builder builder;
+    private final UserSession session;
+    private final QueryContextInformation queryContextInfo;
+    private final MajorFragmentAssignmentCache majorFragmentAssignmentsCache = new MajorFragmentAssignmentCache();
+    private final boolean collateAssignments;
+
+    // time spent by all the threads
+    private final LongAdder materializationNanos = new LongAdder();
+    private final LongAdder serializationNanos = new LongAdder();
+
+    private MajorFragmentGenerator(ByteString optionsData,
+                                   NodeEndpoint foremanNode,
+                                   QueryId queryId,
+                                   PhysicalPlanReader reader,
+                                   PlanningSet planningSet,
+                                   PlanFragmentsIndex.Builder indexBuilder,
+                                   UserSession session,
+                                   QueryContextInformation queryContextInfo) {
+      this.optionsData = optionsData;
+      this.foremanNode = foremanNode;
+      this.queryId = queryId;
+      this.reader = reader;
+      this.planningSet = planningSet;
+      this.indexBuilder = indexBuilder;
+      this.builder = indexBuilder.getEndpointsIndexBuilder();
+      this.session = session;
+      this.queryContextInfo = queryContextInfo;
+      this.collateAssignments = queryContext.getOptions().getOption(VectorizedHashAggOperator.OOB_SPILL_TRIGGER_ENABLED) ||
+        queryContext.getOptions().getOption(ExternalSortOperator.OOB_SORT_TRIGGER_ENABLED);
+    }
+
+    private List<PlanFragmentFull> generate(Wrapper wrapper) throws ExecutionSetupException {
+      final List<PlanFragmentFull> fragments = new ArrayList<>(wrapper.getWidth());
       Fragment node = wrapper.getNode();
       final PhysicalOperator physicalOperatorRoot = node.getRoot();
-      boolean isRootNode = rootNode == node;
 
-      if (isRootNode && wrapper.getWidth() != 1) {
-        throw new ForemanSetupException(String.format("Failure while trying to setup fragment. " +
-                "The root fragment must always have parallelization one. In the current case, the width was set to %d.",
-                wrapper.getWidth()));
-      }
       // a fragment is self driven if it doesn't rely on any other exchanges.
       boolean isLeafFragment = node.getReceivingExchangePairs().size() == 0;
 
@@ -523,8 +600,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
       // come up with a list of minor fragments assigned for each endpoint.
       final List<FragmentAssignment> assignments = new ArrayList<>();
 
-      if(queryContext.getOptions().getOption(VectorizedHashAggOperator.OOB_SPILL_TRIGGER_ENABLED) ||
-        queryContext.getOptions().getOption(ExternalSortOperator.OOB_SORT_TRIGGER_ENABLED)) {
+      if (collateAssignments) {
 
         // collate by node.
         ArrayListMultimap<Integer, Integer> assignMap = ArrayListMultimap.create();
@@ -545,14 +621,18 @@ public class SimpleParallelizer implements ParallelizationParameters {
       // Create a minorFragment for each major fragment.
       PlanFragmentMajor major = null;
       boolean majorAdded = false;
+      final MinorDataSerDe serDe = new MinorDataSerDe(reader, fragmentCodec);
       // Create a minorFragment for each major fragment.
       for (int minorFragmentId = 0; minorFragmentId < wrapper.getWidth(); minorFragmentId++) {
+        long start = System.nanoTime();
         IndexedFragmentNode iNode = new IndexedFragmentNode(minorFragmentId, wrapper);
         wrapper.resetAllocation();
         PhysicalOperator op = physicalOperatorRoot.accept(new Materializer(wrapper.getSplitSets(), builder), iNode);
 
         Preconditions.checkArgument(op instanceof FragmentRoot);
         FragmentRoot root = (FragmentRoot) op;
+        final long materialized = System.nanoTime();
+        materializationNanos.add(materialized - start);
 
         FragmentHandle handle =
           FragmentHandle //
@@ -568,17 +648,14 @@ public class SimpleParallelizer implements ParallelizationParameters {
 
           // get plan as JSON
           ByteString plan;
-          ByteString optionsData;
           try {
             plan = reader.writeJsonBytes(root, fragmentCodec);
-            optionsData = reader.writeJsonBytes(options, fragmentCodec);
           } catch (JsonProcessingException e) {
             throw new ForemanSetupException("Failure while trying to convert fragment into json.", e);
           }
 
           // If any of the operators report ext communicable fragments, fill in the assignment and node details.
           final Set<Integer> extCommunicableMajorFragments = physicalOperatorRoot.accept(new ExtCommunicableFragmentCollector(), wrapper);
-          majorFragmentAssignmentsCache.populateIfAbsent(planningSet, builder, extCommunicableMajorFragments);
           final List<MajorFragmentAssignment> extFragmentAssignments =
                   majorFragmentAssignmentsCache.getAssignments(planningSet, builder, extCommunicableMajorFragments);
           major =
@@ -609,7 +686,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
         List<MinorAttr> attrList = MinorDataCollector.collect(handle,
           endpoint,
           root,
-          new MinorDataSerDe(reader,fragmentCodec),
+          serDe,
           indexBuilder);
 
 
@@ -622,6 +699,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
           .addAllCollector(CountRequiredFragments.getCollectors(root))
           .addAllAttrs(attrList)
           .build();
+        serializationNanos.add(System.nanoTime() - materialized);
 
         if (logger.isTraceEnabled()) {
           logger.trace(
@@ -630,9 +708,8 @@ public class SimpleParallelizer implements ParallelizationParameters {
 
         fragments.add(new PlanFragmentFull(major, minor));
       }
+      return fragments;
     }
-
-    return fragments;
   }
 
   /**
@@ -680,7 +757,7 @@ public class SimpleParallelizer implements ParallelizationParameters {
   private class MajorFragmentAssignmentCache {
     private final Map<Integer, MajorFragmentAssignment> majorFragmentAssignments = new HashMap<>();
 
-    private List<MajorFragmentAssignment> getAssignments(final PlanningSet planningSet,
+    private synchronized List<MajorFragmentAssignment> getAssignments(final PlanningSet planningSet,
                                                          final EndpointsIndex.Builder builder,
                                                          final Set<Integer> requiredFragments) {
       populateIfAbsent(planningSet, builder, requiredFragments);
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.logical;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.sql.SqlAggFunction;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.dremio.exec.planner.common.MoreRelOptUtil;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Pushes a partial aggregate below an inner equi-join, on the side that produces the most rows.
+ *
+ * The partial aggregate groups the fact side by its join keys and by the grouping columns it
+ * contributes, and the original aggregate is kept above the join to combine the partial results.
+ * Only applies when every aggregated value comes from the fact side, so the other side can be
+ * joined as is. Both aggregates are later planned with the usual two phase aggregation, and the
+ * volcano planner keeps the rewritten plan only when it is cheaper.
+ */
+public class DremioAggregateJoinTransposeRule extends RelOptRule {
+  public static final DremioAggregateJoinTransposeRule INSTANCE = new DremioAggregateJoinTransposeRule();
+
+  private DremioAggregateJoinTransposeRule() {
+    super(operand(AggregateRel.class, operand(JoinRel.class, any())),
+      DremioRelFactories.LOGICAL_BUILDER, "DremioAggregateJoinTransposeRule");
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    final AggregateRel aggregate = call.rel(0);
+    final JoinRel join = call.rel(1);
+    if (aggregate.getGroupType() != Aggregate.Group.SIMPLE
+      || join.getJoinType() != JoinRelType.INNER
+      || join.getProjectedFields() != null
+      || join.analyzeCondition().leftKeys.isEmpty()
+      || !join.analyzeCondition().isEqui()) {
+      return false;
+    }
+    for (AggregateCall aggCall : aggregate.getAggCallList()) {
+      if (aggCall.isDistinct() || aggCall.filterArg >= 0 || getFinalAggregation(aggCall) == null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    final AggregateRel aggregate = call.rel(0);
+    final JoinRel join = call.rel(1);
+    final RelMetadataQuery mq = call.getMetadataQuery();
+    final JoinInfo joinInfo = join.analyzeCondition();
+
+    final int leftCount = join.getLeft().getRowType().getFieldCount();
+    final boolean pushLeft = mq.getRowCount(join.getLeft()) >= mq.getRowCount(join.getRight());
+    final RelNode fact = pushLeft ? join.getLeft() : join.getRight();
+    final int factOffset = pushLeft ? 0 : leftCount;
+    final ImmutableBitSet factFields = ImmutableBitSet.range(factOffset, factOffset + fact.getRowType().getFieldCount());
+
+    // the other side is joined as is, so everything aggregated has to come from the fact side
+    for (AggregateCall aggCall : aggregate.getAggCallList()) {
+      if (!factFields.contains(ImmutableBitSet.of(aggCall.getArgList()))) {
+        return;
+      }
+    }
+
+    final ImmutableBitSet factKeys = ImmutableBitSet.of(pushLeft ? joinInfo.leftKeys : joinInfo.rightKeys)
+      .union(aggregate.getGroupSet().intersect(factFields).shift(-factOffset));
+    if (factKeys.cardinality() == fact.getRowType().getFieldCount()
+      || Boolean.TRUE.equals(mq.areColumnsUnique(fact, factKeys))) {
+      // grouping by these keys does not reduce the fact side
+      return;
+    }
+
+    final List<AggregateCall> partialCalls = new ArrayList<>();
+    for (AggregateCall aggCall : aggregate.getAggCallList()) {
+      final List<Integer> args = new ArrayList<>();
+      for (int arg : aggCall.getArgList()) {
+        args.add(arg - factOffset);
+      }
+      partialCalls.add(AggregateCall.create(aggCall.getAggregation(), false, false, args, -1,
+        factKeys.cardinality(), fact, null, aggCall.getName()));
+    }
+    final RelNode partial = DremioRelFactories.LOGICAL_AGGREGATE_FACTORY.createAggregate(
+      fact, false, factKeys, ImmutableList.of(factKeys), partialCalls);
+
+    final RelNode newLeft = pushLeft ? partial : join.getLeft();
+    final RelNode newRight = pushLeft ? join.getRight() : partial;
+    final int newLeftCount = newLeft.getRowType().getFieldCount();
+    final int[] mapping = new int[join.getRowType().getFieldCount()];
+    for (int i = 0; i < mapping.length; i++) {
+      if (factFields.get(i)) {
+        mapping[i] = (pushLeft ? 0 : newLeftCount) + factKeys.indexOf(i - factOffset);
+      } else {
+        mapping[i] = pushLeft ? newLeftCount + (i - leftCount) : i;
+      }
+    }
+
+    final RexNode newCondition = join.getCondition().accept(new RexShuttle() {
+      @Override
+      public RexNode visitInputRef(RexInputRef inputRef) {
+        return new RexInputRef(mapping[inputRef.getIndex()], inputRef.getType());
+      }
+    });
+    final JoinRel newJoin = join.copy(join.getTraitSet(), newCondition, newLeft, newRight,
+      join.getJoinType(), join.isSemiJoinDone());
+
+    final int partialAggOffset = (pushLeft ? 0 : newLeftCount) + factKeys.cardinality();
+    final ImmutableBitSet.Builder groupSet = ImmutableBitSet.builder();
+    for (int key : aggregate.getGroupSet()) {
+      groupSet.set(mapping[key]);
+    }
+    final List<AggregateCall> finalCalls = new ArrayList<>();
+    for (int i = 0; i < aggregate.getAggCallList().size(); i++) {
+      final AggregateCall aggCall = aggregate.getAggCallList().get(i);
+      finalCalls.add(AggregateCall.create(getFinalAggregation(aggCall), false, false,
+        ImmutableList.of(partialAggOffset + i), -1, aggregate.getGroupCount(), newJoin, null, aggCall.getName()));
+    }
+    final ImmutableBitSet newGroupSet = groupSet.build();
+    final RelNode top = DremioRelFactories.LOGICAL_AGGREGATE_FACTORY.createAggregate(
+      newJoin, false, newGroupSet, ImmutableList.of(newGroupSet), finalCalls);
+
+    call.transformTo(MoreRelOptUtil.createCastRel(top, aggregate.getRowType(), DremioRelFactories.LOGICAL_PROJECT_FACTORY));
+  }
+
+  /**
+   * Returns the aggregation combining the partial results of the given call, or null if it cannot be split.
+   */
+  private static SqlAggFunction getFinalAggregation(AggregateCall aggCall) {
+    switch (aggCall.getAggregation().getKind()) {
+    case COUNT:
+      // partial counts are summed up, as done between the phases of a two phase aggregate
+      return SqlStdOperatorTable.SUM0;
+    case SUM:
+    case SUM0:
+    case MIN:
+    case MAX:
+      return aggCall.getAggregation();
+    default:
+      return null;
+    }
+  }
+}
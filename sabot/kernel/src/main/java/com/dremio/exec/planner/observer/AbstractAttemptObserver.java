@@ -165,6 +165,10 @@ public abstract class AbstractAttemptObserver implements AttemptObserver {
   public void planGenerationTime(long millisTaken) {
   }
 
+  @Override
+  public void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis) {
+  }
+
   @Override
   public void planAssignmentTime(long millisTaken) {
   }
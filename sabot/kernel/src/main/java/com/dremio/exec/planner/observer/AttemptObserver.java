@@ -241,6 +241,14 @@ public interface AttemptObserver {
    */
   void planGenerationTime(long millisTaken);
 
+  /**
+   * Time spent generating fragments, broken down by step and cumulated over the threads generating them.
+   * @param threads number of threads generating fragments
+   * @param materializationMillis time taken to materialize the minor fragments, in milliseconds
+   * @param serializationMillis time taken to serialize the fragments and their attributes, in milliseconds
+   */
+  void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis);
+
   /**
    * Time taken to assign fragments to nodes.
    * @param millisTaken time in milliseconds
@@ -250,6 +250,13 @@ public class AttemptObservers implements AttemptObserver {
     }
   }
 
+  @Override
+  public void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis) {
+    for (final AttemptObserver observer : observers) {
+      observer.planGenerationBreakdown(threads, materializationMillis, serializationMillis);
+    }
+  }
+
   @Override
   public void planAssignmentTime(long millisTaken) {
     for (final AttemptObserver observer : observers) {
@@ -189,6 +189,11 @@ public class DelegatingAttemptObserver implements AttemptObserver {
     observer.planGenerationTime(millisTaken);
   }
 
+  @Override
+  public void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis) {
+    observer.planGenerationBreakdown(threads, materializationMillis, serializationMillis);
+  }
+
   @Override
   public void planAssignmentTime(long millisTaken) {
     observer.planAssignmentTime(millisTaken);
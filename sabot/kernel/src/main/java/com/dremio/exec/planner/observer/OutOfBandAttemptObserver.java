@@ -229,6 +229,11 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
     execute(() -> innerObserver.planGenerationTime(millisTaken));
   }
 
+  @Override
+  public void planGenerationBreakdown(final int threads, final long materializationMillis, final long serializationMillis) {
+    execute(() -> innerObserver.planGenerationBreakdown(threads, materializationMillis, serializationMillis));
+  }
+
   @Override
   public void planAssignmentTime(final long millisTaken) {
     execute(() -> innerObserver.planAssignmentTime(millisTaken));
@@ -77,7 +77,9 @@ public abstract class AggPruleBase extends Prule {
       "COUNT",
       "$SUM0",
       "HLL_MERGE",
-      "HLL"
+      "HLL",
+      "BOOL_AND",
+      "BOOL_OR"
       );
 
   // Create 2 phase aggr plan for aggregates such as SUM, MIN, MAX
@@ -99,6 +99,10 @@ public class DictionaryLookupPrel extends SinglePrel {
         dictionaryEncodedFields);
   }
 
+  public boolean isDecoded(String fieldName) {
+    return dictionaryEncodedFields.containsKey(fieldName);
+  }
+
   @Override
   protected RelDataType deriveRowType() {
     return relDataType;
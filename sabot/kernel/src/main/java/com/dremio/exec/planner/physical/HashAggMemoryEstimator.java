@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import com.dremio.common.expression.CompleteType;
@@ -129,8 +130,6 @@ public class HashAggMemoryEstimator {
          final VectorContainer incoming = new VectorContainer(allocator)) {
       incoming.addSchema(childSchema);
 
-      final int hashTableBatchSize = computeHashTableSize(options, schema);
-
       // construct pivot info using the group-by exprs.
       final List<LogicalExpression> materializedGroupByExprs = materializeExprs(groupByExpressions,
         childSchema,
@@ -145,6 +144,8 @@ public class HashAggMemoryEstimator {
         AccumulatorBuilder.getAccumulatorTypesFromMaterializedExpressions(
           aggregateExpressions, materializedAggExprs, incoming);
 
+      final int hashTableBatchSize = computeHashTableSize(options, schema, accumulatorTypes);
+
       return create(pivotInfo, accumulatorTypes, hashTableBatchSize, options);
     }
   }
@@ -260,7 +261,7 @@ public class HashAggMemoryEstimator {
   private int computeAccumulatorSizeForSinglePartition() {
     int validitySize = 0;
     int dataSize = 0;
-    for (Field field : materializedAggExpressions.getOutputVectorFields()) {
+    for (Field field : materializedAggExpressions.getPostSpillAccumulatorVectorFields()) {
       TypeProtos.MinorType minorType = CompleteType.fromField(field).toMinorType();
       switch (minorType) {
         case BIT:
@@ -292,6 +293,12 @@ public class HashAggMemoryEstimator {
           validitySize += getValidityBufferSizeFromCount(hashTableBatchSize);
           dataSize += (16 * hashTableBatchSize);
           break;
+
+        /* fixed size sketch slots of NDV accumulators */
+        case FIXEDSIZEBINARY:
+          validitySize += getValidityBufferSizeFromCount(hashTableBatchSize);
+          dataSize += (((ArrowType.FixedSizeBinary) field.getType()).getByteWidth() * hashTableBatchSize);
+          break;
       }
     }
 
@@ -314,7 +321,7 @@ public class HashAggMemoryEstimator {
   }
 
   private static int computeHashTableSize(final OptionManager options,
-    final BatchSchema schema) {
+    final BatchSchema schema, final MaterializedAggExpressionsResult materializedAggExpressions) {
 
     /*
      * Estimate the outgoing record size. This is proportional to the sum of the accumulator and
@@ -330,6 +337,21 @@ public class HashAggMemoryEstimator {
     final int maxOutgoingBatchSize = (int)options.getOption(VectorizedHashAggOperator.VECTORIZED_HASHAGG_MAX_BATCHSIZE_BYTES);
     int maxOutgoingRecordCount = Numbers.nextPowerOfTwo(maxOutgoingBatchSize / estimatedRecordSize);
 
+    /*
+     * NDV accumulators hold a sketch of a few KB per group, which the estimated record size knows
+     * nothing about. Bound the size of their accumulation vectors separately.
+     */
+    int sketchRecordSize = 0;
+    for (Field field : materializedAggExpressions.getPostSpillAccumulatorVectorFields()) {
+      if (field.getType() instanceof ArrowType.FixedSizeBinary) {
+        sketchRecordSize += ((ArrowType.FixedSizeBinary) field.getType()).getByteWidth();
+      }
+    }
+    if (sketchRecordSize > 0) {
+      final int maxSketchBatchSize = (int)options.getOption(VectorizedHashAggOperator.VECTORIZED_HASHAGG_NDV_MAX_BATCHSIZE_BYTES);
+      maxOutgoingRecordCount = Math.min(maxOutgoingRecordCount, Numbers.nextPowerOfTwo(maxSketchBatchSize / sketchRecordSize));
+    }
+
     final int configuredTargetRecordCount = (int)options.getOption(ExecConstants.TARGET_BATCH_RECORDS_MAX);
     final int minTargetRecordCount = (int)options.getOption(ExecConstants.TARGET_BATCH_RECORDS_MIN);
     int batchSize = Math.min(configuredTargetRecordCount, maxOutgoingRecordCount);
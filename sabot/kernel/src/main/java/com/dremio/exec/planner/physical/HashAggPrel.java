@@ -34,6 +34,7 @@ import org.apache.calcite.util.ImmutableBitSet;
 import com.dremio.common.expression.CompleteType;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.NamedExpression;
+import com.dremio.common.types.TypeProtos.MinorType;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.ExpressionTreeMaterializer;
 import com.dremio.exec.expr.FunctionHolderExpr;
@@ -173,21 +174,26 @@ public class HashAggPrel extends AggPrelBase implements Prel{
     if (!canVectorize(creator, child)) {
       return false;
     }
-    boolean useSpill = true;
-    final BatchSchema childSchema = child.getProps().getSchema();
+    return !requiresNoSpill(creator, child.getProps().getSchema());
+  }
+
+  /**
+   * Whether some aggregate is only supported by the non-spilling vectorized operator.
+   */
+  private boolean requiresNoSpill(PhysicalPlanCreator creator, BatchSchema childSchema) {
+    final boolean enabledSpillNdv = creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_SPILL_NDV_ACCUMULATOR);
     for(NamedExpression ne : aggExprs) {
       final LogicalExpression expr = ExpressionTreeMaterializer.materializeAndCheckErrors(ne.getExpr(), childSchema, creator.getContext().getFunctionRegistry());
       if (expr != null && (expr instanceof FunctionHolderExpr)) {
         final String functionName = ((FunctionHolderExpr) expr).getName();
         final boolean isMinMaxFn = (functionName.equals("min") || functionName.equals("max"));
         final boolean isNDVFn = (functionName.equals("hll") || functionName.equals("hll_merge"));
-        if (isNDVFn || (isMinMaxFn && expr.getCompleteType().isVariableWidthScalar())) {
-          useSpill = false;
-          break;
+        if ((isNDVFn && !enabledSpillNdv) || (isMinMaxFn && expr.getCompleteType().isVariableWidthScalar())) {
+          return true;
         }
       }
     }
-    return useSpill;
+    return false;
   }
 
   private boolean initialCanVectorize(PhysicalPlanCreator creator, PhysicalOperator child){
@@ -227,6 +233,7 @@ public class HashAggPrel extends AggPrelBase implements Prel{
     }
 
     final boolean enabledVarcharNdv = creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_NOSPILL_VARCHAR_NDV_ACCUMULATOR);
+    boolean hasBooleanAgg = false;
 
     for(NamedExpression ne : aggExprs){
       final LogicalExpression expr = ExpressionTreeMaterializer.materializeAndCheckErrors(ne.getExpr(), childSchema, creator.getContext().getFunctionRegistry());
@@ -294,13 +301,21 @@ public class HashAggPrel extends AggPrelBase implements Prel{
         }
         continue;
 
+      case "bool_and":
+      case "bool_or":
+        if (inputType.toMinorType() != MinorType.BIT) {
+          return false;
+        }
+        hasBooleanAgg = true;
+        continue;
 
       default:
         return false;
       }
     }
 
-    return true;
+    // boolean aggregates are only supported by the spilling operator
+    return !hasBooleanAgg || !requiresNoSpill(creator, childSchema);
   }
 
   @Override
@@ -344,7 +359,8 @@ public class HashAggPrel extends AggPrelBase implements Prel{
         canVectorize,
         canSpill,
         1.0f,
-        hashTableBatchSize);
+        hashTableBatchSize,
+        getOperatorPhase() == OperatorPhase.PHASE_1of2);
   }
 
 
@@ -49,6 +49,7 @@ public class HashToRandomExchangePrel extends ExchangePrel {
 
   private final List<DistributionField> fields;
   private final String hashFunctionName;
+  private boolean spreadSkewedKeys;
 
   public HashToRandomExchangePrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode input, List<DistributionField> fields,
                                   String hashFunctionName) {
@@ -96,7 +97,9 @@ public class HashToRandomExchangePrel extends ExchangePrel {
 
   @Override
   public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
-    return new HashToRandomExchangePrel(getCluster(), traitSet, sole(inputs), fields, hashFunctionName);
+    final HashToRandomExchangePrel copy = new HashToRandomExchangePrel(getCluster(), traitSet, sole(inputs), fields, hashFunctionName);
+    copy.setSpreadSkewedKeys(spreadSkewedKeys);
+    return copy;
   }
 
   public PhysicalOperator getPhysicalOperator(PhysicalPlanCreator creator) throws IOException {
@@ -116,7 +119,8 @@ public class HashToRandomExchangePrel extends ExchangePrel {
         HashSenderCalculator.captureBucketOptions(creator.getOptionManager(), SENDER_RESERVE, props.getSchema()),
         props.getSchema(),
         childPOP,
-        HashPrelUtil.getHashExpression(this.fields, getInput().getRowType()));
+        HashPrelUtil.getHashExpression(this.fields, getInput().getRowType()),
+        spreadSkewedKeys);
   }
 
   public List<DistributionField> getFields() {
@@ -129,6 +133,7 @@ public class HashToRandomExchangePrel extends ExchangePrel {
       for (Ord<DistributionField> ord : Ord.zip(fields)) {
         pw.item("dist" + ord.i, ord.e);
       }
+    pw.itemIf("spreadSkewedKeys", spreadSkewedKeys, spreadSkewedKeys);
     return pw;
   }
 
@@ -140,4 +145,16 @@ public class HashToRandomExchangePrel extends ExchangePrel {
   public String getHashFunctionName() {
     return this.hashFunctionName;
   }
+
+  /**
+   * @return true if the consumer doesn't need all rows of a key on the same receiver,
+   * in which case the sender may spread heavy hitters over several receivers
+   */
+  public boolean isSpreadSkewedKeys() {
+    return spreadSkewedKeys;
+  }
+
+  public void setSpreadSkewedKeys(boolean spreadSkewedKeys) {
+    this.spreadSkewedKeys = spreadSkewedKeys;
+  }
 }
@@ -30,7 +30,13 @@ import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.util.ImmutableBitSet;
 
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.ExpressionTreeMaterializer;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.expr.fn.FunctionLookupContext;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.config.MergeJoinPOP;
 import com.dremio.exec.planner.cost.DremioCost;
@@ -129,15 +135,80 @@ public class MergeJoinPrel  extends JoinPrel {
     }
     BatchSchema schema = b.build();
 
+    final boolean vectorize = creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_MERGEJOIN)
+        && canVectorize(creator.getContext().getFunctionRegistry(), leftPop, rightPop, conditions);
+
     return new MergeJoinPOP(
         creator.props(this, null, schema, RESERVE, LIMIT),
         leftPop,
         rightPop,
         conditions,
-        jtype
+        jtype,
+        vectorize
         );
   }
 
+  private boolean canVectorize(FunctionLookupContext functionLookup, PhysicalOperator leftPop, PhysicalOperator rightPop, List<JoinCondition> conditions){
+    BatchSchema left = leftPop.getProps().getSchema();
+    BatchSchema right = rightPop.getProps().getSchema();
+
+    // keys are compared on their pivoted representation, they must be direct references of the same, orderable type.
+    for(JoinCondition c : conditions){
+      LogicalExpression leftExpr = ExpressionTreeMaterializer.materializeAndCheckErrors(c.getLeft(), left, functionLookup);
+      LogicalExpression rightExpr = ExpressionTreeMaterializer.materializeAndCheckErrors(c.getRight(), right, functionLookup);
+      if(!(leftExpr instanceof ValueVectorReadExpression) || !(rightExpr instanceof ValueVectorReadExpression)){
+        return false;
+      }
+
+      if(!isComparable(leftExpr.getCompleteType()) || !leftExpr.getCompleteType().equals(rightExpr.getCompleteType())){
+        return false;
+      }
+    }
+
+    // all the columns are projected by the vectorized copiers.
+    for(Field f : right){
+      if(!isCopyable(CompleteType.fromField(f))){
+        return false;
+      }
+    }
+    for(Field f : left){
+      if(!isCopyable(CompleteType.fromField(f))){
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private boolean isComparable(CompleteType ct){
+    switch(ct.toMinorType()){
+    case BIGINT:
+    case BIT:
+    case DATE:
+    case FLOAT4:
+    case FLOAT8:
+    case INT:
+    case TIME:
+    case TIMESTAMP:
+    case VARBINARY:
+    case VARCHAR:
+    case DECIMAL:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private boolean isCopyable(CompleteType ct){
+    switch(ct.toMinorType()){
+    case INTERVALDAY:
+    case INTERVALYEAR:
+      return true;
+    default:
+      return isComparable(ct);
+    }
+  }
+
   @Override
   public SelectionVectorMode[] getSupportedEncodings() {
     // currently, MergeJoin operator is not handling incoming batch containing SV2 or SV4, so
@@ -16,8 +16,13 @@
 package com.dremio.exec.planner.physical;
 
 
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.calcite.config.CalciteConnectionConfig;
@@ -28,6 +33,8 @@ import org.apache.calcite.util.CancelFlag;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.catalog.conf.SourceType;
+import com.dremio.exec.planner.PlannerPhase;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.options.CachingOptionManager;
 import com.dremio.exec.testing.ExecutionControls;
@@ -46,8 +53,11 @@ import com.dremio.options.TypeValidators.QueryLevelOptionValidation;
 import com.dremio.options.TypeValidators.RangeDoubleValidator;
 import com.dremio.options.TypeValidators.RangeLongValidator;
 import com.dremio.options.TypeValidators.StringValidator;
+import com.dremio.proto.model.statistics.TableStatistics;
 import com.dremio.resource.GroupResourceInformation;
+import com.dremio.service.namespace.NamespaceKey;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 
@@ -112,8 +122,11 @@ public class PlannerSettings implements Context{
   public static final BooleanValidator TRANSITIVE_FILTER_JOIN_PUSHDOWN = new BooleanValidator("planner.filter.transitive_pushdown", true);
   public static final BooleanValidator TRANSITIVE_FILTER_NOT_NULL_EXPR_PUSHDOWN = new BooleanValidator("planner.filter.transitive_pushdown_not_null_expr", false); // Until DX-26452 is fixes
   public static final BooleanValidator ENABLE_RUNTIME_FILTER = new BooleanValidator("planner.filter.runtime_filter", true);
+  public static final BooleanValidator ENABLE_TOPN_RUNTIME_FILTER = new BooleanValidator("planner.filter.topn_runtime_filter", false);
+  public static final BooleanValidator ENABLE_SKEWED_KEYS_SPREADING = new BooleanValidator("planner.enable_skewed_keys_spreading", false);
   public static final BooleanValidator ENABLE_TRANSPOSE_PROJECT_FILTER_LOGICAL = new BooleanValidator("planner.experimental.tpf_logical", false);
   public static final BooleanValidator ENABLE_PROJECT_CLEANUP_LOGICAL = new BooleanValidator("planner.experimental.pclean_logical", false);
+  public static final BooleanValidator ENABLE_AGG_JOIN_TRANSPOSE = new BooleanValidator("planner.experimental.agg_join_transpose", false);
   public static final BooleanValidator ENABLE_CROSS_JOIN = new BooleanValidator("planner.enable_cross_join", true);
   public static final BooleanValidator ENABLE_DECIMAL_DATA_TYPE = new BooleanValidator
     (ENABLE_DECIMAL_DATA_TYPE_KEY, true);
@@ -122,6 +135,8 @@ public class PlannerSettings implements Context{
   public static final String UNIONALL_DISTRIBUTE_KEY = "planner.enable_unionall_distribute";
   public static final BooleanValidator UNIONALL_DISTRIBUTE = new BooleanValidator(UNIONALL_DISTRIBUTE_KEY, true);
   public static final LongValidator PLANNING_MAX_MILLIS = new LongValidator("planner.timeout_per_phase_ms", 60_000);
+  // once planning has taken longer than this, the remaining phases settle for the best plan found so far (0 disables it)
+  public static final LongValidator PLANNING_BUDGET_MILLIS = new LongValidator("planner.planning_budget_ms", 0);
   public static final BooleanValidator RELATIONAL_PLANNING = new BooleanValidator("planner.enable_relational_planning", true);
   public static final BooleanValidator FULL_NESTED_SCHEMA_SUPPORT = new BooleanValidator("planner.enable_full_nested_schema", true);
   public static final BooleanValidator COMPLEX_TYPE_FILTER_PUSHDOWN = new BooleanValidator("planner.complex_type_filter_pushdown", true);
@@ -210,6 +225,7 @@ public class PlannerSettings implements Context{
                               Integer.MAX_VALUE, DEFAULT_IDENTIFIER_MAX_LENGTH);
 
   public static final BooleanValidator ENABLE_GLOBAL_DICTIONARY = new BooleanValidator("planner.enable_global_dictionary", true);
+  public static final BooleanValidator ENABLE_GLOBAL_DICTIONARY_ENCODED_KEYS = new BooleanValidator("planner.enable_global_dictionary_encoded_keys", true);
 
   public static final DoubleValidator FLATTEN_EXPANSION_AMOUNT = new TypeValidators.RangeDoubleValidator("planner.flatten.expansion_size", 0, Double.MAX_VALUE, 10.0d);
 
@@ -236,6 +252,10 @@ public class PlannerSettings implements Context{
       new RangeDoubleValidator("planner.filter.min_selectivity_estimate_factor", 0.0, 1.0, DEFAULT_FILTER_MIN_SELECTIVITY_ESTIMATE_FACTOR);
   public static final DoubleValidator FILTER_MAX_SELECTIVITY_ESTIMATE_FACTOR =
       new RangeDoubleValidator("planner.filter.max_selectivity_estimate_factor", 0.0, 1.0, DEFAULT_FILTER_MAX_SELECTIVITY_ESTIMATE_FACTOR);
+  // use the statistics computed by ANALYZE TABLE to estimate row counts, selectivities and distinct row counts
+  public static final BooleanValidator USE_TABLE_STATISTICS = new BooleanValidator("planner.use_table_statistics", true);
+  // use the row counts of the join inputs observed while running earlier queries in place of the estimates
+  public static final BooleanValidator USE_CARDINALITY_FEEDBACK = new BooleanValidator("planner.experimental.cardinality_feedback", false);
 
   public static final BooleanValidator REMOVE_ROW_ADJUSTMENT = new BooleanValidator("planner.remove_rowcount_adjustment", true);
 
@@ -302,6 +322,13 @@ public class PlannerSettings implements Context{
 
   private NodeEndpoint nodeEndpoint = null;
 
+  // Tracks the planning time budget and the phases that were cut short because of it
+  private final Stopwatch planningWatch = Stopwatch.createStarted();
+  private final Set<PlannerPhase> cutShortPhases = EnumSet.noneOf(PlannerPhase.class);
+
+  private StatisticsService statisticsService = StatisticsService.NO_OP;
+  private final Map<NamespaceKey, Optional<TableStatistics>> tableStatistics = new HashMap<>();
+
   public PlannerSettings(SabotConfig config, OptionManager options,
                          Supplier<GroupResourceInformation> resourceInformation) {
     this(config, options, resourceInformation, null);
@@ -355,6 +382,19 @@ public class PlannerSettings implements Context{
     return options.getOption(PLANNING_MAX_MILLIS);
   }
 
+  public boolean isPlanningBudgetExceeded() {
+    final long budget = options.getOption(PLANNING_BUDGET_MILLIS);
+    return budget > 0 && planningWatch.elapsed(TimeUnit.MILLISECONDS) > budget;
+  }
+
+  public synchronized void cutShort(PlannerPhase phase) {
+    cutShortPhases.add(phase);
+  }
+
+  public synchronized boolean isCutShort(PlannerPhase phase) {
+    return cutShortPhases.contains(phase);
+  }
+
   public void forceSingleMode() {
     forceSingleMode = true;
   }
@@ -387,6 +427,14 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_RUNTIME_FILTER);
   }
 
+  public boolean isTopNRuntimeFilterEnabled() {
+    return options.getOption(ENABLE_TOPN_RUNTIME_FILTER);
+  }
+
+  public boolean isSkewedKeysSpreadingEnabled() {
+    return options.getOption(ENABLE_SKEWED_KEYS_SPREADING);
+  }
+
   public boolean isTransposeProjectFilterLogicalEnabled() {
     return options.getOption(ENABLE_TRANSPOSE_PROJECT_FILTER_LOGICAL);
   }
@@ -449,6 +497,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_PROJECT_CLEANUP_LOGICAL);
   }
 
+  public boolean isAggJoinTransposeEnabled() {
+    return options.getOption(ENABLE_AGG_JOIN_TRANSPOSE);
+  }
+
   public boolean isCrossJoinEnabled() {
     return options.getOption(ENABLE_CROSS_JOIN);
   }
@@ -477,6 +529,10 @@ public class PlannerSettings implements Context{
     return options.getOption(ENABLE_GLOBAL_DICTIONARY.getOptionName()).getBoolVal();
   }
 
+  public boolean isGlobalDictionaryEncodedKeysEnabled() {
+    return options.getOption(ENABLE_GLOBAL_DICTIONARY_ENCODED_KEYS);
+  }
+
   public boolean isStreamAggEnabled() {
     return options.getOption(STREAMAGG.getOptionName()).getBoolVal();
   }
@@ -549,6 +605,22 @@ public class PlannerSettings implements Context{
     return options.getOption(FILTER_MAX_SELECTIVITY_ESTIMATE_FACTOR);
   }
 
+  public void setStatisticsService(StatisticsService statisticsService) {
+    this.statisticsService = Preconditions.checkNotNull(statisticsService);
+  }
+
+  /**
+   * Get the statistics computed by ANALYZE TABLE for a table. They are read once per query.
+   *
+   * @return the statistics, null if the table was never analyzed or if their use is disabled
+   */
+  public TableStatistics getTableStatistics(NamespaceKey table) {
+    if (!options.getOption(USE_TABLE_STATISTICS)) {
+      return null;
+    }
+    return tableStatistics.computeIfAbsent(table, t -> Optional.ofNullable(statisticsService.getStatistics(t))).orElse(null);
+  }
+
   public long getIdentifierMaxLength(){
     return options.getOption(IDENTIFIER_MAX_LENGTH.getOptionName()).getNumVal();
   }
@@ -31,6 +31,7 @@ import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.physical.config.TopN;
 import com.dremio.exec.planner.cost.DremioCost;
 import com.dremio.exec.planner.cost.DremioCost.Factory;
+import com.dremio.exec.planner.physical.filter.RuntimeFilterEntry;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.options.Options;
 import com.dremio.options.TypeValidators.LongValidator;
@@ -43,16 +44,23 @@ public class TopNPrel extends SinglePrel {
 
   protected int limit;
   protected final RelCollation collation;
+  private RuntimeFilterEntry thresholdTarget;
 
   public TopNPrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode child, int limit, RelCollation collation) {
+    this(cluster, traitSet, child, limit, collation, null);
+  }
+
+  private TopNPrel(RelOptCluster cluster, RelTraitSet traitSet, RelNode child, int limit, RelCollation collation,
+                   RuntimeFilterEntry thresholdTarget) {
     super(cluster, traitSet, child);
     this.limit = limit;
     this.collation = collation;
+    this.thresholdTarget = thresholdTarget;
   }
 
   @Override
   public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
-    return new TopNPrel(getCluster(), traitSet, sole(inputs), this.limit, this.collation);
+    return new TopNPrel(getCluster(), traitSet, sole(inputs), this.limit, this.collation, this.thresholdTarget);
   }
 
   @Override
@@ -66,7 +74,8 @@ public class TopNPrel extends SinglePrel {
         childPOP,
         limit,
         PrelUtil.getOrdering(this.collation, getInput().getRowType()),
-        false
+        false,
+        thresholdTarget
         );
    }
 
@@ -96,6 +105,18 @@ public class TopNPrel extends SinglePrel {
         .item("limit", limit);
   }
 
+  public RelCollation getCollation() {
+    return collation;
+  }
+
+  public RuntimeFilterEntry getThresholdTarget() {
+    return thresholdTarget;
+  }
+
+  public void setThresholdTarget(RuntimeFilterEntry thresholdTarget) {
+    this.thresholdTarget = thresholdTarget;
+  }
+
   @Override
   public SelectionVectorMode[] getSupportedEncodings() {
     return SelectionVectorMode.NONE_AND_TWO;
@@ -33,6 +33,8 @@ import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexShuttle;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.Pair;
 
 import com.dremio.datastore.LegacyProtobufSerializer;
 import com.dremio.exec.catalog.StoragePluginId;
@@ -40,6 +42,7 @@ import com.dremio.exec.planner.physical.AggPrelBase;
 import com.dremio.exec.planner.physical.DistributionTrait.DistributionField;
 import com.dremio.exec.planner.physical.ExchangePrel;
 import com.dremio.exec.planner.physical.FilterPrel;
+import com.dremio.exec.planner.physical.HashJoinPrel;
 import com.dremio.exec.planner.physical.HashToMergeExchangePrel;
 import com.dremio.exec.planner.physical.HashToRandomExchangePrel;
 import com.dremio.exec.planner.physical.JoinPrel;
@@ -63,23 +66,38 @@ import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Sets;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
  * Replace column type with integer ids
+ *
+ * When encoded keys are enabled, hash exchanges distribute rows on dictionary ids and hash joins
+ * whose keys come from the same dictionary on both sides compare ids, so those keys are only
+ * decoded further up in the plan.
  */
 public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryInfo, Void, RuntimeException> {
 
   private final RelDataType dictionaryDataType;
+  private final boolean encodedKeys;
 
 
   public GlobalDictionaryVisitor(RelOptCluster cluster) {
+    this(cluster, false);
+  }
+
+  public GlobalDictionaryVisitor(RelOptCluster cluster, boolean encodedKeys) {
     dictionaryDataType = cluster.getTypeFactory().createSqlType(SqlTypeName.INTEGER);
+    this.encodedKeys = encodedKeys;
   }
 
   public static Prel useGlobalDictionaries(Prel prel) {
-    final PrelWithDictionaryInfo p =  prel.accept(new GlobalDictionaryVisitor(prel.getCluster()), null);
+    return useGlobalDictionaries(prel, false);
+  }
+
+  public static Prel useGlobalDictionaries(Prel prel, boolean encodedKeys) {
+    final PrelWithDictionaryInfo p =  prel.accept(new GlobalDictionaryVisitor(prel.getCluster(), encodedKeys), null);
     return p.getPrel();
   }
 
@@ -101,6 +119,7 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       return new PrelWithDictionaryInfo(exchangePrel); // none of fields are encoded
     }
 
+    boolean encodedDistribution = newInput.hasEncodedDistribution();
     if (exchangePrel instanceof HashToMergeExchangePrel || exchangePrel instanceof HashToRandomExchangePrel) {
       final List<DistributionField> distributionFields;
       if (exchangePrel instanceof HashToMergeExchangePrel) {
@@ -108,18 +127,26 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       } else {
         distributionFields = ((HashToRandomExchangePrel) exchangePrel).getFields();
       }
-      // decode used inputs by this filter
-      newInput = newInput.decodeFields(Lists.transform(distributionFields, new Function<DistributionField, Integer>() {
+      final List<Integer> distributionFieldIds = Lists.transform(distributionFields, new Function<DistributionField, Integer>() {
         @Override
         public Integer apply(DistributionField input) {
           return input.getFieldId();
         }
-      }));
+      });
+      if (encodedKeys && exchangePrel instanceof HashToRandomExchangePrel) {
+        // the same value always has the same id, so distributing on ids keeps equal values together
+        for (int fieldId : distributionFieldIds) {
+          encodedDistribution |= newInput.hasGlobalDictionary(fieldId);
+        }
+      } else {
+        // decode used inputs by this filter
+        newInput = newInput.decodeFields(distributionFieldIds);
+      }
     }
     // pass thr rest of exchanges, exchange uses child input's row data type.
     return new PrelWithDictionaryInfo(
       (Prel)exchangePrel.copy(exchangePrel.getTraitSet(), Collections.<RelNode>singletonList(newInput.getPrel())),
-      newInput.getFields());
+      newInput.getFields(), encodedDistribution);
   }
 
   @Override
@@ -133,6 +160,18 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       return new PrelWithDictionaryInfo(joinPrel);
     }
 
+    if (joinsOnSameDictionaries(joinPrel, leftInput, rightInput)) {
+      return visitJoinOnDictionaryIds(joinPrel, leftInput, rightInput);
+    }
+
+    // rows of both sides have to be distributed on the same values, so stop distributing on ids below this join
+    if (leftInput.hasEncodedDistribution()) {
+      leftInput = ((Prel) joinPrel.getLeft()).accept(new GlobalDictionaryVisitor(joinPrel.getCluster(), false), value);
+    }
+    if (rightInput.hasEncodedDistribution()) {
+      rightInput = ((Prel) joinPrel.getRight()).accept(new GlobalDictionaryVisitor(joinPrel.getCluster(), false), value);
+    }
+
     final Set<Integer> fieldsUsed = Sets.newHashSet();
     final Set<Integer> leftFieldsUsed = Sets.newHashSet();
     final Set<Integer> rightFieldsUsed = Sets.newHashSet();
@@ -172,6 +211,53 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       Lists.<RelNode>newArrayList(leftInput.getPrel(), rightInput.getPrel())), reorderedFields);
   }
 
+  /**
+   * Whether the join is a hash join only comparing keys encoded with the same dictionary on both sides.
+   */
+  private boolean joinsOnSameDictionaries(JoinPrel joinPrel, PrelWithDictionaryInfo leftInput, PrelWithDictionaryInfo rightInput) {
+    if (!encodedKeys || !(joinPrel instanceof HashJoinPrel) || joinPrel.getLeftKeys().isEmpty()
+      || !joinPrel.getRemaining().isAlwaysTrue()) {
+      return false;
+    }
+    for (Pair<Integer, Integer> keys : Pair.zip(joinPrel.getLeftKeys(), joinPrel.getRightKeys())) {
+      final GlobalDictionaryFieldInfo leftField = leftInput.getGlobalDictionaryFieldInfo(keys.left);
+      final GlobalDictionaryFieldInfo rightField = rightInput.getGlobalDictionaryFieldInfo(keys.right);
+      if (leftField == null || rightField == null
+        || leftField.getDictionaryVersion() != rightField.getDictionaryVersion()
+        || !leftField.getDictionaryPath().equals(rightField.getDictionaryPath())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Compare dictionary ids, keys are decoded further up in the tree along with the other fields.
+  private PrelWithDictionaryInfo visitJoinOnDictionaryIds(JoinPrel joinPrel, PrelWithDictionaryInfo leftInput, PrelWithDictionaryInfo rightInput) {
+    final List<RelDataTypeField> inputFields = Lists.newArrayList(leftInput.getPrel().getRowType().getFieldList());
+    inputFields.addAll(rightInput.getPrel().getRowType().getFieldList());
+    final GlobalDictionaryFieldInfo[] inputFieldInfos = ObjectArrays.concat(leftInput.getFields(), rightInput.getFields(), GlobalDictionaryFieldInfo.class);
+
+    // condition now references integer ids
+    final RexNode condition = joinPrel.getCondition().accept(new RexShuttle() {
+      @Override
+      public RexNode visitInputRef(RexInputRef inputRef) {
+        return new RexInputRef(inputRef.getIndex(), inputFields.get(inputRef.getIndex()).getType());
+      }
+    });
+
+    final ImmutableBitSet projectedFields = joinPrel.getProjectedFields() != null ?
+      joinPrel.getProjectedFields() : ImmutableBitSet.range(inputFieldInfos.length);
+    final GlobalDictionaryFieldInfo[] reorderedFields = new GlobalDictionaryFieldInfo[projectedFields.cardinality()];
+    int i = 0;
+    for (int field : projectedFields) {
+      reorderedFields[i++] = inputFieldInfos[field];
+    }
+
+    return new PrelWithDictionaryInfo((Prel) joinPrel.copy(joinPrel.getTraitSet(), condition, leftInput.getPrel(), rightInput.getPrel(),
+      joinPrel.getJoinType(), joinPrel.isSemiJoinDone()), reorderedFields,
+      leftInput.hasEncodedDistribution() || rightInput.hasEncodedDistribution());
+  }
+
   @Override
   public PrelWithDictionaryInfo visitProject(ProjectPrel projectPrel, Void value) throws RuntimeException {
     assert projectPrel.getInputs().size() == 1;
@@ -234,7 +320,8 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
     }
 
     return new PrelWithDictionaryInfo(
-      projectPrel.copy(projectPrel.getTraitSet(), newInput.getPrel(), newExprs, rowDataType), reorderedFields);
+      projectPrel.copy(projectPrel.getTraitSet(), newInput.getPrel(), newExprs, rowDataType), reorderedFields,
+      newInput.hasEncodedDistribution());
   }
 
   @Override
@@ -254,8 +341,17 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
     final List<RelNode> inputs = Lists.newArrayList();
 
     boolean changed = false;
+    boolean encodedDistribution = false;
     for (Prel input : prel) {
-      final PrelWithDictionaryInfo newInput = input.accept(this, value);
+      PrelWithDictionaryInfo newInput = input.accept(this, value);
+      if (newInput.hasEncodedDistribution()) {
+        if (prel.getInputs().size() > 1) {
+          // inputs may have to be distributed on the same values
+          newInput = input.accept(new GlobalDictionaryVisitor(prel.getCluster(), false), value);
+        } else {
+          encodedDistribution = true;
+        }
+      }
       if (input != newInput.getPrel()) {
         changed = true;
       }
@@ -270,7 +366,9 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
       return new PrelWithDictionaryInfo(prel);
     }
     // from this point onwards none of inputs will have global dictionary encoded fields
-    return new PrelWithDictionaryInfo((Prel)prel.copy(prel.getTraitSet(), inputs));
+    final Prel newPrel = (Prel)prel.copy(prel.getTraitSet(), inputs);
+    return new PrelWithDictionaryInfo(newPrel, new GlobalDictionaryFieldInfo[newPrel.getRowType().getFieldCount()],
+      encodedDistribution);
   }
 
   private boolean needsValue(SqlKind sqlKind) {
@@ -314,7 +412,7 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
         aggPrel.getGroupSet(),
         aggPrel.getGroupSets(),
         aggPrel.getAggCallList()),
-      reorderedFields);
+      reorderedFields, newInput.hasEncodedDistribution());
   }
 
   private PrelWithDictionaryInfo visitFilter(FilterPrel filterPrel, Void value) {
@@ -334,7 +432,7 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
     newInput = newInput.decodeFields(fieldsUsed);
 
     return new PrelWithDictionaryInfo((Prel)filterPrel.copy(filterPrel.getTraitSet(), newInput.getPrel(), filterPrel.getCondition()),
-      newInput.getFields());
+      newInput.getFields(), newInput.hasEncodedDistribution());
   }
 
   // Pass through do not decode.
@@ -343,7 +441,8 @@ public class GlobalDictionaryVisitor extends BasePrelVisitor<PrelWithDictionaryI
     if (limitPrel.getInput() == newInput.getPrel()) {
       return new PrelWithDictionaryInfo(limitPrel);
     }
-    return new PrelWithDictionaryInfo((Prel)limitPrel.copy(limitPrel.getTraitSet(), Collections.<RelNode>singletonList(newInput.getPrel())), newInput.getFields());
+    return new PrelWithDictionaryInfo((Prel)limitPrel.copy(limitPrel.getTraitSet(), Collections.<RelNode>singletonList(newInput.getPrel())),
+      newInput.getFields(), newInput.hasEncodedDistribution());
   }
 
   private RelDataTypeField dictionaryEncodedField(RelDataTypeField field) {
@@ -33,15 +33,23 @@ import com.google.common.collect.Lists;
 class PrelWithDictionaryInfo {
   private final Prel prel;
   private final GlobalDictionaryFieldInfo[] fields;
+  // true if some exchange below hash distributes rows on dictionary ids instead of values
+  private final boolean encodedDistribution;
 
   PrelWithDictionaryInfo(Prel prel) {
     this.prel = prel;
     fields = new GlobalDictionaryFieldInfo[prel.getRowType().getFieldCount()];
+    encodedDistribution = false;
   }
 
   PrelWithDictionaryInfo(Prel prel, GlobalDictionaryFieldInfo[] fields) {
+    this(prel, fields, false);
+  }
+
+  PrelWithDictionaryInfo(Prel prel, GlobalDictionaryFieldInfo[] fields, boolean encodedDistribution) {
     this.prel = prel;
     this.fields = fields.clone(); // make a copy
+    this.encodedDistribution = encodedDistribution;
     assert prel.getRowType().getFieldCount() == fields.length;
   }
 
@@ -65,6 +73,10 @@ class PrelWithDictionaryInfo {
     return fields;
   }
 
+  boolean hasEncodedDistribution() {
+    return encodedDistribution;
+  }
+
   boolean hasDictionaryEncodedFields() {
     for (int i = 0; i < fields.length; ++i) {
       if (fields[i] != null) {
@@ -149,6 +161,6 @@ class PrelWithDictionaryInfo {
       prel.getTraitSet(),
       prel,
       toRowDataType(newFieldList, prel.getCluster().getTypeFactory()),
-      fieldsToDecode), newGlobalDictionaryFieldInfos);
+      fieldsToDecode), newGlobalDictionaryFieldInfos, encodedDistribution);
   }
 }
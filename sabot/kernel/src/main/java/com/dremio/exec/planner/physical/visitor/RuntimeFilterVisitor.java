@@ -19,15 +19,18 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.JoinInfo;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.metadata.RelColumnOrigin;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.util.Pair;
 
 import com.dremio.exec.planner.physical.BroadcastExchangePrel;
+import com.dremio.exec.planner.physical.DictionaryLookupPrel;
 import com.dremio.exec.planner.physical.ExchangePrel;
 import com.dremio.exec.planner.physical.FilterPrel;
 import com.dremio.exec.planner.physical.HashAggPrel;
@@ -46,27 +49,47 @@ import com.dremio.exec.planner.physical.WindowPrel;
 import com.dremio.exec.planner.physical.explain.PrelSequencer;
 import com.dremio.exec.planner.physical.filter.RuntimeFilterEntry;
 import com.dremio.exec.planner.physical.filter.RuntimeFilterInfo;
+import com.dremio.exec.store.parquet.ParquetScanPrel;
 import com.dremio.service.namespace.dataset.proto.ReadDefinition;
 
 /**
  * This visitor does two major things:
  * 1) check with HashJoinPrel should use runtime filter
  * 2) build plan time RuntimeFilterInfo for HashJoinPrel
+ *
+ * It also identifies the scan producing the first sort key of a TopNPrel, so that TopN can
+ * send its current boundary value to that scan.
  */
 public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeException> {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(RuntimeFilterVisitor.class);
   private Map<Prel, PrelSequencer.OpId> prelOpIdMap;
+  private final boolean hashJoin;
+  private final boolean topN;
 
-  private RuntimeFilterVisitor(Map<Prel, PrelSequencer.OpId> prelOpIdMap) {
+  private RuntimeFilterVisitor(Map<Prel, PrelSequencer.OpId> prelOpIdMap, boolean hashJoin, boolean topN) {
     this.prelOpIdMap = prelOpIdMap;
+    this.hashJoin = hashJoin;
+    this.topN = topN;
   }
 
   public static Prel addRuntimeFilterToHashJoin(Prel prel) {
-    RuntimeFilterVisitor instance = new RuntimeFilterVisitor(PrelSequencer.getIdMap(prel));
+    RuntimeFilterVisitor instance = new RuntimeFilterVisitor(PrelSequencer.getIdMap(prel), true, false);
+    return prel.accept(instance, null);
+  }
+
+  public static Prel addThresholdTargetToTopN(Prel prel) {
+    RuntimeFilterVisitor instance = new RuntimeFilterVisitor(PrelSequencer.getIdMap(prel), false, true);
     return prel.accept(instance, null);
   }
 
   public Prel visitPrel(Prel prel, Void value) throws RuntimeException {
+    if (topN && prel instanceof TopNPrel) {
+      TopNPrel topNPrel = (TopNPrel) prel;
+      RuntimeFilterEntry thresholdTarget = generateThresholdTarget(topNPrel);
+      if (thresholdTarget != null) {
+        topNPrel.setThresholdTarget(thresholdTarget);
+      }
+    }
     List<RelNode> children = new ArrayList<>();
     for (Prel child : prel) {
       child = child.accept(this, value);
@@ -77,7 +100,7 @@ public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeExc
 
   @Override
   public Prel visitJoin(JoinPrel prel, Void value) throws RuntimeException {
-    if (prel instanceof HashJoinPrel) {
+    if (hashJoin && prel instanceof HashJoinPrel) {
       HashJoinPrel hashJoinPrel = (HashJoinPrel) prel;
       //Generate possible RuntimeFilterInfo to the HashJoinPrel
       // identify the corresponding probe side ScanPrel.
@@ -155,7 +178,8 @@ public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeExc
       if (!(currentProbe instanceof Prel)) {
         return null;
       }
-      ScanPrelBase scanPrel = ((Prel) currentProbe).accept(new FindScanVisitor(), probeKey);
+      FindScanVisitor findScanVisitor = new FindScanVisitor();
+      ScanPrelBase scanPrel = ((Prel) currentProbe).accept(findScanVisitor, probeKey);
       if (scanPrel != null) {
         //if contains block node on path from join to scan, we may not push down runtime filter
         if(hasBlockNode((Prel) currentProbe, scanPrel)) {
@@ -163,6 +187,10 @@ public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeExc
         }
 
         String leftFieldName = probeColumnOrigin.getOriginTable().getRowType().getFieldNames().get(probeColumnOrigin.getOriginColumnOrdinal());
+        if (isGlobalDictionaryColumn(scanPrel, leftFieldName) && !findScanVisitor.isDecoded()) {
+          // the hash join compares dictionary ids, the filter would not apply to the values read by the scan
+          continue;
+        }
         PrelSequencer.OpId opId = prelOpIdMap.get(scanPrel);
         int probeScanMajorFragmentId = opId.getFragmentId();
         int probeScanOperatorId = opId.getAsSingleInt();
@@ -188,10 +216,53 @@ public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeExc
 
   }
 
+  /**
+   * Find the scan producing the first sort key of a TopNPrel
+   *
+   * @param topNPrel
+   * @return null or the scan column and the TopN input column of the first sort key
+   */
+  private RuntimeFilterEntry generateThresholdTarget(TopNPrel topNPrel) {
+    if (topNPrel.getCollation().getFieldCollations().isEmpty() || !(topNPrel.getInput() instanceof Prel)) {
+      return null;
+    }
+    final RelFieldCollation fieldCollation = topNPrel.getCollation().getFieldCollations().get(0);
+    final int key = fieldCollation.getFieldIndex();
+    final Prel input = (Prel) topNPrel.getInput();
+    final SqlTypeName keyType = input.getRowType().getFieldList().get(key).getType().getSqlTypeName();
+    if (keyType != SqlTypeName.INTEGER && keyType != SqlTypeName.BIGINT && keyType != SqlTypeName.TIMESTAMP) {
+      return null;
+    }
+
+    final RelColumnOrigin columnOrigin = topNPrel.getCluster().getMetadataQuery().getColumnOrigin(input, key);
+    if (columnOrigin == null || columnOrigin.isDerived()) {
+      return null;
+    }
+    ScanPrelBase scanPrel = input.accept(new FindScanVisitor(), key);
+    if (scanPrel == null || hasBlockNode(input, scanPrel)) {
+      return null;
+    }
+
+    String scanFieldName = columnOrigin.getOriginTable().getRowType().getFieldNames().get(columnOrigin.getOriginColumnOrdinal());
+    if (isGlobalDictionaryColumn(scanPrel, scanFieldName)) {
+      // the scan reads dictionary ids, not the values TopN compares
+      return null;
+    }
+    String topNFieldName = input.getRowType().getFieldNames().get(key);
+    PrelSequencer.OpId opId = prelOpIdMap.get(scanPrel);
+    return new RuntimeFilterEntry(scanFieldName, topNFieldName, opId.getFragmentId(), opId.getAsSingleInt());
+  }
+
   private static class FindScanVisitor extends BasePrelVisitor<ScanPrelBase,Integer,RuntimeException> {
+    // whether a dictionary lookup on the way to the scan decodes the column
+    private boolean decoded;
+
     @Override
     public ScanPrelBase visitPrel(Prel prel, Integer idx) {
-      if (prel instanceof FilterPrel || prel instanceof SelectionVectorRemoverPrel) {
+      if (prel instanceof DictionaryLookupPrel) {
+        decoded |= ((DictionaryLookupPrel) prel).isDecoded(prel.getRowType().getFieldNames().get(idx));
+      }
+      if (prel instanceof FilterPrel || prel instanceof SelectionVectorRemoverPrel || prel instanceof DictionaryLookupPrel) {
         if (prel.getInput(0) instanceof Prel) {
           return ((Prel) prel.getInput(0)).accept(this, idx);
         }
@@ -253,6 +324,9 @@ public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeExc
       return null;
     }
 
+    public boolean isDecoded() {
+      return decoded;
+    }
   }
 
   private ExchangePrel findExchangePrel(RelNode rightRelNode) {
@@ -272,6 +346,18 @@ public class RuntimeFilterVisitor extends BasePrelVisitor<Prel, Void, RuntimeExc
     }
   }
 
+  private boolean isGlobalDictionaryColumn(ScanPrelBase scanPrel, String fieldName) {
+    if (!(scanPrel instanceof ParquetScanPrel) || ((ParquetScanPrel) scanPrel).getGlobalDictionaryEncodedColumns() == null) {
+      return false;
+    }
+    for (GlobalDictionaryFieldInfo fieldInfo : ((ParquetScanPrel) scanPrel).getGlobalDictionaryEncodedColumns()) {
+      if (fieldInfo.getFieldName().equalsIgnoreCase(fieldName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private boolean isPartitionColumn(ScanPrelBase scanPrel, String fieldName) {
     ReadDefinition readDefinition = scanPrel.getTableMetadata().getDatasetConfig().getReadDefinition();
     if (readDefinition.getPartitionColumnsList() == null) {
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical.visitor;
+
+import com.dremio.exec.planner.physical.HashToRandomExchangePrel;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.ProjectPrel;
+import com.dremio.exec.planner.physical.SelectionVectorRemoverPrel;
+import com.dremio.exec.planner.physical.SingleMergeExchangePrel;
+import com.dremio.exec.planner.physical.SortPrel;
+
+/**
+ * Marks the hash exchanges whose consumers don't need all the rows of a key on the same receiver,
+ * so that their senders are allowed to spread heavy hitters over several receivers.
+ *
+ * Joins and aggregations need co-located keys, so only the distribution of a parallel sort is
+ * eligible: SingleMergeExchange &lt;- Sort &lt;- [Project | SVRemover]* &lt;- HashToRandomExchange.
+ * The hash distribution there is only used to balance the sorting work.
+ */
+public class SkewedKeysSpreadingVisitor extends BasePrelVisitor<Void, Void, RuntimeException> {
+
+  public static void markSpreadableExchanges(Prel prel) {
+    prel.accept(new SkewedKeysSpreadingVisitor(), null);
+  }
+
+  @Override
+  public Void visitPrel(Prel prel, Void value) throws RuntimeException {
+    if (prel instanceof SingleMergeExchangePrel) {
+      final Prel input = (Prel) ((SingleMergeExchangePrel) prel).getInput();
+      if (input instanceof SortPrel) {
+        Prel current = (Prel) ((SortPrel) input).getInput();
+        while (current instanceof ProjectPrel || current instanceof SelectionVectorRemoverPrel) {
+          current = (Prel) current.getInput(0);
+        }
+        if (current instanceof HashToRandomExchangePrel) {
+          ((HashToRandomExchangePrel) current).setSpreadSkewedKeys(true);
+        }
+      }
+    }
+
+    for (Prel child : prel) {
+      child.accept(this, null);
+    }
+    return null;
+  }
+}
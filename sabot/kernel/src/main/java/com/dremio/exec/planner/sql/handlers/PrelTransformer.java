@@ -114,6 +114,7 @@ import com.dremio.exec.planner.physical.visitor.RelUniqifier;
 import com.dremio.exec.planner.physical.visitor.RuntimeFilterVisitor;
 import com.dremio.exec.planner.physical.visitor.SelectionVectorPrelVisitor;
 import com.dremio.exec.planner.physical.visitor.SimpleLimitExchangeRemover;
+import com.dremio.exec.planner.physical.visitor.SkewedKeysSpreadingVisitor;
 import com.dremio.exec.planner.physical.visitor.SplitCountChecker;
 import com.dremio.exec.planner.physical.visitor.SplitUpComplexExpressions;
 import com.dremio.exec.planner.physical.visitor.StarColumnConverter;
@@ -609,8 +610,9 @@ public class PrelTransformer {
   }
 
   private static RelNode processBoostedMaterializations(SqlHandlerConfig config, RelNode relNode) {
+    // only the materializations considered for substitution can be part of the plan
     final Set<List<String>> qualifiedNames = config.getMaterializations().isPresent() ?
-      config.getMaterializations().get().getMaterializations()
+      config.getMaterializations().get().getConsideredMaterializations()
         .stream()
         .filter(m -> m.getLayoutInfo().isArrowCachingEnabled())
         .map(DremioMaterialization::getTableRel)
@@ -836,7 +838,7 @@ public class PrelTransformer {
      * Encode columns using dictionary encoding during scans and insert lookup before consuming dictionary ids.
      */
     if (plannerSettings.isGlobalDictionariesEnabled()) {
-      phyRelNode = GlobalDictionaryVisitor.useGlobalDictionaries(phyRelNode);
+      phyRelNode = GlobalDictionaryVisitor.useGlobalDictionaries(phyRelNode, plannerSettings.isGlobalDictionaryEncodedKeysEnabled());
     }
 
     /* 8.)
@@ -860,6 +862,17 @@ public class PrelTransformer {
     if (plannerSettings.isRuntimeFilterEnabled()) {
       phyRelNode = RuntimeFilterVisitor.addRuntimeFilterToHashJoin(phyRelNode);
     }
+    if (plannerSettings.isTopNRuntimeFilterEnabled()) {
+      phyRelNode = RuntimeFilterVisitor.addThresholdTargetToTopN(phyRelNode);
+    }
+
+    /*
+     * 9.2)
+     * let hash exchanges whose consumers don't need co-located keys spread their heavy hitters
+     */
+    if (plannerSettings.isSkewedKeysSpreadingEnabled()) {
+      SkewedKeysSpreadingVisitor.markSpreadableExchanges(phyRelNode);
+    }
 
     final String textPlan;
     if (logger.isDebugEnabled() || config.getObserver() != null) {
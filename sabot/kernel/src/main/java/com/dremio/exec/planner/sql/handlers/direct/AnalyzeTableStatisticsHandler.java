@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.handlers.direct;
+
+import static com.dremio.exec.planner.sql.handlers.direct.SimpleCommandResult.successful;
+import static java.util.Collections.singletonList;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.calcite.sql.SqlNode;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.planner.cost.StatisticsService;
+import com.dremio.exec.planner.sql.SchemaUtilities;
+import com.dremio.exec.planner.sql.parser.SqlAnalyzeTableStatistics;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.sys.accel.AccelerationManager;
+import com.dremio.service.namespace.NamespaceKey;
+
+/**
+ * Handler for <code>ANALYZE TABLE tblname COMPUTE STATISTICS [FOR COLUMNS (col1, col2...)]</code> command.
+ *
+ * The statistics are computed by a separate job, the command returns once it is submitted.
+ */
+public class AnalyzeTableStatisticsHandler extends SimpleDirectHandler {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AnalyzeTableStatisticsHandler.class);
+
+  private final Catalog catalog;
+  private final AccelerationManager accel;
+
+  public AnalyzeTableStatisticsHandler(Catalog catalog, AccelerationManager accel) {
+    this.catalog = catalog;
+    this.accel = accel;
+  }
+
+  @Override
+  public List<SimpleCommandResult> toResult(String sql, SqlNode sqlNode) throws Exception {
+    final SqlAnalyzeTableStatistics analyze = SqlNodeUtil.unwrap(sqlNode, SqlAnalyzeTableStatistics.class);
+    final DremioTable table = SchemaUtilities.verify(catalog, analyze.getTblName()).getTable();
+    final NamespaceKey path = table.getPath();
+
+    final StatisticsService statisticsService = accel.unwrap(StatisticsService.class);
+    if (statisticsService == null) {
+      throw UserException.unsupportedError().message("Table statistics are not supported.").build(logger);
+    }
+
+    final List<String> columns = analyze.getColumns();
+    final BatchSchema schema = table.getSchema();
+    final Set<String> missing = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    missing.addAll(columns);
+    schema.forEach(field -> missing.remove(field.getName()));
+    if (!missing.isEmpty()) {
+      throw UserException.validationError()
+        .message("Unable to find columns %s in table %s.", missing, path)
+        .build(logger);
+    }
+
+    final String jobId = statisticsService.requestStatistics(path, columns);
+    return singletonList(successful(String.format("Computing statistics of table '%s' in job %s.", path, jobId)));
+  }
+}
@@ -192,6 +192,7 @@ public class CompoundIdentifierConverter extends SqlShuttle {
     rules.put(SqlOrderBy.class, R(D, E, D, D));
     rules.put(SqlDropTable.class, R(D, D));
     rules.put(SqlTruncateTable.class, R(D, D, D));
+    rules.put(SqlAnalyzeTableStatistics.class, R(D, D));
     rules.put(SqlSetOption.class, R(D, D, D));
     rules.put(SqlCreateReflection.class, R(D,D,D,D,D,D,D,D,D,D,D));
     rules.put(SqlDropReflection.class, R(D,D));
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.parser;
+
+import java.util.List;
+
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlLiteral;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.SqlSpecialOperator;
+import org.apache.calcite.sql.SqlWriter;
+import org.apache.calcite.sql.parser.SqlParserPos;
+
+import com.dremio.exec.planner.sql.handlers.SqlHandlerUtil;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * ANALYZE TABLE table_name COMPUTE STATISTICS [ FOR COLUMNS (field1, field2 ...) ]
+ */
+public class SqlAnalyzeTableStatistics extends SqlCall {
+  public static final SqlSpecialOperator OPERATOR = new SqlSpecialOperator("ANALYZE_TABLE_STATISTICS", SqlKind.OTHER_DDL) {
+    @Override
+    public SqlCall createCall(SqlLiteral functionQualifier, SqlParserPos pos, SqlNode... operands) {
+      Preconditions.checkArgument(operands.length == 2, "SqlAnalyzeTableStatistics.createCall() " +
+          "has to get 2 operands!");
+      return new SqlAnalyzeTableStatistics(pos, (SqlIdentifier) operands[0], (SqlNodeList) operands[1]);
+    }
+  };
+
+  private final SqlIdentifier tblName;
+  private final SqlNodeList columns;
+
+  public SqlAnalyzeTableStatistics(SqlParserPos pos, SqlIdentifier tblName, SqlNodeList columns) {
+    super(pos);
+    this.tblName = tblName;
+    this.columns = columns;
+  }
+
+  @Override
+  public SqlOperator getOperator() {
+    return OPERATOR;
+  }
+
+  @Override
+  public List<SqlNode> getOperandList() {
+    return ImmutableList.of(tblName, columns);
+  }
+
+  @Override
+  public void unparse(SqlWriter writer, int leftPrec, int rightPrec) {
+    writer.keyword("ANALYZE");
+    writer.keyword("TABLE");
+    tblName.unparse(writer, leftPrec, rightPrec);
+    writer.keyword("COMPUTE");
+    writer.keyword("STATISTICS");
+    if (columns.size() > 0) {
+      writer.keyword("FOR");
+      writer.keyword("COLUMNS");
+      SqlHandlerUtil.unparseSqlNodeList(writer, leftPrec, rightPrec, columns);
+    }
+  }
+
+  public SqlIdentifier getTblName() {
+    return tblName;
+  }
+
+  /**
+   * @return the columns to analyze, empty for all the columns of the table
+   */
+  public List<String> getColumns() {
+    final ImmutableList.Builder<String> builder = ImmutableList.builder();
+    for (SqlNode column : columns) {
+      builder.add(((SqlIdentifier) column).getSimple());
+    }
+    return builder.build();
+  }
+}
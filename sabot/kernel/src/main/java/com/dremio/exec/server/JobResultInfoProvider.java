@@ -15,10 +15,12 @@
  */
 package com.dremio.exec.server;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.sys.ArchivedJobInfo;
 import com.google.common.base.Preconditions;
 
 /**
@@ -35,6 +37,15 @@ public interface JobResultInfoProvider {
    */
   Optional<JobResultInfo> getJobResultInfo(String jobId, String username);
 
+  /**
+   * Get the summaries of jobs that have been rolled out of the jobs store into the job summary archive.
+   *
+   * @return archived job summaries, empty if archiving is not enabled on this node
+   */
+  default Iterable<ArchivedJobInfo> getArchivedJobs() {
+    return Collections.emptyList();
+  }
+
   JobResultInfoProvider NOOP = (jobId, username) -> Optional.empty();
 
   class JobResultInfo {
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Optional;
 
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.MaterializationIndex;
 import com.dremio.service.namespace.NamespaceKey;
 import com.google.common.collect.ImmutableList;
 
@@ -33,6 +34,16 @@ public interface MaterializationDescriptorProvider {
    */
   List<MaterializationDescriptor> get();
 
+  /**
+   * Provides the materializations that may substitute part of the given query.
+   *
+   * @param query signature of the query plan
+   * @return a subset of {@link #get()}, or all of it if the provider doesn't index its materializations.
+   */
+  default List<MaterializationDescriptor> get(MaterializationIndex.Signature query) {
+    return get();
+  }
+
   /**
    * Returns the default raw materialization that provider considers for substitution
    * for the VDS with the given path
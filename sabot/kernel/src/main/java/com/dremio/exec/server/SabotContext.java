@@ -52,6 +52,7 @@ import com.dremio.exec.work.WorkStats;
 import com.dremio.options.OptionManager;
 import com.dremio.options.OptionValidatorListing;
 import com.dremio.resource.GroupResourceInformation;
+import com.dremio.sabot.op.receiver.SpoolingRawBatchBuffer;
 import com.dremio.security.CredentialsService;
 import com.dremio.service.catalog.InformationSchemaServiceGrpc.InformationSchemaServiceBlockingStub;
 import com.dremio.service.conduit.client.ConduitProvider;
@@ -107,6 +108,7 @@ public class SabotContext implements AutoCloseable {
   private final OptionValidatorListing optionValidatorListing;
   private final ExecutorService executorService;
   private final JdbcSchemaFetcherFactoryContext jdbcSchemaFetcherFactoryContext;
+  private final ExecutorService spoolingIoExecutor;
 
   public SabotContext(
       DremioConfig dremioConfig,
@@ -188,6 +190,7 @@ public class SabotContext implements AutoCloseable {
     this.optionValidatorListing = optionValidatorListing;
     this.executorService = executorService;
     this.jdbcSchemaFetcherFactoryContext = new JdbcSchemaFetcherFactoryContext(optionManager, credentialsService);
+    this.spoolingIoExecutor = SpoolingRawBatchBuffer.newIoExecutor(config);
   }
 
   private static List<RulesFactory> getRulesFactories(ScanResult scan) {
@@ -281,6 +284,7 @@ public class SabotContext implements AutoCloseable {
     this.optionValidatorListing = optionValidatorListing;
     this.executorService = executorService;
     this.jdbcSchemaFetcherFactoryContext = new JdbcSchemaFetcherFactoryContext(optionManager, credentialsService);
+    this.spoolingIoExecutor = SpoolingRawBatchBuffer.newIoExecutor(config);
   }
 
   private void checkIfCoordinator() {
@@ -465,7 +469,7 @@ public class SabotContext implements AutoCloseable {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(fileSystemWrapper);
+    AutoCloseables.close(fileSystemWrapper, () -> spoolingIoExecutor.shutdownNow());
   }
 
   public Provider<WorkStats> getWorkStatsProvider() {
@@ -520,6 +524,13 @@ public class SabotContext implements AutoCloseable {
     return executorService;
   }
 
+  /**
+   * @return IO pool shared by the spooling receiver buffers of this node
+   */
+  public ExecutorService getSpoolingIoExecutor() {
+    return spoolingIoExecutor;
+  }
+
   //TODO(DX-26296): Return JdbcSchemaFetcherFactory
   public JdbcSchemaFetcherFactoryContext getJdbcSchemaFetcherFactoryContext() {
     return jdbcSchemaFetcherFactoryContext;
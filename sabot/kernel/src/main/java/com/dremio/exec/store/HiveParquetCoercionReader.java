@@ -250,6 +250,11 @@ public class HiveParquetCoercionReader extends AbstractRecordReader {
     inner.addRuntimeFilter(runtimeFilter);
   }
 
+  @Override
+  public void addTopNThreshold(TopNThreshold topNThreshold) {
+    inner.addTopNThreshold(topNThreshold);
+  }
+
   private enum NextMethodState {
     NOT_CALLED_BY_FILTERING_READER,
     FIRST_CALL_BY_FILTERING_READER,
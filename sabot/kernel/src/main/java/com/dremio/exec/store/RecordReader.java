@@ -70,4 +70,11 @@ public interface RecordReader extends AutoCloseable {
    * @param runtimeFilter
    */
   default void addRuntimeFilter(RuntimeFilter runtimeFilter) {}
+
+  /**
+   * Adds the current boundary of a downstream TopN to the record reader. Readers that keep
+   * min/max statistics may use it to skip data that can't make it into the TopN result.
+   * @param topNThreshold
+   */
+  default void addTopNThreshold(TopNThreshold topNThreshold) {}
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import com.dremio.exec.proto.ExecProtos;
+
+/**
+ * A POJO helper class for the protobuf struct TopNThreshold.
+ *
+ * Holds the boundary (k-th) value of a TopN on its first sort key. Readers use it to skip
+ * data whose min/max statistics prove that every row sorts strictly after the boundary.
+ * Ties are never skipped since later sort keys may still let them in.
+ */
+public class TopNThreshold {
+  private final String column;
+  private final boolean descending;
+  private final boolean nullsFirst;
+  private final long value;
+  private final String senderInfo;
+
+  public TopNThreshold(String column, boolean descending, boolean nullsFirst, long value, String senderInfo) {
+    this.column = column;
+    this.descending = descending;
+    this.nullsFirst = nullsFirst;
+    this.value = value;
+    this.senderInfo = senderInfo;
+  }
+
+  public static TopNThreshold getInstance(final ExecProtos.TopNThreshold protoThreshold, final String senderInfo) {
+    return new TopNThreshold(protoThreshold.getColumn(), protoThreshold.getDescending(),
+      protoThreshold.getNullsFirst(), protoThreshold.getValue(), senderInfo);
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  public boolean isNullsFirst() {
+    return nullsFirst;
+  }
+
+  public long getValue() {
+    return value;
+  }
+
+  public String getSenderInfo() {
+    return senderInfo;
+  }
+
+  /**
+   * @return true if this threshold is on the same column and at least as selective as the other one
+   */
+  public boolean isAsSelectiveAs(TopNThreshold other) {
+    if (other == null) {
+      return true;
+    }
+    if (!column.equalsIgnoreCase(other.column) || descending != other.descending || nullsFirst != other.nullsFirst) {
+      return false;
+    }
+    return descending ? value >= other.value : value <= other.value;
+  }
+
+  /**
+   * Check whether a chunk of data can be skipped given the statistics of the threshold column.
+   *
+   * @param min minimum non-null value in the chunk
+   * @param max maximum non-null value in the chunk
+   * @param mayContainNulls whether the chunk may contain null values
+   * @return true if no row of the chunk can make it into the TopN result
+   */
+  public boolean canSkip(long min, long max, boolean mayContainNulls) {
+    if (mayContainNulls && nullsFirst) {
+      return false;
+    }
+    return descending ? max < value : min > value;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("TopNThreshold{column=%s, %s, value=%d, sender=%s}",
+      column, descending ? "DESC" : "ASC", value, senderInfo);
+  }
+}
@@ -32,6 +32,7 @@ import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.RuntimeFilter;
 import com.dremio.exec.store.RuntimeFilterEvaluator;
 import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.exec.store.TopNThreshold;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.scan.OutputMutator;
 import com.google.common.base.Joiner;
@@ -103,6 +104,11 @@ public class AdditionalColumnsRecordReader implements RecordReader {
     return count;
   }
 
+  @Override
+  public void addTopNThreshold(TopNThreshold topNThreshold) {
+    inner.addTopNThreshold(topNThreshold);
+  }
+
   @Override
   public void addRuntimeFilter(RuntimeFilter runtimeFilter) {
     inner.addRuntimeFilter(runtimeFilter);
@@ -71,6 +71,8 @@ public class ArrowFileReader implements AutoCloseable {
   private final Path path;
 
   private FSInputStream inputStream;
+  // row index (within the file) of the first record of each batch, built lazily from the footer
+  private long[] batchStartRows;
 
   public ArrowFileReader(final FileSystem dfs, Path basePath, final ArrowFileMetadata metadata,
                    final BufferAllocator allocator) {
@@ -123,6 +125,11 @@ public class ArrowFileReader implements AutoCloseable {
 
   /**
    * Read the record batches containing the rows in given range.
+   *
+   * The reader seeks straight to the first batch containing {@code start} using the batch offsets recorded in the
+   * footer, and keeps the file open so that it can be reused for subsequent reads until {@link #close()} is called.
+   * Reads on the same instance must not be concurrent.
+   *
    * @param start Starting record number in file (0 based index)
    * @param limit number of records to read
    * @return
@@ -135,31 +142,27 @@ public class ArrowFileReader implements AutoCloseable {
         "Invalid start index (%s) and limit (%s) combination. Record count in file (%s)",
         start, limit, metadata.getRecordCount());
 
-    openFile();
+    if (inputStream == null) {
+      openFile();
+    }
 
     final VectorAccessibleSerializable vectorAccessibleSerializable = new VectorAccessibleSerializable(allocator);
     final List<RecordBatchHolder> batches = Lists.newArrayList();
     final ArrowFileFooter footer = metadata.getFooter();
 
-    long runningCount = 0;
+    final long[] startRows = getBatchStartRows();
     long remaining = limit;
-    final int numBatches = footer.getBatchList() == null ? 0 : footer.getBatchList().size();
-    for(int batchIndex = 0; batchIndex < numBatches; batchIndex++) {
+    final int numBatches = startRows.length;
+    for(int batchIndex = floorIndex(startRows, start); batchIndex < numBatches; batchIndex++) {
       ArrowRecordBatchSummary batchSummary = footer.getBatchList().get(batchIndex);
       // Skip past empty batches
       if (batchSummary.getRecordCount() == 0) {
         continue;
       }
 
-      runningCount += batchSummary.getRecordCount();
-
-      // Skip batches until we reach a batch that contains the start index
-      if (start >= runningCount) {
-        // valid indices in up until the current batch are in range [0, runningCount - 1]
-        continue;
-      }
-
       final long currentBatchCount = batchSummary.getRecordCount();
+      // valid indices in up until the current batch are in range [0, runningCount - 1]
+      final long runningCount = startRows[batchIndex] + currentBatchCount;
 
       // Seek to the place where the batch starts and read
       inputStream.setPosition(batchSummary.getOffset());
@@ -192,6 +195,44 @@ public class ArrowFileReader implements AutoCloseable {
     return batches;
   }
 
+  private long[] getBatchStartRows() {
+    if (batchStartRows == null) {
+      final List<ArrowRecordBatchSummary> batchList = metadata.getFooter().getBatchList();
+      final int numBatches = batchList == null ? 0 : batchList.size();
+      final long[] startRows = new long[numBatches];
+      long runningCount = 0;
+      for (int i = 0; i < numBatches; i++) {
+        startRows[i] = runningCount;
+        runningCount += batchList.get(i).getRecordCount();
+      }
+      batchStartRows = startRows;
+    }
+    return batchStartRows;
+  }
+
+  /**
+   * Find the index of the range holding the given row, i.e. the last range starting at or before that row.
+   *
+   * @param startRows start row of each range, in increasing order
+   * @param row row to look up
+   * @return index of the range holding the row, 0 if {@code startRows} is empty
+   */
+  public static int floorIndex(long[] startRows, long row) {
+    int low = 0;
+    int high = startRows.length - 1;
+    int found = 0;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (startRows[mid] <= row) {
+        found = mid;
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return found;
+  }
+
   @Override
   public void close() throws IOException {
     if (inputStream != null) {
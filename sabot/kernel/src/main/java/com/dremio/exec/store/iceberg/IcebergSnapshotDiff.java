@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataOperations;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.hadoop.HadoopTables;
+
+import com.dremio.datastore.LegacyProtobufSerializer;
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.store.TableMetadata;
+import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf.IcebergDatasetXAttr;
+import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetDatasetSplitXAttr;
+import com.dremio.service.namespace.NamespaceException;
+import com.dremio.service.namespace.PartitionChunkMetadata;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf.NormalizedPartitionInfo;
+import com.dremio.service.namespace.file.proto.FileType;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Changes made to an Iceberg table between two snapshots, used to refresh reflections incrementally.
+ *
+ * A diff is append only when the snapshots in between only added data files, each of them in a manifest of its own
+ * snapshot. The data files added by those snapshots are then exactly the rows that are new in the table.
+ */
+public final class IcebergSnapshotDiff {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(IcebergSnapshotDiff.class);
+
+  private final long snapshotId;
+  private final boolean appendOnly;
+  private final Set<String> addedFiles;
+
+  private IcebergSnapshotDiff(long snapshotId, boolean appendOnly, Set<String> addedFiles) {
+    this.snapshotId = snapshotId;
+    this.appendOnly = appendOnly;
+    this.addedFiles = addedFiles;
+  }
+
+  /**
+   * @return the snapshot of the table the metadata was read from, null if unknown
+   */
+  public static Long getSnapshotId(TableMetadata tableMetadata) {
+    if (!isIcebergTable(tableMetadata) || tableMetadata.getReadDefinition().getExtendedProperty() == null) {
+      return null;
+    }
+    try {
+      final IcebergDatasetXAttr xAttr = LegacyProtobufSerializer.parseFrom(IcebergDatasetXAttr.PARSER,
+        tableMetadata.getReadDefinition().getExtendedProperty().asReadOnlyByteBuffer());
+      return xAttr.hasSnapshotId() ? xAttr.getSnapshotId() : null;
+    } catch (InvalidProtocolBufferException e) {
+      // metadata collected by a previous version
+      return null;
+    }
+  }
+
+  public static boolean isIcebergTable(TableMetadata tableMetadata) {
+    return tableMetadata.getFormatSettings() != null && tableMetadata.getFormatSettings().getType() == FileType.ICEBERG;
+  }
+
+  /**
+   * Compute the changes made to the table since the given snapshot, up to the snapshot its metadata was read from.
+   *
+   * @param previousSnapshotId snapshot read by the previous refresh, null if unknown
+   * @return the diff, null if the snapshot the metadata was read from is unknown
+   */
+  public static IcebergSnapshotDiff of(Catalog catalog, TableMetadata tableMetadata, Long previousSnapshotId) {
+    final Long snapshotId = getSnapshotId(tableMetadata);
+    if (snapshotId == null) {
+      return null;
+    }
+    if (previousSnapshotId == null) {
+      return new IcebergSnapshotDiff(snapshotId, false, null);
+    }
+    if (previousSnapshotId.longValue() == snapshotId.longValue()) {
+      return new IcebergSnapshotDiff(snapshotId, true, new HashSet<>());
+    }
+
+    final FileSystemPlugin<?> plugin = catalog.getSource(tableMetadata.getStoragePluginId().getName());
+    final Table table = new HadoopTables(plugin.getFsConfCopy()).load(tableMetadata.getFormatSettings().getLocation());
+    return of(table, previousSnapshotId, snapshotId);
+  }
+
+  static IcebergSnapshotDiff of(Table table, long previousSnapshotId, long snapshotId) {
+    // walk back from the current snapshot to the previous one
+    final List<Snapshot> snapshots = new ArrayList<>();
+    Snapshot snapshot = table.snapshot(snapshotId);
+    while (snapshot != null && snapshot.snapshotId() != previousSnapshotId) {
+      snapshots.add(snapshot);
+      snapshot = snapshot.parentId() == null ? null : table.snapshot(snapshot.parentId());
+    }
+    if (snapshot == null) {
+      logger.debug("Snapshot {} is not an ancestor of snapshot {} of table {}", previousSnapshotId, snapshotId, table);
+      return new IcebergSnapshotDiff(snapshotId, false, null);
+    }
+
+    final Set<Long> snapshotIds = new HashSet<>();
+    for (Snapshot s : snapshots) {
+      if (!DataOperations.APPEND.equals(s.operation())) {
+        logger.debug("Snapshot {} of table {} is a {}", s.snapshotId(), table, s.operation());
+        return new IcebergSnapshotDiff(snapshotId, false, null);
+      }
+      snapshotIds.add(s.snapshotId());
+    }
+
+    // merged manifests mix new and existing data files
+    for (ManifestFile manifest : table.snapshot(snapshotId).manifests()) {
+      if (!snapshotIds.contains(manifest.snapshotId())) {
+        continue;
+      }
+      if (manifest.existingFilesCount() == null || manifest.existingFilesCount() > 0
+        || manifest.deletedFilesCount() == null || manifest.deletedFilesCount() > 0) {
+        logger.debug("Manifest {} of table {} doesn't only contain added files", manifest.path(), table);
+        return new IcebergSnapshotDiff(snapshotId, false, null);
+      }
+    }
+
+    final Set<String> addedFiles = new HashSet<>();
+    for (Snapshot s : snapshots) {
+      for (DataFile file : s.addedFiles()) {
+        addedFiles.add(file.path().toString());
+      }
+    }
+    return new IcebergSnapshotDiff(snapshotId, true, addedFiles);
+  }
+
+  /**
+   * @return the snapshot the diff ends at
+   */
+  public long getSnapshotId() {
+    return snapshotId;
+  }
+
+  /**
+   * @return true if data files were only added to the table
+   */
+  public boolean isAppendOnly() {
+    return appendOnly;
+  }
+
+  @VisibleForTesting
+  Set<String> getAddedFiles() {
+    return addedFiles;
+  }
+
+  /**
+   * Restrict the splits of the table to the data files added by the diff.
+   */
+  public TableMetadata prune(TableMetadata tableMetadata) {
+    Preconditions.checkState(appendOnly, "Only append only diffs can be used to prune a table");
+    final List<PartitionChunkMetadata> chunks = new ArrayList<>();
+    final Iterator<PartitionChunkMetadata> iterator = tableMetadata.getSplits();
+    while (iterator.hasNext()) {
+      final PartitionChunkMetadata chunk = iterator.next();
+      final List<PartitionProtobuf.DatasetSplit> splits = new ArrayList<>();
+      for (PartitionProtobuf.DatasetSplit split : chunk.getDatasetSplits()) {
+        if (addedFiles.contains(getPath(split))) {
+          splits.add(split);
+        }
+      }
+      if (!splits.isEmpty()) {
+        chunks.add(new AddedFilesChunk(chunk, splits));
+      }
+    }
+
+    try {
+      return tableMetadata.prune(chunks);
+    } catch (NamespaceException e) {
+      throw Throwables.propagate(e);
+    }
+  }
+
+  private static String getPath(PartitionProtobuf.DatasetSplit split) {
+    try {
+      return LegacyProtobufSerializer.parseFrom(ParquetDatasetSplitXAttr.PARSER, split.getSplitExtendedProperty()).getPath();
+    } catch (InvalidProtocolBufferException e) {
+      throw new RuntimeException("Could not deserialize Parquet dataset split info", e);
+    }
+  }
+
+  /**
+   * Partition chunk restricted to the splits of the added data files
+   */
+  private final class AddedFilesChunk implements PartitionChunkMetadata {
+    private final PartitionChunkMetadata chunk;
+    private final List<PartitionProtobuf.DatasetSplit> splits;
+    private final long size;
+
+    private AddedFilesChunk(PartitionChunkMetadata chunk, List<PartitionProtobuf.DatasetSplit> splits) {
+      this.chunk = chunk;
+      this.splits = splits;
+      this.size = splits.stream().mapToLong(PartitionProtobuf.DatasetSplit::getSize).sum();
+    }
+
+    @Override
+    public long getSize() {
+      return size;
+    }
+
+    @Override
+    public long getRowCount() {
+      return chunk.getSize() <= 0 ? chunk.getRowCount() : Math.round((double) chunk.getRowCount() * size / chunk.getSize());
+    }
+
+    @Override
+    public Iterable<PartitionProtobuf.PartitionValue> getPartitionValues() {
+      return chunk.getPartitionValues();
+    }
+
+    @Override
+    public String getSplitKey() {
+      // differs from the key of the whole chunk so that both aren't considered equal
+      return chunk.getSplitKey() + "@" + snapshotId;
+    }
+
+    @Override
+    public int getSplitCount() {
+      return splits.size();
+    }
+
+    @Override
+    public Iterable<PartitionProtobuf.DatasetSplit> getDatasetSplits() {
+      return splits;
+    }
+
+    @Override
+    public ByteString getPartitionExtendedProperty() {
+      return chunk.getPartitionExtendedProperty();
+    }
+
+    @Override
+    @Deprecated
+    public Iterable<PartitionProtobuf.Affinity> getAffinities() {
+      return chunk.getAffinities();
+    }
+
+    @Override
+    public NormalizedPartitionInfo getNormalizedPartitionInfo() {
+      return chunk.getNormalizedPartitionInfo();
+    }
+  }
+}
@@ -187,6 +187,9 @@ public class IcebergTableWrapper {
     }
 
     icebergDatasetBuilder.setParquetDatasetXAttr(builder.build());
+    if (table.currentSnapshot() != null) {
+      icebergDatasetBuilder.setSnapshotId(table.currentSnapshot().snapshotId());
+    }
     Map<String, Integer> schemaNameIDMap = IcebergUtils.getIcebergColumnNameToIDMap(this.schema);
     schemaNameIDMap.forEach((k, v) -> icebergDatasetBuilder.addColumnIds(
       IcebergSchemaField.newBuilder().setSchemaPath(k).setId(v).build()
@@ -113,6 +113,10 @@ public class ParquetScanPrel extends ScanPrelBase implements PruneableScan {
     return filter;
   }
 
+  public List<GlobalDictionaryFieldInfo> getGlobalDictionaryEncodedColumns() {
+    return globalDictionaryEncodedColumns;
+  }
+
   @Override
   public PhysicalOperator getPhysicalOperator(PhysicalPlanCreator creator) throws IOException {
     final BatchSchema schema = cachedRelDataType == null ? getTableMetadata().getSchema().maskAndReorder(getProjectedColumns()):  CalciteArrowHelper.fromCalciteRowType(cachedRelDataType);
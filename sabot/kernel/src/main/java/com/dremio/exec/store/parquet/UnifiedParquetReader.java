@@ -38,6 +38,7 @@ import org.apache.arrow.vector.complex.StructVector;
 import org.apache.arrow.vector.complex.UnionVector;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.CodecFactory;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
@@ -63,6 +64,7 @@ import com.dremio.exec.store.AbstractRecordReader;
 import com.dremio.exec.store.CompositeColumnFilter;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.TopNThreshold;
 import com.dremio.exec.store.parquet.columnreaders.DeprecatedParquetVectorizedReader;
 import com.dremio.exec.store.parquet2.LogicalListL1Converter;
 import com.dremio.exec.store.parquet2.ParquetRowiseReader;
@@ -112,6 +114,9 @@ public class UnifiedParquetReader implements RecordReader {
 
   private OutputMutator outputMutator;
   private ArrowBuf validityBuf;
+  private TopNThreshold topNThreshold;
+  private boolean topNThresholdEvaluated;
+  private boolean skippedByTopNThreshold;
   private final int maxValidityBufSize;
 
   public UnifiedParquetReader(
@@ -286,6 +291,10 @@ public class UnifiedParquetReader implements RecordReader {
 
   @Override
   public int next() {
+    if (canSkipWithTopNThreshold()) {
+      return 0;
+    }
+
     // at most one filter
     if (validityBuf == null) {
       return readEnsuringReadersReturnSameNumberOfRecords();
@@ -778,4 +787,78 @@ public class UnifiedParquetReader implements RecordReader {
       this.delegates.forEach(d -> d.addRuntimeFilter(filterWithNewNonPartColFilterList));
     }
   }
+
+  @Override
+  public void addTopNThreshold(TopNThreshold topNThreshold) {
+    if (topNThreshold != null && !skippedByTopNThreshold) {
+      this.topNThreshold = topNThreshold;
+      this.topNThresholdEvaluated = false;
+    }
+  }
+
+  /**
+   * Check the latest TopN threshold against the statistics of the row group, once per threshold.
+   * Once skipped, the rest of the row group is never read.
+   */
+  private boolean canSkipWithTopNThreshold() {
+    if (skippedByTopNThreshold) {
+      return true;
+    }
+    if (topNThreshold == null || topNThresholdEvaluated) {
+      return false;
+    }
+    topNThresholdEvaluated = true;
+    if (canRowGroupBeSkipped(topNThreshold)) {
+      logger.debug("Skipping row group {} of {}, cannot beat {}", readEntry.getRowGroupIndex(), readEntry.getPath(), topNThreshold);
+      context.getStats().addLongStat(Metric.ROW_GROUPS_SKIPPED_WITH_TOPN_THRESHOLD, 1);
+      skippedByTopNThreshold = true;
+    }
+    return skippedByTopNThreshold;
+  }
+
+  private boolean canRowGroupBeSkipped(TopNThreshold threshold) {
+    final List<BlockMetaData> blocks = footer.getBlocks();
+    final int rowGroupIndex = readEntry.getRowGroupIndex();
+    if (columnResolver == null || rowGroupIndex >= blocks.size() || blocks.get(rowGroupIndex) == null) {
+      return false;
+    }
+    final String parquetColumnName = columnResolver.getParquetColumnName(threshold.getColumn());
+    if (parquetColumnName == null) {
+      return false;
+    }
+    for (ColumnChunkMetaData column : blocks.get(rowGroupIndex).getColumns()) {
+      if (column.getPath().size() != 1 || !column.getPath().toDotString().equalsIgnoreCase(parquetColumnName)) {
+        continue;
+      }
+      final Statistics<?> stats = column.getStatistics();
+      if (stats == null || stats.isEmpty() || !stats.hasNonNullValue()) {
+        return false;
+      }
+      final boolean mayContainNulls = !stats.isNumNullsSet() || stats.getNumNulls() > 0;
+      final PrimitiveType type = column.getPrimitiveType();
+      final OriginalType originalType = type.getOriginalType();
+      switch (type.getPrimitiveTypeName()) {
+        case INT32:
+          if (originalType != null && originalType != OriginalType.INT_8 && originalType != OriginalType.INT_16
+            && originalType != OriginalType.INT_32) {
+            return false;
+          }
+          return threshold.canSkip(((Number) stats.genericGetMin()).longValue(),
+            ((Number) stats.genericGetMax()).longValue(), mayContainNulls);
+        case INT64:
+          if (originalType == OriginalType.TIMESTAMP_MICROS) {
+            // read as milliseconds, truncation keeps the order
+            return threshold.canSkip(Math.floorDiv((Long) stats.genericGetMin(), 1000L),
+              Math.floorDiv((Long) stats.genericGetMax(), 1000L), mayContainNulls);
+          }
+          if (originalType != null && originalType != OriginalType.INT_64 && originalType != OriginalType.TIMESTAMP_MILLIS) {
+            return false;
+          }
+          return threshold.canSkip((Long) stats.genericGetMin(), (Long) stats.genericGetMax(), mayContainNulls);
+        default:
+          return false;
+      }
+    }
+    return false;
+  }
 }
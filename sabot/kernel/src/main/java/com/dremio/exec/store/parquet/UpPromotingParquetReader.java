@@ -32,6 +32,7 @@ import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.RuntimeFilter;
 import com.dremio.exec.store.SampleMutator;
+import com.dremio.exec.store.TopNThreshold;
 import com.dremio.io.file.FileSystem;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetDatasetSplitScanXAttr;
@@ -148,6 +149,13 @@ public class UpPromotingParquetReader implements RecordReader {
     }
   }
 
+  @Override
+  public void addTopNThreshold(TopNThreshold topNThreshold) {
+    if (topNThreshold != null) {
+      this.currentReader.addTopNThreshold(topNThreshold);
+    }
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(currentReader);
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.sys;
+
+import java.sql.Timestamp;
+
+/**
+ * Summary of a job that has been rolled out of the jobs store into the job summary archive.
+ * Exposed through sys."jobs_archive".
+ */
+public class ArchivedJobInfo {
+  public final String job_id;
+  public final Integer attempt_count;
+  public final String user_name;
+  public final String query_type;
+  public final String queue_name;
+  public final String status;
+  public final Timestamp start_time;
+  public final Timestamp finish_time;
+  public final String dataset_path;
+  public final String query_text;
+  public final String failure_info;
+  public final Long input_bytes;
+  public final Long input_records;
+  public final Long output_bytes;
+  public final Long output_records;
+
+  public ArchivedJobInfo(
+      String job_id,
+      Integer attempt_count,
+      String user_name,
+      String query_type,
+      String queue_name,
+      String status,
+      Timestamp start_time,
+      Timestamp finish_time,
+      String dataset_path,
+      String query_text,
+      String failure_info,
+      Long input_bytes,
+      Long input_records,
+      Long output_bytes,
+      Long output_records) {
+    this.job_id = job_id;
+    this.attempt_count = attempt_count;
+    this.user_name = user_name;
+    this.query_type = query_type;
+    this.queue_name = queue_name;
+    this.status = status;
+    this.start_time = start_time;
+    this.finish_time = finish_time;
+    this.dataset_path = dataset_path;
+    this.query_text = query_text;
+    this.failure_info = failure_info;
+    this.input_bytes = input_bytes;
+    this.input_records = input_records;
+    this.output_bytes = output_bytes;
+    this.output_records = output_records;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.sys;
+
+/**
+ * State of the query result cache of a node.
+ * Exposed through sys."result_cache".
+ */
+public class ResultCacheInfo {
+  public final String hostname;
+  public final int fabric_port;
+  public final long entries;
+  public final long size_bytes;
+  public final long hits;
+  public final long misses;
+  public final long served_bytes;
+  public final long evictions;
+
+  public ResultCacheInfo(
+      String hostname,
+      int fabric_port,
+      long entries,
+      long size_bytes,
+      long hits,
+      long misses,
+      long served_bytes,
+      long evictions) {
+    this.hostname = hostname;
+    this.fabric_port = fabric_port;
+    this.entries = entries;
+    this.size_bytes = size_bytes;
+    this.hits = hits;
+    this.misses = misses;
+    this.served_bytes = served_bytes;
+    this.evictions = evictions;
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store.sys;
 
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.stream.StreamSupport;
 
@@ -45,6 +46,7 @@ import com.dremio.exec.work.CacheManagerMountPointInfo;
 import com.dremio.exec.work.CacheManagerStoragePluginInfo;
 import com.dremio.exec.work.WorkStats.FragmentInfo;
 import com.dremio.exec.work.WorkStats.SlicingThreadInfo;
+import com.dremio.exec.work.foreman.QueryResultCache;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.task.TaskPool;
 import com.google.common.collect.ImmutableList;
@@ -187,6 +189,20 @@ public enum SystemTable implements DatasetHandle, DatasetMetadata, PartitionChun
     }
   },
 
+  JOBS_ARCHIVE(false, ArchivedJobInfo.class, "jobs_archive") {
+    @Override
+    public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
+      return sContext.getJobResultInfoProvider().getArchivedJobs().iterator();
+    }
+  },
+
+  RESULT_CACHE(true, ResultCacheInfo.class, "result_cache") {
+    @Override
+    public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
+      return Collections.singletonList(QueryResultCache.getInstance().getInfo(sContext.getEndpoint())).iterator();
+    }
+  },
+
   TIMEZONE_ABBREVIATIONS(false, TimezoneAbbreviations.TimezoneAbbr.class, "timezone_abbrevs") {
     @Override
     public Iterator<?> getIterator(final SabotContext sabotContext, final OperatorContext operatorContext) {
@@ -46,10 +46,13 @@ public interface AccelerationListManager extends Service {
     public final String displayColumns;
     public final String externalReflection;
     public final boolean arrow_cache;
+    public final Integer refresh_queue_position;
+    public final Long refresh_wait_millis;
 
     public ReflectionInfo(String reflectionId, String name, String type, String status, int numFailures, String dataset,
         String sortColumns, String partitionColumns, String distributionColumns, String dimensions, String measures,
-        String displayColumns, String externalReflection, boolean arrowCachingEnabled) {
+        String displayColumns, String externalReflection, boolean arrowCachingEnabled, Integer refreshQueuePosition,
+        Long refreshWaitMillis) {
       this.reflection_id = reflectionId;
       this.name = name;
       this.type = type;
@@ -64,6 +67,8 @@ public interface AccelerationListManager extends Service {
       this.displayColumns = displayColumns;
       this.externalReflection = externalReflection;
       this.arrow_cache = arrowCachingEnabled;
+      this.refresh_queue_position = refreshQueuePosition;
+      this.refresh_wait_millis = refreshWaitMillis;
     }
 
     public ReflectionRPC.ReflectionInfo toProto() {
@@ -109,6 +114,12 @@ public interface AccelerationListManager extends Service {
         if (measures != null) {
           protoReflectionInfo.setMeasures(measures);
         }
+        if (refresh_queue_position != null) {
+          protoReflectionInfo.setRefreshQueuePosition(refresh_queue_position);
+        }
+        if (refresh_wait_millis != null) {
+          protoReflectionInfo.setRefreshWaitMillis(refresh_wait_millis);
+        }
       return protoReflectionInfo.build();
     }
 
@@ -126,7 +137,9 @@ public interface AccelerationListManager extends Service {
         reflectionInfoProto.getMeasures(),
         reflectionInfoProto.getDisplayColumns(),
         reflectionInfoProto.getExternalReflection(),
-        reflectionInfoProto.getArrowCachingEnabled());
+        reflectionInfoProto.getArrowCachingEnabled(),
+        reflectionInfoProto.hasRefreshQueuePosition() ? reflectionInfoProto.getRefreshQueuePosition() : null,
+        reflectionInfoProto.hasRefreshWaitMillis() ? reflectionInfoProto.getRefreshWaitMillis() : null);
     }
   }
 
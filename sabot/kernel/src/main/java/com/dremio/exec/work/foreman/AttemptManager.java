@@ -15,8 +15,10 @@
  */
 package com.dremio.exec.work.foreman;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.dremio.common.EventProcessor;
 import com.dremio.common.ProcessExit;
@@ -30,6 +32,7 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.planner.observer.AttemptObserver;
+import com.dremio.exec.planner.observer.AttemptObservers;
 import com.dremio.exec.planner.sql.handlers.commands.AsyncCommand;
 import com.dremio.exec.planner.sql.handlers.commands.CommandCreator;
 import com.dremio.exec.planner.sql.handlers.commands.CommandRunner;
@@ -155,6 +158,9 @@ public class AttemptManager implements Runnable {
   private final CommandPool commandPool;
   private CommandRunner<?> command;
   private Optional<Runnable> committer = Optional.empty();
+  private final QueryResultCache.PlanRecorder resultCachePlan;
+  private volatile QueryResultCache.Capture resultCapture;
+  private volatile QueryResultCache.CachedResult cachedResult;
 
   /**
    * if set to true, query is not going to be scheduled on a separate thread
@@ -202,7 +208,13 @@ public class AttemptManager implements Runnable {
       queryRequest.getDescription(),
       () -> state,
       observer, jobTelemetryClient);
-    this.observer = profileTracker.getObserver();
+    if (optionManager.getOption(ExecConstants.RESULT_CACHE_ENABLED)) {
+      resultCachePlan = new QueryResultCache.PlanRecorder();
+      this.observer = AttemptObservers.of(profileTracker.getObserver(), resultCachePlan);
+    } else {
+      resultCachePlan = null;
+      this.observer = profileTracker.getObserver();
+    }
 
     RUN_15M.increment();
     RUN_1D.increment();
@@ -232,6 +244,10 @@ public class AttemptManager implements Runnable {
   }
 
   public void dataFromScreenArrived(QueryData header, ByteBuf data, ResponseSender sender) {
+    final QueryResultCache.Capture capture = resultCapture;
+    if (capture != null) {
+      capture.add(header, data);
+    }
     if(data != null){
       // we're going to send this some place, we need increment to ensure this is around long enough to send.
       data.retain();
@@ -278,6 +294,56 @@ public class AttemptManager implements Runnable {
     }
   }
 
+  /**
+   * Sends the batches of a result served from the result cache one at a time, reading the next one once the client
+   * acknowledged the previous one, and completes the query once all of them were acknowledged.
+   */
+  private class CachedResultShuttle implements RpcOutcomeListener<Ack> {
+    private final QueryResultCache.CachedResult result;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    CachedResultShuttle(QueryResultCache.CachedResult result) {
+      this.result = result;
+    }
+
+    void sendNext() {
+      final QueryWritableBatch batch;
+      try {
+        batch = result.next();
+      } catch (IOException | RuntimeException e) {
+        finish(QueryState.FAILED, e);
+        return;
+      }
+      observer.execDataArrived(this, batch);
+    }
+
+    @Override
+    public void failed(RpcException paramRpcException) {
+      finish(QueryState.FAILED, paramRpcException);
+    }
+
+    @Override
+    public void interrupted(InterruptedException paramInterruptedException) {
+      finish(QueryState.CANCELED, null);
+    }
+
+    @Override
+    public void success(Ack paramV, ByteBuf paramByteBuf) {
+      if (result.hasNext()) {
+        sendNext();
+      } else {
+        finish(QueryState.COMPLETED, null);
+      }
+    }
+
+    private void finish(QueryState state, Exception exception) {
+      if (done.compareAndSet(false, true)) {
+        result.close();
+        addToEventQueue(state, exception);
+      }
+    }
+  }
+
   /**
    * Get the latest full profile for the query.
    * @return profile
@@ -325,6 +391,34 @@ public class AttemptManager implements Runnable {
     queryContext.getExecutionControls().unpauseAll();
   }
 
+  /**
+   * Look up the result of the query in the result cache, and start capturing it if it is not there.
+   *
+   * @return the cached result, null if the query has to be executed
+   */
+  private QueryResultCache.CachedResult getCachedResult() {
+    if (resultCachePlan == null || resultCachePlan.getPlan() == null) {
+      return null;
+    }
+    final String key = QueryResultCache.keyOf(resultCachePlan.getPlan(), queryContext.getQueryUserName());
+    if (key == null) {
+      return null;
+    }
+
+    final QueryResultCache cache = QueryResultCache.getInstance();
+    final QueryResultCache.CachedResult result = cache.get(sabotContext, key, queryId);
+    if (result == null) {
+      resultCapture = cache.newCapture(sabotContext, key,
+        queryContext.getOptions().getOption(ExecConstants.RESULT_CACHE_MAX_ENTRY_SIZE_BYTES),
+        queryContext.getOptions().getOption(ExecConstants.RESULT_CACHE_MAX_CAPTURED_BYTES));
+      return null;
+    }
+    logger.debug("{}: serving result from the result cache", queryIdString);
+    // closed once served, or when the attempt completes
+    cachedResult = result;
+    return result;
+  }
+
   @Override
   public void run() {
     // rename the thread we're using for debugging purposes
@@ -366,18 +460,26 @@ public class AttemptManager implements Runnable {
         }, runInSameThread).get();
 
 
+      QueryResultCache.CachedResult cached = null;
       if (command.getCommandType() == CommandType.ASYNC_QUERY) {
         AsyncCommand asyncCommand = (AsyncCommand) command;
         committer = asyncCommand.getPhysicalPlan().getCommitter();
 
         moveToState(QueryState.STARTING, null);
-        maestroService.executeQuery(queryId, queryContext, asyncCommand.getPhysicalPlan(), runInSameThread,
-          new MaestroObserverWrapper(observer), new CompletionListenerImpl());
+        cached = getCachedResult();
+        if (cached == null) {
+          maestroService.executeQuery(queryId, queryContext, asyncCommand.getPhysicalPlan(), runInSameThread,
+            new MaestroObserverWrapper(observer), new CompletionListenerImpl());
+        }
         asyncCommand.executionStarted();
       }
 
       observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.RUNNING));
       moveToState(QueryState.RUNNING, null);
+      if (cached != null) {
+        // the result is sent without scheduling any fragment
+        new CachedResultShuttle(cached).sendNext();
+      }
 
       injector.injectChecked(queryContext.getExecutionControls(), INJECTOR_TRY_END_ERROR,
         ForemanException.class);
@@ -599,12 +701,23 @@ public class AttemptManager implements Runnable {
         if (resultState == QueryState.COMPLETED) {
           committer.ifPresent(x -> x.run());
         }
+        if (resultState == QueryState.COMPLETED && resultCapture != null) {
+          QueryResultCache.getInstance().put(resultCapture,
+            queryContext.getOptions().getOption(ExecConstants.RESULT_CACHE_MAX_SIZE_BYTES));
+        }
       } catch (Exception e) {
         addException(e);
         logger.warn("Exception during commit after attempt completion", resultException);
         recordNewState(QueryState.FAILED);
         foremanResult.setForceFailure(e);
       }
+      // nothing to do if the captured result was stored, or the cached result fully served
+      if (resultCapture != null) {
+        resultCapture.discard();
+      }
+      if (cachedResult != null) {
+        cachedResult.close();
+      }
 
       // to track how long the query takes
       profileTracker.markEndTime();
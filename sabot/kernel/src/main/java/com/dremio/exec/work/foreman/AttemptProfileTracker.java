@@ -26,6 +26,7 @@ import com.dremio.common.util.DremioVersionInfo;
 import com.dremio.exec.ops.OperatorMetricRegistry;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.planner.PlanCaptureAttemptObserver;
+import com.dremio.exec.planner.cost.CardinalityFeedback;
 import com.dremio.exec.planner.observer.AbstractAttemptObserver;
 import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.planner.observer.AttemptObservers;
@@ -102,7 +103,11 @@ class AttemptProfileTracker {
       queryContext.getAccelerationManager().newPopulator(), RelSerializerFactory
       .getProfileFactory(queryContext.getConfig(), queryContext.getScanResult()));
 
-    mergedObserver = AttemptObservers.of(observer, capturer, new TimeMarker());
+    final AttemptObservers observers = AttemptObservers.of(observer, capturer, new TimeMarker());
+    if (optionManager.getOption(PlannerSettings.USE_CARDINALITY_FEEDBACK)) {
+      observers.add(new CardinalityFeedback.Recorder(CardinalityFeedback.getInstance()));
+    }
+    mergedObserver = observers;
   }
 
   AttemptObserver getObserver() {
@@ -80,6 +80,11 @@ public class MaestroObserverWrapper implements MaestroObserver {
       observer.planGenerationTime(millisTaken);
   }
 
+  @Override
+  public void planGenerationBreakdown(int threads, long materializationMillis, long serializationMillis) {
+      observer.planGenerationBreakdown(threads, materializationMillis, serializationMillis);
+  }
+
   @Override
   public void planAssignmentTime(long millisTaken) {
       observer.planAssignmentTime(millisTaken);
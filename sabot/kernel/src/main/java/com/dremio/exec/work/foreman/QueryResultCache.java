@@ -0,0 +1,569 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.work.foreman;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.sql.SqlExplainLevel;
+
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.planner.observer.AbstractAttemptObserver;
+import com.dremio.exec.planner.physical.EmptyPrel;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.ValuesPrel;
+import com.dremio.exec.planner.physical.WriterCommitterPrel;
+import com.dremio.exec.planner.physical.WriterPrel;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.UserBitShared.QueryData;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.exec.store.dfs.FileSystemPlugin;
+import com.dremio.exec.store.ischema.InfoSchemaScanPrel;
+import com.dremio.exec.store.sys.ResultCacheInfo;
+import com.dremio.exec.store.sys.SystemScanPrel;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+import com.google.protobuf.CodedOutputStream;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Results of queries streamed to JDBC, ODBC and Flight clients, kept by the coordinator and served again to identical
+ * queries as long as the datasets and reflections they read are unchanged.
+ *
+ * A result is identified by the final physical plan of the query and the user running it. The plan includes the
+ * digest of the splits read by each scan, so a result isn't served anymore once the metadata of a dataset it read is
+ * refreshed, or once a reflection it read is refreshed. Queries writing data, reading system tables or external
+ * sources, or calling non deterministic functions, are not cached.
+ *
+ * Results are stored as the record batches sent to the client, in the storage of the job results. Batches are written
+ * to the storage as they are sent, and read back one at a time when served, so results are never held in memory. The
+ * cache is bounded in size, the least recently used results are evicted first, and the results being captured by all
+ * the running queries are bounded too. The index of the results is kept in memory, so results stored by a previous run
+ * of the coordinator are dropped.
+ */
+public final class QueryResultCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(QueryResultCache.class);
+
+  private static final String JOBS_STORAGE_PLUGIN_NAME = "__jobResultsStore";
+  private static final String CACHE_DIRECTORY = "result_cache";
+  private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  private static final QueryResultCache INSTANCE = new QueryResultCache();
+
+  // key -> entry, in access order. Guarded by this.
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeInBytes;
+  // bytes of the results being captured, not indexed yet. Guarded by this.
+  private long capturedBytes;
+  private boolean initialized;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder servedBytes = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @VisibleForTesting
+  QueryResultCache() {
+  }
+
+  /**
+   * @return the result cache of this coordinator
+   */
+  public static QueryResultCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Key of the result of a query.
+   *
+   * @param plan final physical plan of the query
+   * @param user user running the query
+   * @return the key, null if the result of the query can't be cached
+   */
+  static String keyOf(Prel plan, String user) {
+    if (!isCacheable(plan)) {
+      return null;
+    }
+    final String digest = user + '\n'
+      + plan.getRowType().getFullTypeString() + '\n'
+      + RelOptUtil.toString(plan, SqlExplainLevel.DIGEST_ATTRIBUTES);
+    return Hashing.sha256().hashString(digest, StandardCharsets.UTF_8).toString();
+  }
+
+  @VisibleForTesting
+  static boolean isCacheable(Prel prel) {
+    if (prel instanceof WriterPrel || prel instanceof WriterCommitterPrel) {
+      return false;
+    }
+    if (!prel.getInputs().isEmpty()) {
+      if (!isDeterministic(prel)) {
+        return false;
+      }
+      for (Prel input : prel) {
+        if (!isCacheable(input)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // the data of system tables and external sources changes without any change of the plan
+    if (prel instanceof SystemScanPrel || prel instanceof InfoSchemaScanPrel) {
+      return false;
+    }
+    return prel instanceof ScanRelBase || prel instanceof ValuesPrel || prel instanceof EmptyPrel;
+  }
+
+  private static boolean isDeterministic(RelNode rel) {
+    final boolean[] deterministic = {true};
+    rel.accept(new RexShuttle() {
+      @Override
+      public RexNode visitCall(RexCall call) {
+        if (!call.getOperator().isDeterministic() || call.getOperator().isDynamicFunction()) {
+          deterministic[0] = false;
+        }
+        return super.visitCall(call);
+      }
+    });
+    return deterministic[0];
+  }
+
+  /**
+   * Get the result of a query, as batches of the given query.
+   *
+   * @return the result, to be closed once served, null if it is not in the cache
+   */
+  CachedResult get(SabotContext context, String key, QueryId queryId) {
+    final Storage storage = Storage.of(context);
+    if (storage == null) {
+      return null;
+    }
+    return get(storage, key, queryId);
+  }
+
+  @VisibleForTesting
+  CachedResult get(Storage storage, String key, QueryId queryId) {
+    final Entry entry;
+    synchronized (this) {
+      initialize(storage);
+      entry = entries.get(key);
+      if (entry != null) {
+        // the file of the result is kept until it is served
+        entry.readers++;
+      }
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+
+    final DataInputStream in;
+    try {
+      in = new DataInputStream(new BufferedInputStream(storage.fs.open(entry.file), STREAM_BUFFER_SIZE));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failure while reading cached result {}, dropping it", key, e);
+      drop(storage, key, entry);
+      release(storage, entry);
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    servedBytes.add(entry.sizeInBytes);
+    return new CachedResult(storage, key, entry, queryId, in);
+  }
+
+  /**
+   * Start capturing the result of a query.
+   *
+   * @param maxSizeInBytes size above which the result is not cached
+   * @param maxCapturedBytes size of the results being captured by all the queries, above which results are not cached
+   * @return the capture, null if results can't be stored
+   */
+  Capture newCapture(SabotContext context, String key, long maxSizeInBytes, long maxCapturedBytes) {
+    final Storage storage = Storage.of(context);
+    if (storage == null) {
+      return null;
+    }
+    return newCapture(storage, key, maxSizeInBytes, maxCapturedBytes);
+  }
+
+  @VisibleForTesting
+  Capture newCapture(Storage storage, String key, long maxSizeInBytes, long maxCapturedBytes) {
+    synchronized (this) {
+      initialize(storage);
+    }
+    // a result is written under a unique name, so that a result being read is never overwritten
+    return new Capture(storage, key, storage.dir.resolve(key + "." + System.nanoTime()), maxSizeInBytes, maxCapturedBytes);
+  }
+
+  /**
+   * Store a result captured for a query that completed.
+   *
+   * @param maxSizeInBytes size of the cache above which the least recently used results are evicted
+   */
+  void put(Capture capture, long maxSizeInBytes) {
+    final Entry entry = capture.finish();
+    if (entry == null) {
+      return;
+    }
+
+    synchronized (this) {
+      capturedBytes -= entry.sizeInBytes;
+      final Entry previous = entries.put(capture.key, entry);
+      if (previous != null) {
+        sizeInBytes -= previous.sizeInBytes;
+        remove(capture.storage, previous);
+      }
+      sizeInBytes += entry.sizeInBytes;
+      evict(capture.storage, maxSizeInBytes);
+    }
+  }
+
+  private synchronized boolean reserve(long bytes, long maxCapturedBytes) {
+    if (capturedBytes + bytes > maxCapturedBytes) {
+      return false;
+    }
+    capturedBytes += bytes;
+    return true;
+  }
+
+  private synchronized void unreserve(long bytes) {
+    capturedBytes -= bytes;
+  }
+
+  private synchronized void drop(Storage storage, String key, Entry entry) {
+    if (entries.get(key) == entry) {
+      entries.remove(key);
+      sizeInBytes -= entry.sizeInBytes;
+      remove(storage, entry);
+    }
+  }
+
+  private synchronized void release(Storage storage, Entry entry) {
+    entry.readers--;
+    if (entry.removed && entry.readers == 0) {
+      delete(storage, entry.file);
+    }
+  }
+
+  // the file is deleted once the result is not served anymore
+  private void remove(Storage storage, Entry entry) {
+    entry.removed = true;
+    if (entry.readers == 0) {
+      delete(storage, entry.file);
+    }
+  }
+
+  private void evict(Storage storage, long maxSizeInBytes) {
+    final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+      final Entry eldest = iterator.next().getValue();
+      iterator.remove();
+      sizeInBytes -= eldest.sizeInBytes;
+      evictions.increment();
+      remove(storage, eldest);
+    }
+  }
+
+  private static void delete(Storage storage, Path file) {
+    try {
+      storage.fs.delete(file, false);
+    } catch (IOException e) {
+      logger.warn("Failure while deleting cached result {}", file, e);
+    }
+  }
+
+  private void initialize(Storage storage) {
+    if (initialized) {
+      return;
+    }
+    // results stored before the coordinator restarted are not indexed anymore
+    try {
+      storage.fs.delete(storage.dir, true);
+      storage.fs.mkdirs(storage.dir);
+    } catch (IOException e) {
+      logger.warn("Failure while cleaning up the result cache directory {}", storage.dir, e);
+    }
+    initialized = true;
+  }
+
+  /**
+   * @return the state of the cache, as reported by sys."result_cache"
+   */
+  public synchronized ResultCacheInfo getInfo(NodeEndpoint endpoint) {
+    return new ResultCacheInfo(endpoint.getAddress(), endpoint.getFabricPort(), entries.size(), sizeInBytes,
+      hits.sum(), misses.sum(), servedBytes.sum(), evictions.sum());
+  }
+
+  @VisibleForTesting
+  synchronized long getCapturedBytes() {
+    return capturedBytes;
+  }
+
+  private static final class Entry {
+    private final Path file;
+    private final long sizeInBytes;
+    private final int batchCount;
+
+    // guarded by the cache
+    private int readers;
+    private boolean removed;
+
+    private Entry(Path file, long sizeInBytes, int batchCount) {
+      this.file = file;
+      this.sizeInBytes = sizeInBytes;
+      this.batchCount = batchCount;
+    }
+  }
+
+  /**
+   * Where the results are stored.
+   */
+  @VisibleForTesting
+  static final class Storage {
+    private final FileSystem fs;
+    private final Path dir;
+
+    @VisibleForTesting
+    Storage(FileSystem fs, Path dir) {
+      this.fs = fs;
+      this.dir = dir;
+    }
+
+    /**
+     * @return the directory of the results of this coordinator, null if the job results storage is not available
+     */
+    private static Storage of(SabotContext context) {
+      final FileSystemPlugin<?> plugin;
+      try {
+        plugin = context.getCatalogService().getSource(JOBS_STORAGE_PLUGIN_NAME);
+      } catch (RuntimeException e) {
+        logger.debug("Job results storage not available, results are not cached", e);
+        return null;
+      }
+      if (plugin == null) {
+        return null;
+      }
+      final NodeEndpoint endpoint = context.getEndpoint();
+      return new Storage(plugin.getSystemUserFS(), plugin.getConfig().getPath()
+        .resolve(CACHE_DIRECTORY)
+        .resolve(endpoint.getAddress() + "_" + endpoint.getFabricPort()));
+    }
+  }
+
+  /**
+   * A result served from the cache, read from the storage one batch at a time.
+   */
+  final class CachedResult implements AutoCloseable {
+    private final Storage storage;
+    private final String key;
+    private final Entry entry;
+    private final QueryId queryId;
+    private final DataInputStream in;
+    private int read;
+    private boolean closed;
+
+    private CachedResult(Storage storage, String key, Entry entry, QueryId queryId, DataInputStream in) {
+      this.storage = storage;
+      this.key = key;
+      this.entry = entry;
+      this.queryId = queryId;
+      this.in = in;
+    }
+
+    int getBatchCount() {
+      return entry.batchCount;
+    }
+
+    boolean hasNext() {
+      return read < entry.batchCount;
+    }
+
+    /**
+     * Read the next batch of the result, as a batch of the query it is served to.
+     */
+    QueryWritableBatch next() throws IOException {
+      Preconditions.checkState(hasNext(), "All the batches of the result were read.");
+      try {
+        final QueryData header = QueryData.parseDelimitedFrom(in).toBuilder()
+          .setQueryId(queryId)
+          .build();
+        final byte[] body = new byte[in.readInt()];
+        in.readFully(body);
+        read++;
+        return body.length > 0
+          ? new QueryWritableBatch(header, Unpooled.wrappedBuffer(body))
+          : new QueryWritableBatch(header);
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Failure while reading cached result {}, dropping it", key, e);
+        drop(storage, key, entry);
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+      }
+      try {
+        in.close();
+      } catch (IOException e) {
+        logger.warn("Failure while closing cached result {}", key, e);
+      }
+      release(storage, entry);
+    }
+  }
+
+  /**
+   * Copy of the batches of a result sent to the client, written to the storage as they arrive. The capture is dropped
+   * if the result is too large, or if the results being captured by all the queries are.
+   */
+  final class Capture {
+    private final Storage storage;
+    private final String key;
+    private final Path file;
+    private final long maxSizeInBytes;
+    private final long maxCapturedBytes;
+    private DataOutputStream out;
+    // bytes written, reserved in the captured bytes of the cache
+    private long size;
+    private int batchCount;
+    private boolean done;
+
+    private Capture(Storage storage, String key, Path file, long maxSizeInBytes, long maxCapturedBytes) {
+      this.storage = storage;
+      this.key = key;
+      this.file = file;
+      this.maxSizeInBytes = maxSizeInBytes;
+      this.maxCapturedBytes = maxCapturedBytes;
+    }
+
+    synchronized void add(QueryData header, ByteBuf body) {
+      if (done) {
+        return;
+      }
+      final int headerSize = header.getSerializedSize();
+      final int bodySize = body != null ? body.readableBytes() : 0;
+      final long batchSize = CodedOutputStream.computeUInt32SizeNoTag(headerSize) + headerSize + Integer.BYTES + bodySize;
+      if (size + batchSize > maxSizeInBytes || !reserve(batchSize, maxCapturedBytes)) {
+        // too large to be cached
+        discard();
+        return;
+      }
+      size += batchSize;
+
+      try {
+        if (out == null) {
+          out = new DataOutputStream(new BufferedOutputStream(storage.fs.create(file, true), STREAM_BUFFER_SIZE));
+        }
+        header.writeDelimitedTo(out);
+        out.writeInt(bodySize);
+        if (body != null) {
+          body.getBytes(body.readerIndex(), out, bodySize);
+        }
+        batchCount++;
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Failure while capturing result {}, it won't be cached", key, e);
+        discard();
+      }
+    }
+
+    /**
+     * Stop capturing, the result is not cached.
+     */
+    synchronized void discard() {
+      if (done) {
+        return;
+      }
+      done = true;
+      unreserve(size);
+      size = 0;
+      if (out != null) {
+        try {
+          out.close();
+        } catch (IOException e) {
+          logger.debug("Failure while closing captured result {}", key, e);
+        }
+        delete(storage, file);
+      }
+    }
+
+    /**
+     * Stop capturing, the written bytes stay reserved until the result is indexed.
+     *
+     * @return the entry of the captured result, null if it is not cached
+     */
+    private synchronized Entry finish() {
+      if (done) {
+        return null;
+      }
+      if (batchCount == 0) {
+        discard();
+        return null;
+      }
+      try {
+        out.close();
+      } catch (IOException e) {
+        logger.warn("Failure while storing result {} in the cache", key, e);
+        discard();
+        return null;
+      }
+      done = true;
+      return new Entry(file, size, batchCount);
+    }
+  }
+
+  /**
+   * Keeps the final physical plan of a query attempt, from which the key of its result is computed.
+   */
+  static final class PlanRecorder extends AbstractAttemptObserver {
+    private volatile Prel plan;
+
+    @Override
+    public void finalPrel(Prel prel) {
+      this.plan = prel;
+    }
+
+    Prel getPlan() {
+      return plan;
+    }
+  }
+}
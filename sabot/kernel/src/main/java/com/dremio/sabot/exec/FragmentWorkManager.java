@@ -332,6 +332,7 @@ public class FragmentWorkManager implements Service, SafeExit {
         bitContext.getDecimalFunctionImplementationRegistry(),
         context.getNodeDebugContextProvider(),
         bitContext.getSpillService(),
+        bitContext.getSpoolingIoExecutor(),
         bitContext.getCompiler(),
         ClusterCoordinator.Role.fromEndpointRoles(identity.get().getRoles()),
         jobResultsClientFactoryProvider,
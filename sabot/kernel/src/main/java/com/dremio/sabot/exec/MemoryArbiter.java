@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Redistributes memory among the memory bound (spilling) operators of a query on this node.
+ *
+ * The planner gives each of those operators a static limit. When an operator reaches its limit, it asks the
+ * arbiter for more memory before spilling: the arbiter lowers the limit of the siblings that don't use their
+ * share and raises the limit of the requester accordingly. If the unused memory isn't enough, the biggest
+ * consumer is asked to spill. It does so the next time it runs on its own thread, and the memory it releases
+ * can be granted to the next request.
+ *
+ * The arbiter only moves allocator limits around, operators still handle running out of memory as usual. When an
+ * operator is done, the memory it borrowed is given back to the operators it was taken from.
+ *
+ * Multi-thread safe
+ */
+public class MemoryArbiter {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MemoryArbiter.class);
+
+  private final String name;
+  private final List<Participant> participants = new ArrayList<>();
+
+  public MemoryArbiter(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Register an operator with the arbiter.
+   *
+   * @param name name of the operator, for logging
+   * @param allocator allocator of the operator, whose limit is adjusted by the arbiter
+   * @param floor the limit of the operator is never lowered below this value
+   * @param grantSize amount of memory granted at once to the operator
+   * @return the participant, to be closed once the operator is done
+   */
+  public synchronized Participant register(String name, BufferAllocator allocator, long floor, long grantSize) {
+    Preconditions.checkArgument(grantSize > 0, "grant size must be positive");
+    final Participant participant = new Participant(name, allocator, floor, grantSize);
+    participants.add(participant);
+    return participant;
+  }
+
+  private synchronized void unregister(Participant participant) {
+    participants.remove(participant);
+
+    // give the borrowed memory back to the lenders still running
+    for (Map.Entry<Participant, Long> loan : participant.borrowed.entrySet()) {
+      final Participant lender = loan.getKey();
+      if (participants.contains(lender)) {
+        lender.allocator.setLimit(lender.allocator.getLimit() + loan.getValue());
+        logger.debug("{}: returned {} bytes from {} to {}, new limit {}", name, loan.getValue(), participant.name,
+          lender.name, lender.allocator.getLimit());
+      }
+    }
+    participant.borrowed.clear();
+  }
+
+  synchronized int getParticipantCount() {
+    return participants.size();
+  }
+
+  private synchronized boolean grant(Participant requester) {
+    final BufferAllocator allocator = requester.allocator;
+    if (allocator.getLimit() - allocator.getAllocatedMemory() >= requester.grantSize) {
+      // the operator isn't bound by its own limit, more memory won't help
+      return false;
+    }
+
+    long available = 0;
+    for (Participant p : participants) {
+      if (p != requester) {
+        available += p.getYieldable();
+      }
+    }
+
+    if (available < requester.grantSize) {
+      requestSpill(requester);
+      return false;
+    }
+
+    long remaining = requester.grantSize;
+    for (Participant p : participants) {
+      if (p == requester || remaining == 0) {
+        continue;
+      }
+      final long taken = Math.min(remaining, p.getYieldable());
+      if (taken > 0) {
+        p.allocator.setLimit(p.allocator.getLimit() - taken);
+        p.yieldedBytes += taken;
+        requester.borrowed.merge(p, taken, Long::sum);
+        remaining -= taken;
+      }
+    }
+    allocator.setLimit(allocator.getLimit() + requester.grantSize);
+    requester.grants++;
+    requester.grantedBytes += requester.grantSize;
+    logger.debug("{}: granted {} bytes to {}, new limit {}", name, requester.grantSize, requester.name, allocator.getLimit());
+    return true;
+  }
+
+  /**
+   * Ask the biggest consumer to spill, if it uses more memory than the requester.
+   */
+  private void requestSpill(Participant requester) {
+    Participant victim = null;
+    for (Participant p : participants) {
+      if (p != requester && !p.spillRequested
+        && (victim == null || p.allocator.getAllocatedMemory() > victim.allocator.getAllocatedMemory())) {
+        victim = p;
+      }
+    }
+
+    if (victim != null && victim.allocator.getAllocatedMemory() > requester.allocator.getAllocatedMemory()) {
+      victim.spillRequested = true;
+      requester.spillRequestsSent++;
+      logger.debug("{}: asked {} using {} bytes to spill on behalf of {}", name, victim.name,
+        victim.allocator.getAllocatedMemory(), requester.name);
+    }
+  }
+
+  /**
+   * An operator whose memory limit is managed by the arbiter.
+   */
+  public class Participant implements AutoCloseable {
+    private final String name;
+    private final BufferAllocator allocator;
+    private final long floor;
+    private final long grantSize;
+    private volatile boolean spillRequested;
+
+    // guarded by the arbiter
+    private long grants;
+    private long grantedBytes;
+    private long yieldedBytes;
+    private long spillRequestsSent;
+    private long spillRequestsReceived;
+    // memory taken from each of the other operators, given back when this one is closed
+    private final Map<Participant, Long> borrowed = new IdentityHashMap<>();
+
+    private Participant(String name, BufferAllocator allocator, long floor, long grantSize) {
+      this.name = name;
+      this.allocator = allocator;
+      this.floor = floor;
+      this.grantSize = grantSize;
+    }
+
+    /**
+     * Memory that can be taken away from this operator. Its limit keeps some headroom above the current
+     * allocation so that it doesn't run out of memory right away.
+     */
+    private long getYieldable() {
+      final long keep = Math.max(floor, allocator.getAllocatedMemory() + grantSize);
+      return Math.max(0, allocator.getLimit() - keep);
+    }
+
+    /**
+     * Ask for more memory, typically before spilling.
+     *
+     * @return true if the limit of the operator was raised, false if the operator should spill
+     */
+    public boolean requestMemory() {
+      return grant(this);
+    }
+
+    /**
+     * @return true if another operator of the query asked this one to spill since the last call
+     */
+    public boolean shouldSpill() {
+      if (!spillRequested) {
+        return false;
+      }
+      synchronized (MemoryArbiter.this) {
+        spillRequested = false;
+        spillRequestsReceived++;
+      }
+      return true;
+    }
+
+    public long getGrants() {
+      synchronized (MemoryArbiter.this) {
+        return grants;
+      }
+    }
+
+    public long getGrantedBytes() {
+      synchronized (MemoryArbiter.this) {
+        return grantedBytes;
+      }
+    }
+
+    public long getYieldedBytes() {
+      synchronized (MemoryArbiter.this) {
+        return yieldedBytes;
+      }
+    }
+
+    public long getSpillRequestsSent() {
+      synchronized (MemoryArbiter.this) {
+        return spillRequestsSent;
+      }
+    }
+
+    public long getSpillRequestsReceived() {
+      synchronized (MemoryArbiter.this) {
+        return spillRequestsReceived;
+      }
+    }
+
+    @Override
+    public void close() {
+      unregister(this);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.arrow.memory.BufferAllocator;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.proto.CoordExecRPC.NodePhaseStatus;
 import com.dremio.exec.proto.CoordExecRPC.NodeQueryStatus;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
@@ -57,6 +58,7 @@ public class QueryTicket extends TicketWithChildren {
   private final ConcurrentMap<Integer, PhaseTicket> phaseTickets = Maps.newConcurrentMap();
   private final Collection<NodePhaseStatus> completed = Queues.newConcurrentLinkedQueue();
   private final long enqueuedTime;
+  private final MemoryArbiter memoryArbiter;
   private volatile NodeQueryStatus finalQueryStatus;
 
   public QueryTicket(WorkloadTicket workloadTicket, QueryId queryId, BufferAllocator allocator, NodeEndpoint foreman,
@@ -67,6 +69,7 @@ public class QueryTicket extends TicketWithChildren {
     this.foreman = foreman;
     this.assignment = assignment;
     this.enqueuedTime = enqueuedTime;
+    this.memoryArbiter = new MemoryArbiter(QueryIdHelper.getQueryId(queryId));
   }
 
   public QueryId getQueryId() {
@@ -85,6 +88,13 @@ public class QueryTicket extends TicketWithChildren {
     return enqueuedTime;
   }
 
+  /**
+   * @return the arbiter sharing memory among the spilling operators of this query on this node
+   */
+  public MemoryArbiter getMemoryArbiter() {
+    return memoryArbiter;
+  }
+
   /**
    * Creates a phase ticket (along with a phase-level allocator) for a given phase (major fragment) of this query, if
    * one has not already been created. The created phase ticket is tracked by this query ticket.
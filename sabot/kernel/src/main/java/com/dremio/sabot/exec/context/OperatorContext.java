@@ -42,6 +42,7 @@ import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.server.NodeDebugContextProvider;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.MemoryArbiter;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
 import com.dremio.service.spill.SpillService;
@@ -139,6 +140,11 @@ public abstract class OperatorContext {
 
   public abstract Provider<CoordinationProtos.NodeEndpoint> getNodeEndpointProvider();
 
+  /**
+   * @return the handle of the operator with the memory arbiter of the query, null if its limit is not arbitrated
+   */
+  public abstract MemoryArbiter.Participant getMemoryArbiterParticipant();
+
   public interface Creator {
     public OperatorContext newOperatorContext(PhysicalOperator popConfig) throws Exception;
   }
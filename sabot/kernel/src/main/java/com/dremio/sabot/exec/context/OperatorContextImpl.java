@@ -52,6 +52,7 @@ import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.server.NodeDebugContextProvider;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.MemoryArbiter;
 import com.dremio.sabot.exec.fragment.FragmentExecutorBuilder;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
@@ -86,6 +87,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
   private final SpillService spillService;
   private final EndpointsIndex endpointsIndex;
   private final Map<Integer, MajorFragmentAssignment> majorFragmentAssignments;
+  private final MemoryArbiter.Participant memoryArbiterParticipant;
 
   public OperatorContextImpl(
     SabotConfig config,
@@ -110,6 +112,36 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
     EndpointsIndex endpointsIndex,
     List<MinorFragmentEndpoint> minorFragmentEndpoints) throws OutOfMemoryException {
+    this(config, handle, popConfig, allocator, fragmentOutputAllocator, compiler, stats, executionControls,
+      fragmentExecutorBuilder, executor, functions, contextInformation, optionManager, spillService,
+      nodeDebugContextProvider, targetBatchSize, tunnelProvider, assignments, majorFragmentAssignments,
+      nodeEndpointProvider, endpointsIndex, minorFragmentEndpoints, null);
+  }
+
+  public OperatorContextImpl(
+    SabotConfig config,
+    FragmentHandle handle,
+    PhysicalOperator popConfig,
+    BufferAllocator allocator,
+    BufferAllocator fragmentOutputAllocator,
+    CodeCompiler compiler,
+    OperatorStats stats,
+    ExecutionControls executionControls,
+    FragmentExecutorBuilder fragmentExecutorBuilder,
+    ExecutorService executor,
+    FunctionLookupContext functions,
+    ContextInformation contextInformation,
+    final OptionManager optionManager,
+    SpillService spillService,
+    NodeDebugContextProvider nodeDebugContextProvider,
+    int targetBatchSize,
+    TunnelProvider tunnelProvider,
+    List<FragmentAssignment> assignments,
+    List<MajorFragmentAssignment> majorFragmentAssignments,
+    Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
+    EndpointsIndex endpointsIndex,
+    List<MinorFragmentEndpoint> minorFragmentEndpoints,
+    MemoryArbiter.Participant memoryArbiterParticipant) throws OutOfMemoryException {
     this.config = config;
     this.handle = handle;
     this.allocator = allocator;
@@ -137,6 +169,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     this.majorFragmentAssignments = Optional.ofNullable(majorFragmentAssignments)
             .map(f -> f.stream().collect(Collectors.toMap(MajorFragmentAssignment::getMajorFragmentId, v -> v)))
             .orElse(Collections.emptyMap());
+    this.memoryArbiterParticipant = memoryArbiterParticipant;
   }
 
   public OperatorContextImpl(
@@ -285,12 +318,17 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     }
 
     try{
-      AutoCloseables.close(manager, allocator);
+      AutoCloseables.close(memoryArbiterParticipant, manager, allocator);
     }finally{
       closed = true;
     }
   }
 
+  @Override
+  public MemoryArbiter.Participant getMemoryArbiterParticipant() {
+    return memoryArbiterParticipant;
+  }
+
   @Override
   public OperatorStats getStats() {
     return stats;
@@ -21,6 +21,7 @@ import static com.dremio.sabot.exec.fragment.FragmentExecutorBuilder.WORK_QUEUE_
 import java.security.PrivilegedExceptionAction;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
@@ -177,7 +178,8 @@ public class FragmentExecutor {
       final CatalogService sources,
       DeferredException exception,
       EventProvider eventProvider,
-      SpillService spillService) {
+      SpillService spillService,
+      ExecutorService spoolingIoExecutor) {
     super();
     this.name = QueryIdHelper.getExecutorThreadName(fragment.getHandle());
     this.statusReporter = statusReporter;
@@ -201,8 +203,9 @@ public class FragmentExecutor {
       "activate-signal-" + this.name, SharedResourceType.FRAGMENT_ACTIVATE_SIGNAL));
     this.workQueue = new FragmentWorkQueue(sharedResources.getGroup(WORK_QUEUE_RES_GRP));
     this.buffers = new IncomingBuffers(
-      deferredException, sharedResources.getGroup(PIPELINE_RES_GRP), workQueue, tunnelProvider,
-      fragment, allocator, config, executionControls, spillService, reader.getPlanFragmentsIndex());
+      deferredException, sharedResources.getGroup(PIPELINE_RES_GRP), tunnelProvider,
+      fragment, allocator, config, executionControls, spillService, spoolingIoExecutor,
+      reader.getPlanFragmentsIndex());
     this.eventProvider = eventProvider;
     this.cancelled = SettableFuture.create();
     this.executionControls = executionControls;
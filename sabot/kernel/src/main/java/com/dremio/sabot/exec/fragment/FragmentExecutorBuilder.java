@@ -118,6 +118,7 @@ public class FragmentExecutorBuilder {
   private final ContextInformationFactory contextInformationFactory;
   private final NodeDebugContextProvider nodeDebugContextProvider;
   private final SpillService spillService;
+  private final ExecutorService spoolingIoExecutor;
   private final Provider<JobResultsClientFactory> jobResultsClientFactoryProvider;
   private Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider;
 
@@ -140,6 +141,7 @@ public class FragmentExecutorBuilder {
     DecimalFunctionImplementationRegistry decimalFunctions,
     NodeDebugContextProvider nodeDebugContextProvider,
     SpillService spillService,
+    ExecutorService spoolingIoExecutor,
     CodeCompiler codeCompiler,
     Set<ClusterCoordinator.Role> roles,
     Provider<JobResultsClientFactory> jobResultsClientFactoryProvider,
@@ -165,6 +167,7 @@ public class FragmentExecutorBuilder {
     this.contextInformationFactory = contextInformationFactory;
     this.nodeDebugContextProvider = nodeDebugContextProvider;
     this.spillService = spillService;
+    this.spoolingIoExecutor = spoolingIoExecutor;
     this.jobResultsClientFactoryProvider = jobResultsClientFactoryProvider;
   }
 
@@ -296,7 +299,8 @@ public class FragmentExecutorBuilder {
             major.getAllAssignmentList(),
             cachedReader.getPlanFragmentsIndex().getEndpointsIndex(),
             nodeEndpointProvider,
-            major.getExtFragmentAssignmentsList()
+            major.getExtFragmentAssignmentsList(),
+            queryTicket.getMemoryArbiter()
           );
 
         final FragmentStatusReporter statusReporter = new FragmentStatusReporter(fragment.getHandle(), stats,
@@ -323,7 +327,8 @@ public class FragmentExecutorBuilder {
             sources,
             exception,
             eventProvider,
-            spillService
+            spillService,
+            spoolingIoExecutor
         );
         commit.commit();
 
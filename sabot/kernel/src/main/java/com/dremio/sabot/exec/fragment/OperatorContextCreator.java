@@ -28,6 +28,7 @@ import com.dremio.common.AutoCloseables;
 import com.dremio.common.AutoCloseables.RollbackCloseable;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.CodeCompiler;
 import com.dremio.exec.expr.fn.FunctionLookupContext;
 import com.dremio.exec.physical.base.PhysicalOperator;
@@ -42,6 +43,7 @@ import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.server.NodeDebugContextProvider;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.MemoryArbiter;
 import com.dremio.sabot.exec.context.ContextInformation;
 import com.dremio.sabot.exec.context.FragmentStats;
 import com.dremio.sabot.exec.context.OpProfileDef;
@@ -78,6 +80,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
   private Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider;
   private final List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments;
   private List<MinorFragmentEndpoint> minorFragmentEndpoints;
+  private final MemoryArbiter memoryArbiter;
 
   public OperatorContextCreator(FragmentStats stats, BufferAllocator allocator, CodeCompiler compiler,
                                 SabotConfig config, FragmentHandle handle, ExecutionControls executionControls,
@@ -87,7 +90,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
                                 NodeDebugContextProvider nodeDebugContextProvider, TunnelProvider tunnelProvider,
                                 List<FragmentAssignment> assignments, EndpointsIndex endpointsIndex,
                                 Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
-                                List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments) {
+                                List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments,
+                                MemoryArbiter memoryArbiter) {
     super();
     this.stats = stats;
     this.allocator = allocator;
@@ -110,6 +114,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
     this.assignments = assignments;
     this.endpointsIndex = endpointsIndex;
     this.extFragmentAssignments = extFragmentAssignments;
+    this.memoryArbiter = memoryArbiter;
   }
 
   public void setFragmentOutputAllocator(BufferAllocator fragmentOutputAllocator) {
@@ -136,6 +141,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
     try (RollbackCloseable closeable = AutoCloseables.rollbackable(operatorAllocator)) {
       final OpProfileDef def = new OpProfileDef(popConfig.getProps().getLocalOperatorId(), popConfig.getOperatorType(), OperatorContext.getChildCount(popConfig), popConfig.getOperatorSubType());
       final OperatorStats stats = this.stats.newOperatorStats(def, operatorAllocator);
+      final MemoryArbiter.Participant memoryParticipant = registerWithArbiter(allocatorName, popConfig, operatorAllocator);
+      closeable.add(memoryParticipant);
       FunctionLookupContext functionLookupContext = funcRegistry;
       if (options.getOption(PlannerSettings.ENABLE_DECIMAL_V2)) {
         functionLookupContext = decimalFuncRegistry;
@@ -162,13 +169,33 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
         extFragmentAssignments,
         nodeEndpointProvider,
         endpointsIndex,
-        minorFragmentEndpoints);
+        minorFragmentEndpoints,
+        memoryParticipant);
       operatorContexts.add(context);
       closeable.commit();
       return context;
     }
   }
 
+  /**
+   * Let the arbiter of the query manage the limit of memory bound operators.
+   *
+   * @return the participant, or null if the operator keeps its planned limit
+   */
+  private MemoryArbiter.Participant registerWithArbiter(String name, PhysicalOperator popConfig, BufferAllocator operatorAllocator) {
+    if (memoryArbiter == null || !popConfig.getProps().isMemoryBound() || !options.getOption(ExecConstants.ENABLE_MEMORY_ARBITER)) {
+      return null;
+    }
+
+    final long limit = popConfig.getProps().getMemLimit();
+    final long grantSize = (long) (limit * options.getOption(ExecConstants.MEMORY_ARBITER_GRANT_RATIO));
+    if (grantSize <= 0) {
+      return null;
+    }
+    final long floor = Math.max(popConfig.getProps().getMemReserve(), popConfig.getProps().getMemLowLimit());
+    return memoryArbiter.register(name, operatorAllocator, floor, grantSize);
+  }
+
   @Override
   public void close() throws Exception {
     Collections.reverse(operatorContexts);
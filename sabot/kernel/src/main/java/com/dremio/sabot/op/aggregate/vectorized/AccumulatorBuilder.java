@@ -94,7 +94,7 @@ public class AccumulatorBuilder {
         continue;
       }
 
-      /* SUM, MIN, MAX, $SUM0, COUNT */
+      /* SUM, MIN, MAX, $SUM0, COUNT, HLL, HLL_MERGE, BOOL_AND, BOOL_OR */
       final ValueVectorReadExpression vvread = (ValueVectorReadExpression) exprs.get(0);
       inputVector = incoming.getValueAccessorById(FieldVector.class, vvread.getFieldId().getFieldIds()).getValueVector();
       accumulatorTypes[i] = getAccumulatorTypeFromName(func.getName());
@@ -344,6 +344,67 @@ public class AccumulatorBuilder {
                                           computationVectorAllocator);
       }
 
+      case 6: {
+        switch(type){
+          case INT:
+          case TIME:
+          case INTERVALYEAR:
+            return new NdvAccumulators.IntNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                         computationVectorAllocator);
+          case FLOAT4:
+            return new NdvAccumulators.FloatNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                           computationVectorAllocator);
+          case BIGINT:
+          case DATE:
+          case TIMESTAMP:
+            return new NdvAccumulators.BigIntNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+          case FLOAT8:
+            return new NdvAccumulators.DoubleNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+          case DECIMAL:
+            if (decimalCompleteEnabled) {
+              return new NdvAccumulators.DecimalNdvAccumulatorV2(incomingValues, transferVector, maxValuesPerBatch,
+                computationVectorAllocator);
+            } else {
+              return new NdvAccumulators.DecimalNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                computationVectorAllocator);
+            }
+          case BIT:
+            return new NdvAccumulators.BitNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                         computationVectorAllocator);
+          case INTERVALDAY:
+            return new NdvAccumulators.IntervalDayNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                                 computationVectorAllocator);
+          case VARCHAR:
+          case VARBINARY:
+            return new NdvAccumulators.VarLenNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+        }
+        break;
+      }
+
+      case 7: {
+        return new NdvAccumulators.NdvUnionAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                       computationVectorAllocator);
+      }
+
+      case 8: {
+        if (type == MinorType.BIT) {
+          return new BooleanAccumulators.BoolAndAccumulator(incomingValues, outputVector, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+        }
+        break;
+      }
+
+      case 9: {
+        if (type == MinorType.BIT) {
+          return new BooleanAccumulators.BoolOrAccumulator(incomingValues, outputVector, transferVector, maxValuesPerBatch,
+                                                           computationVectorAllocator);
+        }
+        break;
+      }
+
     }
 
     return null;
@@ -374,6 +435,25 @@ public class AccumulatorBuilder {
     public List<FieldVector> getInputVectors() {
       return inputVectors;
     }
+
+    /**
+     * Get the fields of the accumulation vectors, i.e. the vectors that are spilled and
+     * read back during post-spill processing. These are the same as the output fields
+     * except for NDV aggregates, which accumulate fixed size sketches.
+     */
+    public List<Field> getPostSpillAccumulatorVectorFields() {
+      final List<Field> fields = new ArrayList<>(outputVectorFields.size());
+      for (int i = 0; i < outputVectorFields.size(); i++) {
+        final Field field = outputVectorFields.get(i);
+        if (accumulatorTypes[i] == AccumulatorType.HLL.ordinal()
+          || accumulatorTypes[i] == AccumulatorType.HLL_MERGE.ordinal()) {
+          fields.add(BaseNdvAccumulator.getAccumulatorField(field));
+        } else {
+          fields.add(field);
+        }
+      }
+      return fields;
+    }
   }
 
   public enum AccumulatorType {
@@ -382,10 +462,24 @@ public class AccumulatorBuilder {
     MAX,
     SUM0,
     COUNT,
-    COUNT1
+    COUNT1,
+    HLL,
+    HLL_MERGE,
+    BOOL_AND,
+    BOOL_OR
   }
 
   private static byte getAccumulatorTypeFromName(String name) {
+    switch (name) {
+      case "hll_merge":
+        return (byte)AccumulatorType.HLL_MERGE.ordinal();
+      case "bool_and":
+        return (byte)AccumulatorType.BOOL_AND.ordinal();
+      case "bool_or":
+        return (byte)AccumulatorType.BOOL_OR.ordinal();
+      default:
+        break;
+    }
     // Strip _complete if present.
     String functionName  = name.split("_")[0];
     switch (functionName) {
@@ -401,6 +495,8 @@ public class AccumulatorBuilder {
         return (byte)AccumulatorType.COUNT.ordinal();
       case "count1":
         return (byte)AccumulatorType.COUNT1.ordinal();
+      case "hll":
+        return (byte)AccumulatorType.HLL.ordinal();
       default:
         throw UserException.unsupportedError().message("Unable to handle accumulator function %s", name).build(logger);
     }
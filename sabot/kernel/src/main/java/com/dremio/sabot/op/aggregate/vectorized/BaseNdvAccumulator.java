@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import java.util.Arrays;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+import com.dremio.exec.expr.fn.hll.StatisticsAggrFunctions;
+import com.yahoo.memory.WritableMemory;
+import com.yahoo.sketches.hll.HllSketch;
+import com.yahoo.sketches.hll.TgtHllType;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A base accumulator for HLL/NDV operators.
+ *
+ * Every group owns a fixed size slot in the accumulation vector of its batch, large enough
+ * to hold the updatable image of a HLL sketch. The sketches are updated in place, so the
+ * accumulation vectors can be spilled and read back like the ones of any other fixed width
+ * accumulator. The validity bit of a slot tells whether the sketch in it was initialized.
+ *
+ * Sketch objects wrapping the slots are created on first use and cached per batch until the
+ * batch is output, released or reset.
+ *
+ * @param <T> type of the sketch updated in each slot
+ */
+abstract class BaseNdvAccumulator<T> extends BaseSingleAccumulator {
+
+  /* width of the slot holding the sketch of a single group */
+  public static final int SKETCH_SIZE =
+    HllSketch.getMaxUpdatableSerializationBytes(StatisticsAggrFunctions.HLL_ACCURACY, TgtHllType.HLL_8);
+
+  /* output of groups which never saw a non-null value */
+  private static final byte[] EMPTY_SKETCH =
+    new HllSketch(StatisticsAggrFunctions.HLL_ACCURACY, TgtHllType.HLL_8).toCompactByteArray();
+
+  private Object[][] sketches;
+
+  BaseNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                     final AccumulatorBuilder.AccumulatorType type, final int maxValuesPerBatch,
+                     final BufferAllocator computationVectorAllocator) {
+    super(input, newSketchVector(transferVector.getField(), computationVectorAllocator), transferVector,
+          type, maxValuesPerBatch, computationVectorAllocator);
+    this.sketches = new Object[0][];
+  }
+
+  /**
+   * Used for post-spill processing, reuses the accumulation vectors of the accumulator
+   * from pre-spill iteration.
+   */
+  BaseNdvAccumulator(final FieldVector input, final BaseNdvAccumulator<?> preSpillAccumulator,
+                     final AccumulatorBuilder.AccumulatorType type, final int maxValuesPerBatch,
+                     final BufferAllocator computationVectorAllocator) {
+    super(input, preSpillAccumulator.getOutput(), preSpillAccumulator.getTransferVector(),
+          type, maxValuesPerBatch, computationVectorAllocator,
+          preSpillAccumulator.getBitAddresses(),
+          preSpillAccumulator.getValueAddresses(),
+          preSpillAccumulator.getAccumulators());
+    this.sketches = new Object[0][];
+  }
+
+  /**
+   * Get the field of the accumulation vector (the one that is spilled) for
+   * a NDV aggregate.
+   *
+   * @param outputField field of the aggregate in outgoing container
+   * @return field of the fixed size sketch slots
+   */
+  public static Field getAccumulatorField(final Field outputField) {
+    return new Field(outputField.getName(), FieldType.nullable(new ArrowType.FixedSizeBinary(SKETCH_SIZE)), null);
+  }
+
+  private static FieldVector newSketchVector(final Field outputField, final BufferAllocator allocator) {
+    return new FixedSizeBinaryVector(getAccumulatorField(outputField), allocator);
+  }
+
+  /**
+   * Create a sketch in an empty slot.
+   */
+  abstract T newSketch(WritableMemory slot);
+
+  /**
+   * Wrap the sketch already initialized in a slot.
+   */
+  abstract T wrapSketch(WritableMemory slot);
+
+  abstract int getCompactSerializationBytes(T sketch);
+
+  abstract byte[] toCompactByteArray(T sketch);
+
+  /**
+   * Get the sketch of a group, initializing its slot if this is the first value
+   * accumulated for the group.
+   *
+   * @param chunkIndex hash table batch of the group
+   * @param chunkOffset offset of the group in the batch
+   * @return sketch to update
+   */
+  @SuppressWarnings("unchecked")
+  final T getSketch(final int chunkIndex, final int chunkOffset) {
+    if (chunkIndex >= sketches.length) {
+      sketches = Arrays.copyOf(sketches, getBatchCount());
+    }
+    Object[] batchSketches = sketches[chunkIndex];
+    if (batchSketches == null) {
+      batchSketches = new Object[maxValuesPerBatch];
+      sketches[chunkIndex] = batchSketches;
+    }
+
+    T sketch = (T) batchSketches[chunkOffset];
+    if (sketch == null) {
+      final WritableMemory slot = WritableMemory.wrap(getAccumulatorVector(chunkIndex).getDataBuffer()
+        .nioBuffer((long) chunkOffset * SKETCH_SIZE, SKETCH_SIZE));
+      final long bitAddr = bitAddresses[chunkIndex] + (chunkOffset >>> 3);
+      final int bit = 1 << (chunkOffset & 7);
+      final byte bits = PlatformDependent.getByte(bitAddr);
+      if ((bits & bit) == 0) {
+        sketch = newSketch(slot);
+        PlatformDependent.putByte(bitAddr, (byte) (bits | bit));
+      } else {
+        sketch = wrapSketch(slot);
+      }
+      batchSketches[chunkOffset] = sketch;
+    }
+    return sketch;
+  }
+
+  private void dropSketches(final int batchIndex) {
+    if (batchIndex >= 0 && batchIndex < sketches.length) {
+      sketches[batchIndex] = null;
+    }
+  }
+
+  @Override
+  void initialize(FieldVector vector) {
+    /* all slots start uninitialized */
+    setNullAndZero(vector);
+  }
+
+  /**
+   * Sketches can't be transferred to the outgoing container, their compact form
+   * is copied into the (variable width) vector in outgoing container instead.
+   * The slots of the first batch are then cleared for post-spill processing.
+   *
+   * @param batchIndex batch to output
+   */
+  @Override
+  public void output(final int batchIndex) {
+    final FieldVector accumulationVector = getAccumulatorVector(batchIndex);
+    final VarBinaryVector outputVector = (VarBinaryVector) getTransferVector();
+    final long bitAddr = bitAddresses[batchIndex];
+
+    long totalSize = 0;
+    for (int i = 0; i < maxValuesPerBatch; i++) {
+      totalSize += isInitialized(bitAddr, i) ? getCompactSerializationBytes(getSketch(batchIndex, i)) : EMPTY_SKETCH.length;
+    }
+
+    outputVector.allocateNew(totalSize, maxValuesPerBatch);
+    for (int i = 0; i < maxValuesPerBatch; i++) {
+      outputVector.set(i, isInitialized(bitAddr, i) ? toCompactByteArray(getSketch(batchIndex, i)) : EMPTY_SKETCH);
+    }
+
+    dropSketches(batchIndex);
+    if (batchIndex == 0) {
+      initialize(accumulationVector);
+    }
+  }
+
+  private static boolean isInitialized(final long bitAddr, final int index) {
+    return ((PlatformDependent.getByte(bitAddr + (index >>> 3)) >>> (index & 7)) & 1) == 1;
+  }
+
+  @Override
+  public void revertResize() {
+    /* harmless if the last batch is kept, its sketches are wrapped again on next use */
+    dropSketches(getBatchCount() - 1);
+    super.revertResize();
+  }
+
+  @Override
+  public void resetToMinimumSize() throws Exception {
+    sketches = new Object[0][];
+    super.resetToMinimumSize();
+  }
+
+  @Override
+  public void releaseBatch(final int batchIdx) {
+    dropSketches(batchIdx);
+    super.releaseBatch(batchIdx);
+  }
+
+  @Override
+  public void close() throws Exception {
+    sketches = new Object[0][];
+    super.close();
+  }
+}
@@ -550,6 +550,14 @@ abstract class BaseSingleAccumulator implements Accumulator {
     writeWordwise(values.memoryAddress(), values.capacity(), OFF);
   }
 
+  public static void setNotNullAndValue(FieldVector vector, long value){
+    List<ArrowBuf> buffers = vector.getFieldBuffers();
+    ArrowBuf bits = buffers.get(0);
+    writeWordwise(bits.memoryAddress(), bits.capacity(), ON);
+    ArrowBuf values = buffers.get(1);
+    writeWordwise(values.memoryAddress(), values.capacity(), value);
+  }
+
   public static void setNullAndValue(FieldVector vector, BigDecimal value){
     List<ArrowBuf> buffers = vector.getFieldBuffers();
     ArrowBuf bits = buffers.get(0);
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.HTORDINAL_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.KEYINDEX_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Accumulators for bool_and() and bool_or(). Unlike min/max on boolean values, the
+ * result is never null: a group with only null inputs yields true for bool_and and
+ * false for bool_or, same as the generated aggregate functions. Both aggregates are
+ * their own merge function, so the accumulator type doesn't change for post-spill
+ * processing or for the second phase of aggregation.
+ */
+public class BooleanAccumulators {
+  private static final int BITS_PER_BYTE_SHIFT = 3;  // (1<<3) bits per byte
+  private static final int BITS_PER_BYTE = (1 << BITS_PER_BYTE_SHIFT);
+
+  private BooleanAccumulators(){};
+
+  public static class BoolAndAccumulator extends BaseSingleAccumulator {
+    private static final long INIT = -1l;           // == 0xffffffffffffffff
+
+    public BoolAndAccumulator(FieldVector input, FieldVector output,
+                              FieldVector transferVector, int maxValuesPerBatch,
+                              BufferAllocator computationVectorAllocator) {
+      super(input, output, transferVector, AccumulatorBuilder.AccumulatorType.BOOL_AND, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    @Override
+    void initialize(FieldVector vector) {
+      setNotNullAndValue(vector, INIT);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+      final long[] valueAddresses = this.valueAddresses;
+
+      final long maxOrdinalAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxOrdinalAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int chunkIndex = tableIndex >>> bitsInChunk;
+        final int chunkOffset = tableIndex & chunkOffsetMask;
+        // Update rule: a null input leaves the accumulator unchanged, so the accumulator
+        // is AND-ed with (NOT(inputBit) OR inputValue), as in BitMinAccumulator. The
+        // validity of the accumulator is set up front and never changes.
+        final int inputBitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> BITS_PER_BYTE_SHIFT))) >>> (incomingIndex & (BITS_PER_BYTE - 1))) & 1;
+        final int inputVal = (PlatformDependent.getByte(incomingValue + ((incomingIndex >>> BITS_PER_BYTE_SHIFT))) >>> (incomingIndex & (BITS_PER_BYTE - 1))) & 1;
+        // NB: ~inputBitVal will set all the bits to 1, with only the LSB set to 0 or 1. Shifting left leaves zeroes
+        // in the bottom (chunkOffset & 31) bits. They need to get set to 1s too
+        int andUpdateVal = ((~inputBitVal) | inputVal) << (chunkOffset & 31);
+        andUpdateVal = andUpdateVal | ((1 << (chunkOffset & 31)) - 1);
+        final long andAddr = valueAddresses[chunkIndex] + ((chunkOffset >>> 5) * 4);  // 32-bit read-update-write
+        PlatformDependent.putInt(andAddr, PlatformDependent.getInt(andAddr) & andUpdateVal);
+      }
+    }
+  }
+
+  public static class BoolOrAccumulator extends BaseSingleAccumulator {
+
+    public BoolOrAccumulator(FieldVector input, FieldVector output,
+                             FieldVector transferVector, int maxValuesPerBatch,
+                             BufferAllocator computationVectorAllocator) {
+      super(input, output, transferVector, AccumulatorBuilder.AccumulatorType.BOOL_OR, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    @Override
+    void initialize(FieldVector vector) {
+      setNotNullAndZero(vector);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+      final long[] valueAddresses = this.valueAddresses;
+
+      final long maxOrdinalAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxOrdinalAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int chunkIndex = tableIndex >>> bitsInChunk;
+        final int chunkOffset = tableIndex & chunkOffsetMask;
+        // Update rule: the accumulator is OR-ed with (inputBit AND inputValue), a null
+        // input leaves it unchanged. The validity of the accumulator never changes.
+        final int inputBitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> BITS_PER_BYTE_SHIFT))) >>> (incomingIndex & (BITS_PER_BYTE - 1))) & 1;
+        final int inputVal = (PlatformDependent.getByte(incomingValue + ((incomingIndex >>> BITS_PER_BYTE_SHIFT))) >>> (incomingIndex & (BITS_PER_BYTE - 1))) & 1;
+        final int orUpdateVal = (inputBitVal & inputVal) << (chunkOffset & 31);
+        final long orAddr = valueAddresses[chunkIndex] + ((chunkOffset >>> 5) * 4);  // 32-bit read-update-write
+        PlatformDependent.putInt(orAddr, PlatformDependent.getInt(orAddr) | orUpdateVal);
+      }
+    }
+  }
+}
@@ -80,7 +80,19 @@ public class HashAggStats {
     OOB_DROP_UNDER_THRESHOLD, // Number of times OOB dropped spilling notification as it was under the threshold.
     OOB_DROP_NO_VICTIM, // Number of times OOB dropped spilling notification as all allocations were minimal.
     OOB_SPILL, // Spill was done due to oob.
-    OOB_DROP_ALREADY_SPILLING // Number of times operator dropped spilling notification as it was already spilling
+    OOB_DROP_ALREADY_SPILLING, // Number of times operator dropped spilling notification as it was already spilling
+
+    // adaptive partial aggregation related metrics
+    PASSTHROUGH_ENABLED,      /* 1 if partial aggregation switched to streaming input rows as is */
+    PASSTHROUGH_REDUCTION_PERCENT, /* groups per 100 input rows observed when the switch was decided */
+    PASSTHROUGH_RECORDS,      /* number of records streamed without aggregation */
+
+    // memory arbiter related metrics
+    ARBITER_GRANTS,           /* number of times the memory arbiter raised the limit of the operator instead of spilling */
+    ARBITER_GRANTED_BYTES,    /* memory granted to the operator by the memory arbiter */
+    ARBITER_YIELDED_BYTES,    /* unused memory of the operator given to other operators of the query */
+    ARBITER_SPILL_REQUESTS_SENT, /* number of times the operator asked another operator of the query to spill */
+    ARBITER_SPILL             /* number of partitions spilled on behalf of another operator of the query */
 
     ;
 
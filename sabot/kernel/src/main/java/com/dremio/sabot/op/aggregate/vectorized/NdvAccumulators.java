@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.HTORDINAL_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.KEYINDEX_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+
+import com.dremio.exec.expr.fn.hll.StatisticsAggrFunctions;
+import com.dremio.exec.util.DecimalUtils;
+import com.yahoo.memory.Memory;
+import com.yahoo.memory.WritableMemory;
+import com.yahoo.sketches.hll.HllSketch;
+import com.yahoo.sketches.hll.TgtHllType;
+import com.yahoo.sketches.hll.Union;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Spillable accumulators for hll() and hll_merge(), the two phases of NDV.
+ */
+public class NdvAccumulators {
+
+  private NdvAccumulators(){};
+
+  /**
+   * Accumulates values of a column into HLL sketches.
+   */
+  abstract static class BaseHllAccumulator extends BaseNdvAccumulator<HllSketch> {
+
+    BaseHllAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                       BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, AccumulatorBuilder.AccumulatorType.HLL, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    @Override
+    HllSketch newSketch(WritableMemory slot) {
+      return new HllSketch(StatisticsAggrFunctions.HLL_ACCURACY, TgtHllType.HLL_8, slot);
+    }
+
+    @Override
+    HllSketch wrapSketch(WritableMemory slot) {
+      return HllSketch.writableWrap(slot);
+    }
+
+    @Override
+    int getCompactSerializationBytes(HllSketch sketch) {
+      return sketch.getCompactSerializationBytes();
+    }
+
+    @Override
+    byte[] toCompactByteArray(HllSketch sketch) {
+      return sketch.toCompactByteArray();
+    }
+  }
+
+  public static class IntNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 4;     /* int input vector */
+
+    public IntNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                             BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final long incomingBit = getInput().getValidityBufferAddress();
+      final long incomingValue = getInput().getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        final int newVal = PlatformDependent.getInt(incomingValue + (incomingIndex * WIDTH_INPUT));
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class FloatNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 4;     /* float input vector */
+
+    public FloatNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                               BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final long incomingBit = getInput().getValidityBufferAddress();
+      final long incomingValue = getInput().getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        final float newVal = Float.intBitsToFloat(PlatformDependent.getInt(incomingValue + (incomingIndex * WIDTH_INPUT)));
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class BigIntNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 8;     /* long input vector */
+
+    public BigIntNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                                BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final long incomingBit = getInput().getValidityBufferAddress();
+      final long incomingValue = getInput().getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        final long newVal = PlatformDependent.getLong(incomingValue + (incomingIndex * WIDTH_INPUT));
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class DoubleNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 8;     /* double input vector */
+
+    public DoubleNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                                BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final long incomingBit = getInput().getValidityBufferAddress();
+      final long incomingValue = getInput().getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        final double newVal = Double.longBitsToDouble(PlatformDependent.getLong(incomingValue + (incomingIndex * WIDTH_INPUT)));
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class DecimalNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 16;      // decimal inputs
+    byte[] valBuf = new byte[WIDTH_INPUT];
+
+    public DecimalNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                                 BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+      final int scale = ((DecimalVector)inputVector).getScale();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        java.math.BigDecimal newVal = DecimalUtils.getBigDecimalFromLEBytes(incomingValue + (incomingIndex * WIDTH_INPUT), valBuf, scale);
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal.doubleValue());
+      }
+    }
+  }
+
+  public static class DecimalNdvAccumulatorV2 extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 16;      // decimal inputs
+
+    public DecimalNdvAccumulatorV2(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                                   BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final ArrowBuf inputBuf = inputVector.getDataBuffer();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask)
+          .update(Memory.wrap(inputBuf.nioBuffer((long) incomingIndex * WIDTH_INPUT, WIDTH_INPUT)), 0, WIDTH_INPUT);
+      }
+    }
+  }
+
+  public static class BitNdvAccumulator extends BaseHllAccumulator {
+
+    public BitNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                             BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final long incomingBit = getInput().getValidityBufferAddress();
+      final long incomingValue = getInput().getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        final int newVal = (PlatformDependent.getByte(incomingValue + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class IntervalDayNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 8;       // pair-of-ints inputs
+
+    public IntervalDayNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                                     BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final long incomingBit = getInput().getValidityBufferAddress();
+      final long incomingValue = getInput().getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        final long newVal = PlatformDependent.getLong(incomingValue + (incomingIndex * WIDTH_INPUT));
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class VarLenNdvAccumulator extends BaseHllAccumulator {
+
+    public VarLenNdvAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                                BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final long incomingBit = getInput().getValidityBufferAddress();
+      final ArrowBuf inputOffsetBuf = getInput().getOffsetBuffer();
+      final ArrowBuf inputBuf = getInput().getDataBuffer();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        /* get the offset of incoming record */
+        final int startOffset = inputOffsetBuf.getInt((long) incomingIndex * BaseVariableWidthVector.OFFSET_WIDTH);
+        final int endOffset = inputOffsetBuf.getInt((long) (incomingIndex + 1) * BaseVariableWidthVector.OFFSET_WIDTH);
+        final int len = endOffset - startOffset;
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask)
+          .update(Memory.wrap(inputBuf.nioBuffer(startOffset, len)), 0, len);
+      }
+    }
+  }
+
+  /**
+   * Merges HLL sketches. The input is either the compact sketches produced by the
+   * first phase of NDV (hll_merge), or the sketch slots of a spilled NDV accumulator
+   * (post-spill processing of both hll and hll_merge).
+   */
+  public static class NdvUnionAccumulator extends BaseNdvAccumulator<Union> {
+
+    public NdvUnionAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                               BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, AccumulatorBuilder.AccumulatorType.HLL_MERGE, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    /**
+     * Create a NdvUnionAccumulator from a hll or hll_merge accumulator. This is
+     * used for post-spill processing.
+     * @param ndvAccumulator hll or hll_merge accumulator
+     * @param input new input vector (read from spilled batch)
+     * @param maxValuesPerBatch batch size
+     * @param computationVectorAllocator accumulator vector allocator
+     */
+    NdvUnionAccumulator(final BaseNdvAccumulator<?> ndvAccumulator,
+                        final FieldVector input, final int maxValuesPerBatch,
+                        final BufferAllocator computationVectorAllocator) {
+      super(input, ndvAccumulator, AccumulatorBuilder.AccumulatorType.HLL_MERGE, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    @Override
+    Union newSketch(WritableMemory slot) {
+      return new Union(StatisticsAggrFunctions.HLL_ACCURACY, slot);
+    }
+
+    @Override
+    Union wrapSketch(WritableMemory slot) {
+      return Union.writableWrap(slot);
+    }
+
+    @Override
+    int getCompactSerializationBytes(Union sketch) {
+      return sketch.getCompactSerializationBytes();
+    }
+
+    @Override
+    byte[] toCompactByteArray(Union sketch) {
+      return sketch.toCompactByteArray();
+    }
+
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final ArrowBuf inputBuf = inputVector.getDataBuffer();
+      /* spilled sketch slots have a fixed width, compact sketches are variable width */
+      final boolean spilledSlots = inputVector instanceof FixedSizeBinaryVector;
+      final ArrowBuf inputOffsetBuf = spilledSlots ? null : inputVector.getOffsetBuffer();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* null values and uninitialized slots don't count */
+        if (bitVal == 0) {
+          continue;
+        }
+        final HllSketch sketch;
+        if (spilledSlots) {
+          sketch = HllSketch.wrap(Memory.wrap(inputBuf.nioBuffer((long) incomingIndex * SKETCH_SIZE, SKETCH_SIZE)));
+        } else {
+          final int startOffset = inputOffsetBuf.getInt((long) incomingIndex * BaseVariableWidthVector.OFFSET_WIDTH);
+          final int endOffset = inputOffsetBuf.getInt((long) (incomingIndex + 1) * BaseVariableWidthVector.OFFSET_WIDTH);
+          sketch = HllSketch.wrap(Memory.wrap(inputBuf.nioBuffer(startOffset, endOffset - startOffset)));
+        }
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(sketch);
+      }
+    }
+  }
+}
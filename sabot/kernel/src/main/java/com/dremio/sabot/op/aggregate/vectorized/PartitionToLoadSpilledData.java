@@ -23,6 +23,7 @@ import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.util.LargeMemoryUtil;
 import org.apache.arrow.vector.BaseFixedWidthVector;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import com.dremio.common.AutoCloseables;
@@ -139,7 +140,12 @@ public class PartitionToLoadSpilledData implements AutoCloseable {
                                                final AutoCloseables.RollbackCloseable rollbackCloseable) {
     int count = 0;
     for (Field field : postSpillAccumulatorVectorTypes) {
-     FieldVector vector = TypeHelper.getNewVector(field, allocator);
+     /* NDV accumulators spill fixed size sketch slots, the width of which is
+      * only known to the field itself.
+      */
+     FieldVector vector = field.getType() instanceof ArrowType.FixedSizeBinary
+       ? field.createVector(allocator)
+       : TypeHelper.getNewVector(field, allocator);
      /* we have aggregation on INT, BIGINT, FLOAT, FLOAT4 and DECIMAL types of
       * columns which are all fixed width.
       */
@@ -54,6 +54,7 @@ import com.dremio.options.TypeValidators.DoubleValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
 import com.dremio.options.TypeValidators.PowerOfTwoLongValidator;
 import com.dremio.options.TypeValidators.RangeDoubleValidator;
+import com.dremio.sabot.exec.MemoryArbiter;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.fragment.OutOfBandMessage;
@@ -68,6 +69,7 @@ import com.dremio.sabot.op.common.ht2.LBlockHashTable;
 import com.dremio.sabot.op.common.ht2.PivotBuilder;
 import com.dremio.sabot.op.common.ht2.PivotBuilder.PivotInfo;
 import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Unpivots;
 import com.dremio.sabot.op.common.ht2.VariableBlockVector;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.annotations.VisibleForTesting;
@@ -310,6 +312,10 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
    * there are 8 partitions, the total for all all partitions would be 2*8 = 16 MB.
    */
   public static final PositiveLongValidator VECTORIZED_HASHAGG_MAX_BATCHSIZE_BYTES = new PositiveLongValidator("exec.operator.aggregate.vectorize.max_hashtable_batch_size_bytes", Integer.MAX_VALUE, 1 * 1024 * 1024);
+  /* NDV accumulators keep a fixed size sketch (~4KB) per group, this bounds the bytes of
+   * sketches in a single hashtable batch of a partition.
+   */
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_NDV_MAX_BATCHSIZE_BYTES = new PositiveLongValidator("exec.operator.aggregate.vectorize.ndv_max_hashtable_batch_size_bytes", Integer.MAX_VALUE, 1 * 1024 * 1024);
 
   /* When running on large datasets with limited amount of memory (and thus excessive spilling), this setting
    * will generate huge amount of debug information potentially resulting in out of heap memory error.
@@ -330,6 +336,14 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   public static final BooleanValidator OOB_SPILL_TRIGGER_ENABLED = new BooleanValidator("exec.operator.aggregate.vectorize.oob_trigger_enabled", true);
   public static final BooleanValidator VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS = new BooleanValidator("exec.operator.aggregate.vectorize.enable_micro_spills", true);
 
+  /* first phase of a two phase aggregation can stop aggregating and stream the incoming rows
+   * (with single row accumulators) to the exchange if, after the given number of incoming batches,
+   * the number of groups relative to the number of records consumed is above the given ratio.
+   */
+  public static final BooleanValidator VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_ENABLED = new BooleanValidator("exec.operator.aggregate.vectorize.partial_passthrough.enabled", false);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_BATCHES = new PositiveLongValidator("exec.operator.aggregate.vectorize.partial_passthrough.min_batches", Integer.MAX_VALUE, 8);
+  public static final DoubleValidator VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_RATIO = new RangeDoubleValidator("exec.operator.aggregate.vectorize.partial_passthrough.min_ratio", 0.0d, 1.0d, .9d);
+
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedHashAggOperator.class);
 
   private final OperatorContext context;
@@ -361,6 +375,8 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   private int maxHashTableBatchSize;
 
   private int hashPartitionMask;
+  // hashes of the group of keys whose hash table slots were last prefetched
+  private final long[] prefetchedHashes;
   private final HashTableStatsHolder statsHolder;
   private int outputPartitionIndex;
   private int outputBatchCount;
@@ -409,6 +425,19 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   private int bitsInChunk;
   private int chunkOffsetMask;
 
+  /* adaptive pass-through of partial aggregation */
+  private final boolean passThroughAllowed;
+  private final long passThroughMinBatches;
+  private final double passThroughMinRatio;
+  private long batchesConsumed;
+  private long recordsConsumedTotal;
+  private long reductionPercent;
+  private boolean passThroughPending;
+  private boolean passThrough;
+  private long passThroughRecords;
+  private int passThroughBatchRecords;
+  private int passThroughBatchOutput;
+
   public static final String OUT_OF_MEMORY_MSG = "Vectorized Hash Agg ran out of memory";
 
   public static final String PREALLOC_FAILURE_PARTITIONS = "Error: Failed to preallocate minimum memory in vectorized hashagg for single batch in all partitions";
@@ -462,6 +491,10 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     this.resumableInsertState = null;
     this.operatorStateBeforeOOB = null;
     this.forceSpillState = null;
+    this.passThroughAllowed = popConfig.isPartialAggregation() && options.getOption(VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_ENABLED);
+    this.passThroughMinBatches = options.getOption(VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_BATCHES);
+    this.passThroughMinRatio = options.getOption(VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_RATIO);
+    this.prefetchedHashes = new long[(int)options.getOption(ExecConstants.HASH_TABLE_PROBE_PREFETCH_GROUP)];
     logger.debug("partitions:{}, min-hashtable-size:{}, max-hashtable-batch-size:{} variable-width-key-size:{}",
       numPartitions, minHashTableSize, maxHashTableBatchSize, estimatedVariableWidthKeySize);
   }
@@ -625,7 +658,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     setLocalInfoForHashTable();
 
     /* STEP 4: Build extra partition (aka loading or read partition) */
-    final List<Field> postSpillAccumulatorVectorFields = materializeAggExpressionsResult.outputVectorFields;
+    final List<Field> postSpillAccumulatorVectorFields = materializeAggExpressionsResult.getPostSpillAccumulatorVectorFields();
     allocateExtraPartition(postSpillAccumulatorVectorFields);
 
     final long memoryAfterExtraPartition = allocator.getAllocatedMemory();
@@ -762,7 +795,116 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     for(FieldVector v : vectorsToValidate){
       VariableLengthValidator.validateVariable(v, records);
     }
+
+    if (passThrough) {
+      /* stream the records out without aggregating them */
+      passThroughBatchRecords = records;
+      passThroughBatchOutput = 0;
+      state = State.CAN_PRODUCE;
+      internalStateMachine = InternalState.OUTPUT_PASSTHROUGH;
+      return;
+    }
+
     consumeDataHelper(records);
+    if (passThroughAllowed && state == State.CAN_CONSUME) {
+      checkIfPassThroughIsNeeded(records);
+    }
+    spillIfRequestedByArbiter();
+  }
+
+  /**
+   * Spill a partition if another operator of the query asked the memory arbiter for memory.
+   * Same as spilling on an out of band message, the operator state is restored once the
+   * victim partition is completely spilled.
+   */
+  private void spillIfRequestedByArbiter() {
+    final MemoryArbiter.Participant participant = context.getMemoryArbiterParticipant();
+    if (participant == null || passThrough || state != State.CAN_CONSUME || internalStateMachine != InternalState.NONE) {
+      return;
+    }
+
+    final VectorizedHashAggPartition victimPartition = partitionSpillHandler.chooseVictimPartition();
+    if (victimPartition == null || !participant.shouldSpill()) {
+      return;
+    }
+
+    logger.debug("Spilling partition {} on memory arbiter request, allocated memory {}",
+                 victimPartition.getIdentifier(), allocator.getAllocatedMemory());
+    this.ongoingVictimPartition = victimPartition;
+    final boolean done = spill(victimPartition, false);
+    if (!done) {
+      cacheOperatorStateBeforeOOB();
+      transitionStateToResumeSpilling();
+    }
+  }
+
+  /**
+   * Partial (first phase) aggregation is only worth it if it reduces the number of
+   * records sent to the second phase. Once enough incoming batches are consumed, compare
+   * the number of groups against the number of records consumed. If aggregation doesn't
+   * pay off, output the groups aggregated so far and stream the remaining input as is.
+   *
+   * The decision is made only once and only if nothing was spilled, since the
+   * spilled partitions still need to go through the recursive processing.
+   *
+   * @param records number of records consumed from the last incoming batch
+   */
+  private void checkIfPassThroughIsNeeded(final int records) {
+    recordsConsumedTotal += records;
+    if (++batchesConsumed != passThroughMinBatches || recordsConsumedTotal == 0) {
+      return;
+    }
+
+    final double ratio = (double) getHashTableSize() / recordsConsumedTotal;
+    reductionPercent = Math.round(ratio * 100);
+    if (ratio >= passThroughMinRatio && partitionSpillHandler.getNumberOfSpills() == 0) {
+      logger.debug("Switching partial aggregation to pass-through, groups/records ratio:{}", ratio);
+      passThroughPending = true;
+      moveToOutputState();
+    }
+    updateStats();
+  }
+
+  /**
+   * Output the next chunk of the current incoming batch in pass-through mode. Every
+   * record forms its own group: keys are pivoted and unpivoted straight into outgoing
+   * container, and the accumulators of the first partition are used to compute the
+   * single record aggregates.
+   *
+   * @return number of records outputted
+   */
+  private int outputPassThrough() throws Exception {
+    if (passThroughBatchOutput == passThroughBatchRecords) {
+      state = State.CAN_CONSUME;
+      internalStateMachine = InternalState.NONE;
+      return 0;
+    }
+
+    final int stepSize = Math.min(maxHashTableBatchSize, passThroughBatchRecords - passThroughBatchOutput);
+    pivotWatch.start();
+    final int recordsPivoted = BoundedPivots.pivot(pivot, passThroughBatchOutput, stepSize, fixedBlockVector, variableBlockVector);
+    pivotWatch.stop();
+
+    unpivotWatch.start();
+    Unpivots.unpivot(pivot, fixedBlockVector, variableBlockVector, 0, recordsPivoted);
+    unpivotWatch.stop();
+
+    final VectorizedHashAggPartition partition = hashAggPartitions[0];
+    for (int i = 0; i < recordsPivoted; i++) {
+      partition.appendRecord(i, passThroughBatchOutput + i);
+    }
+    accumulateWatch.start();
+    partition.accumulator.accumulate(partition.buffer.memoryAddress(), recordsPivoted, bitsInChunk, chunkOffsetMask);
+    accumulateWatch.stop();
+    partition.resetRecords();
+    partition.accumulator.output(0);
+
+    resetPivotStructures();
+    passThroughBatchOutput += recordsPivoted;
+    passThroughRecords += recordsPivoted;
+    updateStats();
+
+    return outgoing.setAllCount(recordsPivoted);
   }
 
   /**
@@ -963,6 +1105,8 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     long keyVarAddr;
     int keyVarLen;
     long partitionsUsed = partitionsUsedMask;
+    final long[] prefetchedHashes = this.prefetchedHashes;
+    final int prefetchGroup = prefetchedHashes.length;
 
     insertWatch.start();
     insertAllRecords:
@@ -970,12 +1114,22 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
       for (int keyIndex = insertStartIndex; keyIndex < recordsPivoted; keyIndex++, keyFixedAddr += blockWidth) {
         final long keyHash;
         if (fixedOnly) {
-          keyHash = LBlockHashTable.fixedKeyHashCode(keyFixedAddr, dataWidth, seed);
           keyVarAddr = -1;
           keyVarLen = 0;
         } else {
           keyVarAddr = keyVarVectorAddr + PlatformDependent.getInt(keyFixedAddr + dataWidth);
           keyVarLen = PlatformDependent.getInt(keyVarAddr);
+        }
+        if (prefetchGroup > 0) {
+          final int indexInGroup = (keyIndex - insertStartIndex) % prefetchGroup;
+          if (indexInGroup == 0) {
+            hashAndPrefetch(keyFixedAddr, keyVarVectorAddr, Math.min(prefetchGroup, recordsPivoted - keyIndex),
+              blockWidth, dataWidth, seed);
+          }
+          keyHash = prefetchedHashes[indexInGroup];
+        } else if (fixedOnly) {
+          keyHash = LBlockHashTable.fixedKeyHashCode(keyFixedAddr, dataWidth, seed);
+        } else {
           keyHash = LBlockHashTable.keyHashCode(keyFixedAddr, dataWidth, keyVarAddr, keyVarLen, seed);
         }
         /* get the partition index from higher order bits in hash */
@@ -1020,6 +1174,26 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     return partitionsUsed;
   }
 
+  /**
+   * Compute the hashes of the next group of pivoted keys and prefetch their slots in the
+   * hash tables of the target partitions, so that the cache misses of the whole group
+   * overlap instead of being paid one key at a time during insertion.
+   */
+  private void hashAndPrefetch(long keyFixedAddr, final long keyVarVectorAddr, final int count,
+                               final int blockWidth, final int dataWidth, final long seed) {
+    for (int i = 0; i < count; i++, keyFixedAddr += blockWidth) {
+      final long keyHash;
+      if (fixedOnly) {
+        keyHash = LBlockHashTable.fixedKeyHashCode(keyFixedAddr, dataWidth, seed);
+      } else {
+        final long keyVarAddr = keyVarVectorAddr + PlatformDependent.getInt(keyFixedAddr + dataWidth);
+        keyHash = LBlockHashTable.keyHashCode(keyFixedAddr, dataWidth, keyVarAddr, PlatformDependent.getInt(keyVarAddr), seed);
+      }
+      prefetchedHashes[i] = keyHash;
+      hashAggPartitions[((int) (keyHash >> 32)) & hashPartitionMask].hashTable.prefetch((int) keyHash);
+    }
+  }
+
   /**
    * When operator detects (proactively) it will run out of memory or it has
    * already run of memory, we use this function to handle OOM by spilling a
@@ -1055,6 +1229,13 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
    *         false if OOM not handled completely
    */
   private boolean handleOutOfMemory(final int failedPartitionIndex) {
+    /* before spilling, try to borrow the memory that other operators of the query don't use */
+    final MemoryArbiter.Participant participant = context.getMemoryArbiterParticipant();
+    if (participant != null && participant.requestMemory()) {
+      logger.debug("Memory arbiter raised the limit to {}, retrying the insert", allocator.getLimit());
+      return true;
+    }
+
     final long allocatedMemoryBeforeSpilling = allocator.getAllocatedMemory();
     VectorizedHashAggPartition victimPartition = partitionSpillHandler.chooseVictimPartition();
     if (victimPartition == null) {
@@ -1327,7 +1508,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
       return;
     }
 
-    if(internalStateMachine != InternalState.NONE && internalStateMachine != InternalState.PROCESS_SPILLED_PARTITION) {
+    if(passThrough || (internalStateMachine != InternalState.NONE && internalStateMachine != InternalState.PROCESS_SPILLED_PARTITION)) {
       oobDropWrongState++;
       logger.debug("Ignoring OOB spill trigger as fragment is either outputting data or transitioning state to process spilled partitions");
       return;
@@ -1823,6 +2004,19 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     stats.setLongStat(Metric.OOB_SPILL, oobSpills);
     stats.setLongStat(Metric.OOB_DROP_ALREADY_SPILLING, oobDropSpill);
 
+    stats.setLongStat(Metric.PASSTHROUGH_ENABLED, passThrough || passThroughPending ? 1 : 0);
+    stats.setLongStat(Metric.PASSTHROUGH_REDUCTION_PERCENT, reductionPercent);
+    stats.setLongStat(Metric.PASSTHROUGH_RECORDS, passThroughRecords);
+
+    final MemoryArbiter.Participant participant = context.getMemoryArbiterParticipant();
+    if (participant != null) {
+      stats.setLongStat(Metric.ARBITER_GRANTS, participant.getGrants());
+      stats.setLongStat(Metric.ARBITER_GRANTED_BYTES, participant.getGrantedBytes());
+      stats.setLongStat(Metric.ARBITER_YIELDED_BYTES, participant.getYieldedBytes());
+      stats.setLongStat(Metric.ARBITER_SPILL_REQUESTS_SENT, participant.getSpillRequestsSent());
+      stats.setLongStat(Metric.ARBITER_SPILL, participant.getSpillRequestsReceived());
+    }
+
     if (iterations == 1) {
       stats.setLongStat(Metric.ALLOCATED_FOR_FIXED_KEYS, statsHolder.allocatedForFixedBlocks);
       stats.setLongStat(Metric.UNUSED_FOR_FIXED_KEYS, statsHolder.unusedForFixedBlocks);
@@ -2189,6 +2383,9 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
       case FORCE_SPILL_INMEMORY_DATA:
         forceSpillInmemoryData();
         break;
+      case OUTPUT_PASSTHROUGH:
+        records = outputPassThrough();
+        break;
     }
 
     return records;
@@ -2271,6 +2468,15 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
    * are not done and need to start the next iteration.
    */
   private void postOutputProcessing() {
+    if (passThroughPending) {
+      /* groups aggregated so far are out, stream the rest of the input */
+      passThroughPending = false;
+      passThrough = true;
+      state = State.CAN_CONSUME;
+      internalStateMachine = InternalState.NONE;
+      return;
+    }
+
     if ((partitionSpillHandler.getActiveSpilledPartitionCount() == 0) && partitionSpillHandler.isSpillQueueEmpty()) {
       /* if we are inside recursion, that is we are outputting after
        * consuming the input from a spilled partition, we need to check if
@@ -2453,6 +2659,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     SPILL_NEXT_BATCH,
     RESUME_CONSUMING,
     FORCE_SPILL_INMEMORY_DATA,
+    OUTPUT_PASSTHROUGH,
     DONE
   }
 
@@ -209,7 +209,7 @@ public class VectorizedHashAggPartition implements AutoCloseable {
    *
    * (1) Set the input vector for each accumulator. The new input vector
    * is the one we deserialized from spilled batch.
-   * (2) For count, count1, sum, $sum0 convert the accumulator type.
+   * (2) For count, count1, sum, $sum0, hll convert the accumulator type.
    * For example an pre-spill IntSumAccumulator will become
    * BigIntSumAccumulator for post-spill processing.
    *
@@ -249,6 +249,16 @@ public class VectorizedHashAggPartition implements AutoCloseable {
         /* handle $SUM0 */
         updateSumZeroAccumulator(deserializedAccumulator, partitionAccumulators,
                                  i, computationVectorAllocator);
+      } else if (accumulatorType == AccumulatorBuilder.AccumulatorType.HLL.ordinal() ||
+                 accumulatorType == AccumulatorBuilder.AccumulatorType.HLL_MERGE.ordinal()) {
+        /* handle HLL, HLL_MERGE */
+        updateNdvAccumulator(deserializedAccumulator, partitionAccumulators,
+                             i, computationVectorAllocator);
+      }
+      else if (accumulatorType == AccumulatorBuilder.AccumulatorType.BOOL_AND.ordinal() ||
+               accumulatorType == AccumulatorBuilder.AccumulatorType.BOOL_OR.ordinal()) {
+        /* handle BOOL_AND, BOOL_OR: same accumulator, spilled vector is the new input */
+        partitionAccumulator.setInput(deserializedAccumulator);
       }
       else {
         /* handle MIN, MAX */
@@ -302,6 +312,29 @@ public class VectorizedHashAggPartition implements AutoCloseable {
 
   }
 
+  private void updateNdvAccumulator(final FieldVector deserializedAccumulator,
+                                    final Accumulator[] partitionAccumulators,
+                                    final int index,
+                                    final BufferAllocator computationVectorAllocator) {
+    /* The spilled accumulator vector holds HLL sketches for both hll and hll_merge,
+     * so post-spill processing always merges them with a NdvUnionAccumulator. An
+     * accumulator which is already a union (hll_merge, or a partition that was
+     * spilled more than once) just gets the new input vector.
+     */
+    final Accumulator partitionAccumulator = partitionAccumulators[index];
+    if (partitionAccumulator instanceof NdvAccumulators.NdvUnionAccumulator) {
+      partitionAccumulator.setInput(deserializedAccumulator);
+      return;
+    }
+    Preconditions.checkArgument(partitionAccumulator instanceof BaseNdvAccumulator,
+                                "Error: expecting ndv accumulator");
+    partitionAccumulators[index] =
+      new NdvAccumulators.NdvUnionAccumulator((BaseNdvAccumulator<?>) partitionAccumulator,
+                                              deserializedAccumulator,
+                                              hashTable.getActualValuesPerBatch(),
+                                              computationVectorAllocator);
+  }
+
   private void updateSumAccumulator(final FieldVector deserializedAccumulator,
                                     final Accumulator[] partitionAccumulators,
                                     final int index,
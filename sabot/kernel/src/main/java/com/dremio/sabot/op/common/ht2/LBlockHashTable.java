@@ -127,6 +127,9 @@ public final class LBlockHashTable implements AutoCloseable {
   private final boolean enforceVarWidthBufferLimit;
   private int maxOrdinalBeforeExpand;
 
+  // sink for the values loaded by prefetch(), keeps the JIT from eliminating the loads.
+  private long prefetchSink;
+
   public LBlockHashTable(HashConfig config,
                          PivotDef pivot,
                          BufferAllocator allocator,
@@ -422,6 +425,44 @@ public final class LBlockHashTable implements AutoCloseable {
     return unusedForVarBlocks;
   }
 
+  /**
+   * Touch the home control slot and, when its hash matches, the first word of the fixed key block
+   * of a group of upcoming keys, before any of them is probed.
+   *
+   * Probing a key is a chain of dependent cache misses (control word, then key block), so probing
+   * keys one after the other leaves the memory system mostly idle. The loads issued here do not
+   * depend on each other, which lets the CPU keep several misses in flight; the subsequent calls to
+   * {@link #add} or {@link #find} for the same keys then mostly hit the cache. This is only a hint:
+   * the probe re-reads everything, so it stays correct even if the table is modified in between.
+   *
+   * @param hashValuesAddr address of the 64-bit hash values of the keys (only the low 32 bits are used)
+   * @param count number of keys to prefetch
+   */
+  public void prefetch(final long hashValuesAddr, final int count) {
+    for (int i = 0; i < count; i++) {
+      prefetch((int) PlatformDependent.getLong(hashValuesAddr + i * 8L));
+    }
+  }
+
+  /**
+   * Same as {@link #prefetch(long, int)} for a single key, for callers that spread a group
+   * of keys over several tables.
+   *
+   * @param keyHash 32 bit hash of the key
+   */
+  public void prefetch(final int keyHash) {
+    final int controlIndex = keyHash & (capacity - 1);
+    final long control = PlatformDependent.getLong(tableControlAddresses[controlIndex >>> BITS_IN_CHUNK]
+      + ((controlIndex & CHUNK_OFFSET_MASK) * CONTROL_WIDTH));
+    if (control != LFREE && keyHash == (int) (control >>> 32)) {
+      final int ordinal = (int) control;
+      prefetchSink ^= PlatformDependent.getInt(tableFixedAddresses[ordinal >>> BITS_IN_CHUNK]
+        + ((ordinal & CHUNK_OFFSET_MASK) * pivot.getBlockWidth()));
+    } else {
+      prefetchSink ^= control;
+    }
+  }
+
   /**
    * Helper method that moves to the next available valid ordinal.
    * @param keyVarLen
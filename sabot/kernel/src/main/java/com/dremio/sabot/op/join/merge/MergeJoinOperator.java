@@ -434,6 +434,9 @@ public class MergeJoinOperator implements DualInputOperator {
   public static class Creator implements DualInputOperator.Creator<MergeJoinPOP>{
     @Override
     public DualInputOperator create(OperatorContext context, MergeJoinPOP config) throws ExecutionSetupException {
+      if (config.isVectorize()) {
+        return new VectorizedMergeJoinOperator(context, config);
+      }
       return new MergeJoinOperator(context, config);
     }
 
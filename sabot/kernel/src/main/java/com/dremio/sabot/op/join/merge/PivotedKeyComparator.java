@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.merge;
+
+import java.util.List;
+
+import org.apache.arrow.vector.types.Types.MinorType;
+
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.Describer;
+import com.dremio.sabot.op.common.ht2.LBlockHashTable;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.VectorPivotDef;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Compares join keys pivoted with {@link com.dremio.sabot.op.common.ht2.Pivots}, without generated code.
+ *
+ * Keys are ordered ascending with nulls high, which is what {@link MergeJoinOperator} expects from its inputs.
+ * Floating point values are compared with the primitive operators, as the generated comparison functions do: 0.0
+ * and -0.0 are equal, and NaN is neither smaller than nor equal to any value.
+ * Both sides must be pivoted with the same layout, that is keys of the same types in the same order.
+ *
+ * A key is identified by the address of its fixed block and the base address of the variable block it refers to.
+ */
+final class PivotedKeyComparator {
+
+  private final int blockWidth;
+  private final int dataWidth;
+  private final boolean hasVariable;
+  private final boolean hasFloatingPoint;
+
+  private final MinorType[] types;
+  private final int[] nullByteOffsets;
+  private final int[] nullBitOffsets;
+  private final int[] offsets;
+  private final boolean[] nullsEqual;
+
+  PivotedKeyComparator(PivotDef pivot, boolean[] nullsEqual) {
+    final List<VectorPivotDef> keys = pivot.getVectorPivots();
+    Preconditions.checkArgument(keys.size() == nullsEqual.length, "One null comparison is required per key.");
+
+    this.blockWidth = pivot.getBlockWidth();
+    this.hasVariable = pivot.getVariableCount() > 0;
+    this.dataWidth = hasVariable ? blockWidth - LBlockHashTable.VAR_OFFSET_SIZE : blockWidth;
+    this.nullsEqual = nullsEqual;
+
+    final int count = keys.size();
+    this.types = new MinorType[count];
+    this.nullByteOffsets = new int[count];
+    this.nullBitOffsets = new int[count];
+    this.offsets = new int[count];
+    boolean hasFloatingPoint = false;
+    for (int i = 0; i < count; i++) {
+      final VectorPivotDef def = keys.get(i);
+      types[i] = CompleteType.fromField(def.getIncomingVector().getField()).toMinorType();
+      nullByteOffsets[i] = def.getNullByteOffset();
+      nullBitOffsets[i] = def.getNullBitOffset();
+      offsets[i] = def.getOffset();
+      switch (types[i]) {
+      case FLOAT4:
+      case FLOAT8:
+        hasFloatingPoint = true;
+        break;
+      case BIT:
+      case INT:
+      case TIME:
+      case BIGINT:
+      case DATE:
+      case TIMESTAMP:
+      case DECIMAL:
+      case VARCHAR:
+      case VARBINARY:
+        break;
+      default:
+        throw new UnsupportedOperationException("Unable to compare merge join key: " + Describer.describe(def.getIncomingVector().getField()));
+      }
+    }
+    this.hasFloatingPoint = hasFloatingPoint;
+  }
+
+  int getBlockWidth() {
+    return blockWidth;
+  }
+
+  /**
+   * @return true if both keys have the same pivoted representation, nulls included, or only differ by floating
+   * point values that compare equal. Used to find runs of identical keys on one side.
+   */
+  boolean sameKey(long fixedAddr1, long varBase1, long fixedAddr2, long varBase2) {
+    if (!memEquals(fixedAddr1, fixedAddr2, dataWidth)
+      && !(hasFloatingPoint && sameFixedValues(fixedAddr1, varBase1, fixedAddr2, varBase2))) {
+      return false;
+    }
+    if (!hasVariable) {
+      return true;
+    }
+
+    final long varAddr1 = varBase1 + PlatformDependent.getInt(fixedAddr1 + dataWidth);
+    final long varAddr2 = varBase2 + PlatformDependent.getInt(fixedAddr2 + dataWidth);
+    final int varLen1 = PlatformDependent.getInt(varAddr1);
+    return varLen1 == PlatformDependent.getInt(varAddr2)
+      && memEquals(varAddr1 + LBlockHashTable.VAR_LENGTH_SIZE, varAddr2 + LBlockHashTable.VAR_LENGTH_SIZE, varLen1);
+  }
+
+  /**
+   * @return true if the fixed width keys have the same validity and equal values.
+   */
+  private boolean sameFixedValues(long fixedAddr1, long varBase1, long fixedAddr2, long varBase2) {
+    for (int i = 0; i < types.length; i++) {
+      final int set1 = isSet(fixedAddr1, i);
+      if (set1 != isSet(fixedAddr2, i)) {
+        return false;
+      }
+      if (set1 == 0) {
+        continue;
+      }
+      switch (types[i]) {
+      case VARCHAR:
+      case VARBINARY:
+        // compared by the caller
+        break;
+      case FLOAT4:
+        if (!(Float.intBitsToFloat(PlatformDependent.getInt(fixedAddr1 + offsets[i]))
+          == Float.intBitsToFloat(PlatformDependent.getInt(fixedAddr2 + offsets[i])))) {
+          return false;
+        }
+        break;
+      case FLOAT8:
+        if (!(Double.longBitsToDouble(PlatformDependent.getLong(fixedAddr1 + offsets[i]))
+          == Double.longBitsToDouble(PlatformDependent.getLong(fixedAddr2 + offsets[i])))) {
+          return false;
+        }
+        break;
+      default:
+        if (compareValues(i, fixedAddr1, varBase1, fixedAddr2, varBase2) != 0) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compare a left key with a right key.
+   *
+   * @return 0 if the keys match, a negative value if the left key comes first, a positive value otherwise.
+   * Two nulls don't match unless the condition is IS NOT DISTINCT FROM, the left key is considered first then.
+   */
+  int compare(long leftFixedAddr, long leftVarBase, long rightFixedAddr, long rightVarBase) {
+    for (int i = 0; i < types.length; i++) {
+      final int leftSet = isSet(leftFixedAddr, i);
+      final int rightSet = isSet(rightFixedAddr, i);
+      if (leftSet == 0 || rightSet == 0) {
+        if (leftSet == rightSet) {
+          if (!nullsEqual[i]) {
+            return -1;
+          }
+          continue;
+        }
+        // nulls high
+        return leftSet == 0 ? 1 : -1;
+      }
+
+      final int cmp = compareValues(i, leftFixedAddr, leftVarBase, rightFixedAddr, rightVarBase);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  private int isSet(long fixedAddr, int key) {
+    return (PlatformDependent.getInt(fixedAddr + nullByteOffsets[key]) >>> nullBitOffsets[key]) & 1;
+  }
+
+  private int compareValues(int key, long leftFixedAddr, long leftVarBase, long rightFixedAddr, long rightVarBase) {
+    final int offset = offsets[key];
+    switch (types[key]) {
+    case BIT: {
+      // the value bit is stored next to the validity bit, in the same word.
+      final int leftValue = (PlatformDependent.getInt(leftFixedAddr + nullByteOffsets[key]) >>> offset) & 1;
+      final int rightValue = (PlatformDependent.getInt(rightFixedAddr + nullByteOffsets[key]) >>> offset) & 1;
+      return Integer.compare(leftValue, rightValue);
+    }
+    case INT:
+    case TIME:
+      return Integer.compare(PlatformDependent.getInt(leftFixedAddr + offset), PlatformDependent.getInt(rightFixedAddr + offset));
+    case FLOAT4: {
+      final float left = Float.intBitsToFloat(PlatformDependent.getInt(leftFixedAddr + offset));
+      final float right = Float.intBitsToFloat(PlatformDependent.getInt(rightFixedAddr + offset));
+      return left < right ? -1 : (left == right ? 0 : 1);
+    }
+    case BIGINT:
+    case DATE:
+    case TIMESTAMP:
+      return Long.compare(PlatformDependent.getLong(leftFixedAddr + offset), PlatformDependent.getLong(rightFixedAddr + offset));
+    case FLOAT8: {
+      final double left = Double.longBitsToDouble(PlatformDependent.getLong(leftFixedAddr + offset));
+      final double right = Double.longBitsToDouble(PlatformDependent.getLong(rightFixedAddr + offset));
+      return left < right ? -1 : (left == right ? 0 : 1);
+    }
+    case DECIMAL: {
+      // 128-bit little endian two's complement: signed high word, then unsigned low word.
+      final int cmp = Long.compare(PlatformDependent.getLong(leftFixedAddr + offset + 8), PlatformDependent.getLong(rightFixedAddr + offset + 8));
+      if (cmp != 0) {
+        return cmp;
+      }
+      return Long.compareUnsigned(PlatformDependent.getLong(leftFixedAddr + offset), PlatformDependent.getLong(rightFixedAddr + offset));
+    }
+    case VARCHAR:
+    case VARBINARY: {
+      final long leftAddr = variableField(leftFixedAddr, leftVarBase, offset);
+      final long rightAddr = variableField(rightFixedAddr, rightVarBase, offset);
+      return compareBytes(leftAddr + 4, PlatformDependent.getInt(leftAddr), rightAddr + 4, PlatformDependent.getInt(rightAddr));
+    }
+    default:
+      throw new UnsupportedOperationException("Unable to compare merge join key of type " + types[key]);
+    }
+  }
+
+  /**
+   * @return the address of the length of the n-th variable field of the key. The data follows the length.
+   */
+  private long variableField(long fixedAddr, long varBase, int field) {
+    // skip the total length of the variable data of the key
+    long addr = varBase + PlatformDependent.getInt(fixedAddr + dataWidth) + LBlockHashTable.VAR_LENGTH_SIZE;
+    for (int i = 0; i < field; i++) {
+      addr += 4 + PlatformDependent.getInt(addr);
+    }
+    return addr;
+  }
+
+  /**
+   * Unsigned lexicographic comparison, a prefix comes first.
+   */
+  private static int compareBytes(long addr1, int len1, long addr2, int len2) {
+    final int len = Math.min(len1, len2);
+    int i = 0;
+    for (; i + 8 <= len; i += 8) {
+      final long word1 = PlatformDependent.getLong(addr1 + i);
+      final long word2 = PlatformDependent.getLong(addr2 + i);
+      if (word1 != word2) {
+        // first differing byte is the lowest one in memory, compare big-endian.
+        return Long.compareUnsigned(Long.reverseBytes(word1), Long.reverseBytes(word2));
+      }
+    }
+    for (; i < len; i++) {
+      final int cmp = Integer.compare(PlatformDependent.getByte(addr1 + i) & 0xFF, PlatformDependent.getByte(addr2 + i) & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(len1, len2);
+  }
+
+  private static boolean memEquals(long addr1, long addr2, int len) {
+    int i = 0;
+    for (; i + 8 <= len; i += 8) {
+      if (PlatformDependent.getLong(addr1 + i) != PlatformDependent.getLong(addr2 + i)) {
+        return false;
+      }
+    }
+    for (; i < len; i++) {
+      if (PlatformDependent.getByte(addr1 + i) != PlatformDependent.getByte(addr2 + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
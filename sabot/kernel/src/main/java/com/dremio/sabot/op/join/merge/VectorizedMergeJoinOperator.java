@@ -0,0 +1,689 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.merge;
+
+import static com.dremio.sabot.op.common.hashtable.HashTable.BUILD_RECORD_LINK_SIZE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.calcite.rel.core.JoinRelType;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.physical.config.MergeJoinPOP;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.exec.context.MetricDef;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.common.hashtable.Comparator;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Pivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.dremio.sabot.op.copier.ConditionalFieldBufferCopier6;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.dremio.sabot.op.copier.FieldBufferCopier6;
+import com.dremio.sabot.op.join.JoinUtils;
+import com.dremio.sabot.op.spi.DualInputOperator;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Merge join that works on runs of identical keys instead of single rows, and doesn't generate code.
+ *
+ * The keys of each incoming batch are pivoted once, and adjacent pivoted keys are compared to split the batch
+ * into runs. The merge then compares the heads of the current left and right runs with a
+ * {@link PivotedKeyComparator}: a run that is smaller than the other side is skipped (or projected as non
+ * matching) at once, and two matching runs produce their cartesian product. Output rows are described by
+ * 6 byte links (batch index, offset in batch) for each side and copied in bulk with the
+ * {@link FieldBufferCopier6} copiers, the side of a non matching row being skipped.
+ *
+ * As in {@link MergeJoinOperator}, inputs are expected to be sorted ascending with nulls high, and the output is
+ * made of the right columns followed by the left columns. A right run is retained until the left side moves past
+ * its key, since it may span several incoming batches. Before asking for more input, the batches the merge moved
+ * past and no pending output row links to are released, so that sparse matches don't retain the whole input.
+ */
+public class VectorizedMergeJoinOperator implements DualInputOperator {
+
+  private static final int SKIP = -1;
+  private static final int NOT_LINKED = Integer.MAX_VALUE;
+  private static final int BATCH_INDEX_SIZE = 4;
+  private static final int MAX_BATCH_RECORDS = 65536;
+
+  private final OperatorContext context;
+  private final List<JoinCondition> conditions;
+  private final boolean projectUnmatchedLeft;
+  private final boolean projectUnmatchedRight;
+  private final int targetRecordsPerBatch;
+  private final VectorContainer outgoing;
+
+  private final Stopwatch matchWatch = Stopwatch.createUnstarted();
+  private final Stopwatch copyWatch = Stopwatch.createUnstarted();
+
+  private State state = State.NEEDS_SETUP;
+
+  private Side leftSide;
+  private Side rightSide;
+  private PivotedKeyComparator comparator;
+
+  private ArrowBuf leftLinks;
+  private ArrowBuf rightLinks;
+  private int outputCount;
+
+  // a left run matches the right run starting at the right cursor.
+  private boolean matching;
+  // end (exclusive) of the part of the right run found so far, and whether the run may continue in a later batch.
+  private int runEndBatch;
+  private int runEndRow;
+  private boolean runComplete;
+  // position in the right run of the next row to pair with the current left row.
+  private int matchBatch;
+  private int matchRow;
+  // rows of the current left batch before this index are known to match the right run.
+  private int leftRunEnd;
+
+  private long matchedRuns;
+
+  public VectorizedMergeJoinOperator(OperatorContext context, MergeJoinPOP popConfig) {
+    this.context = context;
+    this.conditions = popConfig.getConditions();
+    final JoinRelType joinType = popConfig.getJoinType();
+    this.projectUnmatchedLeft = joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL;
+    this.projectUnmatchedRight = joinType == JoinRelType.RIGHT || joinType == JoinRelType.FULL;
+    this.targetRecordsPerBatch = context.getTargetBatchSize();
+    this.outgoing = context.createOutputVectorContainer();
+  }
+
+  @Override
+  public VectorAccessible setup(VectorAccessible left, VectorAccessible right) throws Exception {
+    state.is(State.NEEDS_SETUP);
+
+    outgoing.addSchema(right.getSchema());
+    outgoing.addSchema(left.getSchema());
+    outgoing.buildSchema(SelectionVectorMode.NONE);
+
+    final List<FieldVectorPair> leftKeys = new ArrayList<>();
+    final List<FieldVectorPair> rightKeys = new ArrayList<>();
+    final boolean[] nullsEqual = new boolean[conditions.size()];
+    for (int i = 0; i < conditions.size(); i++) {
+      final JoinCondition condition = conditions.get(i);
+      final FieldVector leftKey = getField(left, condition.getLeft());
+      final FieldVector rightKey = getField(right, condition.getRight());
+      Preconditions.checkArgument(leftKey.getField().getType().equals(rightKey.getField().getType()),
+        "Join keys must have the same type, %s and %s.", leftKey.getField(), rightKey.getField());
+      leftKeys.add(new FieldVectorPair(leftKey, leftKey));
+      rightKeys.add(new FieldVectorPair(rightKey, rightKey));
+      nullsEqual[i] = JoinUtils.checkAndReturnSupportedJoinComparator(condition) == Comparator.IS_NOT_DISTINCT_FROM;
+    }
+
+    final PivotDef leftPivot = PivotBuilder.getBlockDefinition(leftKeys);
+    final PivotDef rightPivot = PivotBuilder.getBlockDefinition(rightKeys);
+    this.comparator = new PivotedKeyComparator(leftPivot, nullsEqual);
+
+    final List<FieldVector> outputs = VectorContainer.getFieldVectors(outgoing);
+    final int rightFieldCount = right.getSchema().getFieldCount();
+    final BufferAllocator allocator = context.getAllocator();
+    this.rightSide = new Side(allocator, right, rightPivot, comparator, outputs.subList(0, rightFieldCount), projectUnmatchedLeft);
+    this.leftSide = new Side(allocator, left, leftPivot, comparator, outputs.subList(rightFieldCount, outputs.size()), projectUnmatchedRight);
+
+    this.leftLinks = allocator.buffer(targetRecordsPerBatch * BUILD_RECORD_LINK_SIZE);
+    this.rightLinks = allocator.buffer(targetRecordsPerBatch * BUILD_RECORD_LINK_SIZE);
+
+    state = State.CAN_CONSUME_L;
+    return outgoing;
+  }
+
+  private FieldVector getField(VectorAccessible accessible, LogicalExpression expr) {
+    final LogicalExpression materialized = context.getClassProducer().materialize(expr, accessible);
+    if (!(materialized instanceof ValueVectorReadExpression)) {
+      throw new IllegalStateException("Only direct references allowed.");
+    }
+    final int[] fieldIds = ((ValueVectorReadExpression) materialized).getFieldId().getFieldIds();
+    return accessible.getValueAccessorById(FieldVector.class, fieldIds).getValueVector();
+  }
+
+  @Override
+  public State getState() {
+    return state;
+  }
+
+  @Override
+  public void consumeDataLeft(int records) throws Exception {
+    state.is(State.CAN_CONSUME_L);
+    leftSide.retain(records);
+    state = advance();
+  }
+
+  @Override
+  public void consumeDataRight(int records) throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    rightSide.retain(records);
+    state = advance();
+  }
+
+  @Override
+  public void noMoreToConsumeLeft() throws Exception {
+    state.is(State.CAN_CONSUME_L);
+    leftSide.noMore = true;
+    state = advance();
+  }
+
+  @Override
+  public void noMoreToConsumeRight() throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    rightSide.noMore = true;
+    state = advance();
+  }
+
+  @Override
+  public int outputData() throws Exception {
+    state.is(State.CAN_PRODUCE);
+
+    copyWatch.start();
+    leftSide.copy(leftLinks.memoryAddress(), outputCount);
+    rightSide.copy(rightLinks.memoryAddress(), outputCount);
+    copyWatch.stop();
+    final int records = outputCount;
+    outputCount = 0;
+
+    // no link refers to the retained batches anymore, release the ones the merge is done with.
+    releaseUnreferenced();
+
+    state = advance();
+    updateStats();
+    return outgoing.setAllCount(records);
+  }
+
+  /**
+   * Merge until the output batch is full or more input is needed.
+   */
+  private State advance() throws Exception {
+    matchWatch.start();
+    try {
+      while (outputCount < targetRecordsPerBatch) {
+        final State next = matching ? match() : compare();
+        if (next == State.CAN_CONSUME_L || next == State.CAN_CONSUME_R) {
+          releaseUnreferenced();
+        }
+        if (next != null) {
+          return next;
+        }
+      }
+      return State.CAN_PRODUCE;
+    } finally {
+      matchWatch.stop();
+    }
+  }
+
+  /**
+   * Release the batches both cursors moved past and no pending output row links to.
+   */
+  private void releaseUnreferenced() throws Exception {
+    leftSide.releaseUnreferenced(leftLinks.memoryAddress(), outputCount);
+    final int released = rightSide.releaseUnreferenced(rightLinks.memoryAddress(), outputCount);
+    // the current right run starts at the right cursor, so it is never released.
+    runEndBatch -= released;
+    matchBatch -= released;
+  }
+
+  /**
+   * Compare the heads of the current runs and skip the smaller one, or start matching if they are equal.
+   * @return the next state of the operator, or null to keep merging
+   */
+  private State compare() {
+    final boolean hasLeft = leftSide.hasRow();
+    final boolean hasRight = rightSide.hasRow();
+    if (!hasLeft && !leftSide.noMore) {
+      return State.CAN_CONSUME_L;
+    }
+    if (!hasRight && !rightSide.noMore) {
+      return State.CAN_CONSUME_R;
+    }
+
+    if (!hasLeft || !hasRight) {
+      // one side is exhausted, the remaining rows of the other side don't match.
+      if (hasLeft && projectUnmatchedLeft) {
+        emitUnmatchedLeft(leftSide.remainingInBatch());
+        return null;
+      }
+      if (hasRight && projectUnmatchedRight) {
+        emitUnmatchedRight(rightSide.remainingInBatch());
+        return null;
+      }
+      return outputCount > 0 ? State.CAN_PRODUCE : State.DONE;
+    }
+
+    final int cmp = comparator.compare(leftSide.fixedAddr(), leftSide.varBase(), rightSide.fixedAddr(), rightSide.varBase());
+    if (cmp < 0) {
+      final int run = leftSide.runLength();
+      if (projectUnmatchedLeft) {
+        emitUnmatchedLeft(run);
+      } else {
+        leftSide.skip(run);
+      }
+    } else if (cmp > 0) {
+      final int run = rightSide.runLength();
+      if (projectUnmatchedRight) {
+        emitUnmatchedRight(run);
+      } else {
+        rightSide.skip(run);
+      }
+    } else {
+      startMatch();
+    }
+    return null;
+  }
+
+  private void startMatch() {
+    matching = true;
+    matchedRuns++;
+    matchBatch = rightSide.batch;
+    matchRow = rightSide.row;
+    leftRunEnd = 0;
+
+    final RetainedBatch start = rightSide.batches.get(rightSide.batch);
+    runEndBatch = rightSide.batch;
+    runEndRow = start.runEnds[rightSide.row];
+    runComplete = runEndRow < start.records;
+    if (!runComplete) {
+      runEndBatch++;
+      runEndRow = 0;
+    }
+  }
+
+  /**
+   * Pair the left rows that match the right run with all the rows of the run.
+   * @return the next state of the operator, or null to keep merging
+   */
+  private State match() {
+    if (!runComplete) {
+      final State next = extendRun();
+      if (next != null) {
+        return next;
+      }
+    }
+
+    if (!leftSide.hasRow()) {
+      if (!leftSide.noMore) {
+        return State.CAN_CONSUME_L;
+      }
+      return endMatch();
+    }
+
+    if (leftSide.row >= leftRunEnd) {
+      if (comparator.compare(leftSide.fixedAddr(), leftSide.varBase(), rightSide.fixedAddr(), rightSide.varBase()) != 0) {
+        return endMatch();
+      }
+      leftRunEnd = leftSide.row + leftSide.runLength();
+    }
+
+    emitMatches();
+    if (matchBatch == runEndBatch && matchRow == runEndRow) {
+      // done with this left row, start over the right run with the next one.
+      final int leftBatch = leftSide.batch;
+      leftSide.skip(1);
+      if (leftSide.batch != leftBatch) {
+        leftRunEnd = 0;
+      }
+      matchBatch = rightSide.batch;
+      matchRow = rightSide.row;
+    }
+    return null;
+  }
+
+  /**
+   * Look for the end of the right run in the following batches.
+   * @return CAN_CONSUME_R if the run may continue in the next right batch, null once the end is known
+   */
+  private State extendRun() {
+    final RetainedBatch start = rightSide.batches.get(rightSide.batch);
+    final long startAddr = start.fixedAddr(rightSide.row);
+    while (!runComplete) {
+      if (runEndBatch == rightSide.batches.size()) {
+        if (!rightSide.noMore) {
+          return State.CAN_CONSUME_R;
+        }
+        runComplete = true;
+        break;
+      }
+
+      final RetainedBatch next = rightSide.batches.get(runEndBatch);
+      if (!comparator.sameKey(startAddr, start.varBase, next.fixedAddr(0), next.varBase)) {
+        runComplete = true;
+        break;
+      }
+      runEndRow = next.runEnds[0];
+      if (runEndRow < next.records) {
+        runComplete = true;
+      } else {
+        runEndBatch++;
+        runEndRow = 0;
+      }
+    }
+    return null;
+  }
+
+  private State endMatch() {
+    // all the rows of the right run were paired, move past it.
+    matching = false;
+    rightSide.batch = runEndBatch;
+    rightSide.row = runEndRow;
+    return null;
+  }
+
+  private void emitMatches() {
+    final long leftAddr = leftLinks.memoryAddress();
+    final long rightAddr = rightLinks.memoryAddress();
+    final int leftBatch = leftSide.batch;
+    final int leftRow = leftSide.row;
+    leftSide.linked(leftBatch);
+    rightSide.linked(matchBatch);
+    while (outputCount < targetRecordsPerBatch && !(matchBatch == runEndBatch && matchRow == runEndRow)) {
+      final int records = rightSide.batches.get(matchBatch).records;
+      final int end = matchBatch == runEndBatch ? runEndRow : records;
+      final int count = Math.min(end - matchRow, targetRecordsPerBatch - outputCount);
+      for (int i = 0; i < count; i++, outputCount++) {
+        link(leftAddr, outputCount, leftBatch, leftRow);
+        link(rightAddr, outputCount, matchBatch, matchRow + i);
+      }
+      matchRow += count;
+      if (matchRow == records) {
+        matchBatch++;
+        matchRow = 0;
+      }
+    }
+  }
+
+  private void emitUnmatchedLeft(int max) {
+    final int count = Math.min(max, targetRecordsPerBatch - outputCount);
+    emitUnmatched(leftSide, leftLinks.memoryAddress(), rightLinks.memoryAddress(), count);
+  }
+
+  private void emitUnmatchedRight(int max) {
+    final int count = Math.min(max, targetRecordsPerBatch - outputCount);
+    emitUnmatched(rightSide, rightLinks.memoryAddress(), leftLinks.memoryAddress(), count);
+  }
+
+  private void emitUnmatched(Side side, long linksAddr, long otherLinksAddr, int count) {
+    final int batch = side.batch;
+    final int row = side.row;
+    side.linked(batch);
+    for (int i = 0; i < count; i++, outputCount++) {
+      link(linksAddr, outputCount, batch, row + i);
+      PlatformDependent.putInt(otherLinksAddr + outputCount * BUILD_RECORD_LINK_SIZE, SKIP);
+    }
+    side.skip(count);
+  }
+
+  private static void link(long linksAddr, int index, int batch, int row) {
+    final long addr = linksAddr + index * BUILD_RECORD_LINK_SIZE;
+    PlatformDependent.putInt(addr, batch);
+    PlatformDependent.putShort(addr + BATCH_INDEX_SIZE, (short) row);
+  }
+
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.PIVOT_NANOS, leftSide.pivotWatch.elapsed(TimeUnit.NANOSECONDS)
+      + rightSide.pivotWatch.elapsed(TimeUnit.NANOSECONDS));
+    stats.setLongStat(Metric.MATCH_NANOS, matchWatch.elapsed(TimeUnit.NANOSECONDS));
+    stats.setLongStat(Metric.COPY_NANOS, copyWatch.elapsed(TimeUnit.NANOSECONDS));
+    stats.setLongStat(Metric.MATCHED_RUNS, matchedRuns);
+    stats.setLongStat(Metric.MAX_RETAINED_BATCHES, Math.max(leftSide.maxRetained, rightSide.maxRetained));
+  }
+
+  @Override
+  public <OUT, IN, EXCEP extends Throwable> OUT accept(OperatorVisitor<OUT, IN, EXCEP> visitor, IN value) throws EXCEP {
+    return visitor.visitDualInput(this, value);
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(outgoing, leftSide, rightSide, leftLinks, rightLinks);
+  }
+
+  /**
+   * Incoming batches of one side, from the current position of the merge.
+   */
+  private static final class Side implements AutoCloseable {
+    private final BufferAllocator allocator;
+    private final VectorAccessible incoming;
+    private final PivotDef pivot;
+    private final PivotedKeyComparator comparator;
+    private final List<FieldVector> outputs;
+    private final boolean mayBeSkipped;
+    private final List<RetainedBatch> batches = new ArrayList<>();
+    private final Stopwatch pivotWatch = Stopwatch.createUnstarted();
+
+    // current position of the merge
+    private int batch;
+    private int row;
+    private boolean noMore;
+    // first batch the pending output rows link to
+    private int firstLinked = NOT_LINKED;
+
+    // rebuilt when the retained batches change
+    private List<FieldBufferCopier> copiers;
+    private int maxRetained;
+
+    Side(BufferAllocator allocator, VectorAccessible incoming, PivotDef pivot, PivotedKeyComparator comparator,
+         List<FieldVector> outputs, boolean mayBeSkipped) {
+      this.allocator = allocator;
+      this.incoming = incoming;
+      this.pivot = pivot;
+      this.comparator = comparator;
+      this.outputs = outputs;
+      this.mayBeSkipped = mayBeSkipped;
+    }
+
+    void retain(int records) {
+      if (records == 0) {
+        return;
+      }
+      Preconditions.checkArgument(records <= MAX_BATCH_RECORDS, "Merge join batches are limited to %s records.", MAX_BATCH_RECORDS);
+
+      pivotWatch.start();
+      final FixedBlockVector fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+      final VariableBlockVector variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+      try {
+        Pivots.pivot(pivot, records, fixed, variable);
+        batches.add(new RetainedBatch(new RecordBatchData(incoming, allocator), fixed, variable, records, comparator));
+      } catch (RuntimeException e) {
+        AutoCloseables.close(e, fixed, variable);
+        throw e;
+      } finally {
+        pivotWatch.stop();
+      }
+      copiers = null;
+      maxRetained = Math.max(maxRetained, batches.size());
+    }
+
+    boolean hasRow() {
+      return batch < batches.size();
+    }
+
+    long fixedAddr() {
+      return batches.get(batch).fixedAddr(row);
+    }
+
+    long varBase() {
+      return batches.get(batch).varBase;
+    }
+
+    int remainingInBatch() {
+      return batches.get(batch).records - row;
+    }
+
+    /**
+     * @return number of rows, from the current one, with the same key in the current batch.
+     */
+    int runLength() {
+      return batches.get(batch).runEnds[row] - row;
+    }
+
+    void skip(int count) {
+      row += count;
+      if (row == batches.get(batch).records) {
+        batch++;
+        row = 0;
+      }
+    }
+
+    /**
+     * Record that pending output rows link to the given batch, or to later ones.
+     */
+    void linked(int linkedBatch) {
+      firstLinked = Math.min(firstLinked, linkedBatch);
+    }
+
+    /**
+     * Release the batches before the current position that no pending output row links to, and shift the
+     * batch indices of the pending links accordingly.
+     * @return number of released batches
+     */
+    int releaseUnreferenced(long linksAddr, int count) throws Exception {
+      final int released = Math.min(batch, firstLinked);
+      if (released == 0) {
+        return 0;
+      }
+      final List<RetainedBatch> consumed = batches.subList(0, released);
+      AutoCloseables.close(consumed);
+      consumed.clear();
+      copiers = null;
+      batch -= released;
+
+      if (firstLinked != NOT_LINKED) {
+        firstLinked -= released;
+        for (int i = 0; i < count; i++) {
+          final long addr = linksAddr + i * BUILD_RECORD_LINK_SIZE;
+          final int linkedBatch = PlatformDependent.getInt(addr);
+          if (linkedBatch != SKIP) {
+            PlatformDependent.putInt(addr, linkedBatch - released);
+          }
+        }
+      }
+      return released;
+    }
+
+    /**
+     * Copy the linked rows to the outputs of this side.
+     */
+    void copy(long linksAddr, int count) {
+      firstLinked = NOT_LINKED;
+      if (batches.isEmpty()) {
+        // only non matching rows from the other side.
+        for (FieldVector output : outputs) {
+          output.allocateNew();
+        }
+        return;
+      }
+
+      if (copiers == null) {
+        final List<FieldVector[]> inputs = new ArrayList<>();
+        for (int i = 0; i < outputs.size(); i++) {
+          final FieldVector[] input = new FieldVector[batches.size()];
+          for (int b = 0; b < input.length; b++) {
+            input[b] = batches.get(b).vectors.get(i);
+          }
+          inputs.add(input);
+        }
+        copiers = mayBeSkipped ?
+          ConditionalFieldBufferCopier6.getFourByteCopiers(inputs, outputs) :
+          FieldBufferCopier6.getFourByteCopiers(inputs, outputs);
+      }
+
+      for (FieldBufferCopier copier : copiers) {
+        copier.copy(linksAddr, count);
+      }
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(batches);
+      batches.clear();
+    }
+  }
+
+  /**
+   * An incoming batch with its pivoted keys, split in runs of identical keys.
+   */
+  private static final class RetainedBatch implements AutoCloseable {
+    private final RecordBatchData data;
+    private final List<FieldVector> vectors;
+    private final FixedBlockVector fixed;
+    private final VariableBlockVector variable;
+    private final int records;
+    private final long fixedBase;
+    private final long varBase;
+    private final int blockWidth;
+    // for each row, end (exclusive) of the run it belongs to.
+    private final int[] runEnds;
+
+    RetainedBatch(RecordBatchData data, FixedBlockVector fixed, VariableBlockVector variable, int records,
+                  PivotedKeyComparator comparator) {
+      this.data = data;
+      this.vectors = VectorContainer.getFieldVectors(data.getContainer());
+      this.fixed = fixed;
+      this.variable = variable;
+      this.records = records;
+      this.fixedBase = fixed.getMemoryAddress();
+      this.varBase = variable.getMemoryAddress();
+      this.blockWidth = comparator.getBlockWidth();
+
+      this.runEnds = new int[records];
+      runEnds[records - 1] = records;
+      for (int i = records - 2; i >= 0; i--) {
+        runEnds[i] = comparator.sameKey(fixedAddr(i), varBase, fixedAddr(i + 1), varBase) ? runEnds[i + 1] : i + 1;
+      }
+    }
+
+    long fixedAddr(int row) {
+      return fixedBase + ((long) row) * blockWidth;
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(data, fixed, variable);
+    }
+  }
+
+  public enum Metric implements MetricDef {
+    PIVOT_NANOS,
+    MATCH_NANOS,
+    COPY_NANOS,
+    MATCHED_RUNS,
+    MAX_RETAINED_BATCHES
+    ;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+}
@@ -55,8 +55,14 @@ public class BlockJoinTable implements JoinTable {
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
   private boolean fixedOnly;
+  private final int prefetchGroup;
 
   public BlockJoinTable(PivotDef buildPivot, PivotDef probePivot, BufferAllocator allocator, NullComparator nullMask, int minSize, int varFieldAverageSize) {
+    this(buildPivot, probePivot, allocator, nullMask, minSize, varFieldAverageSize, 0);
+  }
+
+  public BlockJoinTable(PivotDef buildPivot, PivotDef probePivot, BufferAllocator allocator, NullComparator nullMask,
+                        int minSize, int varFieldAverageSize, int prefetchGroup) {
     super();
     this.table = new LBlockHashTable(HashConfig.getDefault(), buildPivot, allocator, minSize,
         varFieldAverageSize, false, ResizeListener.NO_OP, MAX_VALUES_PER_BATCH);
@@ -66,6 +72,16 @@ public class BlockJoinTable implements JoinTable {
     this.nullMask = nullMask;
     this.tableTracing = false;
     this.fixedOnly = buildPivot.getVariableCount() == 0;
+    this.prefetchGroup = prefetchGroup;
+  }
+
+  /**
+   * At the start of every group of keys, prefetch the hash table slots of the whole group.
+   */
+  private void prefetchIfNeeded(final long hashValuesAddr, final int keyIndex, final int records) {
+    if (prefetchGroup > 0 && (keyIndex % prefetchGroup) == 0) {
+      table.prefetch(hashValuesAddr + keyIndex * 8L, Math.min(prefetchGroup, records - keyIndex));
+    }
   }
 
   /* Copy the keys of the records specified in keyOffsetAddr to destination memory
@@ -158,7 +174,9 @@ public class BlockJoinTable implements JoinTable {
 
         // STEP 3: then we insert build side into hash table
         insertWatch.start();
+        final long hashValuesAddr = hashValues.getBufferAddress();
         for(int keyIndex = 0 ; keyIndex < records; keyIndex++, findAddr += 4) {
+          prefetchIfNeeded(hashValuesAddr, keyIndex, records);
           final int keyHash = (int)hashValues.get(keyIndex);
           PlatformDependent.putInt(findAddr, table.add(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
         }
@@ -202,10 +220,12 @@ public class BlockJoinTable implements JoinTable {
 
       // STEP 3: then we probe hash table.
       probeFindWatch.start();
+      final long hashValuesAddr = hashValues.getBufferAddress();
       final NullComparator compare = nullMask;
       switch(compare.getMode()){
       case NONE:
         for(int keyIndex = 0; keyIndex < records; keyIndex++, offsetAddr += 4) {
+          prefetchIfNeeded(hashValuesAddr, keyIndex, records);
           final int keyHash = (int)hashValues.get(keyIndex);
           PlatformDependent.putInt(offsetAddr, table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
         }
@@ -216,6 +236,7 @@ public class BlockJoinTable implements JoinTable {
         long bitsAddr = keyFixedVectorAddr;
         final int nullMask = compare.getFour();
         for(int keyIndex = 0; keyIndex < records; keyIndex++, offsetAddr += 4, bitsAddr += blockWidth){
+          prefetchIfNeeded(hashValuesAddr, keyIndex, records);
           if((PlatformDependent.getInt(bitsAddr) & nullMask) == nullMask){
             // the nulls are not comparable. as such, this doesn't match.
             final int keyHash = (int)hashValues.get(keyIndex);
@@ -232,6 +253,7 @@ public class BlockJoinTable implements JoinTable {
         long bitsAddr = keyFixedVectorAddr;
         final long nullMask = compare.getEight();
         for(int keyIndex = 0; keyIndex < records; keyIndex++, offsetAddr += 4, bitsAddr += blockWidth){
+          prefetchIfNeeded(hashValuesAddr, keyIndex, records);
           if((PlatformDependent.getLong(bitsAddr) & nullMask) == nullMask){
             final int keyHash = (int)hashValues.get(keyIndex);
             PlatformDependent.putInt(offsetAddr, table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
@@ -247,6 +269,7 @@ public class BlockJoinTable implements JoinTable {
       case BIG: {
         long bitsAddr = keyFixedVectorAddr;
         for(int keyIndex = 0; keyIndex < records; keyIndex++, offsetAddr += 4, bitsAddr += blockWidth){
+          prefetchIfNeeded(hashValuesAddr, keyIndex, records);
           if(compare.isComparableBigBits(bitsAddr)){
             final int keyHash = (int)hashValues.get(keyIndex);
             PlatformDependent.putInt(offsetAddr, table.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash));
@@ -332,7 +332,8 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
         // Create the hyper container with isKeyBits that indicates which field is key and will not be added to hyper container
         hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema(), isKeyBits);
         // Create generic hash table
-        this.table = new BlockJoinTable(buildPivot, probePivot, context.getAllocator(), comparator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE);
+        this.table = new BlockJoinTable(buildPivot, probePivot, context.getAllocator(), comparator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE,
+          (int)context.getOptions().getOption(ExecConstants.HASH_TABLE_PROBE_PREFETCH_GROUP));
         break;
       default:
         throw new UnsupportedOperationException();
@@ -18,6 +18,7 @@ package com.dremio.sabot.op.receiver;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.arrow.memory.BufferAllocator;
 
@@ -30,7 +31,6 @@ import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.proto.ExecRPC.FinishedReceiver;
 import com.dremio.exec.util.ArrayWrappedIntIntMap;
-import com.dremio.sabot.exec.fragment.FragmentWorkQueue;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.threads.sharedres.SharedResource;
 import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
@@ -66,9 +66,9 @@ public abstract class AbstractDataCollector implements DataCollector {
     BufferAllocator allocator,
     SabotConfig config,
     FragmentHandle handle,
-    FragmentWorkQueue workQueue,
     TunnelProvider tunnelProvider,
     SpillService spillService,
+    ExecutorService spoolingIoExecutor,
     EndpointsIndex endpointsIndex) {
     Preconditions.checkNotNull(collector);
     Preconditions.checkNotNull(endpointsIndex);
@@ -104,7 +104,7 @@ public abstract class AbstractDataCollector implements DataCollector {
           final SharedResource resource = resourceGroup.createResource(name, spooling ? SharedResourceType.NWAY_RECV_SPOOL_BUFFER : SharedResourceType.NWAY_RECV_MEM_BUFFER);
           final RawBatchBuffer buffer;
           if (spooling) {
-            buffer = new SpoolingRawBatchBuffer(resource, config, workQueue, handle, spillService, allocator, bufferCapacity, collector.getOppositeMajorFragmentId(), fragment.getMinorFragmentId());
+            buffer = new SpoolingRawBatchBuffer(resource, config, handle, spillService, spoolingIoExecutor, allocator, bufferCapacity, collector.getOppositeMajorFragmentId(), fragment.getMinorFragmentId());
           } else {
             buffer = new UnlimitedRawBatchBuffer(resource, config, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId());
           }
@@ -120,7 +120,7 @@ public abstract class AbstractDataCollector implements DataCollector {
       final String name = String.format("unordered-spooling-recv-%s-%d:*", spooling ? "spool" : "mem", collector.getOppositeMajorFragmentId());
       final SharedResource resource = resourceGroup.createResource(name, spooling ? SharedResourceType.UNORDERED_RECV_SPOOL_BUFFER : SharedResourceType.UNORDERED_RECV_MEM_BUFFER);
       if (spooling) {
-        buffers[0] = new SpoolingRawBatchBuffer(resource, config, workQueue, handle, spillService, allocator, bufferCapacity, collector.getOppositeMajorFragmentId(), 0);
+        buffers[0] = new SpoolingRawBatchBuffer(resource, config, handle, spillService, spoolingIoExecutor, allocator, bufferCapacity, collector.getOppositeMajorFragmentId(), 0);
       } else {
         buffers[0] = new UnlimitedRawBatchBuffer(resource, config, handle, allocator, bufferCapacity, collector.getOppositeMajorFragmentId());
       }
@@ -18,6 +18,7 @@ package com.dremio.sabot.op.receiver;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -40,7 +41,6 @@ import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
 import com.dremio.exec.testing.ControlsInjector;
 import com.dremio.exec.testing.ControlsInjectorFactory;
 import com.dremio.exec.testing.ExecutionControls;
-import com.dremio.sabot.exec.fragment.FragmentWorkQueue;
 import com.dremio.sabot.exec.rpc.IncomingDataBatch;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.spi.BatchStreamProvider;
@@ -84,13 +84,13 @@ public class IncomingBuffers implements BatchStreamProvider, AutoCloseable {
   public IncomingBuffers(
       DeferredException exception,
       SharedResourceGroup resourceGroup,
-      FragmentWorkQueue workQueue,
       TunnelProvider tunnelProvider,
       PlanFragmentFull fragment,
       BufferAllocator incomingAllocator,
       SabotConfig config,
       ExecutionControls executionControls,
       SpillService spillService,
+      ExecutorService spoolingIoExecutor,
       PlanFragmentsIndex planFragmentsIndex
       ) {
     this.deferredException = exception;
@@ -108,8 +108,8 @@ public class IncomingBuffers implements BatchStreamProvider, AutoCloseable {
         Collector collector = fragment.getMinor().getCollector(i);
 
         DataCollector newCollector = collector.getSupportsOutOfOrder() ?
-          new MergingCollector(resourceGroup, collector, allocator, config, fragment.getHandle(), workQueue, tunnelProvider, spillService, endpointsIndex) :
-          new PartitionedCollector(resourceGroup, collector, allocator, config, fragment.getHandle(), workQueue, tunnelProvider, spillService, endpointsIndex);
+          new MergingCollector(resourceGroup, collector, allocator, config, fragment.getHandle(), tunnelProvider, spillService, spoolingIoExecutor, endpointsIndex) :
+          new PartitionedCollector(resourceGroup, collector, allocator, config, fragment.getHandle(), tunnelProvider, spillService, spoolingIoExecutor, endpointsIndex);
         rollbackCloseable.add(newCollector);
         collectors.put(collector.getOppositeMajorFragmentId(), newCollector);
       }
@@ -15,13 +15,14 @@
  */
 package com.dremio.sabot.op.receiver;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.arrow.memory.BufferAllocator;
 
 import com.dremio.common.config.SabotConfig;
 import com.dremio.exec.planner.fragment.EndpointsIndex;
 import com.dremio.exec.proto.CoordExecRPC.Collector;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
-import com.dremio.sabot.exec.fragment.FragmentWorkQueue;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.service.spill.SpillService;
@@ -29,8 +30,9 @@ import com.dremio.service.spill.SpillService;
 public class PartitionedCollector extends AbstractDataCollector {
 
   public PartitionedCollector(SharedResourceGroup resourceGroup, Collector collector, BufferAllocator allocator, SabotConfig config, FragmentHandle handle,
-                              FragmentWorkQueue workQueue, TunnelProvider tunnelProvider, SpillService spillService, EndpointsIndex endpointsIndex) {
-    super(resourceGroup, true, collector, 1, allocator, config, handle, workQueue, tunnelProvider, spillService, endpointsIndex);
+                              TunnelProvider tunnelProvider, SpillService spillService, ExecutorService spoolingIoExecutor,
+                              EndpointsIndex endpointsIndex) {
+    super(resourceGroup, true, collector, 1, allocator, config, handle, tunnelProvider, spillService, spoolingIoExecutor, endpointsIndex);
   }
 
   @Override
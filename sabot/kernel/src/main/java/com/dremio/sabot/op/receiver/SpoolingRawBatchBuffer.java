@@ -19,9 +19,14 @@ import static com.dremio.exec.cache.VectorAccessibleSerializable.readIntoArrowBu
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -35,17 +40,18 @@ import org.apache.hadoop.fs.FileSystem;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.DeferredException;
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
 import com.dremio.exec.store.LocalSyncableFileSystem;
-import com.dremio.sabot.exec.fragment.FragmentWorkQueue;
 import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
 import com.dremio.sabot.threads.sharedres.SharedResource;
 import com.dremio.service.spill.SpillService;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Throwables;
@@ -54,6 +60,11 @@ import com.google.common.collect.Queues;
 /**
  * This implementation of RawBatchBuffer starts writing incoming batches to disk once the buffer size reaches a threshold.
  * The order of the incoming buffers is maintained.
+ *
+ * Spooling and reading back happen on a small IO thread pool shared by all the spooling buffers of the node (owned
+ * by the node's SabotContext), so that neither the fabric threads nor the consuming fragment wait on the disk. The IO tasks of a buffer run one after
+ * the other (at most one write in flight per buffer), in submission order. Every time a batch is consumed, the next
+ * spooled batches are read back ahead of time.
  */
 public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchBuffer.RawFragmentBatchWrapper> {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpoolingRawBatchBuffer.class);
@@ -107,13 +118,29 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
   private FSDataOutputStream outputStream;
   private FSDataInputStream inputStream;
   private long inputStreamLastKnownLen;
-  private final FragmentWorkQueue workQueue;
   private final DeferredException deferred = new DeferredException();
   private SpillManager spillManager;
   private SpillService spillService;
 
-  public SpoolingRawBatchBuffer(SharedResource resource, final SabotConfig config, FragmentWorkQueue workQueue,
-                                FragmentHandle handle, SpillService spillService, BufferAllocator allocator,
+  private final ExecutorService ioExecutor;
+
+  // tail of the chain of IO tasks of this buffer, tasks are executed in submission order
+  private final Object ioLock = new Object();
+  private CompletableFuture<Void> ioTail = CompletableFuture.completedFuture(null);
+  // serializes the reads since they share the input stream
+  private final Object readLock = new Object();
+  private final int prefetchCount;
+
+  private final AtomicLong batchesSpooled = new AtomicLong();
+  private final AtomicLong bytesSpooled = new AtomicLong();
+  private final AtomicLong spoolWriteNanos = new AtomicLong();
+  private final AtomicLong spoolReadNanos = new AtomicLong();
+  private final AtomicLong prefetchHits = new AtomicLong();
+  private final AtomicLong prefetchMisses = new AtomicLong();
+
+  public SpoolingRawBatchBuffer(SharedResource resource, final SabotConfig config,
+                                FragmentHandle handle, SpillService spillService, ExecutorService ioExecutor,
+                                BufferAllocator allocator,
                                 int fragmentCount, int oppositeId, int bufferIndex) {
     super(resource, config, handle, allocator, fragmentCount);
     final String name = String.format("%s:spoolingBatchBuffer", QueryIdHelper.getFragmentId(handle));
@@ -122,21 +149,138 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
     this.oppositeId = oppositeId;
     this.bufferIndex = bufferIndex;
     this.bufferQueue = new SpoolingBufferQueue();
-    this.workQueue = workQueue;
     this.spillService = spillService;
     this.inputStream = null;
     this.inputStreamLastKnownLen = 0;
+    this.prefetchCount = config.getInt(ExecConstants.SPOOLING_BUFFER_PREFETCH);
+    this.ioExecutor = ioExecutor;
 
-    workQueue.put(new Runnable() {
-      @Override
-      public void run() {
-        setupOutputStream();
+    submitIo(this::setupOutputStream);
+  }
+
+  /**
+   * Create the IO pool shared by the spooling buffers of a node.
+   */
+  public static ExecutorService newIoExecutor(SabotConfig config) {
+    return Executors.newFixedThreadPool(config.getInt(ExecConstants.SPOOLING_BUFFER_IO_THREADS),
+      new NamedThreadFactory("spooling-io-"));
+  }
+
+  /**
+   * Queue an IO task of this buffer. Failures are reported to the consumer on its next poll.
+   */
+  private void submitIo(final Runnable task) {
+    synchronized (ioLock) {
+      ioTail = ioTail.thenRunAsync(() -> {
+        try {
+          task.run();
+        } catch (Throwable e) {
+          deferred.addThrowable(e);
+        }
+      }, ioExecutor);
+    }
+  }
+
+  /**
+   * Wait for all the queued IO tasks of this buffer to finish.
+   */
+  @VisibleForTesting
+  public void drainIo() {
+    final CompletableFuture<Void> tail;
+    synchronized (ioLock) {
+      tail = ioTail;
+    }
+    tail.join();
+  }
+
+  /**
+   * Read back the next spooled batches of the queue before the consumer asks for them.
+   */
+  private void prefetch(Iterator<RawFragmentBatchWrapper> queued) {
+    for (int i = 0; i < prefetchCount && queued.hasNext(); i++) {
+      final RawFragmentBatchWrapper batchWrapper = queued.next();
+      if (batchWrapper.state != BatchState.SPILLED || batchWrapper.prefetchQueued) {
+        continue;
       }
-    });
+      batchWrapper.prefetchQueued = true;
+      submitIo(() -> {
+        synchronized (batchWrapper) {
+          if (isClosing() || batchWrapper.state != BatchState.SPILLED) {
+            return;
+          }
+          try {
+            batchWrapper.readFromStream();
+            batchWrapper.prefetched = true;
+          } catch (Exception e) {
+            throw Throwables.propagate(e);
+          }
+        }
+      });
+    }
+  }
 
+  /**
+   * Spooling statistics summed over the buffers of a receiver.
+   */
+  public static class SpoolingStats {
+    private long batchesSpooled;
+    private long bytesSpooled;
+    private long spoolWriteNanos;
+    private long spoolReadNanos;
+    private long prefetchHits;
+    private long prefetchMisses;
+
+    public static SpoolingStats of(RawFragmentBatchProvider[] buffers) {
+      final SpoolingStats stats = new SpoolingStats();
+      for (RawFragmentBatchProvider buffer : buffers) {
+        if (buffer instanceof SpoolingRawBatchBuffer) {
+          final SpoolingRawBatchBuffer spoolingBuffer = (SpoolingRawBatchBuffer) buffer;
+          stats.batchesSpooled += spoolingBuffer.batchesSpooled.get();
+          stats.bytesSpooled += spoolingBuffer.bytesSpooled.get();
+          stats.spoolWriteNanos += spoolingBuffer.spoolWriteNanos.get();
+          stats.spoolReadNanos += spoolingBuffer.spoolReadNanos.get();
+          stats.prefetchHits += spoolingBuffer.prefetchHits.get();
+          stats.prefetchMisses += spoolingBuffer.prefetchMisses.get();
+        }
+      }
+      return stats;
+    }
+
+    public long getBatchesSpooled() {
+      return batchesSpooled;
+    }
+
+    public long getBytesSpooled() {
+      return bytesSpooled;
+    }
+
+    public long getSpoolWriteNanos() {
+      return spoolWriteNanos;
+    }
+
+    public long getSpoolReadNanos() {
+      return spoolReadNanos;
+    }
+
+    /**
+     * @return number of spooled batches that were already read back when consumed
+     */
+    public long getPrefetchHits() {
+      return prefetchHits;
+    }
+
+    /**
+     * @return number of spooled batches that had to be read back synchronously when consumed
+     */
+    public long getPrefetchMisses() {
+      return prefetchMisses;
+    }
   }
 
   private void setupOutputStream() {
+    if (isClosing()) {
+      return;
+    }
     try {
       final String qid = QueryIdHelper.getQueryId(handle.getQueryId());
       final int majorFragmentId = handle.getMajorFragmentId();
@@ -168,7 +312,11 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
       }
       RawFragmentBatchWrapper batchWrapper = buffer.poll();
       if (batchWrapper != null) {
-        return batchWrapper.get();
+        final RawFragmentBatch batch = batchWrapper.get();
+        if (prefetchCount > 0 && !isClosing()) {
+          prefetch(buffer.iterator());
+        }
+        return batch;
       }
       return null;
     }
@@ -195,14 +343,16 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
       RawFragmentBatch batch;
       while (!buffer.isEmpty()) {
         batchWrapper = buffer.poll();
-        if (batchWrapper.isWaitingToSpill()) {
-          logger.debug("unspilled buffer, sending ack");
-          batchWrapper.batch.sendOk();
-        }
-        if(batchWrapper.state != BatchState.SPILLED) {
-          batch = batchWrapper.get();
-          if (batch.getBody() != null) {
-            batch.getBody().release();
+        synchronized (batchWrapper) {
+          if (batchWrapper.isWaitingToSpill()) {
+            logger.debug("unspilled buffer, sending ack");
+            batchWrapper.batch.sendOk();
+          }
+          if (batchWrapper.state != BatchState.SPILLED) {
+            batch = batchWrapper.get();
+            if (batch.getBody() != null) {
+              batch.getBody().release();
+            }
           }
         }
       }
@@ -267,34 +417,48 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
   @Override
   public void close() throws Exception {
 
+    // pending IO tasks bail out once closing, they are not waited for
     stopSpooling();
 
     final AutoCloseable superCloser = new AutoCloseable(){
       @Override
       public void close() throws Exception {
+        // a batch being written or read back is released once its IO task is done with it
         bufferQueue.clear();
         SpoolingRawBatchBuffer.super.close();
       }};
 
-    AutoCloseables.close(allocator, outputStream, inputStream, spillFile, this.spillManager, superCloser, deferred);
+    AutoCloseables.close(superCloser, allocator, deferred);
+
+    // the spill file is only closed after the last IO task of this buffer, on the thread running it
+    final CompletableFuture<Void> tail;
+    synchronized (ioLock) {
+      tail = ioTail;
+    }
+    tail.whenComplete((ignored, throwable) -> {
+      try {
+        AutoCloseables.close(outputStream, inputStream, spillFile, spillManager);
+      } catch (Exception e) {
+        logger.warn("Failure while closing spill file of {}", QueryIdHelper.getFragmentId(handle), e);
+      }
+    });
   }
 
 
   private void addBatchForSpooling(final RawFragmentBatchWrapper batchWrapper) {
     if (!isClosing()) {
-      workQueue.put(new Runnable(){
-        @Override
-        public void run() {
+      submitIo(() -> {
+        synchronized (batchWrapper) {
+          if (isClosing() || !batchWrapper.isWaitingToSpill()) {
+            return;
+          }
           try {
-            if (isClosing() || !batchWrapper.isWaitingToSpill()) {
-              return;
-            }
-
             batchWrapper.writeToStream(outputStream);
-          } catch (Throwable e) {
-            deferred.addThrowable(e);
+          } catch (IOException e) {
+            throw Throwables.propagate(e);
           }
-        }});
+        }
+      });
     } else {
       // will not spill this batch
       batchWrapper.state = BatchState.AVAILABLE;
@@ -309,6 +473,9 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
     private int totalLength;
     private long start = -1;
     private long check;
+    // set once a read ahead of this batch has been queued/done
+    private volatile boolean prefetchQueued;
+    private boolean prefetched;
 
     public RawFragmentBatchWrapper(RawFragmentBatch batch, boolean available) {
       Preconditions.checkNotNull(batch);
@@ -327,13 +494,21 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
       return batch == null;
     }
 
-    public RawFragmentBatch get() {
+    public synchronized RawFragmentBatch get() {
       if (state != BatchState.SPILLED) {
         assert batch.getHeader() != null : "batch header null";
+        if (state == BatchState.WAIT_TO_SPILL) {
+          // consumed before the IO thread got to it, it won't be spooled anymore
+          batch.sendOk();
+        }
         state = BatchState.AVAILABLE;
+        if (prefetched) {
+          prefetchHits.incrementAndGet();
+        }
         return batch;
       } else {
         try{
+          prefetchMisses.incrementAndGet();
           readFromStream();
           return batch;
         }catch(Exception e){
@@ -374,6 +549,9 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
         logger.debug("After spooling batch, stream at position {}. File length {}", stream.getPos(), len);
         assert start <= len : String.format("write pos %d is greater than len %d", start, len);
         totalLength = Math.toIntExact(len - start);
+        batchesSpooled.incrementAndGet();
+        bytesSpooled.addAndGet(totalLength);
+        spoolWriteNanos.addAndGet(watch.elapsed(TimeUnit.NANOSECONDS));
         long t = watch.elapsed(TimeUnit.MICROSECONDS);
         logger.debug("Took {} us to spool {} to disk. Rate {} mb/s", t, bodyLength, bodyLength / t);
       } finally {
@@ -392,6 +570,14 @@ public class SpoolingRawBatchBuffer extends BaseRawBatchBuffer<SpoolingRawBatchB
     }
 
     public void readFromStream() throws IOException, InterruptedException {
+      synchronized (readLock) {
+        final Stopwatch readWatch = Stopwatch.createStarted();
+        readFromStreamInner();
+        spoolReadNanos.addAndGet(readWatch.elapsed(TimeUnit.NANOSECONDS));
+      }
+    }
+
+    private void readFromStreamInner() throws IOException, InterruptedException {
       long pos = start;
       boolean tryAgain = true;
       int duration = 0;
@@ -49,6 +49,7 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
+import com.dremio.sabot.op.receiver.SpoolingRawBatchBuffer.SpoolingStats;
 import com.dremio.sabot.op.spi.BatchStreamProvider;
 import com.dremio.sabot.op.spi.ProducerOperator;
 import com.sun.codemodel.JConditional;
@@ -79,7 +80,13 @@ public class MergingReceiverOperator implements ProducerOperator {
   public static enum Metric implements MetricDef{
     BYTES_RECEIVED,
     NUM_SENDERS,
-    NEXT_WAIT_NANOS;
+    NEXT_WAIT_NANOS,
+    SPOOLED_BATCHES,
+    SPOOLED_BYTES,
+    SPOOL_WRITE_NANOS,
+    SPOOL_READ_NANOS,
+    SPOOL_PREFETCH_HITS,
+    SPOOL_PREFETCH_MISSES;
 
     @Override
     public int metricId() {
@@ -380,6 +387,13 @@ public class MergingReceiverOperator implements ProducerOperator {
 
   @Override
   public void close() throws Exception {
+    final SpoolingStats spooling = SpoolingStats.of(streamProvider.getBuffers(config.getSenderMajorFragmentId()));
+    stats.setLongStat(Metric.SPOOLED_BATCHES, spooling.getBatchesSpooled());
+    stats.setLongStat(Metric.SPOOLED_BYTES, spooling.getBytesSpooled());
+    stats.setLongStat(Metric.SPOOL_WRITE_NANOS, spooling.getSpoolWriteNanos());
+    stats.setLongStat(Metric.SPOOL_READ_NANOS, spooling.getSpoolReadNanos());
+    stats.setLongStat(Metric.SPOOL_PREFETCH_HITS, spooling.getPrefetchHits());
+    stats.setLongStat(Metric.SPOOL_PREFETCH_MISSES, spooling.getPrefetchMisses());
     List<AutoCloseable> closeables = new ArrayList<>();
     closeables.add(outgoingContainer);
     closeables.addAll(Arrays.asList(nodes));
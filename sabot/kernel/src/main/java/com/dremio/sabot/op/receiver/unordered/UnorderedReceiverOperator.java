@@ -26,6 +26,7 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
 import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
+import com.dremio.sabot.op.receiver.SpoolingRawBatchBuffer.SpoolingStats;
 import com.dremio.sabot.op.spi.BatchStreamProvider;
 import com.dremio.sabot.op.spi.ProducerOperator;
 import com.google.common.base.Preconditions;
@@ -44,7 +45,13 @@ public class UnorderedReceiverOperator implements ProducerOperator {
 
   public enum Metric implements MetricDef {
     BYTES_RECEIVED,
-    NUM_SENDERS;
+    NUM_SENDERS,
+    SPOOLED_BATCHES,
+    SPOOLED_BYTES,
+    SPOOL_WRITE_NANOS,
+    SPOOL_READ_NANOS,
+    SPOOL_PREFETCH_HITS,
+    SPOOL_PREFETCH_MISSES;
 
     @Override
     public int metricId() {
@@ -116,6 +123,13 @@ public class UnorderedReceiverOperator implements ProducerOperator {
 
   @Override
   public void close() throws Exception {
+    final SpoolingStats spooling = SpoolingStats.of(new RawFragmentBatchProvider[] {fragProvider});
+    stats.setLongStat(Metric.SPOOLED_BATCHES, spooling.getBatchesSpooled());
+    stats.setLongStat(Metric.SPOOLED_BYTES, spooling.getBytesSpooled());
+    stats.setLongStat(Metric.SPOOL_WRITE_NANOS, spooling.getSpoolWriteNanos());
+    stats.setLongStat(Metric.SPOOL_READ_NANOS, spooling.getSpoolReadNanos());
+    stats.setLongStat(Metric.SPOOL_PREFETCH_HITS, spooling.getPrefetchHits());
+    stats.setLongStat(Metric.SPOOL_PREFETCH_MISSES, spooling.getPrefetchMisses());
     AutoCloseables.close((AutoCloseable) batchLoader, outgoing);
   }
 
@@ -66,6 +66,7 @@ import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.TopNThreshold;
 import com.dremio.exec.store.parquet.GlobalDictionaries;
 import com.dremio.exec.store.parquet.ParquetSubScan;
 import com.dremio.exec.store.parquet.RecordReaderIterator;
@@ -161,7 +162,9 @@ public class ScanOperator implements ProducerOperator {
     MIN_METADATA_IO_READ_TIME_NS,  // Minimum IO read time for metadata operations
     MAX_METADATA_IO_READ_TIME_NS,   // Maximum IO read time for metadata operations
     AVG_METADATA_IO_READ_TIME_NS,  // Average IO read time for metadata operations
-    NUM_METADATA_IO_READ
+    NUM_METADATA_IO_READ,
+    NUM_TOPN_THRESHOLDS, // Number of TopN thresholds received at scan
+    ROW_GROUPS_SKIPPED_WITH_TOPN_THRESHOLD // Number of rowgroups skipped because they can't beat the TopN threshold
     ;
 
     @Override
@@ -195,6 +198,7 @@ public class ScanOperator implements ProducerOperator {
   private final CoordExecRPC.QueryContextInformation queryContextInfo;
 
   private List<RuntimeFilter> runtimeFilters = new ArrayList<>();
+  private TopNThreshold topNThreshold;
 
   public ScanOperator(SubScan config, OperatorContext context, RecordReaderIterator readers) {
     this(config, context, readers, null, null, null);
@@ -282,6 +286,9 @@ public class ScanOperator implements ProducerOperator {
     try {
       BatchSchema initialSchema = outgoing.getSchema();
       runtimeFilters.stream().forEach(reader::addRuntimeFilter);
+      if (topNThreshold != null) {
+        reader.addTopNThreshold(topNThreshold);
+      }
       setupReaderAsCorrectUser(reader);
       checkAndLearnSchema();
       Preconditions.checkArgument(initialSchema.equals(outgoing.getSchema()), "Schema changed but not detected.");
@@ -356,6 +363,10 @@ public class ScanOperator implements ProducerOperator {
   public void workOnOOB(OutOfBandMessage message) {
     final String senderInfo = String.format("Frag %d:%d, OpId %d", message.getSendingMajorFragmentId(),
             message.getSendingMinorFragmentId(), message.getSendingOperatorId());
+    if (ExecProtos.TopNThreshold.class.getName().equals(message.getPayload().getType())) {
+      workOnTopNThreshold(message, senderInfo);
+      return;
+    }
     if (message.getBuffers()==null || message.getBuffers().length!=1) {
       logger.warn("Empty runtime filter received from {}", senderInfo);
       return;
@@ -385,11 +396,37 @@ public class ScanOperator implements ProducerOperator {
     }
   }
 
+  /**
+   * Keeps the most selective boundary received from the TopN operators consuming this scan, and hands
+   * it to the readers so they can skip data that can't make it into the TopN result.
+   */
+  private void workOnTopNThreshold(OutOfBandMessage message, String senderInfo) {
+    try {
+      final TopNThreshold threshold = TopNThreshold.getInstance(
+        message.getPayload(ExecProtos.TopNThreshold.parser()), senderInfo);
+      if (topNThreshold != null && topNThreshold.isAsSelectiveAs(threshold)) {
+        logger.debug("Skipping {} because a more selective threshold is already present", threshold);
+        return;
+      }
+      logger.debug("Adding {} to the record readers, current reader {}.", threshold, this.currentReader.getClass().getName());
+      this.topNThreshold = threshold;
+      this.currentReader.addTopNThreshold(threshold);
+      context.getStats().addLongStat(Metric.NUM_TOPN_THRESHOLDS, 1);
+    } catch (Exception e) {
+      logger.warn("Error while processing TopN threshold from " + senderInfo, e);
+    }
+  }
+
   @VisibleForTesting
   List<RuntimeFilter> getRuntimeFilters() {
     return runtimeFilters;
   }
 
+  @VisibleForTesting
+  TopNThreshold getTopNThreshold() {
+    return topNThreshold;
+  }
+
   protected void checkAndLearnSchema(){
     if (mutator.getSchemaChanged()) {
       outgoing.buildSchema(SelectionVectorMode.NONE);
@@ -92,7 +92,11 @@ public class PartitionSenderOperator extends BaseSender {
     PRECOPY_NS,
     FLUSH_NS,
     NUM_FLUSHES,
-    BUCKET_SIZE;
+    BUCKET_SIZE,
+    SKEWED_KEYS,          // number of heavy hitters detected in the sampled batches
+    TOP_KEY_PERCENT,      // share of the sampled rows that belong to the hottest key
+    RECORDS_SPREAD,       // number of heavy hitter rows routed to other receivers than their hash one
+    RECEIVER_SKEW_PERCENT; // rows sent to the busiest receiver relative to the average
 
     @Override
     public int metricId() {
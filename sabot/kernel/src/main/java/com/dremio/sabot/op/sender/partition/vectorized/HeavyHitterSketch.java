@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender.partition.vectorized;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.cursors.IntIntCursor;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Frequent items sketch (Misra-Gries) over the 32-bit partitioning hash of the rows.
+ *
+ * Keeps at most {@code capacity} counters. Any value whose frequency is above
+ * {@code total / (capacity + 1)} is guaranteed to be tracked, and the counter of a tracked
+ * value underestimates its frequency by at most {@code total / (capacity + 1)}.
+ */
+public class HeavyHitterSketch {
+  private final int capacity;
+  private final IntIntHashMap counters;
+  private long total;
+
+  public HeavyHitterSketch(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "sketch capacity must be positive");
+    this.capacity = capacity;
+    this.counters = new IntIntHashMap(capacity * 2);
+  }
+
+  /**
+   * Add {@code count} 4-byte values starting at the given address.
+   */
+  public void update(long addr, int count) {
+    final long max = addr + count * 4L;
+    for (; addr < max; addr += 4) {
+      update(PlatformDependent.getInt(addr));
+    }
+  }
+
+  public void update(int value) {
+    total++;
+    if (counters.addTo(value, 1) > 1 || counters.size() <= capacity) {
+      return;
+    }
+
+    // new value while all counters are in use: decrement all of them (the new one included)
+    // and drop the ones that reach zero.
+    counters.remove(value);
+    for (int key : counters.keys().toArray()) {
+      if (counters.addTo(key, -1) == 0) {
+        counters.remove(key);
+      }
+    }
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * @return the values whose (under-estimated) frequency is at least {@code minShare} of all values seen,
+   * mapped to their estimated count.
+   */
+  public IntIntHashMap getHeavyHitters(double minShare) {
+    final IntIntHashMap heavyHitters = new IntIntHashMap();
+    final double minCount = Math.max(1, minShare * total);
+    for (IntIntCursor cursor : counters) {
+      if (cursor.value >= minCount) {
+        heavyHitters.put(cursor.key, cursor.value);
+      }
+    }
+    return heavyHitters;
+  }
+}
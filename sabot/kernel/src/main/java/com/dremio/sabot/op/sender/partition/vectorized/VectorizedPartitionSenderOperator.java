@@ -29,6 +29,8 @@ import org.apache.arrow.vector.types.pojo.ArrowType.ArrowTypeID;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.carrotsearch.hppc.cursors.IntIntCursor;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.util.Numbers;
@@ -40,6 +42,12 @@ import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.TypedFieldId;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.options.OptionManager;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.DoubleValidator;
+import com.dremio.options.TypeValidators.LongValidator;
+import com.dremio.options.TypeValidators.RangeDoubleValidator;
+import com.dremio.options.TypeValidators.RangeLongValidator;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
@@ -56,12 +64,24 @@ import io.netty.util.internal.PlatformDependent;
 
 /**
  * Implementation of hash partition sender that relies on vectorized copy of the data.<br>
- * Each incoming batch may be processed in multiple passes, each time copying up to numRecordsBeforeFlush rows.
+ * Each incoming batch may be processed in multiple passes, each time copying up to numRecordsBeforeFlush rows.<br>
+ * The hashes of the first batches are sampled to detect heavy hitters. When the receivers don't need co-located
+ * keys, the rows of a heavy hitter are spread round-robin over enough receivers to even out their load.
  */
+@Options
 public class VectorizedPartitionSenderOperator extends BaseSender {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedPartitionSenderOperator.class);
+
   @VisibleForTesting
   public static final int PARTITION_MULTIPLE = 8;
 
+  // number of incoming batches sampled to detect skewed keys, 0 disables the detection
+  public static final LongValidator SKEW_SAMPLE_BATCHES = new RangeLongValidator("exec.operator.partition_sender.skew.sample_batches", 0, 1024, 4);
+  // minimum share of the sampled rows a key needs to be considered a heavy hitter
+  public static final DoubleValidator SKEW_MIN_KEY_SHARE = new RangeDoubleValidator("exec.operator.partition_sender.skew.min_key_share", 0.01, 1.0, 0.1);
+
+  private static final int SKETCH_CAPACITY = 64;
+
   /** used to ensure outgoing batches creation and */
   private final Object batchCreationLock = new Object();
 
@@ -130,6 +150,23 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
    */
   private volatile boolean nobodyListening = false;
 
+  /** heavy hitters detection, null once the sampling is over */
+  private HeavyHitterSketch sketch;
+  private final int sampleBatches;
+  private final double minKeyShare;
+  private int batchesSampled;
+
+  /**
+   * hash -> number of receivers its rows are spread over, for the heavy hitters.<br>
+   * null unless the receivers accept spreading and heavy hitters were found
+   */
+  private IntIntHashMap spreadWidths;
+  private int nextSpreadOffset;
+  private long recordsSpread;
+
+  /** number of rows sent to each receiver */
+  private final long[] receiverRecords;
+
   public VectorizedPartitionSenderOperator(final OperatorContext context,
                                            final TunnelProvider tunnelProvider,
                                            final HashPartitionSender config) {
@@ -148,6 +185,14 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     modSize = PARTITION_MULTIPLE * Numbers.nextPowerOfTwo(numReceivers);
     modLookup = new OutgoingBatch[modSize];
     batches = new OutgoingBatch[2 * numReceivers];
+    receiverRecords = new long[numReceivers];
+
+    final OptionManager options = context.getOptions();
+    sampleBatches = (int) options.getOption(SKEW_SAMPLE_BATCHES);
+    minKeyShare = options.getOption(SKEW_MIN_KEY_SHARE);
+    if (sampleBatches > 0 && numReceivers > 1) {
+      sketch = new HeavyHitterSketch(SKETCH_CAPACITY);
+    }
   }
 
   @Override
@@ -235,6 +280,12 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
       return;
     }
 
+    if (sketch != null) {
+      preCopyWatch.start();
+      sampleHashes(records);
+      preCopyWatch.stop();
+    }
+
     int start = 0;
     int numPasses = 0;
 
@@ -272,9 +323,49 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     stats.addLongStat(Metric.NUM_COPIES, numPasses);
     stats.setLongStat(Metric.PRECOPY_NS, preCopyWatch.elapsed(NANOSECONDS));
     stats.setLongStat(Metric.FLUSH_NS, flushWatch.elapsed(NANOSECONDS));
+    stats.setLongStat(Metric.RECORDS_SPREAD, recordsSpread);
     copyWatches.updateStats(stats);
   }
 
+  /**
+   * Feed the hashes of the incoming batch to the sketch, and look for heavy hitters once enough batches were seen.
+   */
+  private void sampleHashes(int records) {
+    sketch.update(partitionIndices.getDataBufferAddress(), records);
+    if (++batchesSampled >= sampleBatches) {
+      detectSkewedKeys();
+    }
+  }
+
+  private void detectSkewedKeys() {
+    final long sampled = sketch.getTotal();
+    final IntIntHashMap heavyHitters = sketch.getHeavyHitters(minKeyShare);
+    sketch = null;
+    if (sampled == 0) {
+      return;
+    }
+
+    long topKeyCount = 0;
+    for (IntIntCursor cursor : heavyHitters) {
+      topKeyCount = Math.max(topKeyCount, cursor.value);
+    }
+    stats.setLongStat(Metric.SKEWED_KEYS, heavyHitters.size());
+    stats.setLongStat(Metric.TOP_KEY_PERCENT, topKeyCount * 100 / sampled);
+
+    if (!config.isSpreadSkewedKeys() || heavyHitters.isEmpty()) {
+      return;
+    }
+
+    // give each heavy hitter enough receivers so that none of them gets more than its fair share of its rows
+    spreadWidths = new IntIntHashMap(heavyHitters.size());
+    for (IntIntCursor cursor : heavyHitters) {
+      final double share = (double) cursor.value / sampled;
+      final int width = Math.min(numReceivers, Math.max(2, (int) Math.ceil(share * numReceivers)));
+      spreadWidths.put(cursor.key, width);
+    }
+    logger.debug("spreading {} skewed keys over multiple receivers", spreadWidths.size());
+  }
+
   @Override
   public void noMoreToConsume() throws Exception {
     state.is(State.CAN_CONSUME);
@@ -284,6 +375,12 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
       return;
     }
 
+    if (sketch != null) {
+      // fewer batches than the sample size, still report what was seen
+      detectSkewedKeys();
+    }
+    updateReceiverStats();
+
     // flush everything
     flushWatch.start();
     for (OutgoingBatch batch : batches) {
@@ -318,6 +415,22 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
     }
   }
 
+  private void updateReceiverStats() {
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    long total = 0;
+    for (long records : receiverRecords) {
+      min = Math.min(min, records);
+      max = Math.max(max, records);
+      total += records;
+    }
+    stats.setLongStat(Metric.MIN_RECORDS, min);
+    stats.setLongStat(Metric.MAX_RECORDS, max);
+    if (total > 0) {
+      stats.setLongStat(Metric.RECEIVER_SKEW_PERCENT, max * 100 * numReceivers / total);
+    }
+  }
+
   private void sendTermination() {
     final ExecProtos.FragmentHandle handle = context.getFragmentHandle();
 
@@ -344,36 +457,56 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
 
     final int mod = modSize - 1;
     final OutgoingBatch[] modLookup = this.modLookup;
-    final OutgoingBatch[] batches = this.batches;
+    final IntIntHashMap spreadWidths = this.spreadWidths;
+    final long[] receiverRecords = this.receiverRecords;
 
     //populate using the destination (batchIdx, rowIdx) for each incoming row
     final long max = srcAddr + numRowsToCopy*4;
     for (; srcAddr < max; srcAddr+=4, dstAddr+=4) {
-      final int partition = (PlatformDependent.getInt(srcAddr) & 0x7FFFFFFF) & mod; // abs(hash) % modSize
+      final int hash = PlatformDependent.getInt(srcAddr);
+      int partition = (hash & 0x7FFFFFFF) & mod; // abs(hash) % modSize
+      if (spreadWidths != null) {
+        final int width = spreadWidths.getOrDefault(hash, 0);
+        if (width > 0) {
+          // heavy hitter: round-robin over the receivers that follow its hash receiver
+          final int offset = nextSpreadOffset++ % width;
+          if (offset != 0) {
+            partition = (partition + offset) % numReceivers;
+            recordsSpread++;
+          }
+        }
+      }
       final OutgoingBatch batch = modLookup[partition];
       final int compound = batch.preCopyRow();
       PlatformDependent.putInt(dstAddr, compound);
+      receiverRecords[batch.getBatchIdx() % numReceivers]++;
 
       if (batch.isFull()) {
-        // if current batch is full, we will copy to a different batch from now on
-        final int nextBatchIdx = batch.getNextBatchIdx();
-        final OutgoingBatch nextBatch = batches[nextBatchIdx];
-        nextBatch.allocateNew();
-        for (MultiDestCopier copier : copiers) {
-          copier.updateTargets(nextBatchIdx, nextBatch.getFieldVector(copier.getFieldId()));
-        }
-        // Paired batches must be located at very specific places within modLookup. In particular, the batch pair
-        // repeats every #receivers (see the comment above the modLookup definition).
-        assert (batch.getBatchIdx() % numReceivers) == (nextBatchIdx % numReceivers) :
-          String.format("Batch pairs must be aligned to #receivers. Instead: curr batch: %d, next batch: %d, #receivers: %d",
-            batch.getBatchIdx(), nextBatchIdx, numReceivers);
-        for (int b = (nextBatchIdx % numReceivers); b < modSize; b += numReceivers) {
-          modLookup[b] = nextBatch;
-        }
+        switchToNextBatch(batch);
       }
     }
   }
 
+  /**
+   * current batch is full, we will copy to its paired batch from now on
+   */
+  private void switchToNextBatch(OutgoingBatch batch) {
+    final int nextBatchIdx = batch.getNextBatchIdx();
+    final OutgoingBatch nextBatch = batches[nextBatchIdx];
+    nextBatch.allocateNew();
+    for (MultiDestCopier copier : copiers) {
+      copier.updateTargets(nextBatchIdx, nextBatch.getFieldVector(copier.getFieldId()));
+    }
+    // Paired batches must be located at very specific places within modLookup. In particular, the batch pair
+    // repeats every #receivers (see the comment above the modLookup definition).
+    assert (batch.getBatchIdx() % numReceivers) == (nextBatchIdx % numReceivers) :
+      String.format("Batch pairs must be aligned to #receivers. Instead: curr batch: %d, next batch: %d, #receivers: %d",
+        batch.getBatchIdx(), nextBatchIdx, numReceivers);
+    for (int b = (nextBatchIdx % numReceivers); b < modSize; b += numReceivers) {
+      modLookup[b] = nextBatch;
+    }
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(Arrays.asList(batches), Arrays.asList(copyIndices, partitionIndices));
@@ -48,6 +48,7 @@ import com.dremio.options.Options;
 import com.dremio.options.TypeValidators.BooleanValidator;
 import com.dremio.options.TypeValidators.DoubleValidator;
 import com.dremio.options.TypeValidators.RangeDoubleValidator;
+import com.dremio.sabot.exec.MemoryArbiter;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
@@ -74,6 +75,9 @@ import com.sun.codemodel.JExpr;
  *   (default mode)
  * - each batch is locally sorter, then added to a SplayTreeSorter of sv4 values (sv4), the
  *   SplayTree is traversed when the final list is requested (if SplaySort is enabled)
+ * - tracked in a NormalizedKeySorter along with binary comparable keys of each record, the keys
+ *   are sorted at the time a final list is requested (if normalized key sort is enabled and the
+ *   orderings are on plain columns of supported types)
  * - (in either sort method case, the data-buffers used to track the row-indices in the batches
  *   are resized as new batches come in.)
  *
@@ -122,6 +126,7 @@ public class ExternalSortOperator implements SingleInputOperator {
   private int maxBatchesInMemory = 0;
   private int batchsizeMultiplier;
   private boolean enableSplaySort;
+  private boolean enableNormalizedKeySort;
   private boolean enableMicroSpill;
   private State prevState;
   private SortState prevSortState;
@@ -176,6 +181,13 @@ public class ExternalSortOperator implements SingleInputOperator {
 
     OOM_ALLOCATE_COUNT,
     OOM_COPY_COUNT,
+
+    // memory arbiter related metrics
+    ARBITER_GRANTS, // Number of times the memory arbiter raised the limit of the operator instead of spilling
+    ARBITER_GRANTED_BYTES, // Memory granted to the operator by the memory arbiter
+    ARBITER_YIELDED_BYTES, // Unused memory of the operator given to other operators of the query
+    ARBITER_SPILL_REQUESTS_SENT, // Number of times the operator asked another operator of the query to spill
+    ARBITER_SPILL, // Spill was done on behalf of another operator of the query
     ;
 
     @Override
@@ -218,6 +230,7 @@ public class ExternalSortOperator implements SingleInputOperator {
       final int varFieldSizeEstimate = (int) options.getOption(ExecConstants.BATCH_VARIABLE_FIELD_SIZE_ESTIMATE);
       final boolean compressSpilledBatch = options.getOption(ExecConstants.EXTERNAL_SORT_COMPRESS_SPILL_FILES);
       this.enableSplaySort = options.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_SPLAY_SORT);
+      this.enableNormalizedKeySort = options.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT);
       this.unconsumedRef = null;
       this.enableMicroSpill = options.getOption(ExecConstants.EXTERNAL_SORT_ENABLE_MICRO_SPILL);
       this.consumePendingIncomingBatch = false;
@@ -225,7 +238,7 @@ public class ExternalSortOperator implements SingleInputOperator {
       this.prevSortState = null;
 
       this.memoryRun = new MemoryRun(config, producer, context.getAllocator(), incoming.getSchema(), tracer,
-        batchsizeMultiplier, enableSplaySort, targetBatchSize, context.getExecutionControls());
+        batchsizeMultiplier, enableSplaySort, enableNormalizedKeySort, targetBatchSize, context.getExecutionControls());
       rollback.add(this.memoryRun);
 
       this.incoming = incoming;
@@ -273,6 +286,9 @@ public class ExternalSortOperator implements SingleInputOperator {
     while(true){
       boolean added = memoryRun.addBatch(incoming);
       if(!added){
+        if (requestMoreMemory()) {
+          continue;
+        }
         notifyOthersOfSpill();
         if (!this.enableMicroSpill) {
           rotateRuns();
@@ -287,9 +303,38 @@ public class ExternalSortOperator implements SingleInputOperator {
         break;
       }
     }
+    spillIfRequestedByArbiter();
     updateStats(false);
   }
 
+  /**
+   * Ask the memory arbiter of the query for more memory before spilling.
+   *
+   * @return true if the memory limit of the operator was raised
+   */
+  private boolean requestMoreMemory() {
+    final MemoryArbiter.Participant participant = context.getMemoryArbiterParticipant();
+    return participant != null && participant.requestMemory();
+  }
+
+  /**
+   * Spill the current memory run if another operator of the query needs the memory.
+   */
+  private void spillIfRequestedByArbiter() {
+    final MemoryArbiter.Participant participant = context.getMemoryArbiterParticipant();
+    if (participant == null || sortState == SortState.SPILL_IN_PROGRESS || memoryRun.isEmpty()
+      || !participant.shouldSpill()) {
+      return;
+    }
+
+    logger.debug("Spilling on memory arbiter request, allocated memory {}", allocator.getAllocatedMemory());
+    if (this.enableMicroSpill) {
+      startMicroSpilling();
+    } else {
+      rotateRuns();
+    }
+  }
+
   @Override
   public void noMoreToConsume() throws Exception {
     state = State.CAN_PRODUCE;
@@ -400,6 +445,15 @@ public class ExternalSortOperator implements SingleInputOperator {
       stats.setLongStat(Metric.OOB_SPILL, oobSpills);
     }
 
+    final MemoryArbiter.Participant participant = context.getMemoryArbiterParticipant();
+    if (participant != null) {
+      stats.setLongStat(Metric.ARBITER_GRANTS, participant.getGrants());
+      stats.setLongStat(Metric.ARBITER_GRANTED_BYTES, participant.getGrantedBytes());
+      stats.setLongStat(Metric.ARBITER_YIELDED_BYTES, participant.getYieldedBytes());
+      stats.setLongStat(Metric.ARBITER_SPILL_REQUESTS_SENT, participant.getSpillRequestsSent());
+      stats.setLongStat(Metric.ARBITER_SPILL, participant.getSpillRequestsReceived());
+    }
+
     if (diskRuns != null) {
       stats.setLongStat(Metric.SPILL_COUNT, diskRuns.spillCount());
       stats.setLongStat(Metric.MERGE_COUNT, diskRuns.mergeCount());
@@ -435,7 +489,7 @@ public class ExternalSortOperator implements SingleInputOperator {
     try {
       memoryRun.closeToDisk(diskRuns);
       memoryRun = new MemoryRun(config, producer, allocator, incoming.getSchema(), tracer,
-        batchsizeMultiplier, enableSplaySort, targetBatchSize, context.getExecutionControls());
+        batchsizeMultiplier, enableSplaySort, enableNormalizedKeySort, targetBatchSize, context.getExecutionControls());
     } catch (Exception e) {
       throw UserException.dataWriteError(e)
         .message("Failure while attempting to spill sort data to disk.")
@@ -464,7 +518,7 @@ public class ExternalSortOperator implements SingleInputOperator {
 
   private void finishMicroSpilling() throws Exception {
     memoryRun = new MemoryRun(config, producer, allocator, incoming.getSchema(), tracer,
-      batchsizeMultiplier, enableSplaySort, targetBatchSize, context.getExecutionControls());
+      batchsizeMultiplier, enableSplaySort, enableNormalizedKeySort, targetBatchSize, context.getExecutionControls());
 
     if (consumePendingIncomingBatch) {
       Preconditions.checkState(this.unconsumedRef != null);
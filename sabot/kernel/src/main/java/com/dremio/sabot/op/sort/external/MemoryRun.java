@@ -46,7 +46,7 @@ import com.google.common.collect.Lists;
 /**
  * Describes a set of ordered batches of data in memory. Sort each batch as it
  * is inserted using the Sorter.  Sorter can be configured to use QuickSort (by
- * default) or SplaySort.
+ * default), SplaySort or a sort on normalized keys.
  *
  * Memory Guarantees Targeted:
  * - Ensure that spilling can be done before accepting a new batch of records.
@@ -97,6 +97,22 @@ class MemoryRun implements AutoCloseable {
       int targetBatchSize,
       ExecutionControls executionControls
       ) {
+    this(sortConfig, classProducer, allocator, schema, tracer, batchsizeMultiplier, useSplaySort, false,
+      targetBatchSize, executionControls);
+  }
+
+  public MemoryRun(
+      ExternalSort sortConfig,
+      ClassProducer classProducer,
+      BufferAllocator allocator,
+      Schema schema,
+      ExternalSortTracer tracer,
+      int batchsizeMultiplier,
+      boolean useSplaySort,
+      boolean useNormalizedKeySort,
+      int targetBatchSize,
+      ExecutionControls executionControls
+      ) {
     this.schema = schema;
     this.sortConfig = sortConfig;
     this.allocator = allocator;
@@ -108,6 +124,8 @@ class MemoryRun implements AutoCloseable {
     try {
       if (useSplaySort) {
         this.sorter = new SplaySorter(sortConfig, classProducer, schema, allocator);
+      } else if (useNormalizedKeySort && NormalizedKeySorter.isSupported(sortConfig.getOrderings(), schema)) {
+        this.sorter = new NormalizedKeySorter(sortConfig, classProducer, schema, allocator);
       } else {
         this.sorter = new QuickSorter(sortConfig, classProducer, schema, allocator);
       }
@@ -0,0 +1,429 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.hadoop.util.IndexedSortable;
+import org.apache.hadoop.util.QuickSort;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.common.types.TypeProtos.MinorType;
+import com.dremio.exec.exception.ClassTransformationException;
+import com.dremio.exec.exception.SchemaChangeException;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ClassProducer;
+import com.dremio.exec.expr.CodeGenerator;
+import com.dremio.exec.physical.config.ExternalSort;
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.selection.SelectionVector4;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Sorter that encodes the sort keys of every record into a fixed width, binary comparable
+ * (normalized) key as batches arrive. At the end, the normalized keys are sorted in place and
+ * compared word by word, the generated comparator is only used to break ties between keys
+ * that are not exact (prefixes of variable width values). Sort keys following an inexact one
+ * are left out of the normalized key.
+ *
+ * Each sort key is encoded as a null byte followed by the big endian value, with the sign bit
+ * flipped for signed values. Null ordering is part of the null byte, and all the bytes of a
+ * descending key are inverted. Keys of every record are laid out contiguously along with the
+ * sv4 index of the record, so that the sort only touches the key buffer.
+ *
+ * Only orderings on plain columns of fixed width, varchar and varbinary types are supported,
+ * see {@link #isSupported(List, Schema)}.
+ */
+public class NormalizedKeySorter implements Sorter, IndexedSortable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NormalizedKeySorter.class);
+
+  /* number of leading bytes of variable width values stored in the normalized key */
+  static final int VARIABLE_WIDTH_PREFIX = 8;
+  /* maximum width of normalized key, wider keys are sorted by QuickSorter */
+  static final int MAX_KEY_WIDTH = 64;
+
+  private static final byte NULL_LOW = 0;
+  private static final byte NOT_NULL = 1;
+  private static final byte NULL_HIGH = 2;
+
+  private final ExternalSort sortConfig;
+  private final ClassProducer classProducer;
+  private final Schema schema;
+  private final BufferAllocator allocator;
+  private final KeyColumn[] columns;
+  private final int keyWidth;
+  private final int entryWidth;
+  private final boolean exactKeys;
+
+  private QuickSorterInterface comparator;
+  private SimpleIntVector sv4Buffer;
+  private ArrowBuf keys;
+  private int keyCapacity;
+  private int totalCount;
+  private int[] fieldIds;
+
+  public NormalizedKeySorter(ExternalSort sortConfig, ClassProducer classProducer, Schema schema, BufferAllocator allocator) {
+    this.sortConfig = sortConfig;
+    this.classProducer = classProducer;
+    this.schema = schema;
+    this.allocator = allocator;
+
+    /* keys past the first inexact one are not encoded: two records with the same prefix may still differ on
+     * that key, so the following keys can't decide their order and the generated comparator has to */
+    final List<Ordering> orderings = sortConfig.getOrderings();
+    final List<KeyColumn> keyColumns = Lists.newArrayList();
+    int width = 0;
+    boolean exact = true;
+    for (int i = 0; i < orderings.size() && exact; i++) {
+      final Ordering ordering = orderings.get(i);
+      final Field field = findField(ordering.getExpr(), schema);
+      final KeyColumn column = new KeyColumn(CompleteType.fromField(field).toMinorType(), width,
+        ordering.nullsSortHigh(), ordering.getDirection() == Direction.DESCENDING);
+      keyColumns.add(column);
+      width += column.width;
+      exact = column.exact;
+    }
+    this.columns = keyColumns.toArray(new KeyColumn[0]);
+    this.keyWidth = (width + 7) & ~7;
+    /* the sv4 index of the record follows its key */
+    this.entryWidth = keyWidth + 8;
+    this.exactKeys = exact;
+
+    this.sv4Buffer = new SimpleIntVector("NormalizedKeySorterSimpleIntVector", allocator);
+    this.keys = allocator.buffer(0);
+  }
+
+  /**
+   * Check if the given orderings can be sorted using normalized keys.
+   *
+   * @param orderings sort orderings
+   * @param schema schema of the sorted batches
+   * @return true if all sort keys are plain columns of supported types and fit in a normalized key
+   */
+  public static boolean isSupported(List<Ordering> orderings, Schema schema) {
+    if (orderings.isEmpty()) {
+      return false;
+    }
+    int width = 0;
+    for (Ordering ordering : orderings) {
+      final Field field = findField(ordering.getExpr(), schema);
+      if (field == null) {
+        return false;
+      }
+      final int valueWidth = getValueWidth(CompleteType.fromField(field).toMinorType());
+      if (valueWidth < 0) {
+        return false;
+      }
+      width += 1 + valueWidth;
+    }
+    return width <= MAX_KEY_WIDTH;
+  }
+
+  private static Field findField(LogicalExpression expr, Schema schema) {
+    if (!(expr instanceof SchemaPath) || !((SchemaPath) expr).isSimplePath()) {
+      return null;
+    }
+    final String name = ((SchemaPath) expr).getRootSegment().getPath();
+    for (Field field : schema.getFields()) {
+      if (field.getName().equalsIgnoreCase(name)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return number of bytes of the encoded value, -1 if the type is not supported
+   */
+  private static int getValueWidth(MinorType type) {
+    switch (type) {
+      case BIT:
+        return 1;
+      case INT:
+      case TIME:
+      case INTERVALYEAR:
+      case FLOAT4:
+        return 4;
+      case BIGINT:
+      case DATE:
+      case TIMESTAMP:
+      case FLOAT8:
+        return 8;
+      case DECIMAL:
+        return 16;
+      case VARCHAR:
+      case VARBINARY:
+        return VARIABLE_WIDTH_PREFIX;
+      default:
+        return -1;
+    }
+  }
+
+  @Override
+  public boolean expandMemoryIfNecessary(int newRequiredSize) {
+    try {
+      while (sv4Buffer.getValueCapacity() < newRequiredSize) {
+        sv4Buffer.reAlloc();
+      }
+      if (keyCapacity < newRequiredSize) {
+        final int newCapacity = MemoryRun.nextPowerOfTwo(newRequiredSize);
+        final ArrowBuf newKeys = allocator.buffer((long) newCapacity * entryWidth);
+        PlatformDependent.copyMemory(keys.memoryAddress(), newKeys.memoryAddress(), (long) totalCount * entryWidth);
+        keys.close();
+        keys = newKeys;
+        keyCapacity = newCapacity;
+      }
+    } catch (OutOfMemoryException ex) {
+      return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public void setup(VectorAccessible batch) throws ClassTransformationException, SchemaChangeException, IOException {
+    // Compile the comparator used to break ties between normalized keys.
+    CodeGenerator<QuickSorterInterface> cg = classProducer.createGenerator(QuickSorterInterface.TEMPLATE_DEFINITION);
+    ClassGenerator<QuickSorterInterface> g = cg.getRoot();
+    final Sv4HyperContainer container = new Sv4HyperContainer(allocator, schema);
+    ExternalSortOperator.generateComparisons(g, container, sortConfig.getOrderings(), classProducer);
+    this.comparator = cg.getImplementationClass();
+    comparator.init(classProducer.getFunctionContext(), container);
+    comparator.setDataBuffer(sv4Buffer);
+
+    final List<Ordering> orderings = sortConfig.getOrderings();
+    fieldIds = new int[orderings.size()];
+    for (int i = 0; i < fieldIds.length; i++) {
+      fieldIds[i] = batch.getValueVectorId((SchemaPath) orderings.get(i).getExpr()).getFieldIds()[0];
+    }
+  }
+
+  @Override
+  public void addBatch(RecordBatchData data, BufferAllocator copyTargetAllocator) throws SchemaChangeException {
+    final int start = totalCount;
+    comparator.add(data);
+    final int recordCount = data.getRecordCount();
+
+    final FieldVector[] vectors = new FieldVector[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      vectors[i] = data.getContainer().getValueAccessorById(FieldVector.class, fieldIds[i]).getValueVector();
+    }
+
+    long entryAddr = keys.memoryAddress() + (long) start * entryWidth;
+    for (int count = 0; count < recordCount; count++) {
+      final int sv4Index = sv4Buffer.get(start + count);
+      final int recordIndex = sv4Index & 65535;
+      PlatformDependent.setMemory(entryAddr, keyWidth, (byte) 0);
+      for (int i = 0; i < columns.length; i++) {
+        columns[i].encode(vectors[i], recordIndex, entryAddr);
+      }
+      /* store the key as native words which compare as unsigned longs */
+      for (int offset = 0; offset < keyWidth; offset += 8) {
+        PlatformDependent.putLong(entryAddr + offset, Long.reverseBytes(PlatformDependent.getLong(entryAddr + offset)));
+      }
+      PlatformDependent.putInt(entryAddr + keyWidth, sv4Index);
+      entryAddr += entryWidth;
+    }
+    totalCount = start + recordCount;
+  }
+
+  @Override
+  public ExpandableHyperContainer getHyperBatch() {
+    if (comparator != null) {
+      return comparator.getHyperBatch();
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public int getHyperBatchSize() {
+    if (comparator != null) {
+      return comparator.getHyperBatch().size();
+    } else {
+      return 0;
+    }
+  }
+
+  @Override
+  public SelectionVector4 getFinalSort(BufferAllocator copyTargetAllocator, int targetBatchSize) {
+    final Stopwatch watch = Stopwatch.createStarted();
+
+    if (totalCount > 0) {
+      new QuickSort().sort(this, 0, totalCount);
+    }
+
+    final SelectionVector4 finalSortedSV4 = new SelectionVector4(copyTargetAllocator.buffer(totalCount * 4), totalCount, targetBatchSize);
+    long entryAddr = keys.memoryAddress() + keyWidth;
+    for (int i = 0; i < totalCount; i++) {
+      finalSortedSV4.set(i, PlatformDependent.getInt(entryAddr));
+      entryAddr += entryWidth;
+    }
+
+    logger.debug("Took {} us to final sort {} records using {} byte normalized keys",
+      watch.elapsed(TimeUnit.MICROSECONDS), totalCount, keyWidth);
+
+    return finalSortedSV4;
+  }
+
+  @Override
+  public int compare(int leftIndex, int rightIndex) {
+    final long leftAddr = keys.memoryAddress() + (long) leftIndex * entryWidth;
+    final long rightAddr = keys.memoryAddress() + (long) rightIndex * entryWidth;
+    for (int offset = 0; offset < keyWidth; offset += 8) {
+      final int cmp = Long.compareUnsigned(PlatformDependent.getLong(leftAddr + offset), PlatformDependent.getLong(rightAddr + offset));
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    if (exactKeys) {
+      return 0;
+    }
+    return comparator.compareRecords(PlatformDependent.getInt(leftAddr + keyWidth), PlatformDependent.getInt(rightAddr + keyWidth));
+  }
+
+  @Override
+  public void swap(int leftIndex, int rightIndex) {
+    final long leftAddr = keys.memoryAddress() + (long) leftIndex * entryWidth;
+    final long rightAddr = keys.memoryAddress() + (long) rightIndex * entryWidth;
+    for (int offset = 0; offset < entryWidth; offset += 8) {
+      final long tmp = PlatformDependent.getLong(leftAddr + offset);
+      PlatformDependent.putLong(leftAddr + offset, PlatformDependent.getLong(rightAddr + offset));
+      PlatformDependent.putLong(rightAddr + offset, tmp);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = Lists.newArrayList();
+
+    closeables.add(sv4Buffer);
+    closeables.add(keys);
+    AutoCloseables.close(closeables);
+
+    sv4Buffer = null;
+    keys = null;
+  }
+
+  /**
+   * Encodes a single sort key into its slot of the normalized key.
+   */
+  private static final class KeyColumn {
+    private final MinorType type;
+    private final int offset;
+    private final int width;
+    private final boolean exact;
+    private final byte nullByte;
+    private final boolean descending;
+
+    KeyColumn(MinorType type, int offset, boolean nullsSortHigh, boolean descending) {
+      this.type = type;
+      this.offset = offset;
+      this.width = 1 + getValueWidth(type);
+      this.exact = type != MinorType.VARCHAR && type != MinorType.VARBINARY;
+      this.nullByte = nullsSortHigh ? NULL_HIGH : NULL_LOW;
+      this.descending = descending;
+    }
+
+    void encode(FieldVector vector, int index, long entryAddr) {
+      final long addr = entryAddr + offset;
+      if (vector.isNull(index)) {
+        PlatformDependent.putByte(addr, nullByte);
+      } else {
+        PlatformDependent.putByte(addr, NOT_NULL);
+        encodeValue(vector, index, addr + 1);
+      }
+      if (descending) {
+        for (int i = 0; i < width; i++) {
+          PlatformDependent.putByte(addr + i, (byte) ~PlatformDependent.getByte(addr + i));
+        }
+      }
+    }
+
+    private void encodeValue(FieldVector vector, int index, long addr) {
+      final long dataAddr = vector.getDataBufferAddress();
+      switch (type) {
+        case BIT:
+          PlatformDependent.putByte(addr, (byte) ((PlatformDependent.getByte(dataAddr + (index >>> 3)) >>> (index & 7)) & 1));
+          break;
+        case INT:
+        case TIME:
+        case INTERVALYEAR:
+          putBigEndian(addr, PlatformDependent.getInt(dataAddr + ((long) index << 2)) ^ Integer.MIN_VALUE, 4);
+          break;
+        case BIGINT:
+        case DATE:
+        case TIMESTAMP:
+          putBigEndian(addr, PlatformDependent.getLong(dataAddr + ((long) index << 3)) ^ Long.MIN_VALUE, 8);
+          break;
+        case FLOAT4: {
+          final int bits = Float.floatToIntBits(Float.intBitsToFloat(PlatformDependent.getInt(dataAddr + ((long) index << 2))));
+          putBigEndian(addr, bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE, 4);
+          break;
+        }
+        case FLOAT8: {
+          final long bits = Double.doubleToLongBits(Double.longBitsToDouble(PlatformDependent.getLong(dataAddr + ((long) index << 3))));
+          putBigEndian(addr, bits < 0 ? ~bits : bits ^ Long.MIN_VALUE, 8);
+          break;
+        }
+        case DECIMAL: {
+          /* 128 bit little endian two's complement value */
+          final long valueAddr = dataAddr + ((long) index << 4);
+          putBigEndian(addr, PlatformDependent.getLong(valueAddr + 8) ^ Long.MIN_VALUE, 8);
+          putBigEndian(addr + 8, PlatformDependent.getLong(valueAddr), 8);
+          break;
+        }
+        case VARCHAR:
+        case VARBINARY: {
+          final long offsetAddr = ((BaseVariableWidthVector) vector).getOffsetBufferAddress() + ((long) index << 2);
+          final int start = PlatformDependent.getInt(offsetAddr);
+          final int length = Math.min(PlatformDependent.getInt(offsetAddr + 4) - start, VARIABLE_WIDTH_PREFIX);
+          PlatformDependent.copyMemory(dataAddr + start, addr, length);
+          break;
+        }
+        default:
+          throw new UnsupportedOperationException("Normalized keys not supported for type " + type);
+      }
+    }
+
+    private static void putBigEndian(long addr, long value, int bytes) {
+      for (int i = bytes - 1; i >= 0; i--) {
+        PlatformDependent.putByte(addr + i, (byte) value);
+        value >>>= 8;
+      }
+    }
+  }
+}
@@ -121,6 +121,11 @@ public abstract class QuickSorterTemplate implements QuickSorterInterface, Index
     return doEval(leftVal, rightVal);
   }
 
+  @Override
+  public int compareRecords(int leftSv4Index, int rightSv4Index) {
+    return doEval(leftSv4Index, rightSv4Index);
+  }
+
   public abstract void doSetup(@Named("context") FunctionContext context, @Named("incoming") VectorAccessible incoming,
       @Named("outgoing") VectorAccessible outgoing);
 
@@ -33,6 +33,11 @@ public interface PriorityQueue extends AutoCloseable {
   SelectionVector4 getFinalSv4();
   void resetQueue(final VectorContainer newQueue, final SelectionVector4 oldHeap);
 
+  /**
+   * @return compound index (batch, offset) of the last record of the queue in sort order, or -1 if the queue isn't full yet
+   */
+  int getBoundaryIndex();
+
   static TemplateClassDefinition<PriorityQueue> TEMPLATE_DEFINITION = new TemplateClassDefinition<PriorityQueue>(PriorityQueue.class, PriorityQueueTemplate.class);
 
 }
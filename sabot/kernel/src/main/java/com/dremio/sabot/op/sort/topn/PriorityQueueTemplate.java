@@ -128,6 +128,15 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     logger.debug("Took {} us to generate output of {}", watch.elapsed(TimeUnit.MICROSECONDS), finalSv4.getTotalCount());
   }
 
+  @Override
+  public int getBoundaryIndex() {
+    if (limit == 0 || queueSize < limit) {
+      return -1;
+    }
+    // root of the heap is the record that is evicted first
+    return heapSv4.get(0);
+  }
+
   @Override
   public Sv4HyperContainer getHyperBatch() {
     return hyperBatch;
@@ -19,6 +19,9 @@ import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 
@@ -26,6 +29,7 @@ import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.logical.data.Order.Ordering;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.sig.MappingSet;
@@ -38,14 +42,25 @@ import com.dremio.exec.expr.CodeGenerator;
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.expr.fn.FunctionGenerationHelper;
 import com.dremio.exec.physical.config.TopN;
+import com.dremio.exec.planner.physical.filter.RuntimeFilterEntry;
+import com.dremio.exec.proto.CoordExecRPC.FragmentAssignment;
+import com.dremio.exec.proto.CoordExecRPC.MajorFragmentAssignment;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.ExecProtos;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.TypedFieldId;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.PositiveLongValidator;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
 import com.dremio.sabot.op.sort.SortRecordBatchBuilder;
@@ -55,9 +70,24 @@ import com.google.common.base.Stopwatch;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JExpr;
 
+@Options
 public class TopNOperator implements SingleInputOperator {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TopNOperator.class);
 
+  public static final BooleanValidator RUNTIME_FILTER_ENABLED = new BooleanValidator("exec.operator.topn.runtime_filter.enabled", false);
+  // minimum number of incoming batches between two thresholds sent to the scan
+  public static final PositiveLongValidator RUNTIME_FILTER_INTERVAL_BATCHES =
+    new PositiveLongValidator("exec.operator.topn.runtime_filter.interval_batches", Integer.MAX_VALUE, 4);
+
+  public enum Metric implements MetricDef {
+    THRESHOLDS_SENT; // number of TopN thresholds sent to the scan producing the first sort key
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private final int batchPurgeThreshold;
   private final TopN config;
   private final OperatorContext context;
@@ -78,10 +108,20 @@ public class TopNOperator implements SingleInputOperator {
   private PriorityQueue priorityQueue;
   private Copier copier;
 
+  // threshold sent to the scan producing the first sort key
+  private final RuntimeFilterEntry thresholdTarget;
+  private final int thresholdIntervalBatches;
+  private int[] thresholdFieldIds;
+  private Long lastThreshold;
+  private int batchesSinceThreshold;
+  private int thresholdsSent;
+
   public TopNOperator(OperatorContext context, TopN popConfig) {
     this.config = popConfig;
     this.context = context;
     this.batchPurgeThreshold = context.getConfig().getInt(ExecConstants.BATCH_PURGE_THRESHOLD);
+    this.thresholdTarget = context.getOptions().getOption(RUNTIME_FILTER_ENABLED) ? popConfig.getThresholdTarget() : null;
+    this.thresholdIntervalBatches = (int) context.getOptions().getOption(RUNTIME_FILTER_INTERVAL_BATCHES);
   }
 
   @Override
@@ -101,6 +141,10 @@ public class TopNOperator implements SingleInputOperator {
 
     priorityQueue = createNewPriorityQueue(context.getClassProducer(), config.getOrderings());
     copier = CopierOperator.getGenerated4Copier(context.getClassProducer(), priorityQueue.getHyperBatch(), outgoing);
+    if (thresholdTarget != null) {
+      final TypedFieldId fieldId = incoming.getSchema().getFieldId(SchemaPath.getSimplePath(thresholdTarget.getBuildFieldName()));
+      thresholdFieldIds = fieldId == null ? null : fieldId.getFieldIds();
+    }
     state = State.CAN_CONSUME;
     return outgoing;
   }
@@ -112,6 +156,7 @@ public class TopNOperator implements SingleInputOperator {
     batchCount++;
 
     priorityQueue.add(new RecordBatchData(incoming, context.getAllocator()));
+    sendThresholdIfImproved();
 
     if (countSincePurge > config.getLimit() && batchCount > batchPurgeThreshold) {
       purge();
@@ -161,6 +206,88 @@ public class TopNOperator implements SingleInputOperator {
     return outgoing.setAllCount(copied);
   }
 
+  /**
+   * Once the queue is full, its boundary value on the first sort key is sent to the scan producing
+   * that key. Rows sorting strictly after the boundary can't make it into the result.
+   */
+  private void sendThresholdIfImproved() {
+    if (thresholdFieldIds == null || ++batchesSinceThreshold < thresholdIntervalBatches) {
+      return;
+    }
+    final int boundaryIndex = priorityQueue.getBoundaryIndex();
+    if (boundaryIndex < 0) {
+      return;
+    }
+
+    final ValueVector vector = priorityQueue.getHyperBatch()
+      .getValueAccessorById(ValueVector.class, thresholdFieldIds).getValueVectors()[boundaryIndex >>> 16];
+    final int offset = boundaryIndex & 65535;
+    if (vector.isNull(offset)) {
+      return;
+    }
+    final long threshold;
+    if (vector instanceof BigIntVector) {
+      threshold = ((BigIntVector) vector).get(offset);
+    } else if (vector instanceof IntVector) {
+      threshold = ((IntVector) vector).get(offset);
+    } else if (vector instanceof TimeStampMilliVector) {
+      threshold = ((TimeStampMilliVector) vector).get(offset);
+    } else {
+      thresholdFieldIds = null;
+      return;
+    }
+
+    final Ordering ordering = config.getOrderings().get(0);
+    final boolean descending = ordering.getDirection() == Direction.DESCENDING;
+    if (lastThreshold != null && (descending ? threshold <= lastThreshold : threshold >= lastThreshold)) {
+      return;
+    }
+    lastThreshold = threshold;
+    batchesSinceThreshold = 0;
+
+    final ExecProtos.TopNThreshold protoThreshold = ExecProtos.TopNThreshold.newBuilder()
+      .setProbeScanMajorFragmentId(thresholdTarget.getProbeScanMajorFragmentId())
+      .setProbeScanOperatorId(thresholdTarget.getProbeScanOperatorId())
+      .setColumn(thresholdTarget.getProbeFieldName())
+      .setDescending(descending)
+      .setNullsFirst(ordering.nullsSortHigh() == descending)
+      .setValue(threshold)
+      .build();
+    sendThresholdToScan(protoThreshold);
+  }
+
+  private void sendThresholdToScan(ExecProtos.TopNThreshold threshold) {
+    final MajorFragmentAssignment majorFragmentAssignment = context.getExtMajorFragmentAssignments(threshold.getProbeScanMajorFragmentId());
+    if (majorFragmentAssignment == null) {
+      logger.debug("Major fragment assignment for scan id {} is null. Dropping the TopN threshold.", threshold.getProbeScanOperatorId());
+      thresholdFieldIds = null;
+      return;
+    }
+
+    for (FragmentAssignment assignment : majorFragmentAssignment.getAllAssignmentList()) {
+      try {
+        final OutOfBandMessage message = new OutOfBandMessage(
+          context.getFragmentHandle().getQueryId(),
+          threshold.getProbeScanMajorFragmentId(),
+          assignment.getMinorFragmentIdList(),
+          threshold.getProbeScanOperatorId(),
+          context.getFragmentHandle().getMajorFragmentId(),
+          context.getFragmentHandle().getMinorFragmentId(),
+          config.getProps().getOperatorId(),
+          new OutOfBandMessage.Payload(threshold),
+          null,
+          true);
+        final NodeEndpoint endpoint = context.getEndpointsIndex().getNodeEndpoint(assignment.getAssignmentIndex());
+        context.getTunnelProvider().getExecTunnel(endpoint).sendOOBMessage(message);
+      } catch (Exception e) {
+        // This is just an optimisation. Hence, we don't throw the error further.
+        logger.warn("Error while sending TopN threshold to minor fragments " + assignment.getMinorFragmentIdList(), e);
+      }
+    }
+    thresholdsSent++;
+    context.getStats().setLongStat(Metric.THRESHOLDS_SENT, thresholdsSent);
+  }
+
   private void purge() throws SchemaChangeException {
     final Stopwatch watch = Stopwatch.createStarted();
 
@@ -30,6 +30,7 @@ import com.dremio.BaseTestQuery;
 import com.dremio.PlanTestBase;
 import com.dremio.common.AutoCloseables;
 import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.util.GlobalDictionaryBuilder;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -176,6 +177,52 @@ public class TestGlobalDictionaryPlan extends PlanTestBase {
     validateResults(query, "testSelfJoin");
   }
 
+  @Test
+  public void testSelfJoinOnDictionaryIds() throws Exception {
+    final String query = "select * from dfs_test.globaldictionary t1 inner join dfs_test.globaldictionary t2 on t1.state = t2.state";
+    disableGlobalDictionary();
+    testPlanOneExcludedPattern(query, "DictionaryLookup");
+    enableGlobalDictionary();
+    // both sides use the same dictionary for state, so the join keys are only decoded after the join
+    testPlanSubstrPatternsInOrder(query,
+      new String[] {"DictionaryLookup(decoded fields=[[city, city0, group, group0, position, position0, state, state0]])", "HashJoin"}, null);
+    validateResults(query, "testSelfJoinOnDictionaryIds");
+  }
+
+  @Test
+  public void testDistributedJoinAcrossDictionaries() throws Exception {
+    final String query = "select * from dfs_test.globaldictionary t1 inner join dfs_test.places t2 on t1.state = t2.place";
+    try {
+      setSessionOption(ExecConstants.SLICE_TARGET, "1");
+      setSessionOption(PlannerSettings.BROADCAST, "false");
+      enableGlobalDictionary();
+      // state and place use different dictionaries, both sides are distributed on decoded values
+      testPlanSubstrPatternsInOrder(query,
+        new String[] {"HashJoin", "HashToRandomExchange", "DictionaryLookup(decoded fields=[[place]])",
+          "HashToRandomExchange", "DictionaryLookup(decoded fields=[[state]])"}, null);
+      validateResultsOutOfOrder(query, "testDistributedJoinAcrossDictionaries");
+    } finally {
+      resetSessionOption(ExecConstants.SLICE_TARGET);
+      resetSessionOption(PlannerSettings.BROADCAST);
+    }
+  }
+
+  @Test
+  public void testRuntimeFilterOnDecodedKeys() throws Exception {
+    try {
+      setSessionOption(ExecConstants.SLICE_TARGET, "1");
+      enableGlobalDictionary();
+      // the join keys are decoded below the join, the filter applies to the values of the probe column
+      testPlanSubstrPatterns("select * from dfs_test.globaldictionary t1 inner join dfs_test.places t2 on t1.state = t2.place",
+        new String[] {"runtimeFilter"}, null);
+      // the join compares dictionary ids, no filter on the probe column
+      testPlanSubstrPatterns("select * from dfs_test.globaldictionary t1 inner join dfs_test.globaldictionary t2 on t1.state = t2.state",
+        null, new String[] {"runtimeFilter"});
+    } finally {
+      resetSessionOption(ExecConstants.SLICE_TARGET);
+    }
+  }
+
   @Test
   public void testSimpleInnerJoin() throws Exception {
     final String query = "select * from dfs_test.globaldictionary t1 inner join dfs_test.places t2 on t1.employee_id = t2.employee_id";
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.maestro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ParallelTasks}
+ */
+public class TestParallelTasks {
+
+  private static ExecutorService executor;
+
+  @BeforeClass
+  public static void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterClass
+  public static void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testResultsInOrder() {
+    final List<Integer> items = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    final List<Integer> results = ParallelTasks.map(items, i -> {
+      threads.add(Thread.currentThread().getName());
+      return i * 2;
+    }, 4, executor);
+
+    assertEquals(items.stream().map(i -> i * 2).collect(Collectors.toList()), results);
+    assertTrue(threads.size() <= 4);
+  }
+
+  @Test
+  public void testFailure() {
+    final List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+    try {
+      ParallelTasks.map(items, i -> {
+        if (i == 42) {
+          throw new IOException("failed on " + i);
+        }
+        return i;
+      }, 4, executor);
+      fail("expected failure");
+    } catch (IOException e) {
+      assertEquals("failed on 42", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRejectedExecution() {
+    final List<Integer> items = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+
+    // the calling thread does all the work
+    final List<Integer> results = ParallelTasks.map(items, i -> i, 4, command -> {
+      throw new RejectedExecutionException();
+    });
+
+    assertEquals(items, results);
+  }
+}
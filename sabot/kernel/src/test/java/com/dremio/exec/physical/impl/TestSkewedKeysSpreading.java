@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.physical.impl;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.sabot.op.sender.partition.vectorized.VectorizedPartitionSenderOperator;
+
+/**
+ * Spreading heavy hitters of a parallel sort over several receivers must not change the query results.
+ */
+public class TestSkewedKeysSpreading extends PlanTestBase {
+
+  private static final String ENABLE = String.format("alter session set \"%s\" = true",
+    PlannerSettings.ENABLE_SKEWED_KEYS_SPREADING.getOptionName());
+  private static final String DISABLE = String.format("alter session set \"%s\" = false",
+    PlannerSettings.ENABLE_SKEWED_KEYS_SPREADING.getOptionName());
+
+  // only three distinct return flags, all of them heavy hitters
+  private static final String SORT = "SELECT l_returnflag FROM cp.\"tpch/lineitem.parquet\" ORDER BY l_returnflag";
+  private static final String AGG = "SELECT l_returnflag, count(*) AS cnt FROM cp.\"tpch/lineitem.parquet\" " +
+    "GROUP BY l_returnflag";
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    test("alter session set \"%s\" = 1", ExecConstants.SLICE_TARGET);
+    test("alter session set \"%s\" = 1", VectorizedPartitionSenderOperator.SKEW_SAMPLE_BATCHES.getOptionName());
+  }
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    test(DISABLE);
+    test("alter session reset \"%s\"", ExecConstants.SLICE_TARGET);
+    test("alter session reset \"%s\"", VectorizedPartitionSenderOperator.SKEW_SAMPLE_BATCHES.getOptionName());
+  }
+
+  @Test
+  public void testSortExchangeIsMarked() throws Exception {
+    test(ENABLE);
+    testPlanMatchingPatterns(SORT, new String[] {"spreadSkewedKeys=\\[true\\]"});
+  }
+
+  @Test
+  public void testAggregationExchangeIsNotMarked() throws Exception {
+    test(ENABLE);
+    testPlanMatchingPatterns(AGG, null, "spreadSkewedKeys");
+  }
+
+  @Test
+  public void testSortSameResults() throws Exception {
+    testBuilder()
+      .sqlQuery(SORT)
+      .ordered()
+      .optionSettingQueriesForTestQuery(ENABLE)
+      .optionSettingQueriesForBaseline(DISABLE)
+      .sqlBaselineQuery(SORT)
+      .go();
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.physical.impl.TopN;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.sabot.op.sort.topn.TopNOperator;
+
+/**
+ * Results of TopN queries must not change when TopN pushes its boundary value to the scan.
+ */
+public class TestTopNRuntimeFilter extends PlanTestBase {
+
+  private static final String ENABLE = String.format(
+    "alter session set \"%s\" = true; alter session set \"%s\" = true; alter session set \"%s\" = 1",
+    PlannerSettings.ENABLE_TOPN_RUNTIME_FILTER.getOptionName(),
+    TopNOperator.RUNTIME_FILTER_ENABLED.getOptionName(),
+    TopNOperator.RUNTIME_FILTER_INTERVAL_BATCHES.getOptionName());
+  private static final String DISABLE = String.format(
+    "alter session set \"%s\" = false; alter session set \"%s\" = false",
+    PlannerSettings.ENABLE_TOPN_RUNTIME_FILTER.getOptionName(),
+    TopNOperator.RUNTIME_FILTER_ENABLED.getOptionName());
+
+  private static final String NATION = "dfs.\"${WORKING_PATH}/src/test/resources/tpchmulti/nation\"";
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    test(DISABLE);
+  }
+
+  @Test
+  public void testDescendingSameResults() throws Exception {
+    final String sql = "SELECT l_orderkey, l_linenumber, l_quantity FROM cp.\"tpch/lineitem.parquet\" " +
+      "ORDER BY l_orderkey DESC, l_linenumber LIMIT 10";
+    testSameResults(sql);
+  }
+
+  @Test
+  public void testAscendingSameResults() throws Exception {
+    final String sql = "SELECT l_orderkey, l_linenumber, l_quantity FROM cp.\"tpch/lineitem.parquet\" " +
+      "ORDER BY l_orderkey, l_linenumber LIMIT 100";
+    testSameResults(sql);
+  }
+
+  @Test
+  public void testMultipleFilesSameResults() throws Exception {
+    final String sql = String.format("SELECT n_nationkey, n_name FROM %s ORDER BY n_nationkey DESC LIMIT 3", NATION);
+    testSameResults(sql);
+  }
+
+  private static void testSameResults(String sql) throws Exception {
+    testBuilder()
+      .sqlQuery(sql)
+      .ordered()
+      .optionSettingQueriesForTestQuery(ENABLE)
+      .optionSettingQueriesForBaseline(DISABLE)
+      .sqlBaselineQuery(sql)
+      .go();
+  }
+}
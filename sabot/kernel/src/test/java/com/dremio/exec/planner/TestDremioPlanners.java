@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.planner;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -77,6 +79,17 @@ public class TestDremioPlanners {
     }
   }
 
+  private static class CheapRel extends NoneRel {
+    public CheapRel(RelOptCluster cluster) {
+      super(cluster);
+    }
+
+    @Override public RelOptCost computeSelfCost(RelOptPlanner planner,
+        RelMetadataQuery mq) {
+      return planner.getCostFactory().makeTinyCost();
+    }
+  }
+
   private static class LoopRule extends RelOptRule {
     public LoopRule() {
       super(operand(NoneRel.class, none()));
@@ -98,18 +111,25 @@ public class TestDremioPlanners {
   public final ExpectedException expectedException = ExpectedException.none();
 
   public PlannerSettings getSettings(long timeoutMillis, int maxNodes) {
+    return getSettings(timeoutMillis, maxNodes, 0);
+  }
+
+  public PlannerSettings getSettings(long timeoutMillis, int maxNodes, long budgetMillis) {
     OptionManager optionManager = mock(OptionManager.class);
     when(optionManager.getOptionValidatorListing()).thenReturn(mock(OptionValidatorListing.class));
 
     OptionValue plannerTimeout = OptionValue.createLong(OptionType.QUERY, "planner.timeout_per_phase_ms", timeoutMillis);
     OptionValue plannerMaxNodes = OptionValue.createLong(OptionType.QUERY, "planner.max_nodes_per_plan", maxNodes);
+    OptionValue plannerBudget = OptionValue.createLong(OptionType.QUERY, "planner.planning_budget_ms", budgetMillis);
 
     OptionList optionList = new OptionList();
     optionList.add(plannerTimeout);
     optionList.add(plannerMaxNodes);
+    optionList.add(plannerBudget);
 
     when(optionManager.getOption("planner.timeout_per_phase_ms")).thenReturn(plannerTimeout);
     when(optionManager.getOption("planner.max_nodes_per_plan")).thenReturn(plannerMaxNodes);
+    when(optionManager.getOption("planner.planning_budget_ms")).thenReturn(plannerBudget);
     when(optionManager.getNonDefaultOptions()).thenReturn(optionList);
 
     return new PlannerSettings(DremioTest.DEFAULT_SABOT_CONFIG, optionManager, null);
@@ -149,6 +169,22 @@ public class TestDremioPlanners {
     checkCancelFlag(planner);
   }
 
+  @Test
+  public void testVolcanoPlannerBudget() {
+    PlannerSettings settings = getSettings(60_000, 25_000, 100);
+    DremioVolcanoPlanner planner = DremioVolcanoPlanner.of(new DremioCost.Factory(), settings, a -> {}, null);
+    planner.setPlannerPhase(PlannerPhase.LOGICAL);
+    planner.setNoneConventionHaveInfiniteCost(false);
+    planner.addRule(new LoopRule());
+
+    // the planner keeps finding new alternatives, but stops with the best one once over budget
+    RelOptCluster cluster = RelOptCluster.create(planner, new RexBuilder(SqlTypeFactoryImpl.INSTANCE));
+    planner.setRoot(new CheapRel(cluster));
+    assertTrue(planner.findBestExp() instanceof CheapRel);
+    assertTrue(settings.isCutShort(PlannerPhase.LOGICAL));
+    assertFalse(settings.isCutShort(PlannerPhase.PHYSICAL));
+  }
+
   private void checkCancelFlag(RelOptPlanner planner) {
     expectedException.expect(UserException.class);
     expectedException.expectMessage("Query was cancelled because planning time exceeded");
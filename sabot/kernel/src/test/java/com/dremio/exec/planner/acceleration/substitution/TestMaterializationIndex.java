@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.acceleration.substitution;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelVisitor;
+import org.apache.calcite.rel.core.TableScan;
+import org.junit.Test;
+
+import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.DremioMaterialization;
+import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link MaterializationIndex}
+ */
+public class TestMaterializationIndex {
+
+  @Test
+  public void testFindByTables() {
+    final CachedMaterializationDescriptor onA = descriptor(scan("a"), false);
+    final CachedMaterializationDescriptor onB = descriptor(scan("b"), false);
+    final CachedMaterializationDescriptor onAB = descriptor(join(scan("a"), scan("b")), false);
+    final CachedMaterializationDescriptor onC = descriptor(scan("c"), false);
+    final MaterializationIndex index = MaterializationIndex.of(ImmutableList.of(onA, onB, onAB, onC));
+    assertEquals(4, index.size());
+
+    assertEquals(ImmutableList.of(onA), find(index, scan("a")));
+    assertEquals(ImmutableList.of(onA, onB, onAB), find(index, join(scan("a"), scan("b"))));
+    assertEquals(ImmutableList.of(), find(index, scan("d")));
+  }
+
+  @Test
+  public void testDroppableJoins() {
+    final CachedMaterializationDescriptor snowflake = descriptor(join(scan("fact"), scan("dim")), true);
+    final MaterializationIndex index = MaterializationIndex.of(ImmutableList.of(snowflake));
+
+    // the join to the dimension table can be dropped from the materialization
+    assertEquals(ImmutableList.of(snowflake), find(index, scan("fact")));
+  }
+
+  private static List<MaterializationDescriptor> find(MaterializationIndex index, RelNode query) {
+    return index.find(MaterializationIndex.Signature.of(query));
+  }
+
+  private static CachedMaterializationDescriptor descriptor(RelNode queryRel, boolean snowflake) {
+    final DremioMaterialization materialization = mock(DremioMaterialization.class);
+    when(materialization.getQueryRel()).thenReturn(queryRel);
+    when(materialization.isSnowflake()).thenReturn(snowflake);
+    final CachedMaterializationDescriptor descriptor = mock(CachedMaterializationDescriptor.class);
+    when(descriptor.getMaterialization()).thenReturn(materialization);
+    return descriptor;
+  }
+
+  private static RelNode scan(String table) {
+    final RelOptTable relOptTable = mock(RelOptTable.class);
+    when(relOptTable.getQualifiedName()).thenReturn(ImmutableList.of("src", table));
+    final TableScan scan = mock(TableScan.class);
+    when(scan.getTable()).thenReturn(relOptTable);
+    return scan;
+  }
+
+  private static RelNode join(RelNode left, RelNode right) {
+    final RelNode join = mock(RelNode.class);
+    doAnswer(invocation -> {
+      final RelVisitor visitor = (RelVisitor) invocation.getArguments()[0];
+      visitor.visit(left, 0, join);
+      visitor.visit(right, 1, join);
+      return null;
+    }).when(join).childrenAccept(any(RelVisitor.class));
+    return join;
+  }
+}
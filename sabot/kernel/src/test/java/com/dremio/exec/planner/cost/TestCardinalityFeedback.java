@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.config.LogicalPlanPersistence;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.LegacyKVStore;
+import com.dremio.datastore.api.LegacyKVStoreProvider;
+import com.dremio.datastore.api.LegacyStoreCreationFunction;
+import com.dremio.exec.catalog.StoragePluginId;
+import com.dremio.exec.planner.physical.FilterPrel;
+import com.dremio.exec.planner.physical.HashJoinPrel;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.explain.PrelSequencer;
+import com.dremio.exec.planner.physical.explain.PrelSequencer.OpId;
+import com.dremio.exec.planner.types.JavaTypeFactoryImpl;
+import com.dremio.exec.proto.UserBitShared.MajorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.MinorFragmentProfile;
+import com.dremio.exec.proto.UserBitShared.OperatorProfile;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.proto.UserBitShared.QueryProfile;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.proto.UserBitShared.StreamProfile;
+import com.dremio.exec.server.options.DefaultOptionManager;
+import com.dremio.exec.server.options.OptionManagerWrapper;
+import com.dremio.exec.server.options.OptionValidatorListingImpl;
+import com.dremio.exec.server.options.SystemOptionManager;
+import com.dremio.exec.store.TableMetadata;
+import com.dremio.exec.store.sys.SystemPluginConf;
+import com.dremio.exec.store.sys.SystemScanPrel;
+import com.dremio.exec.store.sys.SystemTable;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.options.OptionManager;
+import com.dremio.options.OptionValidatorListing;
+import com.dremio.options.OptionValue;
+import com.dremio.resource.ClusterResourceInformation;
+import com.dremio.sabot.op.join.JoinUtils;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.capabilities.SourceCapabilities;
+import com.dremio.service.namespace.source.proto.SourceConfig;
+import com.dremio.test.DremioTest;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link CardinalityFeedback}
+ */
+public class TestCardinalityFeedback {
+  private static final RelTraitSet traits = RelTraitSet.createEmpty().plus(Prel.PHYSICAL);
+  private static final RelDataTypeFactory typeFactory = JavaTypeFactoryImpl.INSTANCE;
+  private static final RexBuilder rexBuilder = new RexBuilder(typeFactory);
+  private static final List<String> TABLE = ImmutableList.of("sys", "feedback");
+
+  private OptionManager optionManager;
+  private RelOptCluster cluster;
+
+  @Before
+  public void setup() throws Exception {
+    CardinalityFeedback.getInstance().clear();
+    final LegacyKVStoreProvider storeProvider = new LegacyKVStoreProvider() {
+      @Override
+      public <K, V, T extends LegacyKVStore<K, V>, U extends KVStore<K, V>>
+      T getStore(Class<? extends LegacyStoreCreationFunction<K, V, T, U>> creator) {
+        LegacyKVStore<?,?> store = mock(LegacyKVStore.class);
+        when(store.find()).thenReturn(Collections.emptyList());
+        return (T) store;
+      }
+
+      @Override
+      public void start() throws Exception {
+
+      }
+
+      @Override
+      public void close() throws Exception {
+
+      }
+    };
+    final OptionValidatorListing optionValidatorListing = new OptionValidatorListingImpl(DremioTest.CLASSPATH_SCAN_RESULT);
+    SystemOptionManager som = new SystemOptionManager(optionValidatorListing, new LogicalPlanPersistence(DremioTest.DEFAULT_SABOT_CONFIG, DremioTest.CLASSPATH_SCAN_RESULT), () -> storeProvider, false);
+    optionManager = OptionManagerWrapper.Builder.newBuilder()
+      .withOptionManager(new DefaultOptionManager(optionValidatorListing))
+      .withOptionManager(som)
+      .build();
+    som.start();
+    optionManager.setOption(OptionValue.createBoolean(OptionValue.OptionType.SYSTEM,
+      PlannerSettings.USE_CARDINALITY_FEEDBACK.getOptionName(), true));
+
+    ClusterResourceInformation info = mock(ClusterResourceInformation.class);
+    when(info.getExecutorNodeCount()).thenReturn(1);
+    PlannerSettings plannerSettings =
+      new PlannerSettings(DremioTest.DEFAULT_SABOT_CONFIG, optionManager, () -> info);
+    cluster = RelOptCluster.create(new VolcanoPlanner(plannerSettings), rexBuilder);
+    cluster.setMetadataProvider(DefaultRelMetadataProvider.INSTANCE);
+  }
+
+  @After
+  public void cleanup() {
+    CardinalityFeedback.getInstance().clear();
+  }
+
+  @Test
+  public void observedRowCount() throws Exception {
+    final Prel scan = newScan(500);
+    final RelNode filter = newFilter(scan, 5);
+    CardinalityFeedback.getInstance().record(TABLE, CardinalityFeedback.keyOf(filter), 42L);
+
+    assertEquals(42d, cluster.getMetadataQuery().getRowCount(newFilter(newScan(500), 5)), 0.0d);
+  }
+
+  @Test
+  public void otherFilter() throws Exception {
+    final Prel scan = newScan(500);
+    CardinalityFeedback.getInstance().record(TABLE, CardinalityFeedback.keyOf(newFilter(scan, 5)), 42L);
+
+    final RelNode otherFilter = newFilter(newScan(500), 6);
+    assertNotEquals(42d, cluster.getMetadataQuery().getRowCount(otherFilter), 0.0d);
+  }
+
+  @Test
+  public void disabled() throws Exception {
+    optionManager.setOption(OptionValue.createBoolean(OptionValue.OptionType.SYSTEM,
+      PlannerSettings.USE_CARDINALITY_FEEDBACK.getOptionName(), false));
+    final Prel scan = newScan(500);
+    CardinalityFeedback.getInstance().record(TABLE, CardinalityFeedback.keyOf(scan), 42L);
+
+    assertEquals(500d, cluster.getMetadataQuery().getRowCount(newScan(500)), 0.0d);
+  }
+
+  @Test
+  public void keys() throws Exception {
+    final Prel scan = newScan(500);
+    assertEquals(CardinalityFeedback.keyOf(newFilter(scan, 5)), CardinalityFeedback.keyOf(newFilter(newScan(500), 5)));
+    assertNotEquals(CardinalityFeedback.keyOf(newFilter(scan, 5)), CardinalityFeedback.keyOf(scan));
+    assertEquals(scan, CardinalityFeedback.scanOf(newFilter(scan, 5)));
+  }
+
+  @Test
+  public void recordBuildSide() throws Exception {
+    final CardinalityFeedback feedback = new CardinalityFeedback();
+    final CardinalityFeedback.Recorder recorder = new CardinalityFeedback.Recorder(feedback);
+    final HashJoinPrel join = newJoin(newScan(1_000), newFilter(newScan(500), 5));
+    recorder.finalPrel(join);
+
+    // the build side is the second input of the join, split across two minor fragments
+    final OpId joinId = PrelSequencer.getIdMap(join).get(join);
+    recorder.attemptCompletion(newResult(QueryState.COMPLETED, newProfile(joinId, 30, 12)));
+
+    assertEquals(Long.valueOf(42L), feedback.getRowCount(newFilter(newScan(500), 5)));
+    // the probe side isn't fully read before the join produces rows
+    assertNull(feedback.getRowCount(newScan(1_000)));
+  }
+
+  @Test
+  public void failedAttemptIsNotRecorded() throws Exception {
+    final CardinalityFeedback feedback = new CardinalityFeedback();
+    final CardinalityFeedback.Recorder recorder = new CardinalityFeedback.Recorder(feedback);
+    final HashJoinPrel join = newJoin(newScan(1_000), newFilter(newScan(500), 5));
+    recorder.finalPrel(join);
+
+    final OpId joinId = PrelSequencer.getIdMap(join).get(join);
+    recorder.attemptCompletion(newResult(QueryState.FAILED, newProfile(joinId, 30, 12)));
+
+    assertNull(feedback.getRowCount(newFilter(newScan(500), 5)));
+  }
+
+  @Test
+  public void missingOperatorIsNotRecorded() throws Exception {
+    final CardinalityFeedback feedback = new CardinalityFeedback();
+    final CardinalityFeedback.Recorder recorder = new CardinalityFeedback.Recorder(feedback);
+    final HashJoinPrel join = newJoin(newScan(1_000), newFilter(newScan(500), 5));
+    recorder.finalPrel(join);
+
+    final OpId joinId = PrelSequencer.getIdMap(join).get(join);
+    final OpId otherId = new OpId(joinId.getFragmentId(), joinId.getOpId() + 100);
+    recorder.attemptCompletion(newResult(QueryState.COMPLETED, newProfile(otherId, 30, 12)));
+
+    assertNull(feedback.getRowCount(newFilter(newScan(500), 5)));
+  }
+
+  private HashJoinPrel newJoin(RelNode probe, RelNode build) {
+    final int probeFields = probe.getRowType().getFieldCount();
+    final RelDataType joinRowType = typeFactory.createJoinType(probe.getRowType(), build.getRowType());
+    final RexNode condition = rexBuilder.makeCall(SqlStdOperatorTable.EQUALS,
+      rexBuilder.makeInputRef(joinRowType.getFieldList().get(0).getType(), 0),
+      rexBuilder.makeInputRef(joinRowType.getFieldList().get(probeFields).getType(), probeFields));
+    return HashJoinPrel.create(cluster, traits, probe, build, condition, JoinRelType.INNER,
+      JoinUtils.projectAll(joinRowType.getFieldCount()));
+  }
+
+  /**
+   * Profile of a query where the build side of the operator gets the given records in each of its minor fragments.
+   */
+  private static QueryProfile newProfile(OpId operator, long... buildRecords) {
+    final MajorFragmentProfile.Builder major = MajorFragmentProfile.newBuilder()
+      .setMajorFragmentId(operator.getFragmentId());
+    for (long records : buildRecords) {
+      major.addMinorFragmentProfile(MinorFragmentProfile.newBuilder()
+        .addOperatorProfile(OperatorProfile.newBuilder()
+          .setOperatorId(operator.getOpId())
+          .addInputProfile(StreamProfile.newBuilder().setRecords(1_000))
+          .addInputProfile(StreamProfile.newBuilder().setRecords(records))));
+    }
+    return QueryProfile.newBuilder()
+      .addFragmentProfile(major)
+      .build();
+  }
+
+  private static UserResult newResult(QueryState state, QueryProfile profile) {
+    return new UserResult(null, QueryId.getDefaultInstance(), state, profile, null, null, false);
+  }
+
+  private RelNode newFilter(Prel scan, int value) {
+    final RexNode condition = rexBuilder.makeCall(SqlStdOperatorTable.EQUALS,
+      rexBuilder.makeInputRef(scan, 0),
+      rexBuilder.makeExactLiteral(BigDecimal.valueOf(value)));
+    return FilterPrel.create(cluster, traits, scan, condition);
+  }
+
+  private Prel newScan(double rowCount) throws Exception {
+    TableMetadata metadata = mock(TableMetadata.class);
+    when(metadata.getName()).thenReturn(new NamespaceKey(TABLE));
+    when(metadata.getSchema()).thenReturn(SystemTable.VERSION.getRecordSchema());
+    when(metadata.getSplitRatio()).thenReturn(1.0d);
+    StoragePluginId pluginId = new StoragePluginId(new SourceConfig().setConfig(new SystemPluginConf().toBytesString()), new SystemPluginConf(), SourceCapabilities.NONE);
+    when(metadata.getStoragePluginId()).thenReturn(pluginId);
+    List<SchemaPath> columns = FluentIterable.from(SystemTable.VERSION.getRecordSchema()).transform(input -> SchemaPath.getSimplePath(input.getName())).toList();
+    final RelOptTable relOptTable = mock(RelOptTable.class);
+    when(relOptTable.getRowCount()).thenReturn(rowCount);
+    when(relOptTable.getQualifiedName()).thenReturn(TABLE);
+    return new SystemScanPrel(cluster, traits, relOptTable, metadata, columns, 1.0d, rowType());
+  }
+
+  private RelDataType rowType() {
+    return typeFactory.createStructType(
+        asList(typeFactory.createSqlType(SqlTypeName.INTEGER), typeFactory.createSqlType(SqlTypeName.DOUBLE)),
+        asList("intCol", "doubleCol")
+    );
+  }
+}
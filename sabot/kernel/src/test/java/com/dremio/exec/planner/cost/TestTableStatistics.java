@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.cost;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.plan.volcano.VolcanoPlanner;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.config.LogicalPlanPersistence;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.LegacyKVStore;
+import com.dremio.datastore.api.LegacyKVStoreProvider;
+import com.dremio.datastore.api.LegacyStoreCreationFunction;
+import com.dremio.exec.catalog.StoragePluginId;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.types.JavaTypeFactoryImpl;
+import com.dremio.exec.server.options.DefaultOptionManager;
+import com.dremio.exec.server.options.OptionManagerWrapper;
+import com.dremio.exec.server.options.OptionValidatorListingImpl;
+import com.dremio.exec.server.options.SystemOptionManager;
+import com.dremio.exec.store.TableMetadata;
+import com.dremio.exec.store.sys.SystemPluginConf;
+import com.dremio.exec.store.sys.SystemScanPrel;
+import com.dremio.exec.store.sys.SystemTable;
+import com.dremio.options.OptionManager;
+import com.dremio.options.OptionValidatorListing;
+import com.dremio.options.OptionValue;
+import com.dremio.proto.model.statistics.ColumnStatistics;
+import com.dremio.proto.model.statistics.TableStatistics;
+import com.dremio.resource.ClusterResourceInformation;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.capabilities.SourceCapabilities;
+import com.dremio.service.namespace.source.proto.SourceConfig;
+import com.dremio.test.DremioTest;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for the estimates based on the statistics computed by ANALYZE TABLE
+ */
+public class TestTableStatistics {
+  private static final RelTraitSet traits = RelTraitSet.createEmpty().plus(Prel.PHYSICAL);
+  private static final RelDataTypeFactory typeFactory = JavaTypeFactoryImpl.INSTANCE;
+  private static final RexBuilder rexBuilder = new RexBuilder(typeFactory);
+  private static final NamespaceKey TABLE = new NamespaceKey(ImmutableList.of("sys", "version"));
+
+  private OptionManager optionManager;
+  private RelOptCluster cluster;
+
+  @Before
+  public void setup() throws Exception {
+    final LegacyKVStoreProvider storeProvider = new LegacyKVStoreProvider() {
+      @Override
+      public <K, V, T extends LegacyKVStore<K, V>, U extends KVStore<K, V>>
+      T getStore(Class<? extends LegacyStoreCreationFunction<K, V, T, U>> creator) {
+        LegacyKVStore<?,?> store = mock(LegacyKVStore.class);
+        when(store.find()).thenReturn(Collections.emptyList());
+        return (T) store;
+      }
+
+      @Override
+      public void start() throws Exception {
+
+      }
+
+      @Override
+      public void close() throws Exception {
+
+      }
+    };
+    final OptionValidatorListing optionValidatorListing = new OptionValidatorListingImpl(DremioTest.CLASSPATH_SCAN_RESULT);
+    SystemOptionManager som = new SystemOptionManager(optionValidatorListing, new LogicalPlanPersistence(DremioTest.DEFAULT_SABOT_CONFIG, DremioTest.CLASSPATH_SCAN_RESULT), () -> storeProvider, false);
+    optionManager = OptionManagerWrapper.Builder.newBuilder()
+      .withOptionManager(new DefaultOptionManager(optionValidatorListing))
+      .withOptionManager(som)
+      .build();
+    som.start();
+
+    final TableStatistics statistics = new TableStatistics()
+      .setRowCount(2_000L)
+      .setColumnsList(ImmutableList.of(
+        new ColumnStatistics()
+          .setName("intCol")
+          .setNdv(100L)
+          .setNullCount(200L),
+        new ColumnStatistics()
+          .setName("doubleCol")
+          .setNdv(1_000L)
+          .setNullCount(0L)
+          .setMin(0d)
+          .setMax(100d)
+          .setHistogramBoundsList(ImmutableList.of(10d, 20d, 50d, 100d))));
+    final StatisticsService statisticsService = mock(StatisticsService.class);
+    when(statisticsService.getStatistics(TABLE)).thenReturn(statistics);
+
+    ClusterResourceInformation info = mock(ClusterResourceInformation.class);
+    when(info.getExecutorNodeCount()).thenReturn(1);
+    PlannerSettings plannerSettings =
+      new PlannerSettings(DremioTest.DEFAULT_SABOT_CONFIG, optionManager, () -> info);
+    plannerSettings.setStatisticsService(statisticsService);
+    cluster = RelOptCluster.create(new VolcanoPlanner(plannerSettings), rexBuilder);
+    cluster.setMetadataProvider(DefaultRelMetadataProvider.INSTANCE);
+  }
+
+  @Test
+  public void rowCount() throws Exception {
+    final Prel scan = newScan(500, 1.0);
+    assertEquals(2_000d, cluster.getMetadataQuery().getRowCount(scan), 0.0d);
+
+    // pruned partitions are accounted for
+    final Prel prunedScan = newScan(500, 0.5);
+    assertEquals(1_000d, cluster.getMetadataQuery().getRowCount(prunedScan), 0.0d);
+  }
+
+  @Test
+  public void disabled() throws Exception {
+    optionManager.setOption(OptionValue.createBoolean(OptionValue.OptionType.SYSTEM,
+      PlannerSettings.USE_TABLE_STATISTICS.getOptionName(), false));
+    final Prel scan = newScan(500, 1.0);
+    assertEquals(500d, cluster.getMetadataQuery().getRowCount(scan), 0.0d);
+  }
+
+  @Test
+  public void equalitySelectivity() throws Exception {
+    final Prel scan = newScan(500, 1.0);
+    final RexNode condition = rexBuilder.makeCall(SqlStdOperatorTable.EQUALS,
+      rexBuilder.makeInputRef(scan, 0),
+      rexBuilder.makeExactLiteral(BigDecimal.valueOf(5)));
+
+    // 10% of nulls, then one value out of 100
+    assertEquals(0.9 / 100, cluster.getMetadataQuery().getSelectivity(scan, condition), 1e-9);
+  }
+
+  @Test
+  public void rangeSelectivity() throws Exception {
+    final Prel scan = newScan(500, 1.0);
+    final RelMetadataQuery mq = cluster.getMetadataQuery();
+    final RexNode lessThan = rexBuilder.makeCall(SqlStdOperatorTable.LESS_THAN,
+      rexBuilder.makeInputRef(scan, 1),
+      rexBuilder.makeApproxLiteral(BigDecimal.valueOf(35)));
+
+    // two full buckets out of four, and half of the third one
+    assertEquals(2.5 / 4, mq.getSelectivity(scan, lessThan), 1e-9);
+
+    final RexNode greaterThan = rexBuilder.makeCall(SqlStdOperatorTable.GREATER_THAN,
+      rexBuilder.makeApproxLiteral(BigDecimal.valueOf(35)),
+      rexBuilder.makeInputRef(scan, 1));
+    assertEquals(2.5 / 4, mq.getSelectivity(scan, greaterThan), 1e-9);
+
+    final RexNode both = rexBuilder.makeCall(SqlStdOperatorTable.AND, lessThan,
+      rexBuilder.makeCall(SqlStdOperatorTable.IS_NULL, rexBuilder.makeInputRef(scan, 0)));
+    assertEquals(2.5 / 4 * 0.1, mq.getSelectivity(scan, both), 1e-9);
+  }
+
+  @Test
+  public void distinctRowCount() throws Exception {
+    final Prel scan = newScan(500, 1.0);
+    // 100 values and null
+    assertEquals(101d, cluster.getMetadataQuery().getDistinctRowCount(scan, ImmutableBitSet.of(0), null), 0.5d);
+  }
+
+  private Prel newScan(double rowCount, double splitRatio) throws Exception {
+    TableMetadata metadata = mock(TableMetadata.class);
+    when(metadata.getName()).thenReturn(TABLE);
+    when(metadata.getSchema()).thenReturn(SystemTable.VERSION.getRecordSchema());
+    when(metadata.getSplitRatio()).thenReturn(splitRatio);
+    StoragePluginId pluginId = new StoragePluginId(new SourceConfig().setConfig(new SystemPluginConf().toBytesString()), new SystemPluginConf(), SourceCapabilities.NONE);
+    when(metadata.getStoragePluginId()).thenReturn(pluginId);
+    List<SchemaPath> columns = FluentIterable.from(SystemTable.VERSION.getRecordSchema()).transform(input -> SchemaPath.getSimplePath(input.getName())).toList();
+    final RelOptTable relOptTable = mock(RelOptTable.class);
+    when(relOptTable.getRowCount()).thenReturn(rowCount);
+    return new SystemScanPrel(cluster, traits, relOptTable, metadata, columns, 1.0d, rowType());
+  }
+
+  private RelDataType rowType() {
+    return typeFactory.createStructType(
+        asList(typeFactory.createSqlType(SqlTypeName.INTEGER), typeFactory.createSqlType(SqlTypeName.DOUBLE)),
+        asList("intCol", "doubleCol")
+    );
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.logical;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.planner.physical.PlannerSettings;
+
+public class TestAggregateJoinTransposeRule extends PlanTestBase {
+
+  private static final String ENABLE = String.format("alter session set \"%s\" = true", PlannerSettings.ENABLE_AGG_JOIN_TRANSPOSE.getOptionName());
+  private static final String DISABLE = String.format("alter session set \"%s\" = false", PlannerSettings.ENABLE_AGG_JOIN_TRANSPOSE.getOptionName());
+
+  private static final String ROLLUP = "SELECT c.c_mktsegment, sum(o.o_totalprice) AS total, count(*) AS cnt, " +
+    "min(o.o_orderdate) AS first_order, max(o.o_orderdate) AS last_order " +
+    "FROM cp.\"tpch/orders.parquet\" o JOIN cp.\"tpch/customer.parquet\" c ON o.o_custkey = c.c_custkey " +
+    "GROUP BY c.c_mktsegment";
+
+  @AfterClass
+  public static void tearDown() throws Exception {
+    test(DISABLE);
+  }
+
+  @Test
+  public void testPartialAggregateBelowJoin() throws Exception {
+    test(ENABLE);
+    testPlanMatchingPatterns(
+      ROLLUP,
+      new String[] { "HashJoin(.*\n)+.*HashAgg" },
+      new String[] {});
+  }
+
+  @Test
+  public void testSameResults() throws Exception {
+    testBuilder()
+      .sqlQuery(ROLLUP)
+      .unOrdered()
+      .approximateEquality()
+      .optionSettingQueriesForTestQuery(ENABLE)
+      .optionSettingQueriesForBaseline(DISABLE)
+      .sqlBaselineQuery(ROLLUP)
+      .go();
+  }
+
+  @Test
+  public void testGroupByBothSides() throws Exception {
+    final String sql = "SELECT c.c_nationkey, o.o_orderstatus, sum(o.o_totalprice) AS total, count(o.o_comment) AS cnt " +
+      "FROM cp.\"tpch/customer.parquet\" c JOIN cp.\"tpch/orders.parquet\" o ON c.c_custkey = o.o_custkey " +
+      "GROUP BY c.c_nationkey, o.o_orderstatus";
+    testBuilder()
+      .sqlQuery(sql)
+      .unOrdered()
+      .approximateEquality()
+      .optionSettingQueriesForTestQuery(ENABLE)
+      .optionSettingQueriesForBaseline(DISABLE)
+      .sqlBaselineQuery(sql)
+      .go();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.dialect.CalciteSqlDialect;
+import org.junit.Test;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.planner.cost.StatisticsService;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.handlers.direct.AnalyzeTableStatisticsHandler;
+import com.dremio.exec.planner.sql.handlers.direct.SimpleCommandResult;
+import com.dremio.exec.planner.sql.parser.SqlAnalyzeTableStatistics;
+import com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.sys.accel.AccelerationManager;
+import com.dremio.service.namespace.NamespaceKey;
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for ANALYZE TABLE ... COMPUTE STATISTICS, from parsing to the request sent to the statistics service.
+ */
+public class TestSQLAnalyzeTableStatistics {
+  private static final NamespaceKey TABLE = new NamespaceKey(Arrays.asList("src", "tbl"));
+  private static final BatchSchema SCHEMA = BatchSchema.newBuilder()
+    .addField(CompleteType.BIGINT.toField("id"))
+    .addField(CompleteType.VARCHAR.toField("name"))
+    .build();
+
+  private final ParserConfig parserConfig = new ParserConfig(ParserConfig.QUOTING, 100,
+    PlannerSettings.FULL_NESTED_SCHEMA_SUPPORT.getDefault().getBoolVal());
+
+  @Test
+  public void testParseAllColumns() {
+    final SqlNode sqlNode = SqlConverter.parseSingleStatementImpl("ANALYZE TABLE src.tbl COMPUTE STATISTICS",
+      parserConfig, false);
+    assertTrue(sqlNode.isA(Sets.immutableEnumSet(SqlKind.OTHER_DDL)));
+    final SqlAnalyzeTableStatistics analyze = (SqlAnalyzeTableStatistics) sqlNode;
+    assertEquals(Arrays.asList("src", "tbl"), analyze.getTblName().names);
+    assertTrue(analyze.getColumns().isEmpty());
+  }
+
+  @Test
+  public void testParseColumns() {
+    final SqlNode sqlNode = SqlConverter.parseSingleStatementImpl(
+      "ANALYZE TABLE src.tbl COMPUTE STATISTICS FOR COLUMNS (id, name)", parserConfig, false);
+    final SqlAnalyzeTableStatistics analyze = (SqlAnalyzeTableStatistics) sqlNode;
+    assertEquals(Arrays.asList("id", "name"), analyze.getColumns());
+
+    // unparsed statement parses back to the same command
+    final SqlAnalyzeTableStatistics reparsed = (SqlAnalyzeTableStatistics) parse(
+      sqlNode.toSqlString(CalciteSqlDialect.DEFAULT).getSql());
+    assertEquals(analyze.getTblName().names, reparsed.getTblName().names);
+    assertEquals(analyze.getColumns(), reparsed.getColumns());
+  }
+
+  @Test
+  public void testParseMissingStatisticsKeyword() {
+    try {
+      SqlConverter.parseSingleStatementImpl("ANALYZE TABLE src.tbl COMPUTE", parserConfig, false);
+      fail("parsing should fail");
+    } catch (UserException e) {
+      assertEquals(ErrorType.PARSE, e.getErrorType());
+    }
+  }
+
+  @Test
+  public void testHandlerRequestsStatistics() throws Exception {
+    final StatisticsService statisticsService = mock(StatisticsService.class);
+    when(statisticsService.requestStatistics(TABLE, Collections.singletonList("ID"))).thenReturn("job1");
+
+    final List<SimpleCommandResult> results = newHandler(statisticsService)
+      .toResult("", parse("ANALYZE TABLE src.tbl COMPUTE STATISTICS FOR COLUMNS (ID)"));
+
+    assertEquals(1, results.size());
+    assertTrue(results.get(0).ok);
+    assertTrue(results.get(0).summary.contains("job1"));
+    verify(statisticsService).requestStatistics(TABLE, Collections.singletonList("ID"));
+  }
+
+  @Test
+  public void testHandlerRejectsUnknownColumns() throws Exception {
+    final StatisticsService statisticsService = mock(StatisticsService.class);
+    try {
+      newHandler(statisticsService).toResult("", parse("ANALYZE TABLE src.tbl COMPUTE STATISTICS FOR COLUMNS (id, age)"));
+      fail("analyzing an unknown column should fail");
+    } catch (UserException e) {
+      assertEquals(ErrorType.VALIDATION, e.getErrorType());
+      assertTrue(e.getMessage().contains("age"));
+    }
+    verify(statisticsService, never()).requestStatistics(any(NamespaceKey.class), anyListOf(String.class));
+  }
+
+  private SqlNode parse(String sql) {
+    return SqlConverter.parseSingleStatementImpl(sql, parserConfig, false);
+  }
+
+  private static AnalyzeTableStatisticsHandler newHandler(StatisticsService statisticsService) {
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getPath()).thenReturn(TABLE);
+    when(table.getSchema()).thenReturn(SCHEMA);
+
+    final Catalog catalog = mock(Catalog.class);
+    when(catalog.resolveSingle(TABLE)).thenReturn(TABLE);
+    when(catalog.getTable(TABLE)).thenReturn(table);
+
+    final AccelerationManager accelerationManager = mock(AccelerationManager.class);
+    when(accelerationManager.unwrap(StatisticsService.class)).thenReturn(statisticsService);
+    return new AnalyzeTableStatisticsHandler(catalog, accelerationManager);
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DataFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.types.Types.NestedField;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link IcebergSnapshotDiff}
+ */
+public class TestIcebergSnapshotDiff {
+  private static final Schema SCHEMA = new Schema(NestedField.optional(1, "id", Types.IntegerType.get()));
+
+  @Rule
+  public final TemporaryFolder tempDir = new TemporaryFolder();
+
+  private Table table;
+
+  @Before
+  public void setUp() throws Exception {
+    final Configuration conf = new Configuration();
+    conf.set("fs.default.name", "local");
+    final File root = tempDir.newFolder();
+    table = new HadoopTables(conf).create(SCHEMA, PartitionSpec.unpartitioned(), root.getAbsolutePath());
+  }
+
+  private static DataFile dataFile(String path) {
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+      .withPath(path)
+      .withFileSizeInBytes(100)
+      .withRecordCount(10)
+      .withFormat(FileFormat.PARQUET)
+      .build();
+  }
+
+  private long currentSnapshotId() {
+    table.refresh();
+    return table.currentSnapshot().snapshotId();
+  }
+
+  @Test
+  public void testAppends() {
+    table.newFastAppend().appendFile(dataFile("/data/f1.parquet")).commit();
+    final long previous = currentSnapshotId();
+    table.newFastAppend().appendFile(dataFile("/data/f2.parquet")).appendFile(dataFile("/data/f3.parquet")).commit();
+    table.newFastAppend().appendFile(dataFile("/data/f4.parquet")).commit();
+    final long current = currentSnapshotId();
+
+    final IcebergSnapshotDiff diff = IcebergSnapshotDiff.of(table, previous, current);
+    assertTrue(diff.isAppendOnly());
+    assertEquals(current, diff.getSnapshotId());
+    assertEquals(ImmutableSet.of("/data/f2.parquet", "/data/f3.parquet", "/data/f4.parquet"), diff.getAddedFiles());
+
+    // nothing was committed since
+    assertTrue(IcebergSnapshotDiff.of(table, current, current).getAddedFiles().isEmpty());
+  }
+
+  @Test
+  public void testDelete() {
+    final DataFile f1 = dataFile("/data/f1.parquet");
+    table.newFastAppend().appendFile(f1).commit();
+    final long previous = currentSnapshotId();
+    table.newFastAppend().appendFile(dataFile("/data/f2.parquet")).commit();
+    table.newDelete().deleteFile(f1).commit();
+
+    assertFalse(IcebergSnapshotDiff.of(table, previous, currentSnapshotId()).isAppendOnly());
+  }
+
+  @Test
+  public void testUnknownPreviousSnapshot() {
+    table.newFastAppend().appendFile(dataFile("/data/f1.parquet")).commit();
+
+    assertFalse(IcebergSnapshotDiff.of(table, -1L, currentSnapshotId()).isAppendOnly());
+  }
+}
@@ -17,25 +17,21 @@ package com.dremio.exec.work.batch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
-import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.doAnswer;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 import javax.inject.Provider;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
-import org.junit.Assert;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.invocation.InvocationOnMock;
-import org.mockito.stubbing.Answer;
 
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.utils.protos.ExternalIdHelper;
@@ -44,10 +40,11 @@ import com.dremio.exec.ExecTest;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
 import com.dremio.exec.proto.UserBitShared.QueryId;
-import com.dremio.sabot.exec.fragment.FragmentWorkQueue;
 import com.dremio.sabot.exec.rpc.AckSender;
 import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.sabot.op.receiver.RawFragmentBatchProvider;
 import com.dremio.sabot.op.receiver.SpoolingRawBatchBuffer;
+import com.dremio.sabot.op.receiver.SpoolingRawBatchBuffer.SpoolingStats;
 import com.dremio.sabot.threads.sharedres.SharedResource;
 import com.dremio.service.scheduler.SchedulerService;
 import com.dremio.service.spill.DefaultSpillServiceOptions;
@@ -68,21 +65,23 @@ public class TestSpoolingBuffer extends ExecTest {
   @Rule
   public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
 
+  private static ExecutorService ioExecutor;
+
+  @BeforeClass
+  public static void setupIoExecutor() {
+    ioExecutor = SpoolingRawBatchBuffer.newIoExecutor(SabotConfig.create());
+  }
+
+  @AfterClass
+  public static void shutdownIoExecutor() {
+    ioExecutor.shutdownNow();
+  }
+
   @Test
   public void testWriteThenRead() throws Exception {
     SharedResource resource = mock(SharedResource.class);
     QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
     FragmentHandle handle = FragmentHandle.newBuilder().setMajorFragmentId(0).setMinorFragmentId(0).setQueryId(queryId).build();
-    FragmentWorkQueue queue = mock(FragmentWorkQueue.class);
-    final ExecutorService executorService = Executors.newFixedThreadPool(1);
-    doAnswer(new Answer<Void>() {
-      @Override
-      public Void answer(InvocationOnMock invocationOnMock) throws Throwable {
-        Runnable work = invocationOnMock.getArgumentAt(0, Runnable.class);
-        executorService.submit(work);
-        return null;
-      }
-    }).when(queue).put(any(Runnable.class));
 
     SabotConfig config = SabotConfig.create();
     final SchedulerService schedulerService = mock(SchedulerService.class);
@@ -95,7 +94,7 @@ public class TestSpoolingBuffer extends ExecTest {
     });
 
     try (BufferAllocator spoolingAllocator = allocatorRule.newAllocator("test-spooling-buffer", 0, Long.MAX_VALUE);
-      SpoolingRawBatchBuffer buffer = new SpoolingRawBatchBuffer(resource, config, queue, handle, spillService, spoolingAllocator, 1, 0, 0)) {
+      SpoolingRawBatchBuffer buffer = new SpoolingRawBatchBuffer(resource, config, handle, spillService, ioExecutor, spoolingAllocator, 1, 0, 0)) {
 
       for (int i = 0; i < numBatchesToEnqueuePerIteration; i++) {
         try (RawFragmentBatch batch = newBatch(i)) {
@@ -103,10 +102,7 @@ public class TestSpoolingBuffer extends ExecTest {
         }
       }
 
-      executorService.shutdown();
-      if (!executorService.awaitTermination(45, TimeUnit.SECONDS)) {
-        Assert.fail("Timed out while waiting for executor termination");
-      }
+      buffer.drainIo();
 
       // checks that the batches have been written to disk and are no longer in memory
       assertEquals(6 * batchAllocateSize, allocator.getAllocatedMemory());
@@ -115,9 +111,17 @@ public class TestSpoolingBuffer extends ExecTest {
         RawFragmentBatch batch = buffer.getNext();
         checkBatch(batch, i);
         batch.close();
+        // let the read ahead of the next batches complete
+        buffer.drainIo();
       }
 
       assertNull(buffer.getNext());
+
+      // every spooled batch but the head of the queue has been read back ahead of time
+      final SpoolingStats stats = SpoolingStats.of(new RawFragmentBatchProvider[] {buffer});
+      assertTrue(stats.getBatchesSpooled() > 0);
+      assertEquals(stats.getBatchesSpooled(), stats.getPrefetchHits() + stats.getPrefetchMisses());
+      assertTrue(stats.getPrefetchMisses() <= 1);
     }
 
   }
@@ -127,20 +131,6 @@ public class TestSpoolingBuffer extends ExecTest {
     SharedResource resource = mock(SharedResource.class);
     QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
     FragmentHandle handle = FragmentHandle.newBuilder().setMajorFragmentId(0).setMinorFragmentId(0).setQueryId(queryId).build();
-    FragmentWorkQueue queue = mock(FragmentWorkQueue.class);
-    // Use ThreadPoolExecutor instead of Executors to be able to specify a BlockingQueue that can tell the count of
-    // active items still pending.  This count is required to be able to wait for the queue to drain before reading
-    // the buffers in each without shutting down the ExecutorService completely.
-    final ThreadPoolExecutor executorService = new ThreadPoolExecutor(1, 1, 0L,
-      TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
-    doAnswer(new Answer<Void>() {
-      @Override
-      public Void answer(InvocationOnMock invocationOnMock) throws Throwable {
-        Runnable work = invocationOnMock.getArgumentAt(0, Runnable.class);
-        executorService.submit(work);
-        return null;
-      }
-    }).when(queue).put(any(Runnable.class));
 
     SabotConfig config = SabotConfig.create();
     final SchedulerService schedulerService = mock(SchedulerService.class);
@@ -153,7 +143,7 @@ public class TestSpoolingBuffer extends ExecTest {
       });
 
     try (BufferAllocator spoolingAllocator = allocatorRule.newAllocator("test-spooling-buffer", 0, Long.MAX_VALUE);
-         SpoolingRawBatchBuffer buffer = new SpoolingRawBatchBuffer(resource, config, queue, handle, spillService, spoolingAllocator, 1, 0, 0)) {
+         SpoolingRawBatchBuffer buffer = new SpoolingRawBatchBuffer(resource, config, handle, spillService, ioExecutor, spoolingAllocator, 1, 0, 0)) {
 
       RawFragmentBatch nextReadBatch;
       int nBatches = 0, readCount;
@@ -165,11 +155,8 @@ public class TestSpoolingBuffer extends ExecTest {
           }
         }
 
-        while (executorService.getQueue().size() != 0) {
-          // Wait for active items in ExecutorService to go to zero so that we are sure that all enqueued buffers
-          // have been able to finish spooling and sendOk().
-          Thread.sleep(100);
-        }
+        // wait for all the enqueued batches to be spooled
+        buffer.drainIo();
 
         readCount = 0;
         while (readCount++ < numBatchesToReadPerIteration && (nextReadBatch = buffer.getNext()) != null) {
@@ -179,10 +166,7 @@ public class TestSpoolingBuffer extends ExecTest {
         }
       }
 
-      executorService.shutdown();
-      if (!executorService.awaitTermination(45, TimeUnit.SECONDS)) {
-        Assert.fail("Timed out while waiting for executor termination");
-      }
+      buffer.drainIo();
 
       while (nBatches < totalBatches && (nextReadBatch = buffer.getNext()) != null) {
         checkBatch(nextReadBatch, nBatches++);
@@ -201,20 +185,6 @@ public class TestSpoolingBuffer extends ExecTest {
     SharedResource resource = mock(SharedResource.class);
     QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
     FragmentHandle handle = FragmentHandle.newBuilder().setMajorFragmentId(0).setMinorFragmentId(0).setQueryId(queryId).build();
-    FragmentWorkQueue queue = mock(FragmentWorkQueue.class);
-    // Use ThreadPoolExecutor instead of Executors to be able to specify a BlockingQueue that can tell the count of
-    // active items still pending.  This count is required to be able to wait for the queue to drain before reading
-    // the buffers in each without shutting down the ExecutorService completely.
-    final ThreadPoolExecutor executorService = new ThreadPoolExecutor(1, 1, 0L,
-      TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
-    doAnswer(new Answer<Void>() {
-      @Override
-      public Void answer(InvocationOnMock invocationOnMock) throws Throwable {
-        Runnable work = invocationOnMock.getArgumentAt(0, Runnable.class);
-        executorService.submit(work);
-        return null;
-      }
-    }).when(queue).put(any(Runnable.class));
 
     SabotConfig config = SabotConfig.create();
     final SchedulerService schedulerService = mock(SchedulerService.class);
@@ -227,7 +197,7 @@ public class TestSpoolingBuffer extends ExecTest {
       });
 
     try (BufferAllocator spoolingAllocator = allocatorRule.newAllocator("test-spooling-buffer", 0, Long.MAX_VALUE);
-      SpoolingRawBatchBuffer buffer = new SpoolingRawBatchBuffer(resource, config, queue, handle, spillService, spoolingAllocator, 1, 0, 0)) {
+      SpoolingRawBatchBuffer buffer = new SpoolingRawBatchBuffer(resource, config, handle, spillService, ioExecutor, spoolingAllocator, 1, 0, 0)) {
       RawFragmentBatch nextReadBatch;
       int nBatches = 0, readCount;
 
@@ -239,14 +209,56 @@ public class TestSpoolingBuffer extends ExecTest {
           }
         }
       }
-      executorService.shutdown();
-      if (!executorService.awaitTermination(45, TimeUnit.SECONDS)) {
-        Assert.fail("Timed out while waiting for executor termination");
-      }
+      buffer.drainIo();
     }
 
   }
 
+  @Test(timeout = 60_000)
+  public void testCloseDoesNotWaitForPendingWrites() throws Exception {
+    SharedResource resource = mock(SharedResource.class);
+    QueryId queryId = ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
+    FragmentHandle handle = FragmentHandle.newBuilder().setMajorFragmentId(0).setMinorFragmentId(0).setQueryId(queryId).build();
+
+    SabotConfig config = SabotConfig.create();
+    final SchedulerService schedulerService = mock(SchedulerService.class);
+    final SpillService spillService = new SpillServiceImpl(DremioConfig.create(null, config), new DefaultSpillServiceOptions(),
+      new Provider<SchedulerService>() {
+        @Override
+        public SchedulerService get() {
+          return schedulerService;
+        }
+      });
+
+    // the only IO thread is busy until the buffer is closed
+    final ExecutorService blockedExecutor = Executors.newSingleThreadExecutor();
+    final CountDownLatch unblock = new CountDownLatch(1);
+    blockedExecutor.submit(() -> {
+      unblock.await();
+      return null;
+    });
+
+    try (BufferAllocator spoolingAllocator = allocatorRule.newAllocator("test-spooling-buffer", 0, Long.MAX_VALUE)) {
+      final SpoolingRawBatchBuffer buffer = new SpoolingRawBatchBuffer(resource, config, handle, spillService,
+        blockedExecutor, spoolingAllocator, 1, 0, 0);
+      for (int i = 0; i < numBatchesToEnqueuePerIteration; i++) {
+        try (RawFragmentBatch batch = newBatch(i)) {
+          buffer.enqueue(batch);
+        }
+      }
+
+      buffer.close();
+      // batches waiting to be spooled are released without being written
+      assertEquals(0, allocator.getAllocatedMemory());
+
+      unblock.countDown();
+      buffer.drainIo();
+    } finally {
+      unblock.countDown();
+      blockedExecutor.shutdownNow();
+    }
+  }
+
   private AckSender ackSender = mock(AckSender.class);
 
   private RawFragmentBatch newBatch(int index) {
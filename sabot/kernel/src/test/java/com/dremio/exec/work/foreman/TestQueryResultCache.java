@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.work.foreman;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.UserBitShared.QueryData;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.store.sys.ResultCacheInfo;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests for {@link QueryResultCache}
+ */
+public class TestQueryResultCache {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final QueryResultCache cache = new QueryResultCache();
+  private FileSystem fs;
+  private Path dir;
+  private QueryResultCache.Storage storage;
+
+  @Before
+  public void setUp() throws Exception {
+    fs = HadoopFileSystem.getLocal(new Configuration());
+    dir = Path.of(folder.getRoot().toURI()).resolve("result_cache");
+    storage = new QueryResultCache.Storage(fs, dir);
+  }
+
+  @Test
+  public void testServeCapturedResult() throws Exception {
+    final QueryResultCache.Capture capture = newCapture("key", 1024);
+    capture.add(header(queryId(1), 2), body("ab"));
+    capture.add(header(queryId(1), 0), null);
+    cache.put(capture, 1024);
+
+    final List<QueryWritableBatch> batches = get("key", queryId(2));
+    assertEquals(2, batches.size());
+    // the batches are sent as the ones of the new query
+    assertEquals(queryId(2), batches.get(0).getHeader().getQueryId());
+    assertEquals(2, batches.get(0).getHeader().getRowCount());
+    assertArrayEquals("ab".getBytes(StandardCharsets.UTF_8), bytes(batches.get(0).getBuffers()[0]));
+    assertEquals(0, batches.get(1).getBuffers().length);
+
+    assertNull(cache.get(storage, "other", queryId(3)));
+
+    final ResultCacheInfo info = cache.getInfo(NodeEndpoint.newBuilder().setAddress("localhost").build());
+    assertEquals(1, info.entries);
+    assertEquals(1, info.hits);
+    assertEquals(1, info.misses);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEvicted() throws Exception {
+    final long entrySize = put("a", 10_000);
+    put("b", 10_000);
+    // a is used, b is the least recently used result
+    get("a", queryId(1));
+    put("c", 2 * entrySize);
+
+    assertEquals(1, get("a", queryId(1)).size());
+    assertNull(cache.get(storage, "b", queryId(1)));
+    assertEquals(1, get("c", queryId(1)).size());
+    assertEquals(1, cache.getInfo(NodeEndpoint.getDefaultInstance()).evictions);
+  }
+
+  @Test
+  public void testLargeResultNotCached() {
+    final QueryResultCache.Capture capture = newCapture("key", 8);
+    capture.add(header(queryId(1), 10), body("0123456789"));
+    cache.put(capture, 1024);
+
+    assertNull(cache.get(storage, "key", queryId(2)));
+    assertEquals(0, cache.getInfo(NodeEndpoint.getDefaultInstance()).entries);
+    assertEquals(0, cache.getCapturedBytes());
+  }
+
+  @Test
+  public void testCapturedBytesLimitSharedByQueries() throws Exception {
+    final QueryResultCache.Capture first = cache.newCapture(storage, "first", 1024, 200);
+    final QueryResultCache.Capture second = cache.newCapture(storage, "second", 1024, 200);
+    first.add(header(queryId(1), 100), body(Strings.repeat("x", 100)));
+    // each result is below its own limit, but both together are above the limit of the cache
+    second.add(header(queryId(2), 100), body(Strings.repeat("y", 100)));
+    cache.put(first, 1024);
+    cache.put(second, 1024);
+
+    assertEquals(1, get("first", queryId(3)).size());
+    assertNull(cache.get(storage, "second", queryId(3)));
+    assertEquals(0, cache.getCapturedBytes());
+  }
+
+  @Test
+  public void testDiscardedCaptureNotCached() throws Exception {
+    final QueryResultCache.Capture capture = newCapture("key", 1024);
+    capture.add(header(queryId(1), 1), body("x"));
+    assertTrue(cache.getCapturedBytes() > 0);
+    capture.discard();
+    cache.put(capture, 1024);
+
+    assertNull(cache.get(storage, "key", queryId(2)));
+    assertEquals(0, cache.getCapturedBytes());
+    assertEquals(0, fileCount());
+  }
+
+  @Test
+  public void testEvictedResultServedUntilClosed() throws Exception {
+    final long entrySize = put("a", 10_000);
+    try (QueryResultCache.CachedResult result = cache.get(storage, "a", queryId(2))) {
+      put("b", entrySize);
+      assertNull(cache.get(storage, "a", queryId(3)));
+      // the evicted result is still read by the query it is served to
+      assertEquals(1, result.getBatchCount());
+      assertEquals(1, result.next().getHeader().getRowCount());
+      assertFalse(result.hasNext());
+      assertEquals(2, fileCount());
+    }
+    assertEquals(1, fileCount());
+  }
+
+  private QueryResultCache.Capture newCapture(String key, long maxSize) {
+    return cache.newCapture(storage, key, maxSize, Long.MAX_VALUE);
+  }
+
+  private List<QueryWritableBatch> get(String key, QueryId queryId) throws IOException {
+    try (QueryResultCache.CachedResult result = cache.get(storage, key, queryId)) {
+      final List<QueryWritableBatch> batches = new ArrayList<>();
+      while (result.hasNext()) {
+        batches.add(result.next());
+      }
+      return batches;
+    }
+  }
+
+  private int fileCount() throws IOException {
+    // skip the checksum files of the local file system
+    try (DirectoryStream<FileAttributes> files = fs.list(dir, path -> !path.getName().startsWith("."))) {
+      return Iterables.size(files);
+    }
+  }
+
+  private long put(String key, long maxSize) {
+    final QueryResultCache.Capture capture = newCapture(key, 1024);
+    capture.add(header(queryId(1), 1), body("x"));
+    cache.put(capture, maxSize);
+    return cache.getInfo(NodeEndpoint.getDefaultInstance()).size_bytes / cache.getInfo(NodeEndpoint.getDefaultInstance()).entries;
+  }
+
+  private static QueryData header(QueryId queryId, int rowCount) {
+    return QueryData.newBuilder()
+      .setQueryId(queryId)
+      .setRowCount(rowCount)
+      .build();
+  }
+
+  private static ByteBuf body(String data) {
+    return Unpooled.wrappedBuffer(data.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static byte[] bytes(ByteBuf buf) {
+    final byte[] bytes = new byte[buf.readableBytes()];
+    buf.getBytes(buf.readerIndex(), bytes);
+    return bytes;
+  }
+
+  private static QueryId queryId(long id) {
+    return QueryId.newBuilder().setPart1(id).setPart2(id).build();
+  }
+}
@@ -189,7 +189,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(25, tables.size());
+    assertEquals(27, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -200,12 +200,14 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "boot", iterator.next());
     verifyTable("sys", "dependencies", iterator.next());
     verifyTable("sys", "fragments", iterator.next());
+    verifyTable("sys", "jobs_archive", iterator.next());
     verifyTable("sys", "materializations", iterator.next());
     verifyTable("sys", "memory", iterator.next());
     verifyTable("sys", "nodes", iterator.next());
     verifyTable("sys", "options", iterator.next());
     verifyTable("sys", "reflections", iterator.next());
     verifyTable("sys", "refreshes", iterator.next());
+    verifyTable("sys", "result_cache", iterator.next());
     verifyTable("sys", "services", iterator.next());
     verifyTable("sys", "slicing_threads", iterator.next());
     verifyTable("sys", "threads", iterator.next());
@@ -240,7 +242,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(24, tables.size());
+    assertEquals(26, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -251,12 +253,14 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "boot", iterator.next());
     verifyTable("sys", "dependencies", iterator.next());
     verifyTable("sys", "fragments", iterator.next());
+    verifyTable("sys", "jobs_archive", iterator.next());
     verifyTable("sys", "materializations", iterator.next());
     verifyTable("sys", "memory", iterator.next());
     verifyTable("sys", "nodes", iterator.next());
     verifyTable("sys", "options", iterator.next());
     verifyTable("sys", "reflections", iterator.next());
     verifyTable("sys", "refreshes", iterator.next());
+    verifyTable("sys", "result_cache", iterator.next());
     verifyTable("sys", "services", iterator.next());
     verifyTable("sys", "slicing_threads", iterator.next());
     verifyTable("sys", "threads", iterator.next());
@@ -278,13 +282,14 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(15, tables.size());
+    assertEquals(16, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
     verifyTable("INFORMATION_SCHEMA", "COLUMNS", iterator.next());
 
     verifyTable("sys", "boot", iterator.next());
+    verifyTable("sys", "jobs_archive", iterator.next());
     verifyTable("sys", "materializations", iterator.next());
     verifyTable("sys", "memory", iterator.next());
     verifyTable("sys", "nodes", iterator.next());
@@ -324,7 +329,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     assertEquals(RequestStatus.OK, resp1.getStatus());
 
     final List<ColumnMetadata> columns1 = resp1.getColumnsList();
-    assertEquals(215, columns1.size());
+    assertEquals(238, columns1.size());
     assertTrue("incremental update column shouldn't be returned",
       columns1.stream().noneMatch(input -> input.getColumnName().equals(IncrementalUpdateUtils.UPDATE_COLUMN)));
   }
@@ -338,7 +343,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<ColumnMetadata> columns = resp.getColumnsList();
-    assertEquals(20, columns.size());
+    assertEquals(22, columns.size());
 
 
     Iterator<ColumnMetadata> iterator = columns.iterator();
@@ -351,11 +356,13 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyColumn("cp", "tpch/customer.parquet", "c_phone", iterator.next());
 
     verifyColumn("sys", "dependencies", "dependency_path", iterator.next());
+    verifyColumn("sys", "jobs_archive", "dataset_path", iterator.next());
     verifyColumn("sys", "materializations", "data_partitions", iterator.next());
     verifyColumn("sys", "materializations", "last_refresh_from_pds", iterator.next());
     verifyColumn("sys", "memory", "fabric_port", iterator.next());
     verifyColumn("sys", "nodes", "user_port", iterator.next());
     verifyColumn("sys", "nodes", "fabric_port", iterator.next());
+    verifyColumn("sys", "result_cache", "fabric_port", iterator.next());
     verifyColumn("sys", "services", "user_port", iterator.next());
     verifyColumn("sys", "services", "fabric_port", iterator.next());
     verifyColumn("sys", "slicing_threads", "fabric_port", iterator.next());
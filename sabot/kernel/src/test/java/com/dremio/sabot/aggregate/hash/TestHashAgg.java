@@ -18,6 +18,7 @@ package com.dremio.sabot.aggregate.hash;
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -44,7 +45,9 @@ import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.aggregate.hash.HashAggOperator;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.nospill.VectorizedHashAggOperatorNoSpill;
 import com.dremio.test.UserExceptionMatcher;
@@ -944,4 +947,104 @@ public class TestHashAgg extends BaseTestOperator {
       validateSingle(vanillaConf, HashAggOperator.class, inputData, expected);
     }
   }
+
+  @Test
+  public void partialAggregationPassThrough() throws Exception {
+    HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
+                                           Arrays.asList(n("k")),
+                                           Arrays.asList(
+                                             n("sum(v)", "sum"),
+                                             n("count(v)", "cnt")
+                                           ),
+                                           true,
+                                           true,
+                                           1f,
+                                           3968,
+                                           true);
+
+    final Table input = t(
+      th("k", "v"),
+      tr(1, 1),
+      tr(1, 2),
+      tr(1, 3),
+      tr(1, 4));
+
+    /* first batch is aggregated, rows of the second one are streamed as is */
+    final Table expected = t(
+      th("k", "sum", "cnt"),
+      tr(1, 3L, 2L),
+      tr(1, 3L, 1L),
+      tr(1, 4L, 1L))
+      .orderInsensitive();
+
+    try (AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_ENABLED, true);
+         AutoCloseable options1 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_BATCHES, 1);
+         AutoCloseable options2 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_RATIO, 0.5d)) {
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, input.toGenerator(allocator), expected, 2);
+      assertEquals(1, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_ENABLED));
+      assertEquals(50, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_REDUCTION_PERCENT));
+      assertEquals(2, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_RECORDS));
+    }
+  }
+
+  @Test
+  public void partialAggregationPassThroughThreshold() throws Exception {
+    HashAggregate conf = new HashAggregate(OpProps.prototype(), null,
+                                           Arrays.asList(n("k")),
+                                           Arrays.asList(
+                                             n("sum(v)", "sum"),
+                                             n("count(v)", "cnt")
+                                           ),
+                                           true,
+                                           true,
+                                           1f,
+                                           3968,
+                                           true);
+
+    final Table input = t(
+      th("k", "v"),
+      tr(1, 1),
+      tr(1, 2),
+      tr(2, 3),
+      tr(2, 4),
+      tr(3, 5),
+      tr(4, 6));
+
+    /* nothing is streamed as is, all input is aggregated */
+    final Table expected = t(
+      th("k", "sum", "cnt"),
+      tr(1, 3L, 2L),
+      tr(2, 7L, 2L),
+      tr(3, 5L, 1L),
+      tr(4, 6L, 1L))
+      .orderInsensitive();
+
+    // disabled by default
+    try (AutoCloseable options1 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_BATCHES, 1);
+         AutoCloseable options2 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_RATIO, 0.5d)) {
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, input.toGenerator(allocator), expected, 2);
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_ENABLED));
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_RECORDS));
+    }
+
+    // the first batch only has one group for two records, below the ratio
+    try (AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_ENABLED, true);
+         AutoCloseable options1 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_BATCHES, 1);
+         AutoCloseable options2 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_RATIO, 0.6d)) {
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, input.toGenerator(allocator), expected, 2);
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_ENABLED));
+      assertEquals(50, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_REDUCTION_PERCENT));
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_RECORDS));
+    }
+
+    // checked after the first two batches, two groups for four records, the last batch is streamed as is
+    try (AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_ENABLED, true);
+         AutoCloseable options1 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_BATCHES, 2);
+         AutoCloseable options2 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_PASSTHROUGH_MIN_RATIO, 0.5d)) {
+      final OperatorStats stats = validateSingle(conf, VectorizedHashAggOperator.class, input.toGenerator(allocator), expected, 2);
+      assertEquals(1, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_ENABLED));
+      assertEquals(50, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_REDUCTION_PERCENT));
+      assertEquals(2, stats.getLongStat(HashAggStats.Metric.PASSTHROUGH_RECORDS));
+    }
+  }
 }
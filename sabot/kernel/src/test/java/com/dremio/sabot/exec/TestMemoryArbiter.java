@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link MemoryArbiter}
+ */
+public class TestMemoryArbiter {
+  private static final long KB = 1024;
+  private static final long MB = 1024 * KB;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Test
+  public void testGrantUnusedMemory() throws Exception {
+    final MemoryArbiter arbiter = new MemoryArbiter("test");
+    try (BufferAllocator root = allocatorRule.newAllocator("test-memory-arbiter", 0, Long.MAX_VALUE);
+         BufferAllocator sortAllocator = root.newChildAllocator("sort", 0, MB);
+         BufferAllocator aggAllocator = root.newChildAllocator("agg", 0, MB);
+         MemoryArbiter.Participant sort = arbiter.register("sort", sortAllocator, 0, 256 * KB);
+         MemoryArbiter.Participant agg = arbiter.register("agg", aggAllocator, 0, 256 * KB);
+         ArrowBuf buf = sortAllocator.buffer((int) MB)) {
+
+      assertTrue(sort.requestMemory());
+      assertEquals(MB + 256 * KB, sortAllocator.getLimit());
+      assertEquals(MB - 256 * KB, aggAllocator.getLimit());
+      assertEquals(1, sort.getGrants());
+      assertEquals(256 * KB, sort.getGrantedBytes());
+      assertEquals(256 * KB, agg.getYieldedBytes());
+
+      // the sort uses the memory it was granted and asks for more, the agg always keeps some headroom
+      try (ArrowBuf buf2 = sortAllocator.buffer((int) (256 * KB))) {
+        assertTrue(sort.requestMemory());
+        try (ArrowBuf buf3 = sortAllocator.buffer((int) (256 * KB))) {
+          assertTrue(sort.requestMemory());
+          try (ArrowBuf buf4 = sortAllocator.buffer((int) (256 * KB))) {
+            assertFalse(sort.requestMemory());
+          }
+        }
+      }
+      assertEquals(MB + 768 * KB, sortAllocator.getLimit());
+      assertEquals(256 * KB, aggAllocator.getLimit());
+      assertEquals(3, sort.getGrants());
+      // the agg doesn't use more memory than the sort, it is not asked to spill
+      assertEquals(0, sort.getSpillRequestsSent());
+    }
+  }
+
+  @Test
+  public void testBorrowedMemoryReturnedOnClose() throws Exception {
+    final MemoryArbiter arbiter = new MemoryArbiter("test");
+    try (BufferAllocator root = allocatorRule.newAllocator("test-memory-arbiter", 0, Long.MAX_VALUE);
+         BufferAllocator sortAllocator = root.newChildAllocator("sort", 0, MB);
+         BufferAllocator aggAllocator = root.newChildAllocator("agg", 0, MB);
+         BufferAllocator joinAllocator = root.newChildAllocator("join", 0, MB);
+         MemoryArbiter.Participant agg = arbiter.register("agg", aggAllocator, 768 * KB, 256 * KB);
+         MemoryArbiter.Participant join = arbiter.register("join", joinAllocator, 0, 256 * KB)) {
+
+      final MemoryArbiter.Participant sort = arbiter.register("sort", sortAllocator, 0, 256 * KB);
+      // the floor of the agg only lets it lend for the first grant, the next ones are taken from the join
+      try (ArrowBuf buf = sortAllocator.buffer((int) MB)) {
+        assertTrue(sort.requestMemory());
+        try (ArrowBuf buf2 = sortAllocator.buffer((int) (256 * KB))) {
+          assertTrue(sort.requestMemory());
+          try (ArrowBuf buf3 = sortAllocator.buffer((int) (256 * KB))) {
+            assertTrue(sort.requestMemory());
+          }
+        }
+      }
+      assertEquals(MB + 768 * KB, sortAllocator.getLimit());
+      assertEquals(768 * KB, aggAllocator.getLimit());
+      assertEquals(512 * KB, joinAllocator.getLimit());
+
+      sort.close();
+      assertEquals(MB, aggAllocator.getLimit());
+      assertEquals(MB, joinAllocator.getLimit());
+      assertEquals(2, arbiter.getParticipantCount());
+    }
+  }
+
+  @Test
+  public void testRespectFloor() throws Exception {
+    final MemoryArbiter arbiter = new MemoryArbiter("test");
+    try (BufferAllocator root = allocatorRule.newAllocator("test-memory-arbiter", 0, Long.MAX_VALUE);
+         BufferAllocator sortAllocator = root.newChildAllocator("sort", 0, MB);
+         BufferAllocator aggAllocator = root.newChildAllocator("agg", 0, MB);
+         MemoryArbiter.Participant sort = arbiter.register("sort", sortAllocator, 0, 256 * KB);
+         MemoryArbiter.Participant agg = arbiter.register("agg", aggAllocator, 900 * KB, 256 * KB);
+         ArrowBuf buf = sortAllocator.buffer((int) MB)) {
+
+      assertFalse(sort.requestMemory());
+      assertEquals(MB, sortAllocator.getLimit());
+      assertEquals(MB, aggAllocator.getLimit());
+      assertFalse(agg.shouldSpill());
+    }
+  }
+
+  @Test
+  public void testRequestSpillFromBiggestConsumer() throws Exception {
+    final MemoryArbiter arbiter = new MemoryArbiter("test");
+    try (BufferAllocator root = allocatorRule.newAllocator("test-memory-arbiter", 0, Long.MAX_VALUE);
+         BufferAllocator sortAllocator = root.newChildAllocator("sort", 0, 256 * KB);
+         BufferAllocator aggAllocator = root.newChildAllocator("agg", 0, MB);
+         MemoryArbiter.Participant sort = arbiter.register("sort", sortAllocator, 0, 64 * KB);
+         MemoryArbiter.Participant agg = arbiter.register("agg", aggAllocator, 0, 256 * KB);
+         ArrowBuf sortBuf = sortAllocator.buffer((int) (256 * KB));
+         ArrowBuf aggBuf = aggAllocator.buffer((int) MB)) {
+
+      assertFalse(sort.requestMemory());
+      assertEquals(1, sort.getSpillRequestsSent());
+      assertTrue(agg.shouldSpill());
+      assertFalse(agg.shouldSpill());
+      assertEquals(1, agg.getSpillRequestsReceived());
+    }
+  }
+
+  @Test
+  public void testNotBoundByOwnLimit() throws Exception {
+    final MemoryArbiter arbiter = new MemoryArbiter("test");
+    try (BufferAllocator root = allocatorRule.newAllocator("test-memory-arbiter", 0, Long.MAX_VALUE);
+         BufferAllocator sortAllocator = root.newChildAllocator("sort", 0, MB);
+         BufferAllocator aggAllocator = root.newChildAllocator("agg", 0, MB)) {
+      try (MemoryArbiter.Participant sort = arbiter.register("sort", sortAllocator, 0, 256 * KB);
+           MemoryArbiter.Participant agg = arbiter.register("agg", aggAllocator, 0, 256 * KB)) {
+        assertEquals(2, arbiter.getParticipantCount());
+        // plenty of headroom left, the operator ran out of memory for another reason
+        assertFalse(sort.requestMemory());
+        assertEquals(MB, sortAllocator.getLimit());
+        assertEquals(0, sort.getSpillRequestsSent());
+      }
+      assertEquals(0, arbiter.getParticipantCount());
+    }
+  }
+}
@@ -278,6 +278,47 @@ public class TestMergeJoin extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void signedZeroKeysMatch() throws Exception{
+    JoinInfo joinInfo = getJoinInfo(Arrays.asList(new JoinCondition("EQUALS", f("value1"), f("value2"))), JoinRelType.INNER);
+    final Table left = t(
+      th("id1", "value1"),
+      tr(1L, -1.5d),
+      tr(2L, -0.0d),
+      tr(3L, 0.0d),
+      tr(4L, 2.5d)
+    );
+
+    final Table right = t(
+      th("id2", "value2"),
+      tr(10L, -0.0d),
+      tr(11L, 0.0d),
+      tr(12L, -0.0d),
+      tr(13L, 2.5d)
+    );
+
+    final Table expected = t(
+      th("id2", "value2", "id1", "value1"),
+      tr(10L, -0.0d, 2L, -0.0d),
+      tr(11L, 0.0d, 2L, -0.0d),
+      tr(12L, -0.0d, 2L, -0.0d),
+      tr(10L, -0.0d, 3L, 0.0d),
+      tr(11L, 0.0d, 3L, 0.0d),
+      tr(12L, -0.0d, 3L, 0.0d),
+      tr(13L, 2.5d, 4L, 2.5d)
+    );
+    validateDual(
+      joinInfo.operator, joinInfo.clazz,
+      left.toGenerator(getTestAllocator()),
+      right.toGenerator(getTestAllocator()),
+      DEFAULT_BATCH, expected);
+    validateDual(
+      joinInfo.operator, joinInfo.clazz,
+      left.toGenerator(getTestAllocator()),
+      right.toGenerator(getTestAllocator()),
+      DEFAULT_SMALL_BATCH, expected);
+  }
+
   @Test
   public void noNullEquivalenceInnerEmptyTable() throws Exception{
     {
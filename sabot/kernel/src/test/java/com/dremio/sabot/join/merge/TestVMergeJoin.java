@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.join.merge;
+
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.Test;
+
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.physical.config.MergeJoinPOP;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.join.BaseTestJoin.JoinInfo;
+import com.dremio.sabot.op.join.merge.VectorizedMergeJoinOperator;
+
+public class TestVMergeJoin extends TestMergeJoin {
+
+  private static final int SPARSE_BATCH = 100;
+  private static final int SPARSE_MATCH = 1000;
+
+  @Override
+  protected JoinInfo getJoinInfo(List<JoinCondition> conditions, JoinRelType type) {
+    return new JoinInfo(VectorizedMergeJoinOperator.class, new MergeJoinPOP(PROPS, null, null, conditions, type, true));
+  }
+
+  @Test
+  public void sparseMatchesDontRetainInput() throws Exception {
+    final long peak = sparseMatchesPeakMemory(20 * SPARSE_BATCH);
+    final long largerPeak = sparseMatchesPeakMemory(200 * SPARSE_BATCH);
+    assertTrue(String.format("Peak memory grew from %d to %d bytes with the input.", peak, largerPeak),
+      largerPeak < 2 * peak);
+  }
+
+  /**
+   * Join many small batches where one right row in a thousand matches a left row, so that the output batch
+   * stays far from full until the end of the input.
+   * @return peak memory allocated by the operator
+   */
+  private long sparseMatchesPeakMemory(int rows) throws Exception {
+    final DataRow[] leftRows = new DataRow[rows];
+    final DataRow[] rightRows = new DataRow[rows];
+    for (int i = 0; i < rows; i++) {
+      leftRows[i] = tr(2L * i);
+      rightRows[i] = tr(i % SPARSE_MATCH == 0 ? 2L * i : 2L * i + 1);
+    }
+
+    final MergeJoinPOP pop = new MergeJoinPOP(PROPS, null, null,
+      Arrays.asList(new JoinCondition("EQUALS", f("key1"), f("key2"))), JoinRelType.INNER, true);
+    // closed with the operator context
+    final BufferAllocator allocator = getTestAllocator().newChildAllocator("sparse-merge-join", 0, Long.MAX_VALUE);
+    try (OperatorContextImpl context = testContext.getNewOperatorContext(allocator, pop, SPARSE_BATCH);
+         VectorizedMergeJoinOperator op = new VectorizedMergeJoinOperator(context, pop);
+         Generator left = t(th("key1"), leftRows).toGenerator(getTestAllocator());
+         Generator right = t(th("key2"), rightRows).toGenerator(getTestAllocator())) {
+      op.setup(left.getOutput(), right.getOutput());
+
+      int records = 0;
+      outside: while (true) {
+        switch (op.getState()) {
+        case CAN_CONSUME_L:
+          final int leftCount = left.next(SPARSE_BATCH);
+          if (leftCount > 0) {
+            op.consumeDataLeft(leftCount);
+          } else {
+            op.noMoreToConsumeLeft();
+          }
+          break;
+        case CAN_CONSUME_R:
+          final int rightCount = right.next(SPARSE_BATCH);
+          if (rightCount > 0) {
+            op.consumeDataRight(rightCount);
+          } else {
+            op.noMoreToConsumeRight();
+          }
+          break;
+        case CAN_PRODUCE:
+          records += op.outputData();
+          break;
+        case DONE:
+          break outside;
+        default:
+          throw new UnsupportedOperationException("State is: " + op.getState());
+        }
+      }
+
+      assertEquals(rows / SPARSE_MATCH, records);
+      return allocator.getPeakMemoryAllocation();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.sabot.op.aggregate.vectorized.AccumulatorSet;
+import com.dremio.sabot.op.aggregate.vectorized.BooleanAccumulators;
+import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Tests for bool_and/bool_or accumulators of vectorized hash agg.
+ */
+public class TestBooleanAccumulators extends DremioTest {
+  private static final int MAX_VALUES_PER_BATCH = 64;
+  private static final int BITS_IN_CHUNK = Integer.numberOfTrailingZeros(MAX_VALUES_PER_BATCH);
+  private static final int CHUNK_OFFSET_MASK = MAX_VALUES_PER_BATCH - 1;
+
+  /* group 0: true, false; group 1: true, null; group 2: null, null; group 3: false */
+  private static final int[] ORDINALS = {0, 1, 0, 2, 1, 2, 3};
+  private static final Boolean[] VALUES = {true, true, false, null, null, null, false};
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Test
+  public void testBoolAnd() throws Exception {
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-bool-accumulator", 0, Long.MAX_VALUE);
+         final BitVector input = newInput(allocator);
+         final BitVector output = new BitVector("bool_and", allocator);
+         final ArrowBuf ordinals = newOrdinals(allocator)) {
+      final BooleanAccumulators.BoolAndAccumulator boolAnd =
+        new BooleanAccumulators.BoolAndAccumulator(input, output, output, MAX_VALUES_PER_BATCH, allocator);
+      try (final AccumulatorSet accumulator = new AccumulatorSet(4 * 1024, 64 * 1024, allocator, boolAnd)) {
+        accumulator.addBatch();
+        accumulator.accumulate(ordinals.memoryAddress(), ORDINALS.length, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+        boolAnd.output(0);
+        output.setValueCount(4);
+        assertEquals(Boolean.FALSE, output.getObject(0));
+        assertEquals(Boolean.TRUE, output.getObject(1));
+        assertEquals(Boolean.TRUE, output.getObject(2));
+        assertEquals(Boolean.FALSE, output.getObject(3));
+      }
+    }
+  }
+
+  @Test
+  public void testBoolOr() throws Exception {
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-bool-accumulator", 0, Long.MAX_VALUE);
+         final BitVector input = newInput(allocator);
+         final BitVector output = new BitVector("bool_or", allocator);
+         final ArrowBuf ordinals = newOrdinals(allocator)) {
+      final BooleanAccumulators.BoolOrAccumulator boolOr =
+        new BooleanAccumulators.BoolOrAccumulator(input, output, output, MAX_VALUES_PER_BATCH, allocator);
+      try (final AccumulatorSet accumulator = new AccumulatorSet(4 * 1024, 64 * 1024, allocator, boolOr)) {
+        accumulator.addBatch();
+        accumulator.accumulate(ordinals.memoryAddress(), ORDINALS.length, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+        boolOr.output(0);
+        output.setValueCount(4);
+        assertEquals(Boolean.TRUE, output.getObject(0));
+        assertEquals(Boolean.TRUE, output.getObject(1));
+        assertEquals(Boolean.FALSE, output.getObject(2));
+        assertEquals(Boolean.FALSE, output.getObject(3));
+      }
+    }
+  }
+
+  private static BitVector newInput(BufferAllocator allocator) {
+    final BitVector input = new BitVector("in", allocator);
+    input.allocateNew(VALUES.length);
+    for (int i = 0; i < VALUES.length; i++) {
+      if (VALUES[i] != null) {
+        input.set(i, VALUES[i] ? 1 : 0);
+      } else {
+        input.setNull(i);
+      }
+    }
+    input.setValueCount(VALUES.length);
+    return input;
+  }
+
+  private static ArrowBuf newOrdinals(BufferAllocator allocator) {
+    final ArrowBuf ordinals = allocator.buffer(ORDINALS.length * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH);
+    for (int i = 0; i < ORDINALS.length; i++) {
+      final long addr = ordinals.memoryAddress() + i * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+      PlatformDependent.putInt(addr + VectorizedHashAggOperator.HTORDINAL_OFFSET, ORDINALS[i]);
+      PlatformDependent.putInt(addr + VectorizedHashAggOperator.KEYINDEX_OFFSET, i);
+    }
+    return ordinals;
+  }
+}
@@ -179,6 +179,74 @@ public class TestHashTable2 extends DremioTest {
     }
   }
 
+  @Test
+  public void testPrefetch() throws Exception {
+    MAX_VALUES_PER_BATCH = 4096;
+    prefetchHelper();
+    MAX_VALUES_PER_BATCH = 976;
+    prefetchHelper();
+  }
+
+  private void prefetchHelper() throws Exception {
+
+    String[] col1arr = {"hello", "my", "hello", "hello", null, null, "my", "world"};
+    Integer[] col2arr = {1, 1, 1, 2, 1, 1, 1, 3};
+    final int prefetchGroup = 3;
+
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-hash-table-2", 0, Long.MAX_VALUE);
+         final VectorContainer c = new VectorContainer()) {
+
+      VarCharVector col1 = new VarCharVector("col1", allocator);
+      TestVarBinaryPivot.populate(col1, col1arr);
+      c.add(col1);
+      IntVector col2 = new IntVector("col2", allocator);
+      TestIntPivot.populate(col2, col2arr);
+      c.add(col2);
+      final int records = c.setAllCount(col1arr.length);
+      final PivotDef pivot = PivotBuilder.getBlockDefinition(
+          new FieldVectorPair(col1, col1),
+          new FieldVectorPair(col2, col2)
+          );
+      try (
+          final FixedBlockVector fbv = new FixedBlockVector(allocator, pivot.getBlockWidth());
+          final VariableBlockVector var = new VariableBlockVector(allocator, pivot.getVariableCount());) {
+
+        Pivots.pivot(pivot, records, fbv, var);
+
+        try (LBlockHashTable bht = new LBlockHashTable(HashConfig.getDefault(), pivot, allocator, 16000, 10, true, ResizeListener.NO_OP, MAX_VALUES_PER_BATCH);
+             SimpleBigIntVector hashValues = new SimpleBigIntVector("hashvalues", allocator)) {
+          final long keyFixedVectorAddr = fbv.getMemoryAddress();
+          final long keyVarVectorAddr = var.getMemoryAddress();
+          int[] expectedOrdinals = {0, 1, 0, 2, 3, 3, 1, 4};
+          int[] actualOrdinals = new int[expectedOrdinals.length];
+
+          hashValues.allocateNew(records);
+          final BlockChunk blockChunk = new BlockChunk(keyFixedVectorAddr, keyVarVectorAddr, false,
+            pivot.getBlockWidth(), records, hashValues.getBufferAddress(), 0);
+          HashComputation.computeHash(blockChunk);
+
+          // prefetching is only a hint, inserting and probing must not be affected by it
+          for (int keyIndex = 0; keyIndex < records; keyIndex++) {
+            if (keyIndex % prefetchGroup == 0) {
+              bht.prefetch(hashValues.getBufferAddress() + keyIndex * 8L, Math.min(prefetchGroup, records - keyIndex));
+            }
+            final int keyHash = (int)hashValues.get(keyIndex);
+            actualOrdinals[keyIndex] = bht.add(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash);
+          }
+          assertArrayEquals("ordinals mismatch", expectedOrdinals, actualOrdinals);
+
+          bht.prefetch(hashValues.getBufferAddress(), records);
+          for (int keyIndex = 0; keyIndex < records; keyIndex++) {
+            final int keyHash = (int)hashValues.get(keyIndex);
+            actualOrdinals[keyIndex] = bht.find(keyFixedVectorAddr, keyVarVectorAddr, keyIndex, keyHash);
+          }
+          assertArrayEquals("ordinals mismatch", expectedOrdinals, actualOrdinals);
+          assertEquals("Absolute size mismatch", 5, bht.size());
+        }
+      }
+    }
+  }
+
   @Test
   public void testEmptyValues() throws Exception {
     MAX_VALUES_PER_BATCH = 4096;
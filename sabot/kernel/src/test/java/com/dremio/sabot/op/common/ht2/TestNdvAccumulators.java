@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.sabot.op.aggregate.vectorized.AccumulatorSet;
+import com.dremio.sabot.op.aggregate.vectorized.NdvAccumulators;
+import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import com.yahoo.memory.Memory;
+import com.yahoo.sketches.hll.HllSketch;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Tests for spillable NDV accumulators of vectorized hash agg.
+ */
+public class TestNdvAccumulators extends DremioTest {
+  private static final int MAX_VALUES_PER_BATCH = 64;
+  private static final int BITS_IN_CHUNK = Integer.numberOfTrailingZeros(MAX_VALUES_PER_BATCH);
+  private static final int CHUNK_OFFSET_MASK = MAX_VALUES_PER_BATCH - 1;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  /* group of every record and the value accumulated for it */
+  private static final int[] ORDINALS = {0, 1, 0, 2, 1, 0, 2, 0, 1, 0};
+  private static final Long[] VALUES = {1L, 5L, 2L, 7L, 5L, 1L, null, 3L, 6L, null};
+  private static final double[] EXPECTED_NDV = {3, 2, 1};
+
+  @Test
+  public void testHllAccumulator() throws Exception {
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-ndv-accumulator", 0, Long.MAX_VALUE);
+         final BigIntVector input = newInput(allocator);
+         final VarBinaryVector output = new VarBinaryVector("ndv", allocator);
+         final ArrowBuf ordinals = newOrdinals(allocator)) {
+
+      final NdvAccumulators.BigIntNdvAccumulator ndv =
+        new NdvAccumulators.BigIntNdvAccumulator(input, output, MAX_VALUES_PER_BATCH, allocator);
+      try (final AccumulatorSet accumulator = new AccumulatorSet(4 * 1024, 64 * 1024, allocator, ndv)) {
+        accumulator.addBatch();
+        accumulator.accumulate(ordinals.memoryAddress(), ORDINALS.length, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+        ndv.output(0);
+
+        assertEstimates(output);
+        /* groups which never saw a value get an empty sketch */
+        assertEquals(0, getEstimate(output, 3), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testUnionOfCompactSketches() throws Exception {
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-ndv-accumulator", 0, Long.MAX_VALUE);
+         final BigIntVector input = newInput(allocator);
+         final VarBinaryVector phase1Output = new VarBinaryVector("hll", allocator);
+         final VarBinaryVector phase2Output = new VarBinaryVector("hll_merge", allocator);
+         final ArrowBuf ordinals = newOrdinals(allocator)) {
+
+      final NdvAccumulators.BigIntNdvAccumulator hll =
+        new NdvAccumulators.BigIntNdvAccumulator(input, phase1Output, MAX_VALUES_PER_BATCH, allocator);
+      try (final AccumulatorSet accumulator = new AccumulatorSet(4 * 1024, 64 * 1024, allocator, hll)) {
+        accumulator.addBatch();
+        accumulator.accumulate(ordinals.memoryAddress(), ORDINALS.length, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+        hll.output(0);
+      }
+      phase1Output.setValueCount(MAX_VALUES_PER_BATCH);
+
+      /* merge the sketches of the first three groups into each of them, twice */
+      final NdvAccumulators.NdvUnionAccumulator union =
+        new NdvAccumulators.NdvUnionAccumulator(phase1Output, phase2Output, MAX_VALUES_PER_BATCH, allocator);
+      try (final AccumulatorSet accumulator = new AccumulatorSet(4 * 1024, 64 * 1024, allocator, union);
+           final ArrowBuf mergeOrdinals = allocator.buffer(3 * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH)) {
+        accumulator.addBatch();
+        for (int i = 0; i < 3; i++) {
+          setOrdinal(mergeOrdinals, i, i, i);
+        }
+        accumulator.accumulate(mergeOrdinals.memoryAddress(), 3, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+        accumulator.accumulate(mergeOrdinals.memoryAddress(), 3, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+        union.output(0);
+      }
+
+      assertEstimates(phase2Output);
+    }
+  }
+
+  @Test
+  public void testUnionOfSpilledSketches() throws Exception {
+    try (final BufferAllocator allocator = allocatorRule.newAllocator("test-ndv-accumulator", 0, Long.MAX_VALUE);
+         final BigIntVector input = newInput(allocator);
+         final VarBinaryVector output = new VarBinaryVector("ndv", allocator);
+         final FixedSizeBinaryVector spilled = new FixedSizeBinaryVector("spilled", allocator,
+           NdvAccumulators.NdvUnionAccumulator.SKETCH_SIZE);
+         final ArrowBuf ordinals = newOrdinals(allocator)) {
+
+      final NdvAccumulators.BigIntNdvAccumulator hll =
+        new NdvAccumulators.BigIntNdvAccumulator(input, output, MAX_VALUES_PER_BATCH, allocator);
+      try (final AccumulatorSet accumulator = new AccumulatorSet(4 * 1024, 64 * 1024, allocator, hll)) {
+        accumulator.addBatch();
+        accumulator.accumulate(ordinals.memoryAddress(), ORDINALS.length, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+
+        /* the accumulation vector is spilled as is, read it back into a fixed size vector */
+        final FieldVector accumulationVector = hll.getAccumulatorVector(0);
+        spilled.allocateNew(MAX_VALUES_PER_BATCH);
+        PlatformDependent.copyMemory(accumulationVector.getValidityBufferAddress(), spilled.getValidityBufferAddress(),
+          accumulationVector.getValidityBuffer().capacity());
+        PlatformDependent.copyMemory(accumulationVector.getDataBufferAddress(), spilled.getDataBufferAddress(),
+          (long) MAX_VALUES_PER_BATCH * NdvAccumulators.NdvUnionAccumulator.SKETCH_SIZE);
+        spilled.setValueCount(MAX_VALUES_PER_BATCH);
+      }
+
+      final NdvAccumulators.NdvUnionAccumulator union =
+        new NdvAccumulators.NdvUnionAccumulator(spilled, output, MAX_VALUES_PER_BATCH, allocator);
+      try (final AccumulatorSet accumulator = new AccumulatorSet(4 * 1024, 64 * 1024, allocator, union);
+           final ArrowBuf mergeOrdinals = allocator.buffer(4 * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH)) {
+        accumulator.addBatch();
+        /* group 3 was never initialized before spilling, it must be skipped */
+        for (int i = 0; i < 4; i++) {
+          setOrdinal(mergeOrdinals, i, i, i);
+        }
+        accumulator.accumulate(mergeOrdinals.memoryAddress(), 4, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+        union.output(0);
+      }
+
+      assertEstimates(output);
+      assertEquals(0, getEstimate(output, 3), 0);
+    }
+  }
+
+  private static BigIntVector newInput(BufferAllocator allocator) {
+    final BigIntVector input = new BigIntVector("in", allocator);
+    input.allocateNew(VALUES.length);
+    for (int i = 0; i < VALUES.length; i++) {
+      if (VALUES[i] != null) {
+        input.set(i, VALUES[i]);
+      } else {
+        input.setNull(i);
+      }
+    }
+    input.setValueCount(VALUES.length);
+    return input;
+  }
+
+  private static ArrowBuf newOrdinals(BufferAllocator allocator) {
+    final ArrowBuf ordinals = allocator.buffer(ORDINALS.length * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH);
+    for (int i = 0; i < ORDINALS.length; i++) {
+      setOrdinal(ordinals, i, ORDINALS[i], i);
+    }
+    return ordinals;
+  }
+
+  private static void setOrdinal(ArrowBuf ordinals, int index, int tableIndex, int keyIndex) {
+    final long addr = ordinals.memoryAddress() + index * VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+    PlatformDependent.putInt(addr + VectorizedHashAggOperator.HTORDINAL_OFFSET, tableIndex);
+    PlatformDependent.putInt(addr + VectorizedHashAggOperator.KEYINDEX_OFFSET, keyIndex);
+  }
+
+  private static void assertEstimates(VarBinaryVector output) {
+    for (int i = 0; i < EXPECTED_NDV.length; i++) {
+      assertEquals(EXPECTED_NDV[i], getEstimate(output, i), 0.01);
+    }
+  }
+
+  private static double getEstimate(VarBinaryVector output, int index) {
+    return HllSketch.heapify(Memory.wrap(output.get(index))).getEstimate();
+  }
+}
@@ -45,6 +45,7 @@ import com.dremio.exec.physical.base.SubScan;
 import com.dremio.exec.proto.ExecProtos.CompositeColumnFilter;
 import com.dremio.exec.proto.ExecProtos.RuntimeFilter;
 import com.dremio.exec.proto.ExecProtos.RuntimeFilterType;
+import com.dremio.exec.proto.ExecProtos.TopNThreshold;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.parquet.RecordReaderIterator;
@@ -175,6 +176,39 @@ public class ScanOperatorTest {
         }
     }
 
+    @Test
+    public void testWorkOnOOBTopNThreshold() {
+        RecordReader mockReader = mock(RecordReader.class);
+        ScanOperator scanOp = new ScanOperator(mock(SubScan.class), getMockContext(), RecordReaderIterator.from(mockReader), null, null, null);
+
+        scanOp.workOnOOB(newOOBMessage(newTopNThreshold(100L), 1, 0));
+        assertEquals(100L, scanOp.getTopNThreshold().getValue());
+        assertTrue(scanOp.getTopNThreshold().isDescending());
+
+        // a less selective threshold from another TopN minor fragment is ignored
+        scanOp.workOnOOB(newOOBMessage(newTopNThreshold(50L), 1, 1));
+        assertEquals(100L, scanOp.getTopNThreshold().getValue());
+
+        scanOp.workOnOOB(newOOBMessage(newTopNThreshold(200L), 1, 1));
+        assertEquals(200L, scanOp.getTopNThreshold().getValue());
+
+        ArgumentCaptor<com.dremio.exec.store.TopNThreshold> addedThreshold = ArgumentCaptor.forClass(com.dremio.exec.store.TopNThreshold.class);
+        verify(mockReader, times(2)).addTopNThreshold(addedThreshold.capture());
+        assertEquals(100L, addedThreshold.getAllValues().get(0).getValue());
+        assertEquals(200L, addedThreshold.getAllValues().get(1).getValue());
+        verify(mockReader, never()).addRuntimeFilter(any(com.dremio.exec.store.RuntimeFilter.class));
+    }
+
+    @Test
+    public void testTopNThresholdCanSkip() {
+        com.dremio.exec.store.TopNThreshold desc = new com.dremio.exec.store.TopNThreshold("col1", true, false, 100L, "");
+        assertTrue(desc.canSkip(10L, 99L, true));
+        assertFalse(desc.canSkip(10L, 100L, false)); // ties are kept
+        com.dremio.exec.store.TopNThreshold ascNullsFirst = new com.dremio.exec.store.TopNThreshold("col1", false, true, 100L, "");
+        assertTrue(ascNullsFirst.canSkip(101L, 200L, false));
+        assertFalse(ascNullsFirst.canSkip(101L, 200L, true)); // nulls sort before the boundary
+    }
+
     private OperatorContext getMockContext() {
         OperatorContext context = mock(OperatorContext.class);
         OperatorStats stats = mock(OperatorStats.class);
@@ -202,6 +236,31 @@ public class ScanOperatorTest {
                 false);
     }
 
+    private OutOfBandMessage newOOBMessage(TopNThreshold threshold, int topNMajorFragment, int topNMinorFragment) {
+        return new OutOfBandMessage(
+                UserBitShared.QueryId.newBuilder().build(),
+                threshold.getProbeScanMajorFragmentId(),
+                Lists.newArrayList(0, 3),
+                threshold.getProbeScanOperatorId(),
+                topNMajorFragment,
+                topNMinorFragment,
+                65541,
+                new OutOfBandMessage.Payload(threshold),
+                null,
+                true);
+    }
+
+    private TopNThreshold newTopNThreshold(long value) {
+        return TopNThreshold.newBuilder()
+                .setProbeScanMajorFragmentId(2)
+                .setProbeScanOperatorId(131074)
+                .setColumn("col1")
+                .setDescending(true)
+                .setNullsFirst(false)
+                .setValue(value)
+                .build();
+    }
+
     private RuntimeFilter newRuntimeFilter(int sizeBytes, String... cols) {
         int probeScanId = 2;
         int probeOpId = 131074;
@@ -16,12 +16,20 @@
 package com.dremio.sabot.op.sort.external;
 
 import static com.dremio.sabot.CustomGenerator.ID;
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.NULL_VARCHAR;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static java.util.Collections.singletonList;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.LAST;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.BufferAllocator;
@@ -644,4 +652,62 @@ public class TestSortOp extends BaseTestOperator {
       validateSingle(sort, ExternalSortOperator.class, generator, table, 1000);
     }
   }
+
+  @Test
+  public void testNormalizedKeySorterSpillSort() throws Exception {
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT, true)) {
+      ExternalSort sort = new ExternalSort(PROPS.cloneWithNewReserve(1_000_000), null, singletonList(ordering(ID.getName(), ASCENDING, FIRST)), false);
+      sort.getProps().setMemLimit(2_000_000); // this can't go below sort's initialAllocation (20K)
+      Fixtures.Table table = generator.getExpectedSortedTable();
+      validateSingle(sort, ExternalSortOperator.class, generator, table, 1000);
+    }
+  }
+
+  @Test
+  public void testNormalizedKeySorterMultipleKeys() throws Exception {
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT, true)) {
+      ExternalSort sort = new ExternalSort(PROPS.cloneWithNewReserve(1_000_000), null,
+        Arrays.asList(ordering("a", DESCENDING, LAST), ordering("b", ASCENDING, FIRST)), false);
+      // values of b only differ past the prefix stored in normalized keys
+      final Fixtures.Table input = t(
+        th("a", "b"),
+        tr(1, "normalized_b"),
+        tr(NULL_INT, "x"),
+        tr(-3, "y"),
+        tr(1, "normalized_a"),
+        tr(3, NULL_VARCHAR),
+        tr(3, "y"));
+      final Fixtures.Table expected = t(
+        th("a", "b"),
+        tr(3, NULL_VARCHAR),
+        tr(3, "y"),
+        tr(1, "normalized_a"),
+        tr(1, "normalized_b"),
+        tr(-3, "y"),
+        tr(NULL_INT, "x"));
+      validateSingle(sort, ExternalSortOperator.class, input, expected, 2);
+    }
+  }
+
+  @Test
+  public void testNormalizedKeySorterVarcharBeforeLastKey() throws Exception {
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_NORMALIZED_KEY_SORT, true)) {
+      ExternalSort sort = new ExternalSort(PROPS.cloneWithNewReserve(1_000_000), null,
+        Arrays.asList(ordering("a", ASCENDING, FIRST), ordering("b", ASCENDING, FIRST)), false);
+      // values of a only differ past the prefix stored in normalized keys, so b must not decide their order
+      final Fixtures.Table input = t(
+        th("a", "b"),
+        tr("abcdefghY", 1),
+        tr("abcdefghX", 2),
+        tr("abcdefghX", 1),
+        tr("abc", 3));
+      final Fixtures.Table expected = t(
+        th("a", "b"),
+        tr("abc", 3),
+        tr("abcdefghX", 1),
+        tr("abcdefghX", 2),
+        tr("abcdefghY", 1));
+      validateSingle(sort, ExternalSortOperator.class, input, expected, 2);
+    }
+  }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.sender.partition;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.carrotsearch.hppc.IntIntHashMap;
+import com.dremio.sabot.op.sender.partition.vectorized.HeavyHitterSketch;
+
+/**
+ * Tests for {@link HeavyHitterSketch}
+ */
+public class TestHeavyHitterSketch {
+
+  @Test
+  public void testNoHeavyHitters() {
+    final HeavyHitterSketch sketch = new HeavyHitterSketch(16);
+    for (int i = 0; i < 10_000; i++) {
+      sketch.update(i);
+    }
+    assertEquals(10_000, sketch.getTotal());
+    assertTrue(sketch.getHeavyHitters(0.01).isEmpty());
+  }
+
+  @Test
+  public void testHeavyHitters() {
+    final HeavyHitterSketch sketch = new HeavyHitterSketch(16);
+    final Random random = new Random(42);
+    // 40% of the rows for -1, 15% for 7 and the rest spread over many values
+    for (int i = 0; i < 20_000; i++) {
+      final int dice = random.nextInt(100);
+      if (dice < 40) {
+        sketch.update(-1);
+      } else if (dice < 55) {
+        sketch.update(7);
+      } else {
+        sketch.update(1000 + random.nextInt(100_000));
+      }
+    }
+
+    final IntIntHashMap heavyHitters = sketch.getHeavyHitters(0.05);
+    assertEquals(2, heavyHitters.size());
+    // counts are under-estimated by at most total / (capacity + 1)
+    final int maxError = 20_000 / 17;
+    assertTrue(heavyHitters.get(-1) > 8_000 - maxError - 500);
+    assertTrue(heavyHitters.get(7) > 3_000 - maxError - 500);
+
+    assertEquals(1, sketch.getHeavyHitters(0.2).size());
+  }
+}
@@ -15,7 +15,11 @@
  */
 package com.dremio.sabot.sender.partition;
 
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
@@ -38,8 +42,11 @@ import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.record.FragmentWritableBatch;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.CustomGenerator;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Generator;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.sender.partition.PartitionSenderOperator;
 import com.dremio.sabot.op.sender.partition.vectorized.VectorizedPartitionSenderOperator;
 
 import io.netty.buffer.ByteBuf;
@@ -103,6 +110,80 @@ public class TestVectorizedPartitionSender extends BaseTestOperator {
     assertEquals(NUM_ROWS, sum);
   }
 
+  @Test
+  public void testSkewedKeysSpreading() throws Exception {
+    try (AutoCloseable option = with(VectorizedPartitionSenderOperator.SKEW_SAMPLE_BATCHES, 1)) {
+      // every row has the same key, so they all hash to a single receiver
+      final int[] hashed = sendSkewedRows(false);
+      assertEquals(NUM_ROWS, max(hashed));
+
+      // once the first batch is sampled, the heavy hitter goes round-robin over all receivers
+      final int[] spread = sendSkewedRows(true);
+      int sum = 0;
+      for (int i = 0; i < NUM_FRAGMENTS; i++) {
+        assertTrue(spread[i] >= NUM_ROWS / NUM_FRAGMENTS);
+        sum += spread[i];
+      }
+      assertEquals(NUM_ROWS, sum);
+    }
+  }
+
+  private int[] sendSkewedRows(boolean spreadSkewedKeys) throws Exception {
+    final DataRow[] rows = new DataRow[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      rows[i] = tr(42, i);
+    }
+
+    final int[] rowCountPerFragment = new int[NUM_FRAGMENTS];
+    final TunnelProvider provider = newCountingTunnelProvider(rowCountPerFragment);
+    try (Generator generator = t(th("k", "v"), rows).toGenerator(getTestAllocator())) {
+      final HashPartitionSender sender = new HashPartitionSender(PROPS, generator.getOutput().getSchema(), null, 1,
+        getIndexEndpoints(), f("k"), spreadSkewedKeys);
+      final VectorizedPartitionSenderOperator op = newOperator(VectorizedPartitionSenderOperator.class, sender,
+        DEFAULT_BATCH, new EndpointsIndex(getEndpoints()), provider);
+      op.setup(generator.getOutput());
+      op.getOperatorContext().getStats().startProcessing();
+      int records;
+      while ((records = generator.next(NUM_ROWS / 4)) > 0) {
+        op.consumeData(records);
+      }
+      op.noMoreToConsume();
+
+      final long spread = op.getOperatorContext().getStats().getLongStat(PartitionSenderOperator.Metric.RECORDS_SPREAD);
+      assertEquals(spreadSkewedKeys, spread > 0);
+      assertEquals(1, op.getOperatorContext().getStats().getLongStat(PartitionSenderOperator.Metric.SKEWED_KEYS));
+    }
+    return rowCountPerFragment;
+  }
+
+  private static TunnelProvider newCountingTunnelProvider(final int[] rowCountPerFragment) {
+    final AccountingExecTunnel tunnel = mock(AccountingExecTunnel.class);
+    doAnswer(new Answer<Void>(){
+      @Override
+      public Void answer(InvocationOnMock invocation) throws Throwable {
+        final FragmentWritableBatch batch = (FragmentWritableBatch) invocation.getArguments()[0];
+        for (int fragId : batch.getHeader().getReceivingMinorFragmentIdList()) {
+          rowCountPerFragment[fragId] += batch.getRecordCount();
+        }
+        for(ByteBuf b : batch.getBuffers()){
+          b.release();
+        }
+        return null;
+      }}).when(tunnel).sendRecordBatch(any(FragmentWritableBatch.class));
+
+    final TunnelProvider provider = mock(TunnelProvider.class);
+    when(provider.getExecTunnel(any(NodeEndpoint.class))).thenReturn(tunnel);
+    return provider;
+  }
+
+  private static int max(int[] values) {
+    int max = 0;
+    for (int value : values) {
+      max = Math.max(max, value);
+    }
+    return max;
+  }
+
   public List<MinorFragmentIndexEndpoint> getIndexEndpoints() {
     List<MinorFragmentIndexEndpoint> l = new ArrayList<>();
     for (int i = 0; i < NUM_FRAGMENTS; i++) {
@@ -23,6 +23,7 @@ import javax.inject.Provider;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.ops.ReflectionContext;
+import com.dremio.exec.planner.cost.StatisticsService;
 import com.dremio.exec.planner.sql.parser.SqlCreateReflection;
 import com.dremio.exec.planner.sql.parser.SqlCreateReflection.MeasureType;
 import com.dremio.exec.planner.sql.parser.SqlCreateReflection.NameAndMeasures;
@@ -61,15 +62,18 @@ public class AccelerationManagerImpl implements AccelerationManager {
   private final Provider<NamespaceService> namespaceService;
   private final Provider<ReflectionAdministrationService.Factory> reflectionAdministrationServiceFactory;
   private final Provider<ReflectionService> reflectionService;
+  private final Provider<StatisticsService> statisticsService;
 
   public AccelerationManagerImpl(
     Provider<ReflectionService> reflectionService,
     Provider<ReflectionAdministrationService.Factory> reflectionAdministrationServiceFactory,
-    Provider<NamespaceService> namespaceService) {
+    Provider<NamespaceService> namespaceService,
+    Provider<StatisticsService> statisticsService) {
     super();
     this.reflectionService = reflectionService;
     this.namespaceService = namespaceService;
     this.reflectionAdministrationServiceFactory = reflectionAdministrationServiceFactory;
+    this.statisticsService = statisticsService;
   }
 
   @Override
@@ -258,6 +262,9 @@ public class AccelerationManagerImpl implements AccelerationManager {
     if(ReflectionService.class.isAssignableFrom(clazz)) {
       return (T) reflectionService.get();
     }
+    if(StatisticsService.class.isAssignableFrom(clazz)) {
+      return (T) statisticsService.get();
+    }
     return null;
   }
 }
@@ -18,6 +18,7 @@ package com.dremio.service.reflection;
 import static com.dremio.service.reflection.ExternalReflectionStatus.STATUS.OUT_OF_SYNC;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.calcite.rel.RelNode;
@@ -28,6 +29,7 @@ import com.dremio.exec.calcite.logical.ScanCrel;
 import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.MaterializationIndex;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.service.Pointer;
 import com.dremio.service.namespace.NamespaceException;
@@ -39,6 +41,7 @@ import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.MaterializationId;
 import com.dremio.service.reflection.proto.ReflectionId;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
@@ -55,6 +58,8 @@ class MaterializationCache {
   private static final Map<String, CachedMaterializationDescriptor> EMPTY_MAP = ImmutableMap.of();
 
   private final AtomicReference<Map<String, CachedMaterializationDescriptor>> cached = new AtomicReference<>(EMPTY_MAP);
+  // index of the cached descriptors, rebuilt when the cache changes
+  private volatile IndexedCache indexed = new IndexedCache(EMPTY_MAP, MaterializationIndex.EMPTY);
 
   interface CacheHelper {
     Iterable<Materialization> getValidMaterializations();
@@ -97,6 +102,7 @@ class MaterializationCache {
 
   void refresh() {
     compareAndSetCache();
+    getIndex();
   }
 
   private void compareAndSetCache() {
@@ -266,6 +272,31 @@ class MaterializationCache {
     } while(!exchanged);
   }
 
+  /**
+   * @return index of the cached descriptors, built once each time the cache changes
+   */
+  MaterializationIndex getIndex() {
+    final Map<String, CachedMaterializationDescriptor> current = cached.get();
+    IndexedCache indexed = this.indexed;
+    if (indexed.cache != current) {
+      final Stopwatch stopwatch = Stopwatch.createStarted();
+      indexed = new IndexedCache(current, MaterializationIndex.of(current.values()));
+      this.indexed = indexed;
+      logger.debug("indexed {} materializations in {} ms", current.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+    return indexed.index;
+  }
+
+  private static final class IndexedCache {
+    private final Map<String, CachedMaterializationDescriptor> cache;
+    private final MaterializationIndex index;
+
+    private IndexedCache(Map<String, CachedMaterializationDescriptor> cache, MaterializationIndex index) {
+      this.cache = cache;
+      this.index = index;
+    }
+  }
+
   Iterable<MaterializationDescriptor> getAll() {
     return Iterables.unmodifiableIterable(cached.get().values());
   }
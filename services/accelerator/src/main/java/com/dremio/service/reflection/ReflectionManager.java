@@ -71,6 +71,7 @@ import com.dremio.service.jobs.JobsProtoUtil;
 import com.dremio.service.jobs.JobsService;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.proto.RefreshMethod;
+import com.dremio.service.reflection.DependencyEntry.ReflectionDependency;
 import com.dremio.service.reflection.ReflectionServiceImpl.DescriptorCache;
 import com.dremio.service.reflection.ReflectionServiceImpl.ExpansionHelper;
 import com.dremio.service.reflection.proto.DataPartition;
@@ -102,6 +103,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * Manages reflections, excluding external reflections, by observing changes to the reflection goals, datasets, materialization
@@ -143,6 +146,7 @@ public class ReflectionManager implements Runnable {
   private final BufferAllocator allocator;
   private final ReflectionGoalChecker reflectionGoalChecker;
   private RefreshStartHandler refreshStartHandler;
+  private final RefreshScheduler refreshScheduler;
 
   private volatile EntryCounts lastStats = new EntryCounts();
   private long lastWakeupTime;
@@ -171,6 +175,8 @@ public class ReflectionManager implements Runnable {
     this.accelerationBasePath = Preconditions.checkNotNull(accelerationBasePath);
     this.reflectionGoalChecker = Preconditions.checkNotNull(reflectionGoalChecker);
     this.refreshStartHandler = Preconditions.checkNotNull(refreshStartHandler);
+    this.refreshScheduler = new RefreshScheduler(id -> DependencyUtils.filterReflectionDependencies(dependencyManager.getDependencies(id))
+      .transform(ReflectionDependency::getReflectionId));
     Metrics.newGauge(Metrics.join("reflections", "unknown"), () -> ReflectionManager.this.lastStats.unknown);
     Metrics.newGauge(Metrics.join("reflections", "failed"), () -> ReflectionManager.this.lastStats.failed);
     Metrics.newGauge(Metrics.join("reflections", "active"), () -> ReflectionManager.this.lastStats.active);
@@ -281,20 +287,96 @@ public class ReflectionManager implements Runnable {
   private void handleEntries() {
     final long noDependencyRefreshPeriodMs = optionManager.getOption(ReflectionOptions.NO_DEPENDENCY_REFRESH_PERIOD_SECONDS) * 1000;
 
-    Iterable<ReflectionEntry> entries = reflectionStore.find();
+    final List<ReflectionEntry> entries = Lists.newArrayList(reflectionStore.find());
     final EntryCounts ec = new EntryCounts();
+    final List<ReflectionEntry> activeEntries = Lists.newArrayList();
+    final List<ReflectionEntry> dueEntries = Lists.newArrayList();
     for (ReflectionEntry entry : entries) {
       try {
-        handleEntry(entry, noDependencyRefreshPeriodMs, ec);
+        handleEntry(entry, ec, activeEntries, dueEntries);
+      } catch (Exception e) {
+        ec.unknown++;
+        logger.error("Couldn't handle reflection entry {}", entry.getId().getId(), e);
+        reportFailure(entry, entry.getState());
+      }
+    }
+
+    // active reflections are checked once refreshes completed, so that their dependent reflections can be refreshed
+    // in the same wakeup
+    for (ReflectionEntry entry : activeEntries) {
+      try {
+        if (dependencyManager.shouldRefresh(entry, noDependencyRefreshPeriodMs)) {
+          ec.refreshing++;
+          logger.info("reflection {} is due for refresh", getId(entry));
+          dueEntries.add(entry);
+        } else {
+          ec.active++;
+          dequeue(entry);
+        }
       } catch (Exception e) {
         ec.unknown++;
         logger.error("Couldn't handle reflection entry {}", entry.getId().getId(), e);
         reportFailure(entry, entry.getState());
       }
     }
+
+    scheduleRefreshes(entries, dueEntries);
     this.lastStats = ec;
   }
 
+  /**
+   * Starts the refreshes that are not waiting for a reflection they depend on, as long as the number of running
+   * refreshes stays within the budget. The other refreshes are queued until a later wakeup.
+   */
+  private void scheduleRefreshes(List<ReflectionEntry> entries, List<ReflectionEntry> dueEntries) {
+    final Set<ReflectionId> running = Sets.newHashSet();
+    for (ReflectionEntry entry : entries) {
+      final ReflectionState state = entry.getState();
+      if (state == REFRESHING || state == METADATA_REFRESH || state == COMPACTING) {
+        running.add(entry.getId());
+      }
+    }
+
+    final long budget = optionManager.getOption(ReflectionOptions.MAX_CONCURRENT_REFRESHES) - running.size();
+    final RefreshScheduler.Schedule schedule = refreshScheduler.schedule(dueEntries, running, (int) Math.max(0, budget));
+    for (ReflectionEntry entry : schedule.getToStart()) {
+      startRefresh(entry);
+    }
+
+    final long now = System.currentTimeMillis();
+    int position = 0;
+    for (ReflectionEntry entry : schedule.getQueued()) {
+      position++;
+      try {
+        queue(entry, position, now);
+      } catch (Exception e) {
+        logger.warn("Couldn't queue reflection {} for refresh", getId(entry), e);
+      }
+    }
+    if (position > 0) {
+      logger.debug("{} refreshes running, {} queued", running.size() + schedule.getToStart().size(), position);
+    }
+  }
+
+  private void queue(ReflectionEntry entry, int position, long now) {
+    if (entry.getRefreshQueuedAt() == null) {
+      logger.debug("reflection {} queued for refresh", getId(entry));
+      entry.setRefreshQueuedAt(now);
+    } else if (Objects.equals(entry.getRefreshQueuePosition(), position)) {
+      return;
+    }
+    entry.setRefreshQueuePosition(position);
+    reflectionStore.save(entry);
+  }
+
+  private void dequeue(ReflectionEntry entry) {
+    if (entry.getRefreshQueuedAt() != null) {
+      entry.setRefreshQueuedAt(null)
+        .setRefreshQueuePosition(null);
+      reflectionStore.save(entry);
+    }
+  }
+
   private void handleDeletedDatasets() {
     Iterable<ReflectionGoal> goals = userStore.getAllNotDeleted();
     for (ReflectionGoal goal : goals) {
@@ -317,7 +399,8 @@ public class ReflectionManager implements Runnable {
     private long unknown;
   }
 
-  private void handleEntry(ReflectionEntry entry, final long noDependencyRefreshPeriodMs, EntryCounts counts) {
+  private void handleEntry(ReflectionEntry entry, EntryCounts counts, List<ReflectionEntry> activeEntries,
+                           List<ReflectionEntry> dueEntries) {
     final ReflectionState state = entry.getState();
     switch (state) {
       case FAILED:
@@ -334,18 +417,16 @@ public class ReflectionManager implements Runnable {
       case UPDATE:
         counts.refreshing++;
         deprecateMaterializations(entry);
-        startRefresh(entry);
+        dueEntries.add(entry);
         break;
       case ACTIVE:
-        if (!dependencyManager.shouldRefresh(entry, noDependencyRefreshPeriodMs)) {
-          counts.active++;
-          // only refresh ACTIVE reflections when they are due for refresh
-          break;
-        }
+        // only refresh ACTIVE reflections when they are due for refresh
+        activeEntries.add(entry);
+        break;
       case REFRESH:
         counts.refreshing++;
         logger.info("reflection {} is due for refresh", getId(entry));
-        startRefresh(entry);
+        dueEntries.add(entry);
         break;
       case DEPRECATE:
         deprecateMaterializations(entry);
@@ -919,6 +1000,11 @@ public class ReflectionManager implements Runnable {
 
   private void startRefresh(ReflectionEntry entry) {
     final long jobSubmissionTime = System.currentTimeMillis();
+    if (entry.getRefreshQueuedAt() != null) {
+      logger.debug("reflection {} waited {} ms in the refresh queue", getId(entry), jobSubmissionTime - entry.getRefreshQueuedAt());
+      entry.setRefreshQueuedAt(null)
+        .setRefreshQueuePosition(null);
+    }
     // we should always update lastSubmittedRefresh to avoid an immediate refresh if we fail to start a refresh job
     entry.setLastSubmittedRefresh(jobSubmissionTime);
 
@@ -48,6 +48,8 @@ public interface ReflectionOptions {
   // set to true to prevent external events from waking up the reflection manager
   BooleanValidator REFLECTION_PERIODIC_WAKEUP_ONLY = new BooleanValidator("reflection.manager.wakeup.periodic_only", false);
   BooleanValidator REFLECTION_ENABLE_SUBSTITUTION = new BooleanValidator("reflection.enable.substitutions", true);
+  // how many refresh, metadata refresh and compaction jobs the reflection manager runs at once, other refreshes are queued
+  PositiveLongValidator MAX_CONCURRENT_REFRESHES = new PositiveLongValidator("reflection.manager.max_concurrent_refreshes", Integer.MAX_VALUE, 10);
   // if a reflection has no known dependencies how long should we wait before we attempt to refresh again
   PositiveLongValidator NO_DEPENDENCY_REFRESH_PERIOD_SECONDS = new PositiveLongValidator("reflection.no_dependency.refresh_period_seconds", Long.MAX_VALUE, TimeUnit.MINUTES.toSeconds(30));
   // should compaction be enabled
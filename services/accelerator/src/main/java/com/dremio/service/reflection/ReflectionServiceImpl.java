@@ -63,6 +63,7 @@ import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.MaterializationExpander;
+import com.dremio.exec.planner.acceleration.substitution.MaterializationIndex;
 import com.dremio.exec.planner.observer.AbstractAttemptObserver;
 import com.dremio.exec.planner.serialization.kryo.KryoLogicalPlanSerializers;
 import com.dremio.exec.planner.sql.SqlConverter;
@@ -931,6 +932,25 @@ public class ReflectionServiceImpl extends BaseReflectionService {
           .filter(notNull());
       }
 
+      return latestPerReflection(descriptors);
+    }
+
+    @Override
+    public List<MaterializationDescriptor> get(MaterializationIndex.Signature query) {
+      if (!isSubstitutionEnabled() || !isCacheEnabled()) {
+        return get();
+      }
+
+      // only keep the candidates that are the usable materialization of their reflection, this doesn't require
+      // expanding anything
+      final Set<MaterializationDescriptor> usable = Sets.newIdentityHashSet();
+      usable.addAll(get());
+      return materializationCache.getIndex().find(query).stream()
+        .filter(usable::contains)
+        .collect(Collectors.toList());
+    }
+
+    private List<MaterializationDescriptor> latestPerReflection(FluentIterable<MaterializationDescriptor> descriptors) {
       if (Iterables.isEmpty(descriptors)) {
         return Collections.emptyList();
       }
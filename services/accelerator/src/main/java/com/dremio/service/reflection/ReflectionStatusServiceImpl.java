@@ -288,6 +288,7 @@ public class ReflectionStatusServiceImpl implements ReflectionStatusService {
   public Iterable<AccelerationListManager.ReflectionInfo> getReflections() {
     final Iterable<ReflectionGoal> goalReflections = ReflectionUtils.getAllReflections(goalsStore);
     final Iterable<ExternalReflection> externalReflections = externalReflectionStore.getExternalReflections();
+    final long now = System.currentTimeMillis();
     Stream<AccelerationListManager.ReflectionInfo> reflections = StreamSupport.stream(goalReflections.spliterator(),
       false).map(goal -> {
       final String dataset = quotedCompound(namespaceService.get().findDatasetByUUID(goal.getDatasetId()).getFullPathList());
@@ -299,6 +300,11 @@ public class ReflectionStatusServiceImpl implements ReflectionStatusService {
         numFailures = statusOpt.get().getNumFailures();
       }
 
+      // reflections due for refresh wait in the reflection manager's queue until they can be started
+      final ReflectionEntry entry = entriesStore.get(goal.getId());
+      final Integer queuePosition = entry != null ? entry.getRefreshQueuePosition() : null;
+      final Long waitMillis = entry != null && entry.getRefreshQueuedAt() != null ? now - entry.getRefreshQueuedAt() : null;
+
       return new AccelerationListManager.ReflectionInfo(
         goal.getId().getId(),
         goal.getName(),
@@ -313,7 +319,9 @@ public class ReflectionStatusServiceImpl implements ReflectionStatusService {
         JOINER.join(AccelerationUtils.selfOrEmpty(goal.getDetails().getMeasureFieldList()).stream().map(ReflectionMeasureField::getName).collect(Collectors.toList())),
         JOINER.join(AccelerationUtils.selfOrEmpty(goal.getDetails().getDisplayFieldList()).stream().map(ReflectionField::getName).collect(Collectors.toList())),
         null,
-        goal.getArrowCachingEnabled()
+        goal.getArrowCachingEnabled(),
+        queuePosition,
+        waitMillis
       );
     });
 
@@ -346,7 +354,9 @@ public class ReflectionStatusServiceImpl implements ReflectionStatusService {
             null,
             null,
             targetDatasetPath,
-            false
+            false,
+            null,
+            null
           );
       }).filter(Objects::nonNull);
     return Stream.concat(reflections, externalReflectionsInfo).collect(Collectors.toList());
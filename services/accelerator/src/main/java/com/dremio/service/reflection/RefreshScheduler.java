@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.dremio.service.reflection.proto.ReflectionEntry;
+import com.dremio.service.reflection.proto.ReflectionId;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Decides which of the reflections due for refresh the reflection manager starts, and in which order the others wait.
+ *
+ * Reflections are refreshed in dependency order: a reflection waits while one of the reflections it depends on,
+ * directly or not, is refreshing or due for refresh. It is then refreshed once, on top of the new data of its
+ * dependencies. Independent reflections are started together, the ones waiting for the longest time first, as long as
+ * the refresh budget allows it.
+ */
+final class RefreshScheduler {
+
+  private final Function<ReflectionId, Iterable<ReflectionId>> parents;
+
+  /**
+   * @param parents returns the reflections a reflection directly depends on
+   */
+  RefreshScheduler(Function<ReflectionId, Iterable<ReflectionId>> parents) {
+    this.parents = Preconditions.checkNotNull(parents, "parents function required");
+  }
+
+  /**
+   * @param due reflections due for refresh
+   * @param running reflections being refreshed
+   * @param budget how many refreshes can be started
+   * @return the reflections to start now, and the others in the order they will be started
+   */
+  Schedule schedule(List<ReflectionEntry> due, Set<ReflectionId> running, int budget) {
+    final Set<ReflectionId> pending = Sets.newHashSet(running);
+    for (ReflectionEntry entry : due) {
+      pending.add(entry.getId());
+    }
+
+    final Map<ReflectionId, Integer> depths = Maps.newHashMap();
+    final List<ReflectionEntry> ready = Lists.newArrayList();
+    final List<ReflectionEntry> blocked = Lists.newArrayList();
+    for (ReflectionEntry entry : due) {
+      depth(entry.getId(), depths, Sets.newHashSet());
+      if (Sets.intersection(ancestors(entry.getId()), pending).isEmpty()) {
+        ready.add(entry);
+      } else {
+        blocked.add(entry);
+      }
+    }
+
+    // reflections queued first, then reflections closer to the datasets
+    final Comparator<ReflectionEntry> byQueueTime = Comparator.comparing(
+      (ReflectionEntry e) -> e.getRefreshQueuedAt() != null ? e.getRefreshQueuedAt() : Long.MAX_VALUE);
+    final Comparator<ReflectionEntry> byDepth = Comparator.comparing((ReflectionEntry e) -> depths.get(e.getId()));
+    ready.sort(byQueueTime.thenComparing(byDepth));
+    blocked.sort(byDepth.thenComparing(byQueueTime));
+
+    final int started = Math.max(0, Math.min(budget, ready.size()));
+    return new Schedule(
+      ready.subList(0, started),
+      ImmutableList.<ReflectionEntry>builder()
+        .addAll(ready.subList(started, ready.size()))
+        .addAll(blocked)
+        .build());
+  }
+
+  private Set<ReflectionId> ancestors(ReflectionId id) {
+    final Set<ReflectionId> ancestors = Sets.newHashSet();
+    final Queue<ReflectionId> queue = new ArrayDeque<>();
+    parents.apply(id).forEach(queue::add);
+    while (!queue.isEmpty()) {
+      final ReflectionId current = queue.remove();
+      if (ancestors.add(current)) {
+        parents.apply(current).forEach(queue::add);
+      }
+    }
+    return ancestors;
+  }
+
+  /**
+   * @return length of the longest chain of reflections the reflection depends on
+   */
+  private int depth(ReflectionId id, Map<ReflectionId, Integer> depths, Set<ReflectionId> visiting) {
+    final Integer known = depths.get(id);
+    if (known != null) {
+      return known;
+    }
+    if (!visiting.add(id)) {
+      // the dependency graph doesn't allow cycles, but don't loop forever if one shows up
+      return 0;
+    }
+
+    int depth = 0;
+    for (ReflectionId parent : parents.apply(id)) {
+      depth = Math.max(depth, depth(parent, depths, visiting) + 1);
+    }
+    depths.put(id, depth);
+    return depth;
+  }
+
+  /**
+   * Outcome of the scheduling of the reflections due for refresh.
+   */
+  static final class Schedule {
+    private final List<ReflectionEntry> toStart;
+    private final List<ReflectionEntry> queued;
+
+    private Schedule(List<ReflectionEntry> toStart, List<ReflectionEntry> queued) {
+      this.toStart = ImmutableList.copyOf(toStart);
+      this.queued = queued;
+    }
+
+    List<ReflectionEntry> getToStart() {
+      return toStart;
+    }
+
+    List<ReflectionEntry> getQueued() {
+      return queued;
+    }
+  }
+}
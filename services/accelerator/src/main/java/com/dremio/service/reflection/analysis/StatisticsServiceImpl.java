@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.analysis;
+
+import static com.dremio.service.users.SystemUser.SYSTEM_USERNAME;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.inject.Provider;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.types.pojo.Field;
+
+import com.dremio.common.concurrent.CloseableThreadPool;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.utils.SqlUtils;
+import com.dremio.datastore.api.LegacyKVStoreProvider;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.catalog.MetadataRequestOptions;
+import com.dremio.exec.planner.cost.StatisticsService;
+import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.SchemaConfig;
+import com.dremio.proto.model.statistics.ColumnStatistics;
+import com.dremio.proto.model.statistics.TableStatistics;
+import com.dremio.service.job.SqlQuery;
+import com.dremio.service.job.SubmitJobRequest;
+import com.dremio.service.job.VersionedDatasetPath;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.QueryType;
+import com.dremio.service.jobs.CompletionListener;
+import com.dremio.service.jobs.JobDataClientUtils;
+import com.dremio.service.jobs.JobDataFragment;
+import com.dremio.service.jobs.JobsProtoUtil;
+import com.dremio.service.jobs.JobsService;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.reflection.store.TableStatisticsStore;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Computes table statistics with two jobs: one aggregating the row count and per column null count, NDV (HLL
+ * based) and min/max, and one computing equi-depth histograms of the numeric columns. Once both complete, the
+ * statistics are saved in the {@link TableStatisticsStore}.
+ */
+public class StatisticsServiceImpl implements StatisticsService {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(StatisticsServiceImpl.class);
+
+  private static final NamespaceKey NONE_PATH = new NamespaceKey(ImmutableList.of("__none"));
+  private static final String ROW_COUNT_COLUMN = "__row_count";
+  private static final int HISTOGRAM_BUCKETS = 32;
+
+  private final Provider<JobsService> jobsService;
+  private final Provider<CatalogService> catalogService;
+  private final BufferAllocator allocator;
+  private final TableStatisticsStore store;
+  private final CloseableThreadPool executor = new CloseableThreadPool("table-statistics-");
+
+  public StatisticsServiceImpl(
+      Provider<LegacyKVStoreProvider> storeProvider,
+      Provider<JobsService> jobsService,
+      Provider<CatalogService> catalogService,
+      BufferAllocator allocator) {
+    this.jobsService = Preconditions.checkNotNull(jobsService, "jobs service required");
+    this.catalogService = Preconditions.checkNotNull(catalogService, "catalog service required");
+    this.allocator = Preconditions.checkNotNull(allocator, "allocator required");
+    this.store = new TableStatisticsStore(storeProvider);
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public void close() throws Exception {
+    executor.close();
+  }
+
+  @Override
+  public TableStatistics getStatistics(NamespaceKey table) {
+    return store.get(table);
+  }
+
+  @Override
+  public String requestStatistics(NamespaceKey table, List<String> columns) {
+    final DremioTable dremioTable = catalogService.get()
+      .getCatalog(MetadataRequestOptions.of(SchemaConfig.newBuilder(SYSTEM_USERNAME).build()))
+      .getTable(table);
+    Preconditions.checkArgument(dremioTable != null, "Unknown table %s", table);
+
+    final Set<String> requested = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    requested.addAll(columns);
+    final List<Field> fields = new ArrayList<>();
+    for (Field field : dremioTable.getSchema()) {
+      if ((requested.isEmpty() || requested.contains(field.getName())) && !CompleteType.fromField(field).isComplex()) {
+        fields.add(field);
+      }
+    }
+
+    final CompletionListener listener = new CompletionListener();
+    final JobId jobId = submit(aggregateQuery(table, fields), listener);
+    executor.execute(() -> {
+      try {
+        listener.await();
+        complete(table, fields, jobId);
+      } catch (Exception e) {
+        logger.warn("Failed to compute statistics of table {}", table, e);
+      }
+    });
+    return jobId.getId();
+  }
+
+  private void complete(NamespaceKey table, List<Field> fields, JobId jobId) throws Exception {
+    final TableStatistics statistics = new TableStatistics()
+      .setJobId(jobId.getId())
+      .setComputedAt(System.currentTimeMillis());
+
+    final Map<String, ColumnStatistics> columns = new HashMap<>();
+    try (JobDataFragment data = JobDataClientUtils.getJobData(jobsService.get(), allocator, jobId, 0, 1)) {
+      final long rowCount = ((Number) data.extractValue(ROW_COUNT_COLUMN, 0)).longValue();
+      statistics.setRowCount(rowCount);
+      for (int i = 0; i < fields.size(); i++) {
+        final ColumnStatistics column = new ColumnStatistics()
+          .setName(fields.get(i).getName())
+          .setNullCount(rowCount - asLong(data.extractValue(alias("count", i), 0)))
+          .setNdv(asLong(data.extractValue(alias("ndv", i), 0)));
+        if (isNumeric(fields.get(i))) {
+          column.setMin(asDouble(data.extractValue(alias("min", i), 0)));
+          column.setMax(asDouble(data.extractValue(alias("max", i), 0)));
+        }
+        columns.put(column.getName().toLowerCase(Locale.ROOT), column);
+      }
+    }
+
+    final List<Integer> numeric = new ArrayList<>();
+    for (int i = 0; i < fields.size(); i++) {
+      if (isNumeric(fields.get(i)) && columns.get(fields.get(i).getName().toLowerCase(Locale.ROOT)).getMin() != null) {
+        numeric.add(i);
+      }
+    }
+    if (!numeric.isEmpty()) {
+      computeHistograms(table, fields, numeric, columns);
+    }
+
+    // keep the statistics of the columns that weren't analyzed this time
+    final TableStatistics previous = store.get(table);
+    if (previous != null && previous.getColumnsList() != null) {
+      for (ColumnStatistics column : previous.getColumnsList()) {
+        columns.putIfAbsent(column.getName().toLowerCase(Locale.ROOT), column);
+      }
+    }
+    statistics.setColumnsList(new ArrayList<>(columns.values()));
+    store.save(table, statistics);
+    logger.info("Computed statistics of {} columns of table {} in job {}", fields.size(), table, jobId.getId());
+  }
+
+  private void computeHistograms(NamespaceKey table, List<Field> fields, List<Integer> numeric,
+                                 Map<String, ColumnStatistics> columns) throws Exception {
+    final CompletionListener listener = new CompletionListener();
+    final JobId jobId = submit(histogramQuery(table, fields, numeric), listener);
+    listener.await();
+
+    final Map<Integer, Double[]> bounds = new HashMap<>();
+    try (JobDataFragment data = JobDataClientUtils.getJobData(jobsService.get(), allocator, jobId, 0,
+        numeric.size() * HISTOGRAM_BUCKETS)) {
+      for (int row = 0; row < data.getReturnedRowCount(); row++) {
+        final int column = ((Number) data.extractValue("col", row)).intValue();
+        final int bucket = ((Number) data.extractValue("bucket", row)).intValue();
+        bounds.computeIfAbsent(column, c -> new Double[HISTOGRAM_BUCKETS])[bucket - 1] = asDouble(data.extractValue("bound", row));
+      }
+    }
+
+    for (Map.Entry<Integer, Double[]> entry : bounds.entrySet()) {
+      final List<Double> histogram = new ArrayList<>();
+      for (Double bound : entry.getValue()) {
+        // NTILE leaves the last buckets empty when there are fewer values than buckets
+        if (bound != null) {
+          histogram.add(bound);
+        }
+      }
+      columns.get(fields.get(entry.getKey()).getName().toLowerCase(Locale.ROOT)).setHistogramBoundsList(histogram);
+    }
+  }
+
+  private JobId submit(String sql, CompletionListener listener) {
+    final SqlQuery query = SqlQuery.newBuilder()
+      .setSql(sql)
+      .addAllContext(Collections.<String>emptyList())
+      .setUsername(SYSTEM_USERNAME)
+      .build();
+    return jobsService.get().submitJob(
+      SubmitJobRequest.newBuilder()
+        .setSqlQuery(query)
+        .setQueryType(JobsProtoUtil.toBuf(QueryType.UI_INTERNAL_RUN))
+        .setVersionedDataset(VersionedDatasetPath.newBuilder().addAllPath(NONE_PATH.getPathComponents()).build())
+        .build(),
+      listener);
+  }
+
+  static String aggregateQuery(NamespaceKey table, List<Field> fields) {
+    final StringBuilder sql = new StringBuilder("SELECT COUNT(*) AS ").append(ROW_COUNT_COLUMN);
+    for (int i = 0; i < fields.size(); i++) {
+      final String column = SqlUtils.quoteIdentifier(fields.get(i).getName());
+      sql.append(String.format(", COUNT(%s) AS %s, NDV(%s) AS %s", column, alias("count", i), column, alias("ndv", i)));
+      if (isNumeric(fields.get(i))) {
+        sql.append(String.format(", MIN(CAST(%s AS DOUBLE)) AS %s, MAX(CAST(%s AS DOUBLE)) AS %s",
+          column, alias("min", i), column, alias("max", i)));
+      }
+    }
+    return sql.append(" FROM ").append(table.getSchemaPath()).toString();
+  }
+
+  /**
+   * Upper bound of each bucket of an equi-depth histogram per numeric column, using NTILE to split the sorted
+   * non null values in buckets of the same size.
+   */
+  static String histogramQuery(NamespaceKey table, List<Field> fields, List<Integer> numeric) {
+    final List<String> queries = new ArrayList<>();
+    for (int i : numeric) {
+      final String column = SqlUtils.quoteIdentifier(fields.get(i).getName());
+      queries.add(String.format("SELECT %d AS col, bucket, MAX(v) AS bound FROM (" +
+          "SELECT CAST(%s AS DOUBLE) AS v, NTILE(%d) OVER (ORDER BY %s) AS bucket FROM %s WHERE %s IS NOT NULL" +
+          ") GROUP BY bucket",
+        i, column, HISTOGRAM_BUCKETS, column, table.getSchemaPath(), column));
+    }
+    return String.join(" UNION ALL ", queries);
+  }
+
+  private static String alias(String stat, int column) {
+    return stat + "_" + column;
+  }
+
+  private static boolean isNumeric(Field field) {
+    return CompleteType.fromField(field).isNumeric();
+  }
+
+  private static long asLong(Object value) {
+    return value == null ? 0 : ((Number) value).longValue();
+  }
+
+  private static Double asDouble(Object value) {
+    return value == null ? null : ((Number) value).doubleValue();
+  }
+}
@@ -21,20 +21,27 @@ import java.util.Optional;
 
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.RelShuttle;
+import org.apache.calcite.rel.core.TableScan;
 
 import com.dremio.common.config.SabotConfig;
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.calcite.logical.ScanCrel;
 import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.planner.StatelessRelShuttleImpl;
 import com.dremio.exec.planner.acceleration.ExpansionNode;
 import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils;
 import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.MaterializationShuttle;
+import com.dremio.exec.planner.acceleration.IncrementalUpdateUtils.SnapshotMaterializationShuttle;
 import com.dremio.exec.planner.acceleration.StrippingFactory;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.serialization.RelSerializerFactory;
 import com.dremio.exec.planner.sql.handlers.RelTransformer;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.store.iceberg.IcebergSnapshotDiff;
 import com.dremio.options.OptionManager;
 import com.dremio.proto.model.UpdateId;
+import com.dremio.service.Pointer;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.namespace.dataset.proto.AccelerationSettings;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
@@ -47,6 +54,7 @@ import com.dremio.service.reflection.proto.Materialization;
 import com.dremio.service.reflection.proto.ReflectionEntry;
 import com.dremio.service.reflection.proto.ReflectionGoal;
 import com.dremio.service.reflection.proto.ReflectionType;
+import com.dremio.service.reflection.proto.Refresh;
 import com.dremio.service.reflection.proto.RefreshDecision;
 import com.dremio.service.reflection.store.MaterializationStore;
 import com.google.common.base.Preconditions;
@@ -138,6 +146,11 @@ class ReflectionPlanNormalizer implements RelTransformer {
       strippedPlan = factory.strip(plan, mapReflectionType(goal.getType()), true, StrippingFactory.LATEST_STRIP_VERSION).getNormalized();
     }
 
+    // incremental refreshes of Iceberg datasets without refresh field only read the data files added since the
+    // previous refresh
+    final ScanCrel icebergScan = findSnapshotBasedScan(strippedPlan);
+    final IcebergSnapshotDiff snapshotDiff = icebergScan == null ? null : getSnapshotDiff(icebergScan);
+
     Iterable<DremioTable> requestedTables = sqlHandlerConfig.getContext().getCatalog().getAllRequestedTables();
 
     final RelSerializerFactory serializerFactory = RelSerializerFactory.getPlanningFactory(config, sqlHandlerConfig.getScanResult());
@@ -153,11 +166,17 @@ class ReflectionPlanNormalizer implements RelTransformer {
       requestedTables,
       serializerFactory,
       optionManager.getOption(ReflectionOptions.STRICT_INCREMENTAL_REFRESH),
-      forceFullUpdate);
+      forceFullUpdate,
+      icebergScan != null,
+      snapshotDiff);
 
     if (isIncremental(refreshDecision)) {
       try {
-      strippedPlan = strippedPlan.accept(getIncremental(refreshDecision));
+        if (icebergScan != null) {
+          strippedPlan = strippedPlan.accept(new SnapshotMaterializationShuttle(snapshotDiff, !refreshDecision.getInitialRefresh()));
+        } else {
+          strippedPlan = strippedPlan.accept(getIncremental(refreshDecision));
+        }
       } catch(RuntimeException ex) {
         throw ex;
       }
@@ -167,6 +186,39 @@ class ReflectionPlanNormalizer implements RelTransformer {
   }
 
 
+  /**
+   * @return the scan of the Iceberg dataset if the plan is refreshed incrementally using the snapshots of the dataset,
+   * null otherwise
+   */
+  private ScanCrel findSnapshotBasedScan(RelNode plan) {
+    final AccelerationSettings settings = IncrementalUpdateServiceUtils.extractRefreshSettings(plan, reflectionSettings);
+    if (settings.getMethod() != RefreshMethod.INCREMENTAL || settings.getRefreshField() != null) {
+      return null;
+    }
+
+    final Pointer<ScanCrel> icebergScan = new Pointer<>();
+    plan.accept(new StatelessRelShuttleImpl() {
+      @Override
+      public RelNode visit(TableScan tableScan) {
+        if (tableScan instanceof ScanCrel && IcebergSnapshotDiff.isIcebergTable(((ScanCrel) tableScan).getTableMetadata())) {
+          icebergScan.value = (ScanCrel) tableScan;
+        }
+        return tableScan;
+      }
+    });
+    return icebergScan.value;
+  }
+
+  private IcebergSnapshotDiff getSnapshotDiff(ScanCrel scan) {
+    if (optionManager.getOption(PlannerSettings.ENABLE_ICEBERG_EXECUTION)) {
+      // manifests are only read when executing the query, splits of the dataset can't be pruned
+      return null;
+    }
+    final Refresh refresh = materializationStore.getMostRecentRefresh(materialization.getReflectionId());
+    final Long previousSnapshotId = refresh == null ? null : refresh.getSourceSnapshotId();
+    return IcebergSnapshotDiff.of(sqlHandlerConfig.getContext().getCatalog(), scan.getTableMetadata(), previousSnapshotId);
+  }
+
   private static boolean isIncremental(RefreshDecision decision) {
     return decision.getAccelerationSettings().getMethod() == RefreshMethod.INCREMENTAL;
   }
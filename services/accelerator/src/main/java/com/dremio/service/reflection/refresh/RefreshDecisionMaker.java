@@ -24,6 +24,7 @@ import com.dremio.exec.catalog.DremioTable;
 import com.dremio.exec.planner.acceleration.PlanHasher;
 import com.dremio.exec.planner.serialization.LogicalPlanSerializer;
 import com.dremio.exec.planner.serialization.RelSerializerFactory;
+import com.dremio.exec.store.iceberg.IcebergSnapshotDiff;
 import com.dremio.proto.model.UpdateId;
 import com.dremio.service.job.proto.ScanPath;
 import com.dremio.service.namespace.NamespaceService;
@@ -65,7 +66,9 @@ class RefreshDecisionMaker {
       Iterable<DremioTable> requestedTables,
       RelSerializerFactory serializerFactory,
       boolean strictRefresh,
-      boolean forceFullUpdate) {
+      boolean forceFullUpdate,
+      boolean snapshotBased,
+      IcebergSnapshotDiff snapshotDiff) {
 
     final long newSeriesId = System.currentTimeMillis();
 
@@ -75,6 +78,9 @@ class RefreshDecisionMaker {
     final AccelerationSettings settings = IncrementalUpdateServiceUtils.extractRefreshSettings(strippedPlan, reflectionSettings);
 
     decision.setAccelerationSettings(settings);
+    if (snapshotDiff != null) {
+      decision.setSourceSnapshotId(snapshotDiff.getSnapshotId());
+    }
 
     if (requestedTables != null && !Iterables.isEmpty(requestedTables)) {
       // store all physical dataset paths in the refresh decision
@@ -166,6 +172,13 @@ class RefreshDecisionMaker {
           .setSeriesId(newSeriesId);
     }
 
+    if (snapshotBased && (snapshotDiff == null || !snapshotDiff.isAppendOnly())) {
+      logger.trace("Data files of the Iceberg dataset were rewritten or removed since the last refresh, doing an initial refresh.");
+      return decision.setInitialRefresh(true)
+          .setUpdateId(new UpdateId())
+          .setSeriesId(newSeriesId);
+    }
+
     return decision.setInitialRefresh(false)
         .setUpdateId(refresh.getUpdateId())
         .setSeriesId(refresh.getSeriesId())
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection.store;
+
+import javax.inject.Provider;
+
+import com.dremio.datastore.api.LegacyKVStore;
+import com.dremio.datastore.api.LegacyKVStoreCreationFunction;
+import com.dremio.datastore.api.LegacyKVStoreProvider;
+import com.dremio.datastore.api.LegacyStoreBuildingFactory;
+import com.dremio.datastore.format.Format;
+import com.dremio.proto.model.statistics.TableStatistics;
+import com.dremio.service.namespace.NamespaceKey;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
+/**
+ * Table statistics store, keyed by dataset path like the reflection settings
+ */
+public class TableStatisticsStore {
+  private static final String TABLE_NAME = "table_statistics";
+
+  private final Supplier<LegacyKVStore<NamespaceKey, TableStatistics>> store;
+
+  public TableStatisticsStore(final Provider<LegacyKVStoreProvider> provider) {
+    Preconditions.checkNotNull(provider, "kvstore provider required");
+    store = Suppliers.memoize(() -> provider.get().getStore(StoreCreator.class));
+  }
+
+  public TableStatistics get(NamespaceKey key) {
+    return store.get().get(key);
+  }
+
+  public void save(NamespaceKey key, TableStatistics statistics) {
+    store.get().put(key, statistics);
+  }
+
+  public void delete(NamespaceKey key) {
+    store.get().delete(key);
+  }
+
+  /**
+   * {@link TableStatisticsStore} creator
+   */
+  public static final class StoreCreator implements LegacyKVStoreCreationFunction<NamespaceKey, TableStatistics> {
+    @Override
+    public LegacyKVStore<NamespaceKey, TableStatistics> build(LegacyStoreBuildingFactory factory) {
+      return factory.<NamespaceKey, TableStatistics>newStore()
+        .name(TABLE_NAME)
+        .keyFormat(Format.wrapped(NamespaceKey.class, NamespaceKey::toString, NamespaceKey::new, Format.ofString()))
+        .valueFormat(Format.ofProtostuff(TableStatistics.class))
+        .build();
+    }
+  }
+}
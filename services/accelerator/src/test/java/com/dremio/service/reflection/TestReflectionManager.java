@@ -395,6 +395,7 @@ public class TestReflectionManager {
     when(subject.namespaceService.findDatasetByUUID(dataSetId)).thenReturn(datasetConfig);
 
     when(subject.optionManager.getOption(ReflectionOptions.NO_DEPENDENCY_REFRESH_PERIOD_SECONDS)).thenReturn(5555L);
+    when(subject.optionManager.getOption(ReflectionOptions.MAX_CONCURRENT_REFRESHES)).thenReturn(10L);
 
     when(subject.reflectionStore.get(reflectionId)).thenReturn(reflectionEntry);
     when(subject.reflectionStore.find()).thenReturn(singletonList(reflectionEntry));
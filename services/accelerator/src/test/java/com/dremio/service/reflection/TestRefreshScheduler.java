@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.dremio.service.reflection.proto.ReflectionEntry;
+import com.dremio.service.reflection.proto.ReflectionId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+
+/**
+ * Tests for {@link RefreshScheduler}
+ */
+public class TestRefreshScheduler {
+
+  // raw1 <- agg1 <- agg2, raw2 has no reflection dependency
+  private static final Multimap<ReflectionId, ReflectionId> PARENTS = ImmutableListMultimap.<ReflectionId, ReflectionId>builder()
+    .put(rId("agg1"), rId("raw1"))
+    .put(rId("agg2"), rId("agg1"))
+    .build();
+
+  private final RefreshScheduler scheduler = new RefreshScheduler(PARENTS::get);
+
+  @Test
+  public void testBudget() {
+    final RefreshScheduler.Schedule schedule = scheduler.schedule(
+      ImmutableList.of(entry("raw1", null), entry("raw2", null)), ImmutableSet.of(), 1);
+
+    assertEquals(ImmutableList.of("raw1"), names(schedule.getToStart()));
+    assertEquals(ImmutableList.of("raw2"), names(schedule.getQueued()));
+  }
+
+  @Test
+  public void testDependenciesRefreshedFirst() {
+    final RefreshScheduler.Schedule schedule = scheduler.schedule(
+      ImmutableList.of(entry("agg2", null), entry("agg1", null), entry("raw1", null), entry("raw2", null)),
+      ImmutableSet.of(), 10);
+
+    // agg1 and agg2 wait for the refresh of raw1, whatever the budget
+    assertEquals(ImmutableList.of("raw1", "raw2"), names(schedule.getToStart()));
+    assertEquals(ImmutableList.of("agg1", "agg2"), names(schedule.getQueued()));
+  }
+
+  @Test
+  public void testWaitForRunningRefresh() {
+    final RefreshScheduler.Schedule schedule = scheduler.schedule(
+      ImmutableList.of(entry("agg2", null)), ImmutableSet.of(rId("raw1")), 10);
+
+    assertEquals(ImmutableList.of(), names(schedule.getToStart()));
+    assertEquals(ImmutableList.of("agg2"), names(schedule.getQueued()));
+  }
+
+  @Test
+  public void testLongestWaitingStartsFirst() {
+    final RefreshScheduler.Schedule schedule = scheduler.schedule(
+      ImmutableList.of(entry("raw1", null), entry("raw2", 20L), entry("agg1", 10L)),
+      ImmutableSet.of(), 1);
+
+    // agg1 was queued first but still waits for raw1
+    assertEquals(ImmutableList.of("raw2"), names(schedule.getToStart()));
+    assertEquals(ImmutableList.of("raw1", "agg1"), names(schedule.getQueued()));
+  }
+
+  private static List<String> names(List<ReflectionEntry> entries) {
+    return entries.stream()
+      .map(e -> e.getId().getId())
+      .collect(Collectors.toList());
+  }
+
+  private static ReflectionEntry entry(String name, Long queuedAt) {
+    return new ReflectionEntry()
+      .setId(rId(name))
+      .setRefreshQueuedAt(queuedAt);
+  }
+
+  private static ReflectionId rId(String id) {
+    return new ReflectionId(id);
+  }
+}
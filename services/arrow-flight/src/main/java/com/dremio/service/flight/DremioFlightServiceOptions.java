@@ -36,4 +36,8 @@ public interface DremioFlightServiceOptions {
     new TypeValidators.PositiveLongValidator(
       "flight.client.readiness.timeout.millis", 900000L, 5000L
     );
+
+  // Allows users to coalesce small result batches up to the given size before sending them. Default to 0, disabled.
+  TypeValidators.RangeLongValidator COALESCE_TARGET_BYTES =
+    new TypeValidators.RangeLongValidator("flight.result.coalesce.target_bytes", 0L, 64L * 1024 * 1024, 0L);
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dremio.telemetry.api.metrics.Counter;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.dremio.telemetry.api.metrics.Metrics.ResetType;
+
+/**
+ * Flow control metrics for query results streamed to Flight clients.
+ * <ul>
+ *   <li>flight.stream.buffered_bytes: result bytes held by the server which were not yet handed to a client.</li>
+ *   <li>flight.stream.stall_millis: time spent waiting for clients to be ready for more data.</li>
+ *   <li>flight.stream.bytes_sent and flight.stream.batches_sent: data handed to clients, the throughput is their
+ *   rate.</li>
+ * </ul>
+ */
+final class FlightStreamMetrics {
+
+  private static final AtomicLong BUFFERED_BYTES = new AtomicLong();
+  private static final Counter STALL_MILLIS;
+  private static final Counter BYTES_SENT;
+  private static final Counter BATCHES_SENT;
+
+  static {
+    Metrics.newGauge(Metrics.join("flight", "stream", "buffered_bytes"), BUFFERED_BYTES::get);
+    STALL_MILLIS = Metrics.newCounter(Metrics.join("flight", "stream", "stall_millis"), ResetType.NEVER);
+    BYTES_SENT = Metrics.newCounter(Metrics.join("flight", "stream", "bytes_sent"), ResetType.NEVER);
+    BATCHES_SENT = Metrics.newCounter(Metrics.join("flight", "stream", "batches_sent"), ResetType.NEVER);
+  }
+
+  private FlightStreamMetrics() {
+  }
+
+  static void buffered(long bytes) {
+    BUFFERED_BYTES.addAndGet(bytes);
+  }
+
+  static void released(long bytes) {
+    BUFFERED_BYTES.addAndGet(-bytes);
+  }
+
+  static void stalled(long millis) {
+    STALL_MILLIS.increment(millis);
+  }
+
+  static void sent(long bytes) {
+    BYTES_SENT.increment(bytes);
+    BATCHES_SENT.increment();
+  }
+
+  static long getBufferedBytes() {
+    return BUFFERED_BYTES.get();
+  }
+}
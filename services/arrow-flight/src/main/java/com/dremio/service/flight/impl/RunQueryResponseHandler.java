@@ -31,6 +31,8 @@ import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.Preconditions;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
 
 import com.dremio.common.utils.protos.QueryWritableBatch;
 import com.dremio.exec.proto.GeneralRPCProtos;
@@ -66,6 +68,12 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
   private RecordBatchLoader recordBatchLoader;
   private volatile VectorSchemaRoot vectorSchemaRoot;
 
+  // Size up to which small batches are appended to each other before being sent, -1 until first read.
+  private long coalesceTargetBytes = -1;
+  private int stagedRows;
+  // Bytes received from the query which were not yet handed to the client.
+  private long heldBytes;
+
   private volatile boolean completed;
 
   RunQueryResponseHandler(UserBitShared.ExternalId runExternalId,
@@ -90,6 +98,7 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
     }
 
     final RecordBatchDef def = result.getHeader().getDef();
+    hold(result.getByteCount());
 
     final ByteBuf[] buffers = result.getBuffers();
 
@@ -126,8 +135,92 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
       }
     }
 
-    prepareVectorSchemaRoot(result.getHeader().getRowCount());
+    if (getCoalesceTargetBytes() > 0) {
+      coalesce(outcomeListener, result.getHeader().getRowCount());
+    } else {
+      prepareVectorSchemaRoot(result.getHeader().getRowCount());
+      putNextWhenClientReady(outcomeListener);
+    }
+  }
+
+  private long getCoalesceTargetBytes() {
+    if (coalesceTargetBytes < 0) {
+      coalesceTargetBytes = workerProvider.get().getSystemOptions()
+        .getOption(DremioFlightServiceOptions.COALESCE_TARGET_BYTES);
+    }
+    return coalesceTargetBytes;
+  }
+
+  /**
+   * Appends the loaded batch to the batch being staged for the client, and sends the staged batch once it
+   * reaches the coalescing target size. Batches that reach the target on their own are transferred without
+   * copying.
+   *
+   * @param outcomeListener The server outcomeListener.
+   * @param rowCount        The number of rows in the loaded batch.
+   */
+  @VisibleForTesting
+  void coalesce(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener, int rowCount) {
+    final List<FieldVector> loadedVectors = getLoadedVectors();
+    if (vectorSchemaRoot == null) {
+      final List<Field> fields = loadedVectors.stream().map(FieldVector::getField).collect(Collectors.toList());
+      vectorSchemaRoot = VectorSchemaRoot.create(new Schema(fields), allocator);
+      vectorSchemaRoot.allocateNew();
+      clientListener.start(vectorSchemaRoot);
+    }
+
+    final List<FieldVector> stagedVectors = vectorSchemaRoot.getFieldVectors();
+    if (stagedRows == 0 && heldBytes >= coalesceTargetBytes) {
+      for (int i = 0; i < loadedVectors.size(); i++) {
+        loadedVectors.get(i).makeTransferPair(stagedVectors.get(i)).transfer();
+      }
+    } else {
+      for (int i = 0; i < loadedVectors.size(); i++) {
+        final FieldVector from = loadedVectors.get(i);
+        final FieldVector to = stagedVectors.get(i);
+        for (int row = 0; row < rowCount; row++) {
+          to.copyFromSafe(row, stagedRows + row, from);
+        }
+      }
+    }
+    stagedRows += rowCount;
+    vectorSchemaRoot.setRowCount(stagedRows);
+
+    if (heldBytes < coalesceTargetBytes) {
+      outcomeListener.success(Acks.OK, null);
+      return;
+    }
+
+    stagedRows = 0;
     putNextWhenClientReady(outcomeListener);
+    // the sent buffers are still referenced by the outbound message, stage further rows in new ones.
+    vectorSchemaRoot.clear();
+    vectorSchemaRoot.allocateNew();
+  }
+
+  /**
+   * Sends the rows staged for coalescing when the query completes.
+   *
+   * @return false if the client did not become ready to receive the staged rows.
+   */
+  private boolean flushStagedRows() {
+    if (stagedRows == 0) {
+      return true;
+    }
+    vectorSchemaRoot.setRowCount(stagedRows);
+    stagedRows = 0;
+    try {
+      if (waitForClient() != WaitResult.READY) {
+        return false;
+      }
+      clientListener.putNext();
+      FlightStreamMetrics.sent(heldBytes);
+      return true;
+    } catch (RpcException ex) {
+      return false;
+    } finally {
+      release();
+    }
   }
 
   private void loadEmptyBuffer(RecordBatchDef def, long readableBytes) {
@@ -177,9 +270,10 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
   @VisibleForTesting
   void putNextWhenClientReady(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener) {
     try {
-      switch (clientIsReadyForData()) {
+      switch (waitForClient()) {
         case READY:
           clientListener.putNext();
+          FlightStreamMetrics.sent(heldBytes);
           outcomeListener.success(Acks.OK, null);
           return;
         case CANCELLED:
@@ -194,31 +288,61 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
       }
     } catch (RpcException ex) {
       outcomeListener.failed(ex);
+    } finally {
+      release();
     }
   }
 
+  private WaitResult waitForClient() throws RpcException {
+    final long waitStart = System.currentTimeMillis();
+    try {
+      return clientIsReadyForData();
+    } finally {
+      FlightStreamMetrics.stalled(System.currentTimeMillis() - waitStart);
+    }
+  }
+
+  private void hold(long bytes) {
+    heldBytes += bytes;
+    FlightStreamMetrics.buffered(bytes);
+  }
+
+  private void release() {
+    FlightStreamMetrics.released(heldBytes);
+    heldBytes = 0;
+  }
+
   /**
    * Initializes VectorSchemaRoot if needed, and populates the rowCount.
    */
   @VisibleForTesting
   void prepareVectorSchemaRoot(int rowCount) {
     if (vectorSchemaRoot == null) {
-      final List<FieldVector> vectors = StreamSupport.stream(recordBatchLoader.spliterator(), false)
-        .map(v -> (FieldVector) v.getValueVector())
-        .collect(Collectors.toList());
-      vectorSchemaRoot = new VectorSchemaRoot(vectors);
+      vectorSchemaRoot = new VectorSchemaRoot(getLoadedVectors());
       clientListener.start(vectorSchemaRoot);
     }
     vectorSchemaRoot.setRowCount(rowCount);
   }
 
+  private List<FieldVector> getLoadedVectors() {
+    return StreamSupport.stream(recordBatchLoader.spliterator(), false)
+      .map(v -> (FieldVector) v.getValueVector())
+      .collect(Collectors.toList());
+  }
+
   @Override
   public void completed(UserResult result) {
     completed = true;
 
     try {
-      handleUserResultState(result);
+      if (result.getState() == UserBitShared.QueryResult.QueryState.COMPLETED && !flushStagedRows()) {
+        clientListener.error(CallStatus.TIMED_OUT
+          .withDescription("Timeout while waiting for client to be in ready state.").toRuntimeException());
+      } else {
+        handleUserResultState(result);
+      }
     } finally {
+      release();
       try {
         if (null != recordBatchLoader) {
           recordBatchLoader.close();
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import static com.dremio.exec.proto.UserBitShared.QueryResult.QueryState.COMPLETED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.inject.Provider;
+
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.proto.UserBitShared.QueryData;
+import com.dremio.exec.record.WritableBatch;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.exec.work.protector.UserWorker;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.rpc.user.UserSession;
+import com.dremio.service.flight.DremioFlightServiceOptions;
+import com.dremio.service.flight.impl.RunQueryResponseHandler.BasicResponseHandler;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for coalescing of small batches in RunQueryResponseHandler.
+ */
+public class TestRunQueryResponseHandlerCoalescing {
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private Provider<UserWorker> workerProvider;
+  private OptionManager optionManager;
+  private FlightProducer.ServerStreamListener listener;
+  private List<Integer> sentRowCounts;
+
+  @Before
+  public void setUp() {
+    workerProvider = mock(Provider.class);
+    final UserWorker userWorker = mock(UserWorker.class);
+    optionManager = mock(OptionManager.class);
+    when(workerProvider.get()).thenReturn(userWorker);
+    when(userWorker.getSystemOptions()).thenReturn(optionManager);
+
+    listener = mock(FlightProducer.ServerStreamListener.class);
+    sentRowCounts = new ArrayList<>();
+  }
+
+  @Test
+  public void testSmallBatchesAreSentTogether() {
+    when(optionManager.getOption(DremioFlightServiceOptions.COALESCE_TARGET_BYTES)).thenReturn(1024L * 1024);
+
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-coalescing", 0, Long.MAX_VALUE)) {
+      final RunQueryResponseHandler handler = newHandler(allocator);
+      final RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener = mock(RpcOutcomeListener.class);
+      final long bufferedBefore = FlightStreamMetrics.getBufferedBytes();
+
+      for (int i = 0; i < 3; i++) {
+        handler.sendData(outcomeListener, newBatch(allocator, 10, i * 10));
+      }
+
+      // every batch is acknowledged, none is sent yet
+      verify(outcomeListener, times(3)).success(any(), any());
+      verify(listener, never()).putNext();
+
+      handler.completed(completedResult());
+
+      assertEquals(Collections.singletonList(30), sentRowCounts);
+      verify(listener).completed();
+      assertEquals(bufferedBefore, FlightStreamMetrics.getBufferedBytes());
+    }
+  }
+
+  @Test
+  public void testBatchesAreSentOnceTargetIsReached() {
+    when(optionManager.getOption(DremioFlightServiceOptions.COALESCE_TARGET_BYTES)).thenReturn(1L);
+
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-coalescing", 0, Long.MAX_VALUE)) {
+      final RunQueryResponseHandler handler = newHandler(allocator);
+      final RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener = mock(RpcOutcomeListener.class);
+
+      handler.sendData(outcomeListener, newBatch(allocator, 10, 0));
+      handler.sendData(outcomeListener, newBatch(allocator, 5, 10));
+      handler.completed(completedResult());
+
+      assertEquals(2, sentRowCounts.size());
+      assertEquals(Integer.valueOf(10), sentRowCounts.get(0));
+      assertEquals(Integer.valueOf(5), sentRowCounts.get(1));
+    }
+  }
+
+  private RunQueryResponseHandler newHandler(BufferAllocator allocator) {
+    final ArgumentCaptor<VectorSchemaRoot> root = ArgumentCaptor.forClass(VectorSchemaRoot.class);
+    doAnswer(invocation -> {
+      sentRowCounts.add(root.getValue().getRowCount());
+      return null;
+    }).when(listener).putNext();
+
+    final RunQueryResponseHandler handler = new BasicResponseHandler(UserBitShared.ExternalId.getDefaultInstance(),
+      mock(UserSession.class), workerProvider, listener, allocator);
+    doAnswer(invocation -> null).when(listener).start(root.capture());
+    return handler;
+  }
+
+  private static UserResult completedResult() {
+    final UserResult result = mock(UserResult.class);
+    when(result.getState()).thenReturn(COMPLETED);
+    return result;
+  }
+
+  private static QueryWritableBatch newBatch(BufferAllocator allocator, int rowCount, int firstValue) {
+    final IntVector vector = new IntVector("a", allocator);
+    vector.allocateNew(rowCount);
+    for (int i = 0; i < rowCount; i++) {
+      vector.set(i, firstValue + i);
+    }
+    vector.setValueCount(rowCount);
+
+    final WritableBatch batch = WritableBatch.getBatchNoHV(rowCount, Collections.<ValueVector>singletonList(vector), false);
+    final QueryData header = QueryData.newBuilder().setRowCount(rowCount).setDef(batch.getDef()).build();
+    return new QueryWritableBatch(header, batch.getBuffers());
+  }
+}
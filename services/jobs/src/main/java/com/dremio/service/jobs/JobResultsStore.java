@@ -23,6 +23,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.BufferAllocator;
 
@@ -45,6 +47,9 @@ import com.dremio.service.job.proto.JobInfo;
 import com.dremio.service.job.proto.JobResult;
 import com.dremio.service.job.proto.JobState;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -56,11 +61,16 @@ import com.google.common.collect.Sets;
 public class JobResultsStore implements Service {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JobResultsStore.class);
 
+  // Readers of the result files being paged through are kept open, so that the next page doesn't reopen the file
+  private static final int MAX_OPEN_READERS = 64;
+  private static final long OPEN_READER_EXPIRATION_MINUTES = 5;
+
   private final String storageName;
   private final Path jobStoreLocation;
   private final FileSystem dfs;
   private final BufferAllocator allocator;
   private final LegacyIndexedStore<JobId, JobResult> store;
+  private final Cache<Path, ArrowFileReader> openReaders;
 
   public JobResultsStore(
       final JobResultsStoreConfig resultsStoreConfig,
@@ -74,6 +84,11 @@ public class JobResultsStore implements Service {
 
     this.store = store;
     this.allocator = allocator;
+    this.openReaders = CacheBuilder.newBuilder()
+      .maximumSize(MAX_OPEN_READERS)
+      .expireAfterAccess(OPEN_READER_EXPIRATION_MINUTES, TimeUnit.MINUTES)
+      .removalListener((RemovalListener<Path, ArrowFileReader>) notification -> closeReader(notification.getValue()))
+      .build();
   }
 
   /**
@@ -96,6 +111,7 @@ public class JobResultsStore implements Service {
 
   public boolean cleanup(JobId jobId) {
     final Path jobOutputDir = getJobOutputDir(jobId);
+    invalidateReaders(jobOutputDir);
     try {
       if (doesQueryResultsDirExists(jobOutputDir, jobId)) {
         deleteQueryResults(jobOutputDir, true, jobId);
@@ -162,48 +178,30 @@ public class JobResultsStore implements Service {
             .build(logger);
       }
 
-      final List<ArrowFileMetadata> resultFilesToRead = Lists.newArrayList();
-      int runningFileRecordCount = 0;
-      int remainingRecords = limit;
-      for(ArrowFileMetadata fileMetadata : resultMetadata) {
-        if (offset < runningFileRecordCount + fileMetadata.getRecordCount()) {
-          resultFilesToRead.add(fileMetadata);
-
-          // offset within current file to read records
-          long fileOffset = 0; // fileOffset will be 0 from second file to be read for records.
-          if (resultFilesToRead.size() == 1) {
-            // update the given offset to start from the current file
-            offset -= runningFileRecordCount;
-            fileOffset = offset; // fileOffset will be "offset" for the first file to be read for records.
-          }
-
-          // Find how many records to read from current file.
-          // Min of remaining records in file or remaining records in total to read.
-          long fileLimit = Math.min(fileMetadata.getRecordCount() - fileOffset, remainingRecords);
-          remainingRecords -= fileLimit;
-
-          // stop including files if there are no remainingRecords to be included.
-          if (remainingRecords <=0) {
-            break;
-          }
-        }
-
-        runningFileRecordCount += fileMetadata.getRecordCount();
+      final List<RecordBatchHolder> batchHolders = Lists.newArrayList();
+      final long[] fileStartRows = new long[resultMetadata.size()];
+      long totalRecordCount = 0;
+      for (int i = 0; i < resultMetadata.size(); i++) {
+        fileStartRows[i] = totalRecordCount;
+        totalRecordCount += resultMetadata.get(i).getRecordCount();
       }
 
-      final List<RecordBatchHolder> batchHolders = Lists.newArrayList();
-      if (resultFilesToRead.isEmpty()) {
+      if (offset < 0 || offset >= totalRecordCount) {
         // when the query returns no results at all or the requested range is invalid, return an empty record batch
         // for metadata purposes.
         batchHolders.addAll(getQueryResults(jobOutputDir, resultMetadata.get(0), allocator, 0, 0));
 
       } else {
-        runningFileRecordCount = 0;
-        int remaining = limit;
-        for(ArrowFileMetadata file : resultFilesToRead) {
+        // Seek straight to the file containing the first requested record
+        long remaining = limit;
+        for (int fileIndex = ArrowFileReader.floorIndex(fileStartRows, offset); fileIndex < resultMetadata.size(); fileIndex++) {
+          final ArrowFileMetadata file = resultMetadata.get(fileIndex);
+          if (file.getRecordCount() == 0) {
+            continue;
+          }
 
           // Find the starting record index in file
-          final long fileOffset = Math.max(0, offset - runningFileRecordCount);
+          final long fileOffset = Math.max(0, offset - fileStartRows[fileIndex]);
 
           // Find how many records to read from file.
           // Min of remaining records in file or remaining records in total to read.
@@ -212,7 +210,10 @@ public class JobResultsStore implements Service {
           batchHolders.addAll(getQueryResults(jobOutputDir, file, allocator, fileOffset, fileLimit));
           remaining -= fileLimit;
 
-          runningFileRecordCount += file.getRecordCount();
+          // stop including files if there are no remaining records to be included.
+          if (remaining <= 0) {
+            break;
+          }
         }
       }
 
@@ -236,11 +237,35 @@ public class JobResultsStore implements Service {
                                                     BufferAllocator allocator,
                                                     long fileOffset,
                                                     long fileLimit) throws IOException {
-    try(ArrowFileReader fileReader = new ArrowFileReader(dfs, jobOutputDir, arrowFileMetadata, allocator)) {
+    final ArrowFileReader fileReader;
+    try {
+      fileReader = openReaders.get(jobOutputDir.resolve(arrowFileMetadata.getPath()),
+        () -> new ArrowFileReader(dfs, jobOutputDir, arrowFileMetadata, allocator));
+    } catch (ExecutionException e) {
+      throw new IOException(e.getCause());
+    }
+
+    // a reader evicted while in use is closed only once the read completes, and reopens the file if used again
+    synchronized (fileReader) {
       return fileReader.read(fileOffset, fileLimit);
     }
   }
 
+  private void invalidateReaders(Path jobOutputDir) {
+    final String prefix = jobOutputDir.toString() + Path.SEPARATOR;
+    openReaders.asMap().keySet().removeIf(path -> path.toString().startsWith(prefix));
+  }
+
+  private static void closeReader(ArrowFileReader reader) {
+    synchronized (reader) {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        logger.debug("Failed to close job results reader", e);
+      }
+    }
+  }
+
   /**
    * Check if query results directory exists, optionally using jobId
    *
@@ -312,6 +337,7 @@ public class JobResultsStore implements Service {
 
   @Override
   public void close() throws Exception {
+    openReaders.invalidateAll();
   }
 
   protected Set<NodeEndpoint> getNodeEndpoints(JobId jobId) {
@@ -0,0 +1,462 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.utils.PathUtils;
+import com.dremio.exec.store.sys.ArchivedJobInfo;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobResult;
+import com.dremio.service.job.proto.JobStats;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Cold retention tier for jobs.
+ *
+ * Jobs that are older than {@code jobs.archive.age_in_days} are rolled out of the jobs store (and its index) into
+ * compact columnar summaries. Summaries are written as Arrow streams, grouped into one directory per day of job
+ * completion, next to the job results directory. A whole day is dropped once it is older than
+ * {@code jobs.max.age_in_days}.
+ */
+class JobSummaryArchive {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JobSummaryArchive.class);
+
+  static final String ARCHIVE_DIR_NAME = "job_summaries";
+  private static final String FILE_EXTENSION = ".arrow";
+  // summaries are written under a temporary name first, and only renamed once all days of a chunk are written
+  private static final String TEMP_FILE_EXTENSION = ".arrow.tmp";
+
+  // bounds memory used by a single archiving run, as well as the size of an arrow record batch
+  private static final int MAX_PENDING_JOBS = 10_000;
+  private static final int BATCH_SIZE = 4_096;
+  // sql and failure messages can be arbitrarily large, keep only a prefix in the summary
+  private static final int MAX_TEXT_LENGTH = 4_096;
+
+  private static final String JOB_ID = "job_id";
+  private static final String ATTEMPT_COUNT = "attempt_count";
+  private static final String USER_NAME = "user_name";
+  private static final String QUERY_TYPE = "query_type";
+  private static final String QUEUE_NAME = "queue_name";
+  private static final String STATUS = "status";
+  private static final String START_TIME = "start_time";
+  private static final String FINISH_TIME = "finish_time";
+  private static final String DATASET_PATH = "dataset_path";
+  private static final String QUERY_TEXT = "query_text";
+  private static final String FAILURE_INFO = "failure_info";
+  private static final String INPUT_BYTES = "input_bytes";
+  private static final String INPUT_RECORDS = "input_records";
+  private static final String OUTPUT_BYTES = "output_bytes";
+  private static final String OUTPUT_RECORDS = "output_records";
+
+  @VisibleForTesting
+  static final Schema SCHEMA = new Schema(ImmutableList.of(
+      CompleteType.VARCHAR.toField(JOB_ID),
+      CompleteType.INT.toField(ATTEMPT_COUNT),
+      CompleteType.VARCHAR.toField(USER_NAME),
+      CompleteType.VARCHAR.toField(QUERY_TYPE),
+      CompleteType.VARCHAR.toField(QUEUE_NAME),
+      CompleteType.VARCHAR.toField(STATUS),
+      CompleteType.TIMESTAMP.toField(START_TIME),
+      CompleteType.TIMESTAMP.toField(FINISH_TIME),
+      CompleteType.VARCHAR.toField(DATASET_PATH),
+      CompleteType.VARCHAR.toField(QUERY_TEXT),
+      CompleteType.VARCHAR.toField(FAILURE_INFO),
+      CompleteType.BIGINT.toField(INPUT_BYTES),
+      CompleteType.BIGINT.toField(INPUT_RECORDS),
+      CompleteType.BIGINT.toField(OUTPUT_BYTES),
+      CompleteType.BIGINT.toField(OUTPUT_RECORDS)));
+
+  private final FileSystem dfs;
+  private final Path archiveLocation;
+  private final BufferAllocator allocator;
+
+  JobSummaryArchive(FileSystem dfs, Path archiveLocation, BufferAllocator allocator) {
+    this.dfs = dfs;
+    this.archiveLocation = archiveLocation;
+    this.allocator = allocator;
+  }
+
+  /**
+   * Summaries are kept in a sibling directory of the job results, so that they are not mistaken for job output.
+   */
+  static Path getArchiveLocation(Path jobResultsLocation) {
+    final Path parent = jobResultsLocation.getParent();
+    return (parent != null ? parent : jobResultsLocation).resolve(ARCHIVE_DIR_NAME);
+  }
+
+  /**
+   * Write summaries for the given jobs, then hand each archived job over to {@code archivedJobHandler}, which is
+   * expected to remove it from the jobs store. A job is only handed over once the file holding its summary has been
+   * made visible, so a failure while writing leaves the job in the store to be archived on the next run.
+   *
+   * @return number of jobs archived
+   */
+  long archive(Iterable<Entry<JobId, JobResult>> jobs, Consumer<JobId> archivedJobHandler) throws IOException {
+    final long now = System.currentTimeMillis();
+    final String runId = Long.toString(now);
+    // jobs without any start or finish time are filed under the day they are archived
+    final LocalDate today = Instant.ofEpochMilli(now).atZone(ZoneOffset.UTC).toLocalDate();
+    final Map<LocalDate, PendingDay> pendingByDay = new TreeMap<>();
+    int pendingJobs = 0;
+    long archived = 0;
+    int chunk = 0;
+
+    for (Entry<JobId, JobResult> entry : jobs) {
+      final JobResult jobResult = entry.getValue();
+      if (jobResult.getAttemptsList() == null || jobResult.getAttemptsList().isEmpty()) {
+        continue;
+      }
+
+      final ArchivedJobInfo summary = toArchivedJobInfo(entry.getKey(), jobResult);
+      pendingByDay.computeIfAbsent(getDay(summary, today), d -> new PendingDay()).add(entry.getKey(), summary);
+
+      if (++pendingJobs >= MAX_PENDING_JOBS) {
+        archived += flush(runId + "_" + chunk++, pendingByDay, archivedJobHandler);
+        pendingJobs = 0;
+      }
+    }
+
+    archived += flush(runId + "_" + chunk, pendingByDay, archivedJobHandler);
+    return archived;
+  }
+
+  private long flush(String fileName, Map<LocalDate, PendingDay> pendingByDay, Consumer<JobId> archivedJobHandler)
+      throws IOException {
+    final Map<Path, PendingDay> tempFiles = new LinkedHashMap<>();
+    try {
+      for (Entry<LocalDate, PendingDay> day : pendingByDay.entrySet()) {
+        final Path dayDir = archiveLocation.resolve(day.getKey().toString());
+        dfs.mkdirs(dayDir);
+        final Path tempFile = dayDir.resolve(fileName + TEMP_FILE_EXTENSION);
+        tempFiles.put(tempFile, day.getValue());
+        write(tempFile, day.getValue().summaries);
+      }
+
+      // a day is handed over as soon as its file is visible, so that a rename failing on a later day neither loses
+      // the jobs of that day nor archives the jobs of the days already renamed a second time
+      long archived = 0;
+      for (Iterator<Entry<Path, PendingDay>> it = tempFiles.entrySet().iterator(); it.hasNext();) {
+        final Entry<Path, PendingDay> entry = it.next();
+        final Path tempFile = entry.getKey();
+        final Path file = tempFile.getParent().resolve(fileName + FILE_EXTENSION);
+        if (!dfs.rename(tempFile, file)) {
+          throw new IOException(String.format("Failed to rename %s to %s", tempFile, file));
+        }
+        it.remove();
+        entry.getValue().jobIds.forEach(archivedJobHandler);
+        archived += entry.getValue().jobIds.size();
+      }
+      return archived;
+    } catch (IOException | RuntimeException e) {
+      // nothing of the remaining days is visible to readers, and their jobs stay in the store to be archived on the
+      // next run
+      for (Path tempFile : tempFiles.keySet()) {
+        try {
+          dfs.delete(tempFile, false);
+        } catch (IOException deleteException) {
+          e.addSuppressed(deleteException);
+        }
+      }
+      throw e;
+    } finally {
+      pendingByDay.clear();
+    }
+  }
+
+  /**
+   * Delete summaries of all days strictly before the day of {@code cutOffTime}.
+   */
+  void purge(long cutOffTime) throws IOException {
+    final LocalDate cutOffDay = Instant.ofEpochMilli(cutOffTime).atZone(ZoneOffset.UTC).toLocalDate();
+    for (Path dayDir : listDays()) {
+      if (parseDay(dayDir).isBefore(cutOffDay)) {
+        logger.debug("Deleting job summaries in {}", dayDir);
+        dfs.delete(dayDir, true);
+      }
+    }
+  }
+
+  /**
+   * Read back all archived job summaries, oldest day first. Files are read lazily while iterating.
+   */
+  Iterable<ArchivedJobInfo> read() {
+    final List<Path> files = new ArrayList<>();
+    try {
+      for (Path dayDir : listDays()) {
+        for (Path file : list(dayDir)) {
+          // skip leftovers of a run that failed before renaming its files
+          if (file.getName().endsWith(FILE_EXTENSION)) {
+            files.add(file);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failed to list archived job summaries")
+        .addContext("path", archiveLocation.toString())
+        .build(logger);
+    }
+
+    return FluentIterable.from(files).transformAndConcat(this::readFile);
+  }
+
+  private List<Path> listDays() throws IOException {
+    if (!dfs.exists(archiveLocation)) {
+      return Collections.emptyList();
+    }
+
+    final List<Path> days = new ArrayList<>();
+    for (Path dir : list(archiveLocation)) {
+      try {
+        parseDay(dir);
+        days.add(dir);
+      } catch (DateTimeParseException e) {
+        logger.warn("Ignoring unexpected entry {} in job summary archive", dir);
+      }
+    }
+    return days;
+  }
+
+  private List<Path> list(Path dir) throws IOException {
+    final List<Path> paths = new ArrayList<>();
+    try (DirectoryStream<FileAttributes> stream = dfs.list(dir)) {
+      for (FileAttributes attributes : stream) {
+        paths.add(attributes.getPath());
+      }
+    }
+    Collections.sort(paths);
+    return paths;
+  }
+
+  private static LocalDate parseDay(Path dayDir) {
+    return LocalDate.parse(dayDir.getName());
+  }
+
+  private static LocalDate getDay(ArchivedJobInfo summary, LocalDate defaultDay) {
+    final Timestamp time = summary.finish_time != null ? summary.finish_time : summary.start_time;
+    if (time == null) {
+      return defaultDay;
+    }
+    return Instant.ofEpochMilli(time.getTime()).atZone(ZoneOffset.UTC).toLocalDate();
+  }
+
+  private void write(Path file, List<ArchivedJobInfo> summaries) throws IOException {
+    try (VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator);
+         OutputStream out = dfs.create(file);
+         ArrowStreamWriter writer = new ArrowStreamWriter(root, null, out)) {
+      writer.start();
+      for (int start = 0; start < summaries.size(); start += BATCH_SIZE) {
+        final List<ArchivedJobInfo> batch = summaries.subList(start, Math.min(summaries.size(), start + BATCH_SIZE));
+        root.allocateNew();
+        for (int i = 0; i < batch.size(); i++) {
+          final ArchivedJobInfo summary = batch.get(i);
+          setVarChar(root, JOB_ID, i, summary.job_id);
+          setInt(root, ATTEMPT_COUNT, i, summary.attempt_count);
+          setVarChar(root, USER_NAME, i, summary.user_name);
+          setVarChar(root, QUERY_TYPE, i, summary.query_type);
+          setVarChar(root, QUEUE_NAME, i, summary.queue_name);
+          setVarChar(root, STATUS, i, summary.status);
+          setTimestamp(root, START_TIME, i, summary.start_time);
+          setTimestamp(root, FINISH_TIME, i, summary.finish_time);
+          setVarChar(root, DATASET_PATH, i, summary.dataset_path);
+          setVarChar(root, QUERY_TEXT, i, summary.query_text);
+          setVarChar(root, FAILURE_INFO, i, summary.failure_info);
+          setBigInt(root, INPUT_BYTES, i, summary.input_bytes);
+          setBigInt(root, INPUT_RECORDS, i, summary.input_records);
+          setBigInt(root, OUTPUT_BYTES, i, summary.output_bytes);
+          setBigInt(root, OUTPUT_RECORDS, i, summary.output_records);
+        }
+        root.setRowCount(batch.size());
+        writer.writeBatch();
+      }
+      writer.end();
+    }
+  }
+
+  private List<ArchivedJobInfo> readFile(Path file) {
+    final List<ArchivedJobInfo> summaries = new ArrayList<>();
+    try (InputStream in = dfs.open(file);
+         ArrowStreamReader reader = new ArrowStreamReader(in, allocator)) {
+      final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      while (reader.loadNextBatch()) {
+        for (int i = 0; i < root.getRowCount(); i++) {
+          summaries.add(new ArchivedJobInfo(
+            getVarChar(root, JOB_ID, i),
+            getInt(root, ATTEMPT_COUNT, i),
+            getVarChar(root, USER_NAME, i),
+            getVarChar(root, QUERY_TYPE, i),
+            getVarChar(root, QUEUE_NAME, i),
+            getVarChar(root, STATUS, i),
+            getTimestamp(root, START_TIME, i),
+            getTimestamp(root, FINISH_TIME, i),
+            getVarChar(root, DATASET_PATH, i),
+            getVarChar(root, QUERY_TEXT, i),
+            getVarChar(root, FAILURE_INFO, i),
+            getBigInt(root, INPUT_BYTES, i),
+            getBigInt(root, INPUT_RECORDS, i),
+            getBigInt(root, OUTPUT_BYTES, i),
+            getBigInt(root, OUTPUT_RECORDS, i)));
+        }
+      }
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+        .message("Failed to read archived job summaries")
+        .addContext("path", file.toString())
+        .build(logger);
+    }
+    return summaries;
+  }
+
+  /**
+   * Summaries of a single day waiting to be written, along with the ids of the jobs they were built from.
+   */
+  private static final class PendingDay {
+    private final List<ArchivedJobInfo> summaries = new ArrayList<>();
+    private final List<JobId> jobIds = new ArrayList<>();
+
+    void add(JobId jobId, ArchivedJobInfo summary) {
+      jobIds.add(jobId);
+      summaries.add(summary);
+    }
+  }
+
+  @VisibleForTesting
+  static ArchivedJobInfo toArchivedJobInfo(JobId jobId, JobResult jobResult) {
+    final List<JobAttempt> attempts = jobResult.getAttemptsList();
+    final JobAttempt lastAttempt = attempts.get(attempts.size() - 1);
+    final JobInfo info = lastAttempt.getInfo();
+    final JobStats stats = lastAttempt.getStats();
+
+    return new ArchivedJobInfo(
+      jobId.getId(),
+      attempts.size(),
+      info.getUser(),
+      info.getQueryType() != null ? info.getQueryType().name() : null,
+      info.getResourceSchedulingInfo() != null ? info.getResourceSchedulingInfo().getQueueName() : null,
+      lastAttempt.getState() != null ? lastAttempt.getState().name() : null,
+      info.getStartTime() != null ? new Timestamp(info.getStartTime()) : null,
+      info.getFinishTime() != null ? new Timestamp(info.getFinishTime()) : null,
+      info.getDatasetPathList() != null ? PathUtils.constructFullPath(info.getDatasetPathList()) : null,
+      truncate(info.getSql()),
+      truncate(info.getFailureInfo()),
+      stats != null ? stats.getInputBytes() : null,
+      stats != null ? stats.getInputRecords() : null,
+      stats != null ? stats.getOutputBytes() : null,
+      stats != null ? stats.getOutputRecords() : null);
+  }
+
+  private static String truncate(String text) {
+    if (text == null || text.length() <= MAX_TEXT_LENGTH) {
+      return text;
+    }
+    return text.substring(0, MAX_TEXT_LENGTH);
+  }
+
+  private static void setVarChar(VectorSchemaRoot root, String name, int index, String value) {
+    final VarCharVector vector = (VarCharVector) root.getVector(name);
+    if (value == null) {
+      vector.setNull(index);
+    } else {
+      vector.setSafe(index, value.getBytes(UTF_8));
+    }
+  }
+
+  private static void setInt(VectorSchemaRoot root, String name, int index, Integer value) {
+    final IntVector vector = (IntVector) root.getVector(name);
+    if (value == null) {
+      vector.setNull(index);
+    } else {
+      vector.setSafe(index, value);
+    }
+  }
+
+  private static void setBigInt(VectorSchemaRoot root, String name, int index, Long value) {
+    final BigIntVector vector = (BigIntVector) root.getVector(name);
+    if (value == null) {
+      vector.setNull(index);
+    } else {
+      vector.setSafe(index, value);
+    }
+  }
+
+  private static void setTimestamp(VectorSchemaRoot root, String name, int index, Timestamp value) {
+    final TimeStampMilliVector vector = (TimeStampMilliVector) root.getVector(name);
+    if (value == null) {
+      vector.setNull(index);
+    } else {
+      vector.setSafe(index, value.getTime());
+    }
+  }
+
+  private static String getVarChar(VectorSchemaRoot root, String name, int index) {
+    final VarCharVector vector = (VarCharVector) root.getVector(name);
+    return vector.isNull(index) ? null : new String(vector.get(index), UTF_8);
+  }
+
+  private static Integer getInt(VectorSchemaRoot root, String name, int index) {
+    final IntVector vector = (IntVector) root.getVector(name);
+    return vector.isNull(index) ? null : vector.get(index);
+  }
+
+  private static Long getBigInt(VectorSchemaRoot root, String name, int index) {
+    final BigIntVector vector = (BigIntVector) root.getVector(name);
+    return vector.isNull(index) ? null : vector.get(index);
+  }
+
+  private static Timestamp getTimestamp(VectorSchemaRoot root, String name, int index) {
+    final TimeStampMilliVector vector = (TimeStampMilliVector) root.getVector(name);
+    return vector.isNull(index) ? null : new Timestamp(vector.get(index));
+  }
+}
@@ -15,14 +15,19 @@
  */
 package com.dremio.service.jobs;
 
+import static com.dremio.service.users.SystemUser.SYSTEM_USERNAME;
 import static org.apache.arrow.util.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.inject.Provider;
 
 import org.apache.arrow.flight.Action;
 import org.apache.arrow.flight.ActionType;
 import org.apache.arrow.flight.Criteria;
 import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightEndpoint;
 import org.apache.arrow.flight.FlightInfo;
 import org.apache.arrow.flight.FlightProducer;
 import org.apache.arrow.flight.FlightStream;
@@ -33,18 +38,28 @@ import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.TransferPair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.dremio.common.exceptions.GrpcExceptionUtil;
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchHolder;
+import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
 import com.dremio.service.job.proto.JobProtobuf;
+import com.dremio.service.job.proto.JobState;
 
 import io.grpc.Status;
 
 /**
- * Arrow Flight Producer for JobsService
+ * Arrow Flight Producer for JobsService.
+ *
+ * Serves the stored results of completed jobs. {@link #getFlightInfo} takes a descriptor whose path is the job id, and
+ * returns one endpoint per result file, so that clients can fetch the files of a large result in parallel without
+ * re-running the query. Each endpoint ticket is a {@link JobsFlightTicket} covering the rows of one file.
  */
 public class JobsFlightProducer implements FlightProducer, AutoCloseable {
   private static final Logger logger = LoggerFactory.getLogger(JobsFlightProducer.class);
@@ -83,17 +98,24 @@ public class JobsFlightProducer implements FlightProducer, AutoCloseable {
             for (int i = 0; i < schema.getFields().size(); i++) {
               ValueVector vector = root.getVector(schema.getFields().get(i).getName());
               ValueVector dataVector = holder.getData().getVectors().get(i);
-              int k = 0; // index at which value need to written in "vector" from "dataVector"
-              // iterate over values in the column to copy data
-              for (int j = holder.getStart(); j < holder.getEnd(); j++, k++ ) {
-                // Copy value at dataVector[j] into vector[k]
-                vector.copyFromSafe(j, k, dataVector);
+              if (dataVector.getClass() == vector.getClass()) {
+                // hand over the buffers of the requested range without copying values
+                final TransferPair transferPair = dataVector.makeTransferPair(vector);
+                transferPair.splitAndTransfer(holder.getStart(), numRecords);
+              } else {
+                vector.clear();
+                vector.allocateNew();
+                int k = 0; // index at which value need to written in "vector" from "dataVector"
+                // iterate over values in the column to copy data
+                for (int j = holder.getStart(); j < holder.getEnd(); j++, k++ ) {
+                  // Copy value at dataVector[j] into vector[k]
+                  vector.copyFromSafe(j, k, dataVector);
+                }
               }
               vector.setValueCount(numRecords);
               root.setRowCount(numRecords);
             }
             serverStreamListener.putNext();
-            root.allocateNew();
           }
         }
         serverStreamListener.completed();
@@ -111,9 +133,70 @@ public class JobsFlightProducer implements FlightProducer, AutoCloseable {
   }
 
   @Override
-  //TODO (DX-19234): Implement me. Standard Flight procedure requires clients call getFlightInfo before getting stream
   public FlightInfo getFlightInfo(CallContext callContext, FlightDescriptor flightDescriptor) {
-    throw Status.UNIMPLEMENTED.asRuntimeException();
+    if (flightDescriptor.isCommand() || flightDescriptor.getPath().size() != 1) {
+      throw Status.INVALID_ARGUMENT
+        .withDescription("Expected a flight descriptor with the job id as its only path element")
+        .asRuntimeException();
+    }
+
+    final JobId jobId = new JobId(flightDescriptor.getPath().get(0));
+    final Job job;
+    try {
+      job = jobsService.get().getJob(GetJobRequest.newBuilder()
+        .setJobId(jobId)
+        .setUserName(SYSTEM_USERNAME)
+        .build());
+    } catch (JobNotFoundException e) {
+      throw Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException();
+    }
+
+    final JobAttempt attempt = job.getJobAttempt();
+    if (!job.isCompleted() || attempt.getState() != JobState.COMPLETED || attempt.getInfo().getBatchSchema() == null) {
+      throw Status.FAILED_PRECONDITION
+        .withDescription(String.format("Job %s has no stored results, its state is %s", jobId.getId(), attempt.getState()))
+        .asRuntimeException();
+    }
+
+    return new FlightInfo(BatchSchema.deserialize(attempt.getInfo().getBatchSchema()), flightDescriptor,
+      getEndpoints(jobId, attempt), -1, getRecordCount(attempt));
+  }
+
+  /**
+   * One endpoint per result file, each one covering the rows stored in that file.
+   */
+  private static List<FlightEndpoint> getEndpoints(JobId jobId, JobAttempt attempt) {
+    final List<FlightEndpoint> endpoints = new ArrayList<>();
+    final List<ArrowFileMetadata> resultMetadata = attempt.getInfo().getResultMetadataList();
+    if (resultMetadata == null) {
+      return endpoints;
+    }
+
+    long offset = 0;
+    for (ArrowFileMetadata file : resultMetadata) {
+      final long recordCount = file.getRecordCount();
+      if (recordCount > 0) {
+        // tickets address rows with ints, as does the rest of the job results API
+        if (offset + recordCount > Integer.MAX_VALUE) {
+          throw Status.OUT_OF_RANGE
+            .withDescription(String.format("Job %s has more than %d rows, its results can not be fetched in parallel",
+              jobId.getId(), Integer.MAX_VALUE))
+            .asRuntimeException();
+        }
+        final JobsFlightTicket ticket = new JobsFlightTicket(jobId.getId(), (int) offset, (int) recordCount);
+        endpoints.add(new FlightEndpoint(ticket.toTicket()));
+      }
+      offset += recordCount;
+    }
+    return endpoints;
+  }
+
+  private static long getRecordCount(JobAttempt attempt) {
+    final List<ArrowFileMetadata> resultMetadata = attempt.getInfo().getResultMetadataList();
+    if (resultMetadata == null) {
+      return 0;
+    }
+    return resultMetadata.stream().mapToLong(ArrowFileMetadata::getRecordCount).sum();
   }
 
   @Override
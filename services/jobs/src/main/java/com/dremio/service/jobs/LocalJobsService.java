@@ -146,6 +146,7 @@ import com.dremio.exec.store.JobResultsStoreConfig;
 import com.dremio.exec.store.easy.arrow.ArrowFileFormat;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
 import com.dremio.exec.store.easy.arrow.ArrowFileReader;
+import com.dremio.exec.store.sys.ArchivedJobInfo;
 import com.dremio.exec.store.sys.accel.AccelerationDetailsPopulator;
 import com.dremio.exec.store.sys.accel.AccelerationManager;
 import com.dremio.exec.testing.ControlsInjector;
@@ -301,6 +302,7 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
   private NamespaceService namespaceService;
   private String storageName;
   private JobResultsStore jobResultsStore;
+  private JobSummaryArchive jobSummaryArchive;
   private Cancellable jobResultsCleanupTask;
   private Cancellable jobProfilesCleanupTask;
   private Cancellable abandonLocalJobsTask;
@@ -371,6 +373,8 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
     final JobResultsStoreConfig resultsStoreConfig = jobResultsStoreConfig.get();
     this.storageName = resultsStoreConfig.getStorageName();
     this.jobResultsStore = jobResultsStoreProvider.get();
+    this.jobSummaryArchive = new JobSummaryArchive(resultsStoreConfig.getFileSystem(),
+      JobSummaryArchive.getArchiveLocation(resultsStoreConfig.getStoragePath()), allocator);
     this.jobTelemetryServiceStub = jobTelemetryClientProvider.get().getBlockingStub();
 
     // if Dremio process died, clean up
@@ -1088,6 +1092,14 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
     return java.util.Optional.empty();
   }
 
+  @Override
+  public Iterable<ArchivedJobInfo> getArchivedJobs() {
+    if (jobSummaryArchive == null) {
+      return Collections.emptyList();
+    }
+    return jobSummaryArchive.read();
+  }
+
   private static class JobConverter implements DocumentConverter<JobId, JobResult> {
 
     @Override
@@ -2191,7 +2203,7 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
   }
 
   /**
-   * Removes the job details and profile
+   * Removes the job details and profile, after rolling jobs older than the archive age into the job summary archive
    */
   class JobProfilesCleanupTask implements Runnable {
     private final OnlineProfileCleanup onlineProfileCleanup = new OnlineProfileCleanup();
@@ -2205,10 +2217,46 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
       //obtain the max age values during each cleanup as the values could change.
       final OptionManager optionManager = optionManagerProvider.get();
       final long maxAgeInDays = optionManager.getOption(ExecConstants.JOB_MAX_AGE_IN_DAYS);
+      final long archiveAgeInDays = optionManager.getOption(ExecConstants.JOB_ARCHIVE_AGE_IN_DAYS);
       if (maxAgeInDays != DISABLE_CLEANUP_VALUE) {
+        if (archiveAgeInDays != DISABLE_CLEANUP_VALUE && archiveAgeInDays < maxAgeInDays) {
+          archiveOldJobs(TimeUnit.DAYS.toMillis(archiveAgeInDays), TimeUnit.DAYS.toMillis(maxAgeInDays));
+        }
         deleteOldJobsAndProfiles(onlineProfileCleanup, kvStoreProvider.get() ,TimeUnit.DAYS.toMillis(maxAgeInDays));
       }
     }
+
+    private void archiveOldJobs(long archiveAgeMs, long maxAgeMs) {
+      final long now = System.currentTimeMillis();
+      final LegacyFindByCondition oldJobs = getOldJobsCondition(now - archiveAgeMs)
+        .setPageSize(MAX_NUMBER_JOBS_TO_FETCH);
+      try {
+        final long jobsArchived = jobSummaryArchive.archive(store.find(oldJobs), this::removeArchivedJob);
+        jobSummaryArchive.purge(now - maxAgeMs);
+        logger.debug("Job archive task completed with [{}] jobs archived.", jobsArchived);
+      } catch (IOException e) {
+        // jobs that were not archived stay in the store, and are retried on the next run
+        logger.warn("Failed to archive old jobs.", e);
+      }
+    }
+
+    private void removeArchivedJob(JobId jobId) {
+      final JobResult result = store.get(jobId);
+      if (result == null) {
+        return;
+      }
+
+      for (JobAttempt attempt : listNotNull(result.getAttemptsList())) {
+        try {
+          onlineProfileCleanup.go(AttemptIdUtils.fromString(attempt.getAttemptId()));
+        } catch (Exception e) {
+          // don't fail on miss.
+          logger.debug("Failed to delete profile with attempt id: {}.", attempt.getAttemptId(), e);
+        }
+      }
+      jobResultsStore.cleanup(jobId);
+      store.delete(jobId);
+    }
   }
 
   /**
@@ -343,6 +343,18 @@ public class TestArrowFileReader extends DremioTest {
     }
   }
 
+  @Test
+  public void floorIndex() {
+    // ranges of 5, 0, 0, 3 and 2 records
+    final long[] startRows = new long[] {0, 5, 5, 5, 8};
+    assertEquals(0, ArrowFileReader.floorIndex(startRows, 0));
+    assertEquals(0, ArrowFileReader.floorIndex(startRows, 4));
+    assertEquals(3, ArrowFileReader.floorIndex(startRows, 5));
+    assertEquals(3, ArrowFileReader.floorIndex(startRows, 7));
+    assertEquals(4, ArrowFileReader.floorIndex(startRows, 9));
+    assertEquals(0, ArrowFileReader.floorIndex(new long[0], 0));
+  }
+
   @Test
   public void writeAndReadEmptyListVectors() throws Exception {
     try (final BufferAllocator allocator = allocatorRule.newAllocator("test-arrow-file-reader", 0, Long.MAX_VALUE);
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.store.sys.ArchivedJobInfo;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobResult;
+import com.dremio.service.job.proto.JobState;
+import com.dremio.service.job.proto.JobStats;
+import com.dremio.service.job.proto.QueryType;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for {@link JobSummaryArchive}
+ */
+public class TestJobSummaryArchive extends DremioTest {
+  private static final Configuration FS_CONF = new Configuration();
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+  static {
+    // to accommodate MapR profile that sets default FS to maprfs, while we use local FS for testing here
+    FS_CONF.set("fs.default.name", "file:///");
+  }
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Test
+  public void archiveAndReadBack() throws Exception {
+    final long now = System.currentTimeMillis();
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-summary-archive", 0, Long.MAX_VALUE)) {
+      final FileSystem fs = HadoopFileSystem.getLocal(FS_CONF);
+      final Path location = Path.of(folder.newFolder().toURI()).resolve(JobSummaryArchive.ARCHIVE_DIR_NAME);
+      final JobSummaryArchive archive = new JobSummaryArchive(fs, location, allocator);
+
+      final List<Entry<JobId, JobResult>> jobs = Arrays.asList(
+        newJob("job1", now - 3 * DAY, JobState.COMPLETED),
+        newJob("job2", now - 2 * DAY, JobState.FAILED),
+        newJob("job3", now - 2 * DAY, JobState.CANCELED));
+
+      final List<JobId> removed = new ArrayList<>();
+      assertEquals(3, archive.archive(jobs, removed::add));
+      assertEquals(3, removed.size());
+
+      final List<ArchivedJobInfo> summaries = Lists.newArrayList(archive.read());
+      assertEquals(3, summaries.size());
+      // oldest day first
+      final ArchivedJobInfo first = summaries.get(0);
+      assertEquals("job1", first.job_id);
+      assertEquals(Integer.valueOf(1), first.attempt_count);
+      assertEquals("user", first.user_name);
+      assertEquals("UI_RUN", first.query_type);
+      assertEquals("COMPLETED", first.status);
+      assertEquals("space.ds", first.dataset_path);
+      assertEquals("select * from job1", first.query_text);
+      assertEquals(now - 3 * DAY, first.finish_time.getTime());
+      assertEquals(Long.valueOf(42L), first.output_records);
+      assertNull(first.queue_name);
+
+      // drop everything older than 2 days ago
+      archive.purge(now - 2 * DAY);
+      final List<ArchivedJobInfo> remaining = Lists.newArrayList(archive.read());
+      assertEquals(2, remaining.size());
+      assertTrue(remaining.stream().noneMatch(s -> s.job_id.equals("job1")));
+    }
+  }
+
+  @Test
+  public void emptyArchive() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-summary-archive", 0, Long.MAX_VALUE)) {
+      final FileSystem fs = HadoopFileSystem.getLocal(FS_CONF);
+      final Path location = Path.of(folder.newFolder().toURI()).resolve(JobSummaryArchive.ARCHIVE_DIR_NAME);
+      final JobSummaryArchive archive = new JobSummaryArchive(fs, location, allocator);
+
+      assertFalse(archive.read().iterator().hasNext());
+      archive.purge(System.currentTimeMillis());
+      assertEquals(0, archive.archive(new ArrayList<>(), jobId -> { }));
+    }
+  }
+
+  @Test
+  public void failedArchiveIsNotVisible() throws Exception {
+    final long now = System.currentTimeMillis();
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-summary-archive", 0, Long.MAX_VALUE)) {
+      final FileSystem fs = HadoopFileSystem.getLocal(FS_CONF);
+      final Path location = Path.of(folder.newFolder().toURI()).resolve(JobSummaryArchive.ARCHIVE_DIR_NAME);
+      final JobSummaryArchive archive = new JobSummaryArchive(fs, location, allocator);
+
+      final List<Entry<JobId, JobResult>> jobs = Arrays.asList(
+        newJob("job1", now - 3 * DAY, JobState.COMPLETED),
+        newJob("job2", now - 2 * DAY, JobState.COMPLETED));
+
+      // a file in place of the directory of the second day makes writing that day fail
+      final Path blocker = location.resolve(day(now - 2 * DAY));
+      fs.mkdirs(location);
+      fs.create(blocker).close();
+
+      final List<JobId> removed = new ArrayList<>();
+      try {
+        archive.archive(jobs, removed::add);
+        fail("archiving should fail");
+      } catch (IOException e) {
+        // expected
+      }
+      assertTrue(removed.isEmpty());
+      fs.delete(blocker, false);
+      assertFalse(archive.read().iterator().hasNext());
+
+      // the next run archives the same jobs, without duplicates
+      assertEquals(2, archive.archive(jobs, removed::add));
+      assertEquals(2, Lists.newArrayList(archive.read()).size());
+    }
+  }
+
+  @Test
+  public void partiallyRenamedArchiveIsNotDuplicated() throws Exception {
+    final long now = System.currentTimeMillis();
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-summary-archive", 0, Long.MAX_VALUE)) {
+      final String failingDay = day(now - 2 * DAY);
+      final AtomicBoolean failRename = new AtomicBoolean(true);
+      // renaming the file of the second day fails, after the first day has already been made visible
+      final FileSystem fs = new FilterFileSystem(HadoopFileSystem.getLocal(FS_CONF)) {
+        @Override
+        public boolean rename(Path src, Path dst) throws IOException {
+          if (failRename.get() && src.getParent().getName().equals(failingDay)) {
+            return false;
+          }
+          return super.rename(src, dst);
+        }
+      };
+      final Path location = Path.of(folder.newFolder().toURI()).resolve(JobSummaryArchive.ARCHIVE_DIR_NAME);
+      final JobSummaryArchive archive = new JobSummaryArchive(fs, location, allocator);
+
+      final List<Entry<JobId, JobResult>> jobs = Arrays.asList(
+        newJob("job1", now - 3 * DAY, JobState.COMPLETED),
+        newJob("job2", now - 2 * DAY, JobState.COMPLETED));
+
+      final List<JobId> removed = new ArrayList<>();
+      try {
+        archive.archive(jobs, removed::add);
+        fail("archiving should fail");
+      } catch (IOException e) {
+        // expected
+      }
+      // the visible day was handed over, the other one stays in the store
+      assertEquals(Collections.singletonList(new JobId("job1")), removed);
+      assertEquals(1, Lists.newArrayList(archive.read()).size());
+      try (DirectoryStream<FileAttributes> leftovers = fs.list(location.resolve(failingDay))) {
+        assertFalse(leftovers.iterator().hasNext());
+      }
+
+      // the next run only sees the jobs left in the store
+      failRename.set(false);
+      assertEquals(1, archive.archive(Collections.singletonList(jobs.get(1)), removed::add));
+      final List<ArchivedJobInfo> summaries = Lists.newArrayList(archive.read());
+      assertEquals(2, summaries.size());
+      assertEquals("job1", summaries.get(0).job_id);
+      assertEquals("job2", summaries.get(1).job_id);
+    }
+  }
+
+  @Test
+  public void jobWithoutTimesArchivedToday() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-summary-archive", 0, Long.MAX_VALUE)) {
+      final FileSystem fs = HadoopFileSystem.getLocal(FS_CONF);
+      final Path location = Path.of(folder.newFolder().toURI()).resolve(JobSummaryArchive.ARCHIVE_DIR_NAME);
+      final JobSummaryArchive archive = new JobSummaryArchive(fs, location, allocator);
+
+      final Entry<JobId, JobResult> job = newJob("job1", 0, JobState.FAILED);
+      job.getValue().getAttemptsList().get(0).getInfo().setStartTime(null).setFinishTime(null);
+      assertEquals(1, archive.archive(Collections.singletonList(job), jobId -> { }));
+
+      // kept until it is older than the retention period
+      archive.purge(System.currentTimeMillis() - DAY);
+      assertEquals(1, Lists.newArrayList(archive.read()).size());
+    }
+  }
+
+  private static String day(long time) {
+    return Instant.ofEpochMilli(time).atZone(ZoneOffset.UTC).toLocalDate().toString();
+  }
+
+  private static Entry<JobId, JobResult> newJob(String id, long finishTime, JobState state) {
+    final JobId jobId = new JobId(id);
+    final JobInfo info = new JobInfo(jobId, "select * from " + id, "v1", QueryType.UI_RUN)
+      .setUser("user")
+      .setStartTime(finishTime - 1000)
+      .setFinishTime(finishTime)
+      .setDatasetPathList(Arrays.asList("space", "ds"));
+    final JobAttempt attempt = new JobAttempt()
+      .setState(state)
+      .setInfo(info)
+      .setStats(new JobStats().setOutputRecords(42L));
+    return new SimpleEntry<>(jobId, new JobResult().setAttemptsList(Lists.newArrayList(attempt)));
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightInfo;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobState;
+import com.dremio.service.job.proto.QueryType;
+import com.dremio.test.AllocatorRule;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+/**
+ * Tests for {@link JobsFlightProducer#getFlightInfo}
+ */
+public class TestJobsFlightProducer {
+  private static final BatchSchema SCHEMA = BatchSchema.newBuilder()
+    .addField(CompleteType.BIGINT.toField("id"))
+    .build();
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Test
+  public void oneEndpointPerResultFile() throws Exception {
+    final JobId jobId = new JobId("job1");
+    final LocalJobsService jobsService = mockJobsService(jobId, JobState.COMPLETED);
+
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-jobs-flight-producer", 0, Long.MAX_VALUE);
+         JobsFlightProducer producer = new JobsFlightProducer(() -> jobsService, allocator)) {
+      final FlightInfo info = producer.getFlightInfo(null, FlightDescriptor.path(jobId.getId()));
+
+      assertEquals(15, info.getRecords());
+      assertEquals(SCHEMA.getFields(), info.getSchema().getFields());
+      // the empty file has no endpoint
+      assertEquals(2, info.getEndpoints().size());
+
+      final JobsFlightTicket first = JobsFlightTicket.from(info.getEndpoints().get(0).getTicket());
+      assertEquals("job1", first.getJobId());
+      assertEquals(0, first.getOffset());
+      assertEquals(10, first.getLimit());
+
+      final JobsFlightTicket second = JobsFlightTicket.from(info.getEndpoints().get(1).getTicket());
+      assertEquals(10, second.getOffset());
+      assertEquals(5, second.getLimit());
+    }
+  }
+
+  @Test
+  public void failedJobHasNoFlightInfo() throws Exception {
+    final JobId jobId = new JobId("job2");
+    final LocalJobsService jobsService = mockJobsService(jobId, JobState.FAILED);
+
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-jobs-flight-producer", 0, Long.MAX_VALUE);
+         JobsFlightProducer producer = new JobsFlightProducer(() -> jobsService, allocator)) {
+      producer.getFlightInfo(null, FlightDescriptor.path(jobId.getId()));
+      fail("expected getFlightInfo to fail");
+    } catch (StatusRuntimeException e) {
+      assertEquals(Status.Code.FAILED_PRECONDITION, e.getStatus().getCode());
+    }
+  }
+
+  @Test
+  public void oversizedResultIsRejected() throws Exception {
+    final JobId jobId = new JobId("job3");
+    final LocalJobsService jobsService = mockJobsService(jobId, JobState.COMPLETED, Arrays.asList(
+      new ArrowFileMetadata().setPath("0_0_0.dremarrow1").setRecordCount((long) Integer.MAX_VALUE),
+      new ArrowFileMetadata().setPath("0_1_0.dremarrow1").setRecordCount(1L)));
+
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-jobs-flight-producer", 0, Long.MAX_VALUE);
+         JobsFlightProducer producer = new JobsFlightProducer(() -> jobsService, allocator)) {
+      producer.getFlightInfo(null, FlightDescriptor.path(jobId.getId()));
+      fail("expected getFlightInfo to fail");
+    } catch (StatusRuntimeException e) {
+      assertEquals(Status.Code.OUT_OF_RANGE, e.getStatus().getCode());
+    }
+  }
+
+  private static LocalJobsService mockJobsService(JobId jobId, JobState state) throws JobNotFoundException {
+    return mockJobsService(jobId, state, Arrays.asList(
+      new ArrowFileMetadata().setPath("0_0_0.dremarrow1").setRecordCount(10L),
+      new ArrowFileMetadata().setPath("0_1_0.dremarrow1").setRecordCount(0L),
+      new ArrowFileMetadata().setPath("0_2_0.dremarrow1").setRecordCount(5L)));
+  }
+
+  private static LocalJobsService mockJobsService(JobId jobId, JobState state, List<ArrowFileMetadata> resultMetadata)
+      throws JobNotFoundException {
+    final JobInfo info = new JobInfo(jobId, "select * from t", "v1", QueryType.FLIGHT)
+      .setBatchSchema(SCHEMA.toByteString())
+      .setResultMetadataList(resultMetadata);
+    final Job job = new Job(jobId, new JobAttempt().setState(state).setInfo(info));
+    job.setCompleted(true);
+
+    final LocalJobsService jobsService = mock(LocalJobsService.class);
+    when(jobsService.getJob(any(GetJobRequest.class))).thenReturn(job);
+    return jobsService;
+  }
+}